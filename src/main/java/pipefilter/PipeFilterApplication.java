@@ -1,11 +1,20 @@
 package pipefilter;
 
+import pipefilter.cache.CachedCorpusProcessor;
+import pipefilter.cache.TermCountCache;
 import pipefilter.exception.PipeFilterException;
+import pipefilter.pipe.WaitStrategy;
 import pipefilter.pipeline.Pipeline;
+import pipefilter.pump.ChannelPump;
 import pipefilter.pipeline.PipelineFactory;
+import pipefilter.server.PipelineServer;
 
 import static pipefilter.config.Configuration.*;
 
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -40,38 +49,196 @@ public class PipeFilterApplication {
     private static final Map<Integer, List<String>> frequencies =  new TreeMap<>(Collections.reverseOrder());
 
     /**
-     * absolute path of the input file
+     * absolute path of the input file (or "server" to run as a server,
+     * or a corpus directory if there is a cache, or "-" for the standard input)
      */
     private static String inputFile;
     /**
      * serial | parallel
      */
     private static String pipelineType = "serial";
+    /**
+     * text-streamer (files) | channel-streamer (standard input "-" and named pipes) | async-text-streamer (files, read ahead)
+     */
+    private static String pump = "text-streamer";
+    /**
+     * strings | ids (terms flow as dictionary ids after stemming)
+     */
+    private static String terms = "strings";
+    /**
+     * strings (a String per token) | slices (batches of slices of a shared buffer)
+     * | bytes (batches of slices of the undecoded UTF-8 bytes of the file)
+     */
+    private static String tokens = "strings";
+    /**
+     * frequency-term-inverter (the whole vocabulary) | top-k-term-collector (TOP_K terms only)
+     * | term-frequency-file-writer (the whole vocabulary, also written to TERM_FREQUENCY_FILE)
+     */
+    private static String sink = "frequency-term-inverter";
+    /**
+     * term-frequency-counter (exact) | approximate-term-frequency-counter (constant memory)
+     * | spilling-term-frequency-counter (exact, bounded memory, spills to disk)
+     */
+    private static String counter = "term-frequency-counter";
+    /**
+     * Follow the input file as it grows and count terms in time windows
+     */
+    private static boolean windowed = false;
+    /**
+     * Additional sinks that receive the same term frequencies as the sink (tee)
+     */
+    private static String[] teeSinks = null;
 
     public static void main(String[] args) throws InterruptedException {
 
         try {
             // Extract filename and options
             parseProgramOptions(args);
+            if(inputFile.equals(ChannelPump.STANDARD_INPUT)) {
+                pump = "channel-streamer";
+            }
+            if(terms.equalsIgnoreCase("ids") && !sink.equals("frequency-term-inverter")) {
+                throw new PipeFilterException("Invalid program options: topk and output cannot be combined with terms ids.");
+            }
+            if(terms.equalsIgnoreCase("ids") && !counter.equals("term-frequency-counter")) {
+                throw new PipeFilterException("Invalid program options: counting cannot be combined with terms ids.");
+            }
+            if(tokens.equalsIgnoreCase("bytes") && !pump.equals("text-streamer")) {
+                throw new PipeFilterException("Invalid program options: tokens bytes needs an input file (not a stream) and reads it with its own pump (no source async).");
+            }
+            if(!tokens.equalsIgnoreCase("strings") && (terms.equalsIgnoreCase("ids") || windowed || !counter.equals("term-frequency-counter"))) {
+                throw new PipeFilterException("Invalid program options: tokens slices and bytes cannot be combined with terms ids, window or counting.");
+            }
+            if(teeSinks != null && (terms.equalsIgnoreCase("ids") || windowed || inputFile.equals("server") || CACHE_DIRECTORY != null || !pipelineType.equalsIgnoreCase("serial"))) {
+                throw new PipeFilterException("Invalid program options: tee needs a serial pipeline of terms strings (no window, server or cache).");
+            }
+
+            /*
+             * Every counter but the term-frequency-counter puts each term once,
+             * with its final count: its terms are only appended to the lists
+             * of their frequencies.
+             */
+            final String finalSink = sink.equals("frequency-term-inverter") ? "final-frequency-term-inverter" : sink;
 
             // The components that make up the pipeline (in that order)
-            final String[] assembly = new String[] {
-                    "text-streamer",
-                    "tokenizer",
-                    "text-preprocessor",
-                    "stop-word-remover",
-                    "en-porter-stemmer",
-                    "term-frequency-counter",
-                    "frequency-term-inverter"
-            };
-
-            // Construct the pipeline.
-            final Pipeline pipeline = PipelineFactory.build(inputFile, frequencies, assembly, pipelineType);
-
-            // Start the pipeline (with timing instrumentation code)
-            long start = System.currentTimeMillis();
-            pipeline.run();
-            long responseTime = System.currentTimeMillis() - start;
+            final String[] assembly;
+            if(windowed) {
+                /*
+                 * Streaming mode: follow the file and count terms in time windows.
+                 */
+                if(terms.equalsIgnoreCase("ids") || !sink.equals("frequency-term-inverter") || !counter.equals("term-frequency-counter")) {
+                    throw new PipeFilterException("Invalid program options: window cannot be combined with terms ids, topk, output or counting.");
+                }
+                assembly = new String[] {
+                        "log-tailer",
+                        "tokenizer",
+                        "text-preprocessor",
+                        "trie-stop-word-remover",
+                        "en-porter-stemmer",
+                        "windowed-term-counter"
+                };
+            } else if(terms.equalsIgnoreCase("ids")) {
+                assembly = new String[] {
+                        pump,
+                        "tokenizer",
+                        "text-preprocessor",
+                        "trie-stop-word-remover",
+                        "en-porter-stemmer-term-ids",
+                        "term-id-frequency-counter",
+                        "term-id-frequency-inverter"
+                };
+            } else if(tokens.equalsIgnoreCase("bytes")) {
+                assembly = new String[] {
+                        "utf8-streamer",
+                        "utf8-tokenizer",
+                        "utf8-text-preprocessor",
+                        "utf8-stop-word-remover",
+                        "utf8-porter-stemmer",
+                        "utf8-term-frequency-counter",
+                        finalSink
+                };
+            } else if(tokens.equalsIgnoreCase("slices")) {
+                assembly = new String[] {
+                        pump,
+                        "slice-tokenizer",
+                        "slice-text-preprocessor",
+                        "slice-stop-word-remover",
+                        "slice-porter-stemmer",
+                        "slice-term-frequency-counter",
+                        finalSink
+                };
+            } else {
+                assembly = new String[] {
+                        pump,
+                        "tokenizer",
+                        "text-preprocessor",
+                        "trie-stop-word-remover",
+                        "en-porter-stemmer",
+                        counter,
+                        counter.equals("term-frequency-counter") ? sink : finalSink
+                };
+            }
+
+            /*
+             * Server mode: keep the JVM, the components and the
+             * threads warm and process files as they are requested.
+             */
+            if(inputFile.equals("server")) {
+                PRINT_SUMMARY = false;
+                new PipelineServer(SERVER_PORT, assembly, pipelineType).serve();
+                return;
+            }
+
+            long start;
+            long responseTime;
+            if(CACHE_DIRECTORY != null) {
+                /*
+                 * Incremental mode: only the files (of a corpus directory)
+                 * that are not in the cache go through the pipeline.
+                 */
+                if(pump.equals("channel-streamer")) {
+                    throw new PipeFilterException("Invalid program options: cache needs input files (not a stream).");
+                }
+                if(!sink.equals("frequency-term-inverter") && !sink.equals("term-frequency-file-writer")) {
+                    throw new PipeFilterException("Invalid program options: cache needs every term counted (not topk).");
+                }
+                if(counter.equals("approximate-term-frequency-counter")) {
+                    throw new PipeFilterException("Invalid program options: cache needs exact counts (not counting approximate).");
+                }
+                PRINT_SUMMARY = false;
+                final CachedCorpusProcessor processor = new CachedCorpusProcessor(new TermCountCache(Paths.get(CACHE_DIRECTORY)), assembly, pipelineType);
+                start = System.currentTimeMillis();
+                processor.process(Paths.get(inputFile), frequencies);
+                responseTime = System.currentTimeMillis() - start;
+                System.out.printf("Files processed: %d, files taken from the cache: %d%n", processor.misses(), processor.hits());
+                Utilities.printMostCommonTerms(frequencies);
+            } else {
+                // Construct the pipeline.
+                final Pipeline pipeline;
+                if(teeSinks != null) {
+                    /*
+                     * The counts go to the sink and to every tee sink (each with its own output).
+                     */
+                    final String[] trunk = Arrays.copyOf(assembly, assembly.length - 1);
+                    final String[][] branches = new String[teeSinks.length + 1][];
+                    final List<Map<Integer, List<String>>> outputs = new ArrayList<>();
+                    branches[0] = new String[] { assembly[assembly.length - 1] };
+                    outputs.add(frequencies);
+                    for(int i = 0; i < teeSinks.length; i++) {
+                        branches[i + 1] = new String[] { teeSinks[i] };
+                        outputs.add(new TreeMap<>(Collections.reverseOrder()));
+                    }
+                    pipeline = PipelineFactory.build(inputFile, outputs, trunk, branches, null);
+                } else {
+                    pipeline = PipelineFactory.build(inputFile, frequencies, assembly, pipelineType);
+                }
+
+                // Start the pipeline (with timing instrumentation code)
+                start = System.currentTimeMillis();
+                pipeline.run();
+                responseTime = System.currentTimeMillis() - start;
+                pipeline.shutdown();
+            }
 
             /*
              * Artificial time delay so that other threads
@@ -96,17 +263,58 @@ public class PipeFilterApplication {
     /**
      * Parses program arguments and options.
      *
-     * 1st arg: file name
+     * 1st arg: file name (or "server" to start the pipeline server)
      * rest of arguments should be in the form of:
      *     key1 value1 key2 value2 key3 value3
      *
      * Recognized keys (in no particular order):
-     *    capacity : pipe capacity  - integer
+     *    capacity : pipe capacity  - integer | adaptive
+     *    budget   : total capacity of adaptive pipes - integer
      *    type     : pipe type - serial | parallel
-     *    streams  : number of parallel streams - integer
+     *    streams  : number of parallel streams - integer | filter=integer,filter=integer,...
+     *    scaling  : parallel streams fixed or adjusted at runtime - static | dynamic
+     *    fanin    : how parallel streams are merged - serializer | direct (the instances share the next input pipe)
+     *    fanout   : how parallel streams are fed - parallelizer | direct (the instances share the previous output pipe)
+     *    order    : order of the stream through parallel stages - any | preserve
+     *    wait     : how threads wait on pipes - block | park | yield | spin | component=strategy,component=strategy,...
+     *    port     : the loopback port of the pipeline server - integer
+     *    terms    : how terms flow after stemming - strings | ids
+     *    tokens   : how tokens flow - strings | slices (batches of slices of a shared buffer) | bytes (undecoded UTF-8)
+     *    stopwords: a file of stop words that replaces the built-in list - path
+     *    topk     : keep only the top k terms instead of the whole vocabulary - integer
+     *    counting : exact counts, Count-Min Sketch estimates or exact counts spilled to disk - exact | approximate | spill
+     *    spillmemory : memory budget of the spilling counter in bytes - integer
+     *    counts   : where the term-frequency-counter keeps its counts - heap | off-heap
+     *    output   : write the term frequencies to a binary file - path
+     *    cache    : directory of cached term counts; the input may then be a corpus directory - path
+     *    source   : how the input is read - file | stream (standard input "-" or a named pipe) | async (file, read ahead)
+     *    window   : follow the input file and report the top terms of windows of this many ms - integer
+     *    slide    : start a (sliding) window every this many ms (default: window, i.e. tumbling) - integer
+     *    tee      : more sinks that receive the same term frequencies - sink,sink,...
      *
      * Example:
      *    java -jar executable.jar filename capacity 100 type serial streams 4
+     *    java -jar executable.jar filename capacity adaptive budget 65536
+     *    java -jar executable.jar filename type parallel streams en-porter-stemmer=4,tokenizer=1 scaling dynamic
+     *    java -jar executable.jar filename type parallel fanin direct fanout direct
+     *    java -jar executable.jar filename type parallel order preserve
+     *    java -jar executable.jar filename wait park
+     *    java -jar executable.jar filename wait en-porter-stemmer=spin,term-frequency-counter=yield
+     *    java -jar executable.jar server port 5480
+     *    java -jar executable.jar filename terms ids
+     *    java -jar executable.jar filename tokens slices
+     *    java -jar executable.jar filename tokens bytes
+     *    java -jar executable.jar filename stopwords /path/to/stopwords.txt
+     *    java -jar executable.jar filename topk 300
+     *    java -jar executable.jar filename counting approximate
+     *    java -jar executable.jar filename counting spill spillmemory 16777216
+     *    java -jar executable.jar filename counts off-heap
+     *    java -jar executable.jar filename output /path/to/term-frequencies.bin
+     *    java -jar executable.jar /path/to/corpus cache /path/to/cache
+     *    zcat corpus.txt.gz | java -jar executable.jar -
+     *    java -jar executable.jar /path/to/fifo source stream
+     *    java -jar executable.jar /var/log/app.log window 60000 slide 10000
+     *    java -jar executable.jar filename topk 100 tee term-frequency-file-writer
      *
      * @param args program arguments
      */
@@ -119,12 +327,12 @@ public class PipeFilterApplication {
             return;
         }
         /*
-         * if args.length > 1 then it must be 3 or 5 or 7
+         * if args.length > 1 then it must be odd (key value pairs)
          * filename  capacity 100     type   serial     streams     3
          * --------  -------- ---     ----   ------     -------     -
          *    0         1      2        3      4           5        6
          */
-        if(args.length != 3 && args.length != 5 & args.length != 7) {
+        if(args.length % 2 == 0) {
             throw new PipeFilterException("Invalid program options.");
         }
 
@@ -142,9 +350,149 @@ public class PipeFilterApplication {
                     throw new PipeFilterException("Invalid program option: " + key + "=" + value);
                 }
                 pipelineType = value;
+            } else if(key.equalsIgnoreCase("capacity") && value.equalsIgnoreCase("adaptive")) {
+                ADAPTIVE_PIPE_CAPACITY = true;
+            } else if(key.equalsIgnoreCase("window") || key.equalsIgnoreCase("slide")) {
+                try {
+                    final long number = Long.parseLong(value);
+                    if(number < 1) {
+                        throw new IllegalArgumentException();
+                    }
+                    if(key.equalsIgnoreCase("window")) {
+                        WINDOW_SIZE = number;
+                        if(!options.containsKey("slide")) {
+                            WINDOW_SLIDE = number;
+                        }
+                    } else {
+                        WINDOW_SLIDE = number;
+                    }
+                    windowed = true;
+                } catch (IllegalArgumentException iae) {
+                    throw new PipeFilterException("Invalid program option: " + key + "=" + value);
+                }
+            } else if(key.equalsIgnoreCase("budget") || key.equalsIgnoreCase("spillmemory")) {
+                try {
+                    final long number = Long.parseLong(value);
+                    if(number < 1) {
+                        throw new IllegalArgumentException();
+                    }
+                    if(key.equalsIgnoreCase("budget")) {
+                        PIPE_CAPACITY_BUDGET = number;
+                    } else {
+                        SPILL_MEMORY_BUDGET = number;
+                    }
+                } catch (IllegalArgumentException iae) {
+                    throw new PipeFilterException("Invalid program option: " + key + "=" + value);
+                }
+            } else if(key.equalsIgnoreCase("streams") && value.contains("=")) {
+                /*
+                 * per filter degrees of parallelism
+                 */
+                for(String entry : value.split(",")) {
+                    final String[] pair = entry.split("=");
+                    try {
+                        final int number = Integer.parseInt(pair[1]);
+                        if(pair.length != 2 || number < 1) {
+                            throw new IllegalArgumentException();
+                        }
+                        PARALLEL_INSTANCES.put(pair[0], number);
+                    } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                        throw new PipeFilterException("Invalid program option: " + key + "=" + value);
+                    }
+                }
+            } else if(key.equalsIgnoreCase("terms")) {
+                if(!value.equalsIgnoreCase("strings") && !value.equalsIgnoreCase("ids")) {
+                    throw new PipeFilterException("Invalid program option: " + key + "=" + value);
+                }
+                terms = value;
+            } else if(key.equalsIgnoreCase("tokens")) {
+                if(!value.equalsIgnoreCase("strings") && !value.equalsIgnoreCase("slices") && !value.equalsIgnoreCase("bytes")) {
+                    throw new PipeFilterException("Invalid program option: " + key + "=" + value);
+                }
+                tokens = value;
+            } else if(key.equalsIgnoreCase("counting")) {
+                if(value.equalsIgnoreCase("exact")) {
+                    counter = "term-frequency-counter";
+                } else if(value.equalsIgnoreCase("approximate")) {
+                    counter = "approximate-term-frequency-counter";
+                } else if(value.equalsIgnoreCase("spill")) {
+                    counter = "spilling-term-frequency-counter";
+                } else {
+                    throw new PipeFilterException("Invalid program option: " + key + "=" + value);
+                }
+            } else if(key.equalsIgnoreCase("counts")) {
+                if(!value.equalsIgnoreCase("heap") && !value.equalsIgnoreCase("off-heap")) {
+                    throw new PipeFilterException("Invalid program option: " + key + "=" + value);
+                }
+                TERM_COUNT_STORE = value;
+            } else if(key.equalsIgnoreCase("output")) {
+                TERM_FREQUENCY_FILE = value;
+                sink = "term-frequency-file-writer";
+            } else if(key.equalsIgnoreCase("source")) {
+                if(value.equalsIgnoreCase("file")) {
+                    pump = "text-streamer";
+                } else if(value.equalsIgnoreCase("stream")) {
+                    pump = "channel-streamer";
+                } else if(value.equalsIgnoreCase("async")) {
+                    pump = "async-text-streamer";
+                } else {
+                    throw new PipeFilterException("Invalid program option: " + key + "=" + value);
+                }
+            } else if(key.equalsIgnoreCase("cache")) {
+                CACHE_DIRECTORY = value;
+            } else if(key.equalsIgnoreCase("tee")) {
+                teeSinks = value.split(",");
+            } else if(key.equalsIgnoreCase("stopwords")) {
+                if(!Files.isReadable(Paths.get(value))) {
+                    throw new PipeFilterException("Invalid program option: " + key + "=" + value);
+                }
+                STOP_WORDS_FILE = value;
+            } else if(key.equalsIgnoreCase("scaling")) {
+                if(!value.equalsIgnoreCase("static") && !value.equalsIgnoreCase("dynamic")) {
+                    throw new PipeFilterException("Invalid program option: " + key + "=" + value);
+                }
+                DYNAMIC_PARALLELISM = value.equalsIgnoreCase("dynamic");
+            } else if(key.equalsIgnoreCase("fanin")) {
+                if(!value.equalsIgnoreCase("serializer") && !value.equalsIgnoreCase("direct")) {
+                    throw new PipeFilterException("Invalid program option: " + key + "=" + value);
+                }
+                FAN_IN = value.toLowerCase();
+            } else if(key.equalsIgnoreCase("fanout")) {
+                if(!value.equalsIgnoreCase("parallelizer") && !value.equalsIgnoreCase("direct")) {
+                    throw new PipeFilterException("Invalid program option: " + key + "=" + value);
+                }
+                FAN_OUT = value.toLowerCase();
+            } else if(key.equalsIgnoreCase("order")) {
+                if(!value.equalsIgnoreCase("any") && !value.equalsIgnoreCase("preserve")) {
+                    throw new PipeFilterException("Invalid program option: " + key + "=" + value);
+                }
+                PRESERVE_ORDER = value.equalsIgnoreCase("preserve");
+            } else if(key.equalsIgnoreCase("wait")) {
+                try {
+                    if(value.contains("=")) {
+                        /*
+                         * per component strategies (of the pipes the components take from)
+                         */
+                        for(String entry : value.split(",")) {
+                            final String[] pair = entry.split("=");
+                            if(pair.length != 2) {
+                                throw new IllegalArgumentException();
+                            }
+                            WaitStrategy.of(pair[1]);
+                            WAIT_STRATEGIES.put(pair[0], pair[1].toLowerCase());
+                        }
+                    } else {
+                        WaitStrategy.of(value);
+                        WAIT_STRATEGY = value.toLowerCase();
+                    }
+                } catch (IllegalArgumentException | PipeFilterException e) {
+                    throw new PipeFilterException("Invalid program option: " + key + "=" + value);
+                }
             } else if(
                     key.equalsIgnoreCase("capacity") ||
-                    key.equalsIgnoreCase("streams")) {
+                    key.equalsIgnoreCase("streams") ||
+                    key.equalsIgnoreCase("port") ||
+                    key.equalsIgnoreCase("topk")) {
                 /*
                  * valid values are positive integers
                  */
@@ -155,6 +503,11 @@ public class PipeFilterApplication {
                    }
                    if(key.equalsIgnoreCase("capacity")) {
                        PIPE_CAPACITY = number;
+                   } else if(key.equalsIgnoreCase("port")) {
+                       SERVER_PORT = number;
+                   } else if(key.equalsIgnoreCase("topk")) {
+                       TOP_K = number;
+                       sink = "top-k-term-collector";
                    } else {
                        NUMBER_OF_PARALLEL_INSTANCES = number;
                    }
@@ -168,6 +521,12 @@ public class PipeFilterApplication {
                 throw new PipeFilterException("Invalid program option: " + key + "=" + value);
             }
         });
+        /*
+         * A window slides by at most its own length (the options come in any order).
+         */
+        if(windowed && WINDOW_SLIDE > WINDOW_SIZE) {
+            throw new PipeFilterException("Invalid program options: slide " + WINDOW_SLIDE + " > window " + WINDOW_SIZE);
+        }
     }
 
     /**
@@ -9,6 +9,8 @@ import java.util.Objects;
 import java.util.SortedMap;
 import java.util.TreeMap;
 
+import static pipefilter.config.Configuration.NUMBER_OF_MOST_COMMON_TERMS;
+
 /**
  * @author Nardos Tessema
  *
@@ -138,6 +140,30 @@ public class Utilities {
         return sb.toString();
     }
 
+    /**
+     * Prints the most commonly occurring terms of a sink output
+     * (NUMBER_OF_MOST_COMMON_TERMS frequencies) to the console.
+     *
+     * The output map must have its keys in descending order
+     * (i.e. a TreeMap with a reverse order comparator).
+     *
+     * @param output the frequency-term map of a sink
+     */
+    public static void printMostCommonTerms(Map<Integer, List<String>> output) {
+        System.out.println("---------------------------------------------------------------------------------------");
+        final int N_MOST_COMMON = NUMBER_OF_MOST_COMMON_TERMS;
+        System.out.printf("%nThe %d most commonly occurring terms:%n%n", N_MOST_COMMON);
+        System.out.printf("%1$6s----%2$s%n", "---------", "--------");
+        System.out.printf("%1$6s    %2$s%n", "FREQUENCY", "TERMS");
+        System.out.printf("%1$6s----%2$s%n", "---------", "--------");
+        output.keySet()
+                .stream()
+                .filter(k -> !output.get(k).isEmpty())
+                .limit(N_MOST_COMMON)
+                .forEach(k -> System.out.printf("%1$9d -> %2$s%n", k, prettyPrint(output.get(k))));
+        System.out.printf("%1$6s----%2$s%n", "---------", "--------");
+    }
+
     /**
      * Right-pad an integer with
      * spaces for fixed column format.
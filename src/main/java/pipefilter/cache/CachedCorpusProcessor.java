@@ -0,0 +1,153 @@
+package pipefilter.cache;
+
+import pipefilter.exception.PipeFilterException;
+import pipefilter.pipeline.Pipeline;
+import pipefilter.pipeline.PipelineFactory;
+import pipefilter.sink.TermFrequencyFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static pipefilter.config.Configuration.TERM_FREQUENCY_FILE;
+
+/**
+ * @author Nardos Tessema
+ *
+ * Incremental processing of a corpus (a directory of text files,
+ * or a single file) with a TermCountCache.
+ *
+ * (1) Every file of the corpus is hashed (see TermCountCache.key).
+ * (2) The term counts of a file whose key is in the cache are read
+ *     from the cache. The other files are run through the pipeline
+ *     (assembled once, reset for every file) and their term counts
+ *     are put in the cache.
+ * (3) The term counts of all files are added up into the
+ *     Frequency-Term mapping of the corpus.
+ *
+ * A rerun after a few files have changed only runs the changed files
+ * through the pipeline.
+ *
+ * The sink of the assembly must report every term (e.g. the
+ * frequency-term-inverter); the counts of the top-k-term-collector
+ * cannot be added up across files. If the sink is the
+ * term-frequency-file-writer, the files run through the
+ * frequency-term-inverter instead, and the term frequencies of the
+ * whole corpus are written to TERM_FREQUENCY_FILE once at the end.
+ */
+public class CachedCorpusProcessor {
+
+    private static final String FILE_WRITER = "term-frequency-file-writer";
+    private static final String INVERTER = "frequency-term-inverter";
+
+    private final TermCountCache cache;
+    private final String[] assembly;
+    private final String pipelineType;
+    /**
+     * Whether the corpus counts go to TERM_FREQUENCY_FILE
+     */
+    private final boolean writeFile;
+
+    private int hits;
+    private int misses;
+
+    /**
+     * @param cache the cache of term counts
+     * @param assembly the components of the pipeline
+     * @param pipelineType serial | parallel
+     */
+    public CachedCorpusProcessor(TermCountCache cache, String[] assembly, String pipelineType) {
+        this.cache = cache;
+        this.assembly = assembly.clone();
+        this.pipelineType = pipelineType;
+        final int sink = assembly.length - 1;
+        this.writeFile = assembly[sink].equals(FILE_WRITER);
+        if(writeFile) {
+            this.assembly[sink] = INVERTER;
+        }
+    }
+
+    /**
+     * @param corpus a directory of text files (searched recursively) or a single text file
+     * @param output the Frequency-Term mapping of the whole corpus
+     */
+    public void process(Path corpus, Map<Integer, List<String>> output) throws InterruptedException {
+        hits = 0;
+        misses = 0;
+        final Map<String, Integer> total = new HashMap<>();
+        final Map<Integer, List<String>> frequencies = new TreeMap<>(Collections.reverseOrder());
+        Pipeline pipeline = null;
+        try {
+            for(Path file : files(corpus)) {
+                final String key = TermCountCache.key(file, assembly);
+                Map<String, Integer> counts = cache.get(key);
+                if(counts != null) {
+                    hits++;
+                } else {
+                    misses++;
+                    if(pipeline == null) {
+                        pipeline = PipelineFactory.build(file.toString(), frequencies, assembly, pipelineType);
+                    } else {
+                        pipeline.reset(file.toString());
+                    }
+                    pipeline.run();
+                    counts = termCounts(frequencies);
+                    cache.put(key, counts);
+                }
+                counts.forEach((term, count) -> total.merge(term, count, Integer::sum));
+            }
+        } finally {
+            if(pipeline != null) {
+                pipeline.shutdown();
+            }
+        }
+        if(writeFile) {
+            TermFrequencyFile.write(Paths.get(TERM_FREQUENCY_FILE), total);
+        }
+        output.clear();
+        total.forEach((term, count) -> output.computeIfAbsent(count, c -> new ArrayList<>()).add(term));
+    }
+
+    /**
+     * @return the number of files of the last run whose counts came from the cache
+     */
+    public int hits() {
+        return hits;
+    }
+
+    /**
+     * @return the number of files of the last run that went through the pipeline
+     */
+    public int misses() {
+        return misses;
+    }
+
+    /**
+     * Inverts the Frequency-Term mapping of a run back into term counts.
+     */
+    static Map<String, Integer> termCounts(Map<Integer, List<String>> frequencies) {
+        final Map<String, Integer> counts = new HashMap<>();
+        frequencies.forEach((frequency, terms) -> terms.forEach(term -> counts.merge(term, frequency, Math::max)));
+        return counts;
+    }
+
+    private static List<Path> files(Path corpus) {
+        if(!Files.isDirectory(corpus)) {
+            return Collections.singletonList(corpus);
+        }
+        try (Stream<Path> paths = Files.walk(corpus)) {
+            return paths.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        } catch (IOException ioe) {
+            throw new PipeFilterException("Cannot list corpus directory " + corpus + ": " + ioe.getMessage());
+        }
+    }
+}
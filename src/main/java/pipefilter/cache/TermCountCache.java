@@ -0,0 +1,156 @@
+package pipefilter.cache;
+
+import pipefilter.exception.PipeFilterException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static pipefilter.config.Configuration.HEAVY_HITTERS;
+import static pipefilter.config.Configuration.SKETCH_DELTA;
+import static pipefilter.config.Configuration.SKETCH_EPSILON;
+import static pipefilter.config.Configuration.STOP_WORDS;
+import static pipefilter.config.Configuration.STOP_WORDS_FILE;
+import static pipefilter.config.Configuration.TERM_COUNT_STORE;
+import static pipefilter.config.Configuration.TOP_K;
+
+/**
+ * @author Nardos Tessema
+ *
+ * A local directory of term counts keyed by the content hash of
+ * the input they were counted from.
+ *
+ * The key of an input file is the SHA-256 of the components of the
+ * pipeline, the configuration values that change the counts (the stop
+ * words, the sketch and top-k parameters, the count store) and the
+ * bytes of the file, so the same file gives the same key wherever it
+ * is and whatever it is called, and any change to the file (or to the
+ * pipeline or its configuration) gives a new key.
+ *
+ * Each entry is a file named after the key:
+ *
+ *   | number of terms (int) | term (UTF) | count (int) | term (UTF) | count (int) | ...
+ *
+ * Entries are written to a temporary file first and then moved into
+ * place, so a reader never sees a partly written entry.
+ */
+public class TermCountCache {
+
+    private static final String SUFFIX = ".counts";
+
+    private final Path directory;
+
+    /**
+     * @param directory the cache directory (created if it does not exist)
+     */
+    public TermCountCache(Path directory) {
+        this.directory = directory;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException ioe) {
+            throw new PipeFilterException("Cannot create cache directory " + directory + ": " + ioe.getMessage());
+        }
+    }
+
+    /**
+     * @param file an input file
+     * @param assembly the components of the pipeline that counts the terms of the file
+     * @return the cache key of the file
+     */
+    public static String key(Path file, String[] assembly) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(String.join(",", assembly).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(configuration().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            if(STOP_WORDS_FILE != null) {
+                digest.update(Files.readAllBytes(Paths.get(STOP_WORDS_FILE)));
+                digest.update((byte) 0);
+            }
+            try (InputStream in = new DigestInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16), digest)) {
+                final byte[] buffer = new byte[1 << 16];
+                while(in.read(buffer) != -1) {
+                    // the digest is updated as the file is read
+                }
+            }
+            final StringBuilder key = new StringBuilder();
+            for(byte b : digest.digest()) {
+                key.append(String.format("%02x", b));
+            }
+            return key.toString();
+        } catch (NoSuchAlgorithmException | IOException e) {
+            throw new PipeFilterException("Cannot hash input file " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return the configuration values that change the term counts of a file
+     */
+    static String configuration() {
+        return String.join(",", STOP_WORDS) + ";" +
+                STOP_WORDS_FILE + ";" +
+                SKETCH_EPSILON + ";" +
+                SKETCH_DELTA + ";" +
+                HEAVY_HITTERS + ";" +
+                TOP_K + ";" +
+                TERM_COUNT_STORE;
+    }
+
+    /**
+     * @param key a cache key
+     * @return the cached term counts, null if there are none
+     */
+    public Map<String, Integer> get(String key) {
+        final Path entry = directory.resolve(key + SUFFIX);
+        if(!Files.isReadable(entry)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(entry), 1 << 16))) {
+            final int size = in.readInt();
+            final Map<String, Integer> counts = new HashMap<>(size * 2);
+            for(int i = 0; i < size; i++) {
+                counts.put(in.readUTF(), in.readInt());
+            }
+            return counts;
+        } catch (IOException ioe) {
+            /*
+             * A damaged entry is a cache miss.
+             */
+            return null;
+        }
+    }
+
+    /**
+     * @param key a cache key
+     * @param counts the term counts of the input with the key
+     */
+    public void put(String key, Map<String, Integer> counts) {
+        try {
+            final Path temporary = Files.createTempFile(directory, key, ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16))) {
+                out.writeInt(counts.size());
+                for(Map.Entry<String, Integer> entry : counts.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeInt(entry.getValue());
+                }
+            }
+            Files.move(temporary, directory.resolve(key + SUFFIX), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ioe) {
+            throw new PipeFilterException("Cannot write cache entry " + key + ": " + ioe.getMessage());
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package pipefilter.config;
+
+/**
+ * @author Nardos Tessema
+ *
+ * The two-argument constructor of a pipeline component,
+ * usually given as a constructor reference:
+ *
+ *   WordBoundaryTokenizer::new
+ *
+ * @param <A> the type of the 1st argument (input or input pipe)
+ * @param <B> the type of the 2nd argument (output pipe or output)
+ * @param <C> the type of the component
+ */
+@FunctionalInterface
+public interface ComponentConstructor<A, B, C> {
+    C create(A input, B output);
+}
@@ -0,0 +1,108 @@
+package pipefilter.config;
+
+import pipefilter.exception.PipeFilterException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+
+/**
+ * @author Nardos Tessema
+ *
+ * Everything the factories need to know about a registered component,
+ * worked out once when the component is registered:
+ *
+ * (1) the input and output types (from the type arguments of the
+ *     Pump/Filter/Sink interface the component implements)
+ * (2) how to create an instance: a constructor reference, or a method
+ *     handle to the only constructor of the component (see Pump, Filter, Sink)
+ *
+ * Building a component is then a plain call; there is no reflection
+ * per build. Components registered with a constructor reference need
+ * no reflective access to their constructors at all.
+ *
+ * @param <C> the kind of component (Pump, Filter, Sink)
+ */
+public class ComponentDescriptor<C> {
+
+    private final String name;
+    private final Class<?> type;
+    private final String inputType;
+    private final String outputType;
+    private final ComponentConstructor<Object, Object, ? extends C> constructor;
+
+    @SuppressWarnings("unchecked")
+    ComponentDescriptor(String name, Class<?> type, ComponentConstructor<?, ?, ? extends C> constructor) {
+        this.name = name;
+        this.type = type;
+        this.constructor = (ComponentConstructor<Object, Object, ? extends C>) constructor;
+        final Type[] typeArguments = typeArguments(type);
+        this.inputType = typeArguments[0].getTypeName();
+        this.outputType = typeArguments[1].getTypeName();
+    }
+
+    /**
+     * Creates a descriptor whose instances are created through
+     * a method handle to the only constructor of the component.
+     *
+     * @param name the registry identifier of the component
+     * @param type the class of the component
+     */
+    ComponentDescriptor(String name, Class<?> type) {
+        this(name, type, constructorHandle(name, type));
+    }
+
+    /**
+     * @param input the 1st constructor argument
+     * @param output the 2nd constructor argument
+     * @return a new instance of the component
+     */
+    public C create(Object input, Object output) {
+        return constructor.create(input, output);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    public String getInputType() {
+        return inputType;
+    }
+
+    public String getOutputType() {
+        return outputType;
+    }
+
+    private static Type[] typeArguments(Class<?> type) {
+        final ParameterizedType t = (ParameterizedType) type.getGenericInterfaces()[0];
+        return t.getActualTypeArguments();
+    }
+
+    private static <C> ComponentConstructor<Object, Object, C> constructorHandle(String name, Class<?> type) {
+        final MethodHandle handle;
+        try {
+            handle = MethodHandles.publicLookup()
+                    .unreflectConstructor(type.getConstructors()[0])
+                    .asType(MethodType.methodType(Object.class, Object.class, Object.class));
+        } catch (IllegalAccessException | ArrayIndexOutOfBoundsException e) {
+            throw new PipeFilterException("No accessible constructor in component " + name);
+        }
+        return (input, output) -> {
+            try {
+                @SuppressWarnings("unchecked")
+                final C component = (C) handle.invoke(input, output);
+                return component;
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new PipeFilterException("Exception while building " + name + ": " + t.getMessage());
+            }
+        };
+    }
+}
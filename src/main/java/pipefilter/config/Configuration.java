@@ -18,12 +18,30 @@ public class Configuration {
      *     $ openssl rand -base64 32
      */
     public static String SENTINEL_VALUE = "ZTmlDP63gcm0d/LvvLdf4tHrtFl1rkc79IAVucfa3/A=";
+    /**
+     * The sentinel value of the int pipes (term ids are never negative).
+     */
+    public static int SENTINEL_ID = -1;
     /**
      * The capacity of the pipes.
      *  - Same for all pipes
      *  - Value arbitrarily chosen for now
      */
     public static int PIPE_CAPACITY = 1024;
+    /**
+     * Adaptive pipe capacity.
+     *  - If turned on, pipes start with ADAPTIVE_PIPE_INITIAL_CAPACITY and
+     *    grow or shrink at runtime depending on producer/consumer blocking.
+     *  - The total capacity of the adaptive pipes of a pipeline is bounded by PIPE_CAPACITY_BUDGET.
+     */
+    public static boolean ADAPTIVE_PIPE_CAPACITY = false;
+    public static int ADAPTIVE_PIPE_INITIAL_CAPACITY = 64;
+    public static long PIPE_CAPACITY_BUDGET = 1_048_576L;
+    /**
+     * The number of tokens the slice-tokenizer puts into a TokenBatch
+     * before it hands the batch on (see TokenBatch).
+     */
+    public static int TOKEN_BATCH_SIZE = 1024;
     /**
      * Stop words
      */
@@ -45,9 +63,151 @@ public class Configuration {
          */
         Arrays.stream(STOP_WORDS).forEach(w -> STOP_WORDS_MAP.put(w.toLowerCase(), true));
     }
+    /**
+     * A file of stop words (separated by white space or commas) that replaces
+     * STOP_WORDS for the trie-stop-word-remover. Not used if null.
+     */
+    public static String STOP_WORDS_FILE = null;
 
     /**
-     * How many parallel streams? Let's make it same for all...
+     * How many parallel streams? This is the default for all
+     * parallelizable filters that are not in PARALLEL_INSTANCES.
      */
     public static int NUMBER_OF_PARALLEL_INSTANCES = 2;
+    /**
+     * Degree of parallelism of individual filters (by registry identifier).
+     * Filters that are not in the map get NUMBER_OF_PARALLEL_INSTANCES.
+     */
+    public static Map<String, Integer> PARALLEL_INSTANCES = new HashMap<>();
+    /**
+     * Dynamic parallelism.
+     *  - If turned on, the parallel pipeline adds or retires filter instances
+     *    while it runs, based on the measured throughput of each stage.
+     *  - A stage never gets more than MAX_PARALLEL_INSTANCES instances.
+     *  - The stages are looked at every PARALLELISM_SAMPLING_INTERVAL ms.
+     */
+    public static boolean DYNAMIC_PARALLELISM = false;
+    public static int MAX_PARALLEL_INSTANCES = Runtime.getRuntime().availableProcessors();
+    public static long PARALLELISM_SAMPLING_INTERVAL = 100L;
+    /**
+     * How the parallel instances of a filter hand their output to the next filter.
+     *  - serializer: every instance has an output pipe and a Serializer merges them.
+     *  - direct: the instances put into one lock-free multi-producer pipe (MpscPipe)
+     *    that the next filter takes from. No Serializer thread, one handoff less,
+     *    but the streams of the instances interleave in any order.
+     */
+    public static String FAN_IN = "serializer";
+    /**
+     * How the parallel instances of a filter get their input from the previous filter.
+     *  - parallelizer: every instance has an input pipe and a Parallelizer deals the items out.
+     *  - direct: the instances take from one lock-free multi-consumer pipe (MpmcPipe)
+     *    that the previous filter puts into. No Parallelizer thread, one handoff less,
+     *    and an instance that is done early takes the next item.
+     */
+    public static String FAN_OUT = "parallelizer";
+    /**
+     * Order of the stream through parallel stages.
+     *  - If turned on, every parallel stage keeps the order of its input,
+     *    like the stages declared ORDERED in Registry.parallelizable.
+     *  - The Serializer holds at most one item per filter instance
+     *    while it waits for the next item in sequence.
+     */
+    public static boolean PRESERVE_ORDER = false;
+    /**
+     * How threads wait on pipes: block | park | yield | spin (see WaitStrategy).
+     *  - WAIT_STRATEGY is the strategy of all pipes.
+     *  - WAIT_STRATEGIES overrides it for the input pipes of individual
+     *    components (by registry identifier of the component that takes).
+     */
+    public static String WAIT_STRATEGY = "block";
+    public static Map<String, String> WAIT_STRATEGIES = new HashMap<>();
+
+    /**
+     * The number of most commonly occurring frequencies reported at the end of a run.
+     */
+    public static int NUMBER_OF_MOST_COMMON_TERMS = 10;
+    /**
+     * The number of terms the top-k-term-collector keeps.
+     */
+    public static int TOP_K = 500;
+    /**
+     * Approximate counting (approximate-term-frequency-counter).
+     *  - The Count-Min Sketch overestimates a count by at most SKETCH_EPSILON
+     *    times the number of terms, with probability 1 - SKETCH_DELTA.
+     *    (width = e / SKETCH_EPSILON, depth = ln(1 / SKETCH_DELTA))
+     *  - Only the HEAVY_HITTERS terms with the highest estimates are emitted.
+     */
+    public static double SKETCH_EPSILON = 0.0001;
+    public static double SKETCH_DELTA = 0.001;
+    public static int HEAVY_HITTERS = 1000;
+    /**
+     * External-memory counting (spilling-term-frequency-counter).
+     *  - The in-memory table of counts is spilled to a sorted run file
+     *    when its estimated size exceeds SPILL_MEMORY_BUDGET bytes.
+     *  - The runs are written to SPILL_DIRECTORY (the system temporary
+     *    directory if null).
+     */
+    public static long SPILL_MEMORY_BUDGET = 64L * 1024 * 1024;
+    public static String SPILL_DIRECTORY = null;
+    /**
+     * Where the term-frequency-counter keeps its counts: heap | off-heap.
+     *  - off-heap: terms and counts live in direct memory segments of
+     *    OFF_HEAP_SEGMENT_SIZE bytes (see OffHeapTermCountStore).
+     */
+    public static String TERM_COUNT_STORE = "heap";
+    public static int OFF_HEAP_SEGMENT_SIZE = 4 * 1024 * 1024;
+    /**
+     * The binary output file of the term-frequency-file-writer (see TermFrequencyFile).
+     */
+    public static String TERM_FREQUENCY_FILE = "term-frequencies.bin";
+    /**
+     * The directory of cached term counts (keyed by content hash of the input files).
+     * No cache if null.
+     */
+    public static String CACHE_DIRECTORY = null;
+    /**
+     * The size of the direct buffer of the channel-streamer (standard input, named pipes).
+     */
+    public static int STREAM_BUFFER_SIZE = 1024 * 1024;
+    /**
+     * Read-ahead of the async-text-streamer: ASYNC_READ_BUFFERS direct buffers
+     * of ASYNC_READ_BUFFER_SIZE bytes are read while the lines of another
+     * buffer are decoded and put.
+     */
+    public static int ASYNC_READ_BUFFERS = 2;
+    public static int ASYNC_READ_BUFFER_SIZE = 1024 * 1024;
+    /**
+     * The size of the chunks of UTF-8 bytes the utf8-streamer reads and
+     * puts as one batch of lines (a longer line gets a larger chunk).
+     * The text-streamer reads the file in chunks of the same size.
+     */
+    public static int UTF8_CHUNK_SIZE = 64 * 1024;
+    /**
+     * Following a growing file (log-tailer).
+     *  - The file is checked for new lines every TAIL_POLL_INTERVAL ms.
+     *  - The stream ends after TAIL_IDLE_TIMEOUT ms without new lines (0: never).
+     */
+    public static long TAIL_POLL_INTERVAL = 200L;
+    public static long TAIL_IDLE_TIMEOUT = 0L;
+    /**
+     * Time windows of the windowed-term-counter (ms).
+     *  - WINDOW_SLIDE == WINDOW_SIZE: tumbling windows, WINDOW_SLIDE < WINDOW_SIZE: sliding windows
+     *    (WINDOW_SLIDE > WINDOW_SIZE would leave gaps and is rejected)
+     *  - The WINDOW_TOP_K most common terms of every window are reported.
+     *  - A window is made of panes of WINDOW_SLIDE ms; a pane counts at most
+     *    WINDOW_PANE_CAPACITY distinct terms (Space-Saving).
+     */
+    public static long WINDOW_SIZE = 60_000L;
+    public static long WINDOW_SLIDE = 60_000L;
+    public static int WINDOW_TOP_K = 10;
+    public static int WINDOW_PANE_CAPACITY = 10_000;
+    /**
+     * If turned off, the sinks do not print the summary of the most
+     * commonly occurring terms (e.g. when running as a server).
+     */
+    public static boolean PRINT_SUMMARY = true;
+    /**
+     * The loopback port the pipeline server listens on.
+     */
+    public static int SERVER_PORT = 5480;
 }
@@ -0,0 +1,20 @@
+package pipefilter.config;
+
+/**
+ * @author Nardos Tessema
+ *
+ * How a parallelizable filter may be parallelized (see Registry.parallelizable).
+ *
+ *  - UNORDERED: the outputs of the parallel instances may come out in
+ *    any order (e.g. the items are counted downstream).
+ *  - ORDERED: the outputs must come out in the order of the inputs
+ *    (e.g. n-grams, phrases, positions). The Parallelizer stamps every
+ *    item with a sequence number and the Serializer puts the outputs
+ *    back in sequence. Such a stage always has a Parallelizer and a
+ *    Serializer, whatever FAN_IN and FAN_OUT say.
+ *
+ * With PRESERVE_ORDER, every parallel stage is ordered.
+ */
+public enum Parallelism {
+    UNORDERED, ORDERED
+}
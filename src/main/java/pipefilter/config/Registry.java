@@ -1,19 +1,44 @@
 package pipefilter.config;
 
+import pipefilter.filter.ApproximateTermFrequencyCounter;
 import pipefilter.filter.Filter;
 import pipefilter.filter.NumericOnlyWordRemover;
 import pipefilter.filter.OpenNLPStemmer;
 import pipefilter.filter.PorterStemmer;
+import pipefilter.filter.SlicePorterStemmer;
+import pipefilter.filter.SliceStopWordRemover;
+import pipefilter.filter.SliceTermFrequencyCounter;
+import pipefilter.filter.SliceTextPreprocessor;
+import pipefilter.filter.SliceTokenizer;
+import pipefilter.filter.SpillingTermFrequencyCounter;
 import pipefilter.filter.StopWordRemover;
+import pipefilter.filter.TrieStopWordRemover;
 import pipefilter.filter.TermFrequencyCounter;
+import pipefilter.filter.TermIdFrequencyCounter;
+import pipefilter.filter.TermIdPorterStemmer;
+import pipefilter.filter.Utf8PorterStemmer;
+import pipefilter.filter.Utf8StopWordRemover;
+import pipefilter.filter.Utf8TermFrequencyCounter;
+import pipefilter.filter.Utf8TextPreprocessor;
+import pipefilter.filter.Utf8Tokenizer;
 import pipefilter.filter.TextPreprocessor;
 import pipefilter.filter.ToLowerCaseTransformer;
 import pipefilter.filter.WordBoundaryTokenizer;
 import pipefilter.filter.NonAlphaNumericWordRemover;
+import pipefilter.pipe.Pipe;
+import pipefilter.pump.AsyncFilePump;
+import pipefilter.pump.ChannelPump;
+import pipefilter.pump.LogTailPump;
 import pipefilter.pump.Pump;
 import pipefilter.pump.TextFilePump;
+import pipefilter.pump.Utf8FilePump;
 import pipefilter.sink.Sink;
+import pipefilter.sink.FinalFrequencyTermInverter;
 import pipefilter.sink.FrequencyTermInverter;
+import pipefilter.sink.TermFrequencyFileWriter;
+import pipefilter.sink.TermIdFrequencyInverter;
+import pipefilter.sink.TopKTermCollector;
+import pipefilter.sink.WindowedTermCounter;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -24,53 +49,146 @@ import java.util.Map;
  * A registry of available Pumps, Filters and Sinks.
  * Each component is uniquely identified by a name.
  * The unique name of the components is used by the
- * corresponding factory to create instances by reflection.
+ * corresponding factory to look up the descriptor of
+ * the component and create instances.
+ *
+ * Components are registered with a constructor reference, which
+ * is type checked by the compiler against the Pump/Filter/Sink
+ * interface the component implements. Components registered with
+ * their class only are created through a method handle to their
+ * only constructor. Either way, the descriptor is made once, here.
+ *
+ * @see pipefilter.config.ComponentDescriptor
  */
 public class Registry {
     /**
      * All available filters
      */
-    public static final Map<String, Class<? extends Filter<?, ?>>> registeredFilters = new HashMap<>();
+    public static final Map<String, ComponentDescriptor<Filter<?, ?>>> registeredFilters = new HashMap<>();
 
     static {
-        registeredFilters.put("tokenizer", WordBoundaryTokenizer.class);
-        registeredFilters.put("non-alphanumeric-word-remover", NonAlphaNumericWordRemover.class);
-        registeredFilters.put("numeric-only-word-remover", NumericOnlyWordRemover.class);
-        registeredFilters.put("to-lower-case-transformer", ToLowerCaseTransformer.class);
-        registeredFilters.put("stop-word-remover", StopWordRemover.class);
-        registeredFilters.put("opennlp-porter-stemmer", OpenNLPStemmer.class);
-        registeredFilters.put("en-porter-stemmer", PorterStemmer.class);
-        registeredFilters.put("term-frequency-counter", TermFrequencyCounter.class);
-        registeredFilters.put("text-preprocessor", TextPreprocessor.class);
+        registerFilter("tokenizer", WordBoundaryTokenizer.class, WordBoundaryTokenizer::new);
+        registerFilter("non-alphanumeric-word-remover", NonAlphaNumericWordRemover.class, NonAlphaNumericWordRemover::new);
+        registerFilter("numeric-only-word-remover", NumericOnlyWordRemover.class, NumericOnlyWordRemover::new);
+        registerFilter("to-lower-case-transformer", ToLowerCaseTransformer.class, ToLowerCaseTransformer::new);
+        registerFilter("stop-word-remover", StopWordRemover.class, StopWordRemover::new);
+        registerFilter("trie-stop-word-remover", TrieStopWordRemover.class, TrieStopWordRemover::new);
+        registerFilter("opennlp-porter-stemmer", OpenNLPStemmer.class, OpenNLPStemmer::new);
+        registerFilter("en-porter-stemmer", PorterStemmer.class, PorterStemmer::new);
+        registerFilter("term-frequency-counter", TermFrequencyCounter.class, TermFrequencyCounter::new);
+        registerFilter("text-preprocessor", TextPreprocessor.class, TextPreprocessor::new);
+        registerFilter("en-porter-stemmer-term-ids", TermIdPorterStemmer.class, TermIdPorterStemmer::new);
+        registerFilter("term-id-frequency-counter", TermIdFrequencyCounter.class, TermIdFrequencyCounter::new);
+        registerFilter("approximate-term-frequency-counter", ApproximateTermFrequencyCounter.class, ApproximateTermFrequencyCounter::new);
+        registerFilter("spilling-term-frequency-counter", SpillingTermFrequencyCounter.class, SpillingTermFrequencyCounter::new);
+        registerFilter("slice-tokenizer", SliceTokenizer.class, SliceTokenizer::new);
+        registerFilter("slice-text-preprocessor", SliceTextPreprocessor.class, SliceTextPreprocessor::new);
+        registerFilter("slice-stop-word-remover", SliceStopWordRemover.class, SliceStopWordRemover::new);
+        registerFilter("slice-porter-stemmer", SlicePorterStemmer.class, SlicePorterStemmer::new);
+        registerFilter("slice-term-frequency-counter", SliceTermFrequencyCounter.class, SliceTermFrequencyCounter::new);
+        registerFilter("utf8-tokenizer", Utf8Tokenizer.class, Utf8Tokenizer::new);
+        registerFilter("utf8-text-preprocessor", Utf8TextPreprocessor.class, Utf8TextPreprocessor::new);
+        registerFilter("utf8-stop-word-remover", Utf8StopWordRemover.class, Utf8StopWordRemover::new);
+        registerFilter("utf8-porter-stemmer", Utf8PorterStemmer.class, Utf8PorterStemmer::new);
+        registerFilter("utf8-term-frequency-counter", Utf8TermFrequencyCounter.class, Utf8TermFrequencyCounter::new);
     }
 
     /**
      * All available pumps
      */
-    public static final Map<String, Class<? extends Pump<?, ?>>> registeredPumps = new HashMap<>();
+    public static final Map<String, ComponentDescriptor<Pump<?, ?>>> registeredPumps = new HashMap<>();
 
     static {
-        registeredPumps.put("text-streamer", TextFilePump.class);
+        registerPump("text-streamer", TextFilePump.class, TextFilePump::new);
+        registerPump("channel-streamer", ChannelPump.class, ChannelPump::new);
+        registerPump("log-tailer", LogTailPump.class, LogTailPump::new);
+        registerPump("utf8-streamer", Utf8FilePump.class, Utf8FilePump::new);
+        registerPump("async-text-streamer", AsyncFilePump.class, AsyncFilePump::new);
     }
 
     /**
      * All available sinks
      */
-    public static final Map<String, Class<? extends Sink<?, ?>>> registeredSinks = new HashMap<>();
+    public static final Map<String, ComponentDescriptor<Sink<?, ?>>> registeredSinks = new HashMap<>();
 
     static  {
-        registeredSinks.put("frequency-term-inverter", FrequencyTermInverter.class);
+        registerSink("frequency-term-inverter", FrequencyTermInverter.class, FrequencyTermInverter::new);
+        registerSink("final-frequency-term-inverter", FinalFrequencyTermInverter.class, FinalFrequencyTermInverter::new);
+        registerSink("term-id-frequency-inverter", TermIdFrequencyInverter.class, TermIdFrequencyInverter::new);
+        registerSink("top-k-term-collector", TopKTermCollector.class, TopKTermCollector::new);
+        registerSink("term-frequency-file-writer", TermFrequencyFileWriter.class, TermFrequencyFileWriter::new);
+        registerSink("windowed-term-counter", WindowedTermCounter.class, WindowedTermCounter::new);
     }
 
     /**
-     * Parallelizable Components
+     * Parallelizable Components, and whether their parallel
+     * instances must keep the order of the stream.
+     * Components that are not in the map are not parallelized.
      */
-    public static Map<String, Boolean> parallelizable = new HashMap<>();
+    public static Map<String, Parallelism> parallelizable = new HashMap<>();
 
     static {
-        parallelizable.put("tokenizer", true);
-        parallelizable.put("text-preprocessor", true);
-        parallelizable.put("stop-word-remover", true);
-        parallelizable.put("en-porter-stemmer", true);
+        parallelizable.put("tokenizer", Parallelism.UNORDERED);
+        parallelizable.put("text-preprocessor", Parallelism.UNORDERED);
+        parallelizable.put("stop-word-remover", Parallelism.UNORDERED);
+        parallelizable.put("trie-stop-word-remover", Parallelism.UNORDERED);
+        parallelizable.put("en-porter-stemmer", Parallelism.UNORDERED);
+    }
+
+    /**
+     * @param name the unique identifier of the filter
+     * @param type the class of the filter
+     * @param constructor the constructor of the filter (e.g. SomeFilter::new)
+     */
+    public static <T, U> void registerFilter(String name, Class<? extends Filter<T, U>> type, ComponentConstructor<Pipe<T>, Pipe<U>, ? extends Filter<T, U>> constructor) {
+        registeredFilters.put(name, new ComponentDescriptor<>(name, type, constructor));
+    }
+
+    /**
+     * Registers a filter that is created through its only constructor.
+     *
+     * @param name the unique identifier of the filter
+     * @param type the class of the filter
+     */
+    public static void registerFilter(String name, Class<? extends Filter<?, ?>> type) {
+        registeredFilters.put(name, new ComponentDescriptor<>(name, type));
+    }
+
+    /**
+     * @param name the unique identifier of the pump
+     * @param type the class of the pump
+     * @param constructor the constructor of the pump (e.g. SomePump::new)
+     */
+    public static <T, U> void registerPump(String name, Class<? extends Pump<T, U>> type, ComponentConstructor<T, Pipe<U>, ? extends Pump<T, U>> constructor) {
+        registeredPumps.put(name, new ComponentDescriptor<>(name, type, constructor));
+    }
+
+    /**
+     * Registers a pump that is created through its only constructor.
+     *
+     * @param name the unique identifier of the pump
+     * @param type the class of the pump
+     */
+    public static void registerPump(String name, Class<? extends Pump<?, ?>> type) {
+        registeredPumps.put(name, new ComponentDescriptor<>(name, type));
+    }
+
+    /**
+     * @param name the unique identifier of the sink
+     * @param type the class of the sink
+     * @param constructor the constructor of the sink (e.g. SomeSink::new)
+     */
+    public static <T, U> void registerSink(String name, Class<? extends Sink<T, U>> type, ComponentConstructor<Pipe<T>, U, ? extends Sink<T, U>> constructor) {
+        registeredSinks.put(name, new ComponentDescriptor<>(name, type, constructor));
+    }
+
+    /**
+     * Registers a sink that is created through its only constructor.
+     *
+     * @param name the unique identifier of the sink
+     * @param type the class of the sink
+     */
+    public static void registerSink(String name, Class<? extends Sink<?, ?>> type) {
+        registeredSinks.put(name, new ComponentDescriptor<>(name, type));
     }
 }
@@ -0,0 +1,115 @@
+package pipefilter.filter;
+
+import pipefilter.pipe.Pipe;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static pipefilter.config.Configuration.HEAVY_HITTERS;
+import static pipefilter.config.Configuration.SENTINEL_VALUE;
+import static pipefilter.config.Configuration.SKETCH_DELTA;
+import static pipefilter.config.Configuration.SKETCH_EPSILON;
+
+/**
+ * @author Nardos Tessema
+ *
+ * A filter that counts the number of occurrence of terms approximately,
+ * in constant memory.
+ *
+ * TermFrequencyCounter holds an exact count of every distinct term,
+ * which grows without limit on noisy inputs (OCR errors, logs, ...).
+ * This filter counts the terms in a Count-Min Sketch and keeps track
+ * of the HEAVY_HITTERS terms with the highest estimated counts.
+ * Neither grows with the vocabulary.
+ *
+ * Unlike TermFrequencyCounter, which emits the running count of a term
+ * at every occurrence, this filter emits the heavy hitters with their
+ * estimated counts once, at the end of the stream (followed by the
+ * sentinel). The estimates are never lower than the true counts and
+ * overestimate by at most SKETCH_EPSILON * (number of terms) with
+ * probability 1 - SKETCH_DELTA.
+ *
+ * Input: a stream of terms
+ * Output: a stream of TermFrequency objects (the heavy hitters)
+ *
+ * @see pipefilter.filter.CountMinSketch
+ * @see pipefilter.filter.TopKTerms
+ */
+public class ApproximateTermFrequencyCounter implements Filter<String, TermFrequency> {
+
+    private final Pipe<String> input;
+    private final Pipe<TermFrequency> output;
+
+    private final CountMinSketch sketch = CountMinSketch.withErrorBounds(SKETCH_EPSILON, SKETCH_DELTA);
+    private final TopKTerms heavyHitters = new TopKTerms(HEAVY_HITTERS);
+
+    /**
+     * Timing instrumentation instance variables
+     */
+    private long cumulativeInputBlockingTime;
+    private long cumulativeOutputBlockingTime;
+    private long totalProcessingTime;
+    private long inputCounter;
+    private long outputCounter;
+
+    public ApproximateTermFrequencyCounter(Pipe<String> input, Pipe<TermFrequency> output) {
+        this.input = input;
+        this.output = output;
+    }
+
+    @Override
+    public void filter() {
+        inputCounter = 0;
+        outputCounter = 0;
+        cumulativeInputBlockingTime = 0;
+        cumulativeOutputBlockingTime = 0;
+        /*
+         * Every run counts a new stream from scratch.
+         */
+        sketch.clear();
+        heavyHitters.clear();
+        long start = System.currentTimeMillis();
+        try {
+            long beforeInputPipe;
+            while(true) {
+                beforeInputPipe = System.currentTimeMillis();
+                final String word = input.take();
+                cumulativeInputBlockingTime += System.currentTimeMillis() - beforeInputPipe;
+                inputCounter++;
+                if(word.equals(SENTINEL_VALUE)) {
+                    break;
+                }
+                /*
+                 * The estimate of a term only ever grows,
+                 * which is what the heavy hitter tracker needs.
+                 */
+                heavyHitters.offer(word, sketch.add(word));
+            }
+            final long beforeOutputPipe = System.currentTimeMillis();
+            for(TermFrequency tf : heavyHittersWithEstimates()) {
+                output.put(tf);
+                outputCounter++;
+            }
+            output.put(new TermFrequency(SENTINEL_VALUE, 0));
+            cumulativeOutputBlockingTime += System.currentTimeMillis() - beforeOutputPipe;
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+        totalProcessingTime = System.currentTimeMillis() - start;
+    }
+
+    /**
+     * @return the heavy hitters with their final estimates
+     */
+    private List<TermFrequency> heavyHittersWithEstimates() {
+        final List<TermFrequency> result = new ArrayList<>(heavyHitters.size());
+        heavyHitters.forEach((term, count) -> result.add(new TermFrequency(term, sketch.estimate(term))));
+        return result;
+    }
+
+    @Override
+    public void run() {
+        filter();
+        System.out.printf("%1$-26s | %2$10s | %3$11s | %4$9s | %5$8s | %6$8s%n", getClass().getSimpleName(), cumulativeInputBlockingTime, cumulativeOutputBlockingTime, totalProcessingTime, inputCounter, outputCounter);
+    }
+}
@@ -0,0 +1,144 @@
+package pipefilter.filter;
+
+import java.util.Arrays;
+
+/**
+ * @author Nardos Tessema
+ *
+ * A Count-Min Sketch: approximate counts of an unbounded number
+ * of distinct terms in a fixed amount of memory.
+ *
+ * The sketch is a depth x width table of counters. Each row has its
+ * own hash function. Adding a term increments one counter per row;
+ * the estimate of a term is the lowest of its counters.
+ *
+ *   - an estimate is never lower than the true count
+ *   - with probability 1 - delta, an estimate exceeds the true
+ *     count by at most epsilon * N (N: total number of terms added)
+ *
+ * where width = ceil(e / epsilon) and depth = ceil(ln(1 / delta)).
+ *
+ * The memory used is width * depth counters, no matter how many
+ * distinct terms there are.
+ *
+ * The row hashes h1 + row * h2 are built from two independent 32-bit
+ * hashes: the halves of a 64-bit FNV-1a hash of the chars of the term.
+ * (String.hashCode would not do: terms with the same hash code, e.g.
+ * "Aa" and "BB", would share their counter in every row.)
+ */
+public class CountMinSketch {
+
+    private final int width;
+    private final int depth;
+    private final int[][] counters;
+    private long total;
+
+    /**
+     * @param width the number of counters per row
+     * @param depth the number of rows (hash functions)
+     */
+    public CountMinSketch(int width, int depth) {
+        if(width < 1 || depth < 1) {
+            throw new IllegalArgumentException("width and depth must be positive: " + width + " x " + depth);
+        }
+        this.width = width;
+        this.depth = depth;
+        this.counters = new int[depth][width];
+    }
+
+    /**
+     * @param epsilon the error bound relative to the total count (e.g. 0.0001)
+     * @param delta the probability of exceeding the error bound (e.g. 0.001)
+     * @return a sketch that meets the error bounds
+     */
+    public static CountMinSketch withErrorBounds(double epsilon, double delta) {
+        if(epsilon <= 0 || epsilon >= 1 || delta <= 0 || delta >= 1) {
+            throw new IllegalArgumentException("epsilon and delta must be in (0, 1): " + epsilon + ", " + delta);
+        }
+        final int width = (int) Math.ceil(Math.E / epsilon);
+        final int depth = (int) Math.ceil(Math.log(1 / delta));
+        return new CountMinSketch(width, depth);
+    }
+
+    /**
+     * Adds one occurrence of a term.
+     *
+     * @param term a term
+     * @return the estimated count of the term (including this occurrence)
+     */
+    public int add(String term) {
+        total++;
+        final long h = hash(term);
+        final int h1 = (int) h;
+        final int h2 = (int) (h >>> 32);
+        int estimate = Integer.MAX_VALUE;
+        for(int row = 0; row < depth; row++) {
+            final int column = index(h1 + row * h2);
+            final int count = ++counters[row][column];
+            estimate = Math.min(estimate, count);
+        }
+        return estimate;
+    }
+
+    /**
+     * @param term a term
+     * @return the estimated count of the term
+     */
+    public int estimate(String term) {
+        final long h = hash(term);
+        final int h1 = (int) h;
+        final int h2 = (int) (h >>> 32);
+        int estimate = Integer.MAX_VALUE;
+        for(int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters[row][index(h1 + row * h2)]);
+        }
+        return estimate;
+    }
+
+    /**
+     * @return the number of terms added
+     */
+    public long total() {
+        return total;
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public int depth() {
+        return depth;
+    }
+
+    public void clear() {
+        for(int[] row : counters) {
+            Arrays.fill(row, 0);
+        }
+        total = 0;
+    }
+
+    private int index(int hash) {
+        return (hash & Integer.MAX_VALUE) % width;
+    }
+
+    /**
+     * A 64-bit FNV-1a hash of the chars of a term (both bytes of each
+     * char), with its bits spread by the finalizer of MurmurHash3.
+     */
+    private static long hash(String term) {
+        long h = 0xCBF29CE484222325L;
+        for(int i = 0; i < term.length(); i++) {
+            final char c = term.charAt(i);
+            h ^= c & 0xFF;
+            h *= 0x100000001B3L;
+            h ^= c >>> 8;
+            h *= 0x100000001B3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
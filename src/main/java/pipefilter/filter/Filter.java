@@ -11,15 +11,17 @@ package pipefilter.filter;
  * Filters are active and, therefore, Runnable.
  *
  * A filter that implements this interface must have EXACTLY ONE
- * constructor that takes THREE arguments in the following order:
+ * constructor that takes TWO arguments in the following order:
  *
  *    1st arg: the input pipe
  *    2nd arg: the output pipe
- *    3rd arg: a CountDownLatch to signal completion of filtering activity
  *
- * This constraint must be strictly followed because the creation of a filter
- * and its input/output pipes is done dynamically through the Java reflection API
- * by inferring types from the constructor arguments.
+ * The pipeline knows a filter is done when its run method returns.
+ *
+ * This constraint must be strictly followed because the component is
+ * registered with a reference to that constructor (or created through
+ * it by a method handle) and the types of its pipes are inferred from
+ * the type arguments of the interface (see ComponentDescriptor).
  *
  * @param <T> the input type
  * @param <U> the output type
@@ -1,29 +1,26 @@
 package pipefilter.filter;
 
+import pipefilter.config.ComponentDescriptor;
 import pipefilter.exception.PipeFilterException;
 import pipefilter.pipe.Pipe;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.ParameterizedType;
-import java.util.concurrent.CountDownLatch;
-
 import static pipefilter.config.Registry.registeredFilters;
 
 /**
  * @author Nardos Tessema
  *
- * FilterFactory creates filters by reflection (dynamically).
+ * FilterFactory creates filters dynamically.
  * The list of defined filters is available in the Registry.
- * It uses the Registry to determine which particular Filter to create.
+ * It uses the descriptors in the Registry to determine which
+ * particular Filter to create and what its pipe types are.
  *
  * A Filter of type Filter<T, U> is expected to have a single
  * constructor with the following signature:
  *
- * public TheOnlyConstructor(Pipe<T> input, Pipe<U> output, CountDownLatch signal);
+ * public TheOnlyConstructor(Pipe<T> input, Pipe<U> output);
  *
  * This constraint is important for the factory to be able to create
- * Filters dynamically by reflection.
+ * Filters dynamically.
  */
 public class FilterFactory {
 
@@ -31,28 +28,17 @@ public class FilterFactory {
      * @param name the unique identifier of the Filter implementation
      * @param input the input Pipe
      * @param output the output Pipe
-     * @param signal the countdown latch to signal completion of filtering
      * @param <T> the input type of the Filter
      * @param <U> the output type of the Filter
      * @return a Filter object
      */
-    public static <T, U> Filter<T, U> build(String name, Pipe<T> input, Pipe<U> output, CountDownLatch signal) {
-        Class<?> c = registeredFilters.get(name);
-        try {
-            @SuppressWarnings("unchecked")
-            Constructor<Filter<T, U>> constructor = (Constructor<Filter<T, U>>) c.getConstructors()[0];
-            return constructor.newInstance(input, output, signal);
-        } catch (IllegalAccessException iae) {
-            throw new PipeFilterException("Illegal access exception while building filter " + name);
-        } catch (InvocationTargetException ite) {
-            throw new PipeFilterException("Invocation target exception while building filter " + name);
-        } catch (InstantiationException ie) {
-            throw new PipeFilterException("Instantiation exception while building filter " + name);
-        }
+    @SuppressWarnings("unchecked")
+    public static <T, U> Filter<T, U> build(String name, Pipe<T> input, Pipe<U> output) {
+        return (Filter<T, U>) descriptor(name).create(input, output);
     }
 
     /**
-     * This method infers the input type of a filter by reflection.
+     * The input type of a filter (inferred when the filter was registered).
      *
      * Example: Suppose there is a Filter named "some-filter" and
      *          defined as:
@@ -65,12 +51,11 @@ public class FilterFactory {
      * @return the input type of the filter
      */
     public static String getFilterInputType(String name) {
-        ParameterizedType t = (ParameterizedType) registeredFilters.get(name).getGenericInterfaces()[0];
-        return t.getActualTypeArguments()[0].getTypeName();
+        return descriptor(name).getInputType();
     }
 
     /**
-     * This method infers the output type of a filter by reflection.
+     * The output type of a filter (inferred when the filter was registered).
      *
      * Example: Suppose there is a Filter named "some-filter" and
      *          defined as:
@@ -83,7 +68,14 @@ public class FilterFactory {
      * @return the output type of the filter
      */
     public static String getFilterOutputType(String name) {
-        ParameterizedType t = (ParameterizedType) registeredFilters.get(name).getGenericInterfaces()[0];
-        return t.getActualTypeArguments()[1].getTypeName();
+        return descriptor(name).getOutputType();
+    }
+
+    private static ComponentDescriptor<Filter<?, ?>> descriptor(String name) {
+        final ComponentDescriptor<Filter<?, ?>> descriptor = registeredFilters.get(name);
+        if(descriptor == null) {
+            throw new PipeFilterException("Filter not in the registry: " + name);
+        }
+        return descriptor;
     }
 }
@@ -0,0 +1,43 @@
+package pipefilter.filter;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * @author Nardos Tessema
+ *
+ * Term counts in a HashMap on the Java heap.
+ */
+public class HeapTermCountStore implements TermCountStore {
+
+    /**
+     * The key is the term and the value is the count.
+     */
+    private final Map<String, Integer> counts = new HashMap<>();
+
+    @Override
+    public int increment(String term) {
+        return counts.merge(term, 1, Integer::sum);
+    }
+
+    @Override
+    public int count(String term) {
+        return counts.getOrDefault(term, 0);
+    }
+
+    @Override
+    public int size() {
+        return counts.size();
+    }
+
+    @Override
+    public void forEach(ObjIntConsumer<String> action) {
+        counts.forEach(action::accept);
+    }
+
+    @Override
+    public void clear() {
+        counts.clear();
+    }
+}
@@ -2,8 +2,6 @@ package pipefilter.filter;
 
 import pipefilter.pipe.Pipe;
 
-import java.util.concurrent.CountDownLatch;
-
 import static pipefilter.config.Configuration.SENTINEL_VALUE;
 
 /**
@@ -21,7 +19,6 @@ public class NumericOnlyWordRemover implements Filter<String, String> {
 
     private final Pipe<String> input;
     private final Pipe<String> output;
-    private final CountDownLatch doneSignal;
 
     private final String WORD_PATTERN = "\\d+";
 
@@ -34,10 +31,9 @@ public class NumericOnlyWordRemover implements Filter<String, String> {
     private long inputCounter;
     private long outputCounter;
 
-    public NumericOnlyWordRemover(Pipe<String> input, Pipe<String> output, CountDownLatch doneSignal) {
+    public NumericOnlyWordRemover(Pipe<String> input, Pipe<String> output) {
         this.input = input;
         this.output = output;
-        this.doneSignal = doneSignal;
     }
 
     @Override
@@ -78,7 +74,6 @@ public class NumericOnlyWordRemover implements Filter<String, String> {
     @Override
     public void run() {
         filter();
-        doneSignal.countDown();
         System.out.printf("%1$-26s | %2$10s | %3$11s | %4$9s | %5$8s | %6$8s%n", getClass().getSimpleName(), cumulativeInputBlockingTime, cumulativeOutputBlockingTime, totalProcessingTime, inputCounter, outputCounter);
     }
 }
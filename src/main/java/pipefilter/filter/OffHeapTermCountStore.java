@@ -0,0 +1,338 @@
+package pipefilter.filter;
+
+import pipefilter.exception.PipeFilterException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ObjIntConsumer;
+
+import static pipefilter.config.Configuration.OFF_HEAP_SEGMENT_SIZE;
+
+/**
+ * @author Nardos Tessema
+ *
+ * Term counts in direct (off-heap) memory.
+ *
+ * A HashMap of hundreds of millions of terms is hundreds of millions of
+ * objects (nodes, Strings, byte arrays, Integers) that the garbage
+ * collector has to trace and copy. This store keeps the terms and their
+ * counts outside the Java heap, in direct ByteBuffers the collector
+ * never looks into:
+ *
+ * (1) Records are appended to segments of OFF_HEAP_SEGMENT_SIZE bytes:
+ *
+ *       | key length (short) | key (UTF-8 bytes) | count (int) |
+ *
+ *     A record never crosses a segment boundary. The address of a
+ *     record is (segment number << 32 | position in the segment).
+ *
+ * (2) The index is an open-addressing hash table (linear probing) of
+ *     16-byte slots, also in direct memory (in buffers of at most
+ *     INDEX_BUFFER_SLOTS slots, see below):
+ *
+ *       | address + 1 (long, 0: empty slot) | hash of the key (int) | unused (int) |
+ *
+ *     The table doubles when it is three quarters full. The hashes are
+ *     kept in the slots, so rehashing does not read the keys.
+ *
+ * A term is encoded into a reusable scratch array, so counting a term
+ * that has been seen before allocates nothing. Only the scratch array
+ * and the list of segments live on the heap.
+ *
+ * Not thread safe (one store per counter).
+ */
+public class OffHeapTermCountStore implements TermCountStore {
+
+    private static final int SLOT_SIZE = 16;
+    private static final int INITIAL_SLOTS = 1 << 16;
+    /**
+     * The number of slots of one buffer of the index (16 MB). A single
+     * ByteBuffer is indexed by int, so an index of more than 2^27 slots
+     * cannot be one buffer: slot numbers are long, and the index is an
+     * array of buffers of INDEX_BUFFER_SLOTS slots each.
+     */
+    private static final int INDEX_BUFFER_SLOTS = 1 << 20;
+
+    private final int segmentSize;
+    private final int indexBufferSlots;
+    private final List<ByteBuffer> segments = new ArrayList<>();
+    private ByteBuffer current;
+    private ByteBuffer[] index;
+    private long slots;
+    private int size;
+    private byte[] scratch = new byte[64];
+
+    public OffHeapTermCountStore() {
+        this(OFF_HEAP_SEGMENT_SIZE);
+    }
+
+    /**
+     * @param segmentSize the size of the segments of records in bytes
+     */
+    public OffHeapTermCountStore(int segmentSize) {
+        this(segmentSize, INDEX_BUFFER_SLOTS);
+    }
+
+    /**
+     * @param segmentSize the size of the segments of records in bytes
+     * @param indexBufferSlots the number of slots of one buffer of the index (a power of two, at most 2^26)
+     */
+    OffHeapTermCountStore(int segmentSize, int indexBufferSlots) {
+        if(Integer.bitCount(indexBufferSlots) != 1 || indexBufferSlots > 1 << 26) {
+            throw new PipeFilterException("Invalid number of slots of an index buffer: " + indexBufferSlots);
+        }
+        this.segmentSize = segmentSize;
+        this.indexBufferSlots = indexBufferSlots;
+        this.current = ByteBuffer.allocateDirect(segmentSize);
+        this.segments.add(current);
+        this.slots = INITIAL_SLOTS;
+        this.index = allocateIndex(slots);
+    }
+
+    @Override
+    public int increment(String term) {
+        final int length = encode(term);
+        final int hash = hash(length);
+        final long slot = find(hash, length);
+        if(slot >= 0) {
+            final long address = indexBuffer(index, slot).getLong(indexOffset(slot, indexBufferSlots)) - 1;
+            final ByteBuffer segment = segments.get((int) (address >>> 32));
+            final int countPosition = (int) address + 2 + length;
+            final int count = segment.getInt(countPosition) + 1;
+            segment.putInt(countPosition, count);
+            return count;
+        }
+        final long empty = -(slot + 1);
+        final ByteBuffer buffer = indexBuffer(index, empty);
+        final int offset = indexOffset(empty, indexBufferSlots);
+        buffer.putLong(offset, append(length) + 1);
+        buffer.putInt(offset + 8, hash);
+        if(++size > slots / 4 * 3) {
+            grow();
+        }
+        return 1;
+    }
+
+    @Override
+    public int count(String term) {
+        final int length = encode(term);
+        final long slot = find(hash(length), length);
+        if(slot < 0) {
+            return 0;
+        }
+        final long address = indexBuffer(index, slot).getLong(indexOffset(slot, indexBufferSlots)) - 1;
+        return segments.get((int) (address >>> 32)).getInt((int) address + 2 + length);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void forEach(ObjIntConsumer<String> action) {
+        for(ByteBuffer segment : segments) {
+            int position = 0;
+            while(position < segment.position()) {
+                final int length = segment.getShort(position);
+                final byte[] key = new byte[length];
+                for(int i = 0; i < length; i++) {
+                    key[i] = segment.get(position + 2 + i);
+                }
+                action.accept(new String(key, StandardCharsets.UTF_8), segment.getInt(position + 2 + length));
+                position += 2 + length + 4;
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        for(ByteBuffer buffer : index) {
+            for(int i = 0; i < buffer.capacity(); i += 8) {
+                buffer.putLong(i, 0L);
+            }
+        }
+        segments.clear();
+        current.clear();
+        segments.add(current);
+        size = 0;
+    }
+
+    /**
+     * @return the number of slots of the index
+     */
+    long slots() {
+        return slots;
+    }
+
+    /**
+     * @return the number of the buffer of the index that holds the slot
+     */
+    static int indexBufferNumber(long slot, int indexBufferSlots) {
+        return (int) (slot >>> Integer.numberOfTrailingZeros(indexBufferSlots));
+    }
+
+    /**
+     * @return the byte offset of the slot in its buffer of the index
+     */
+    static int indexOffset(long slot, int indexBufferSlots) {
+        return (int) (slot & (indexBufferSlots - 1)) * SLOT_SIZE;
+    }
+
+    private ByteBuffer indexBuffer(ByteBuffer[] index, long slot) {
+        return index[indexBufferNumber(slot, indexBufferSlots)];
+    }
+
+    /**
+     * @return an empty index of the given number of slots
+     */
+    private ByteBuffer[] allocateIndex(long slots) {
+        if(slots <= indexBufferSlots) {
+            return new ByteBuffer[] { ByteBuffer.allocateDirect((int) slots * SLOT_SIZE) };
+        }
+        final ByteBuffer[] buffers = new ByteBuffer[(int) (slots / indexBufferSlots)];
+        for(int i = 0; i < buffers.length; i++) {
+            buffers[i] = ByteBuffer.allocateDirect(indexBufferSlots * SLOT_SIZE);
+        }
+        return buffers;
+    }
+
+    /**
+     * @return the slot of the key in the scratch array, or -(empty slot + 1) if it is not in the table
+     */
+    private long find(int hash, int length) {
+        final long mask = slots - 1;
+        long slot = hash & mask;
+        while(true) {
+            final ByteBuffer buffer = indexBuffer(index, slot);
+            final int offset = indexOffset(slot, indexBufferSlots);
+            final long address = buffer.getLong(offset);
+            if(address == 0L) {
+                return -(slot + 1);
+            }
+            if(buffer.getInt(offset + 8) == hash && keyEquals(address - 1, length)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private boolean keyEquals(long address, int length) {
+        final ByteBuffer segment = segments.get((int) (address >>> 32));
+        final int position = (int) address;
+        if(segment.getShort(position) != length) {
+            return false;
+        }
+        for(int i = 0; i < length; i++) {
+            if(segment.get(position + 2 + i) != scratch[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Appends a record (count 1) of the key in the scratch array.
+     *
+     * @return the address of the record
+     */
+    private long append(int length) {
+        final int recordSize = 2 + length + 4;
+        if(length > Short.MAX_VALUE || recordSize > segmentSize) {
+            throw new PipeFilterException("Term too long for the off-heap term count store: " + length + " bytes");
+        }
+        if(current.remaining() < recordSize) {
+            current = ByteBuffer.allocateDirect(segmentSize);
+            segments.add(current);
+        }
+        final int position = current.position();
+        current.putShort((short) length);
+        current.put(scratch, 0, length);
+        current.putInt(1);
+        return ((long) (segments.size() - 1) << 32) | position;
+    }
+
+    /**
+     * Doubles the number of slots of the index.
+     */
+    private void grow() {
+        final long newSlots = slots * 2;
+        final ByteBuffer[] newIndex = allocateIndex(newSlots);
+        final long mask = newSlots - 1;
+        for(long slot = 0; slot < slots; slot++) {
+            final ByteBuffer buffer = indexBuffer(index, slot);
+            final int offset = indexOffset(slot, indexBufferSlots);
+            final long address = buffer.getLong(offset);
+            if(address == 0L) {
+                continue;
+            }
+            final int hash = buffer.getInt(offset + 8);
+            long newSlot = hash & mask;
+            while(indexBuffer(newIndex, newSlot).getLong(indexOffset(newSlot, indexBufferSlots)) != 0L) {
+                newSlot = (newSlot + 1) & mask;
+            }
+            final ByteBuffer newBuffer = indexBuffer(newIndex, newSlot);
+            final int newOffset = indexOffset(newSlot, indexBufferSlots);
+            newBuffer.putLong(newOffset, address);
+            newBuffer.putInt(newOffset + 8, hash);
+        }
+        index = newIndex;
+        slots = newSlots;
+    }
+
+    /**
+     * Encodes a term as UTF-8 into the scratch array
+     * (unpaired surrogates are encoded as '?').
+     *
+     * @return the number of bytes
+     */
+    private int encode(String term) {
+        final int maximum = term.length() * 3;
+        if(scratch.length < maximum) {
+            scratch = new byte[Math.max(maximum, scratch.length * 2)];
+        }
+        int n = 0;
+        for(int i = 0; i < term.length(); i++) {
+            final char c = term.charAt(i);
+            if(c < 0x80) {
+                scratch[n++] = (byte) c;
+            } else if(c < 0x800) {
+                scratch[n++] = (byte) (0xC0 | (c >> 6));
+                scratch[n++] = (byte) (0x80 | (c & 0x3F));
+            } else if(Character.isHighSurrogate(c) && i + 1 < term.length() && Character.isLowSurrogate(term.charAt(i + 1))) {
+                final int codePoint = Character.toCodePoint(c, term.charAt(++i));
+                scratch[n++] = (byte) (0xF0 | (codePoint >> 18));
+                scratch[n++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                scratch[n++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                scratch[n++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if(Character.isSurrogate(c)) {
+                scratch[n++] = (byte) '?';
+            } else {
+                scratch[n++] = (byte) (0xE0 | (c >> 12));
+                scratch[n++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                scratch[n++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return n;
+    }
+
+    /**
+     * FNV-1a of the key in the scratch array, with the bits spread
+     * by the finalizer of MurmurHash3 (linear probing needs good low bits).
+     */
+    private int hash(int length) {
+        int h = 0x811C9DC5;
+        for(int i = 0; i < length; i++) {
+            h ^= scratch[i];
+            h *= 0x01000193;
+        }
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
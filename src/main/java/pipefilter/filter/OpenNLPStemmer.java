@@ -4,8 +4,6 @@ import opennlp.tools.stemmer.PorterStemmer;
 import opennlp.tools.stemmer.Stemmer;
 import pipefilter.pipe.Pipe;
 
-import java.util.concurrent.CountDownLatch;
-
 import static pipefilter.config.Configuration.SENTINEL_VALUE;
 
 /**
@@ -40,7 +38,6 @@ public class OpenNLPStemmer implements Filter<String, String> {
 
     private final Pipe<String> input;
     private final Pipe<String> output;
-    private final CountDownLatch doneSignal;
 
     /**
      * Timing instrumentation code.
@@ -59,10 +56,9 @@ public class OpenNLPStemmer implements Filter<String, String> {
     private long inputCounter;
     private long outputCounter;
 
-    public OpenNLPStemmer(Pipe<String> input, Pipe<String> output, CountDownLatch doneSignal) {
+    public OpenNLPStemmer(Pipe<String> input, Pipe<String> output) {
         this.input = input;
         this.output = output;
-        this.doneSignal = doneSignal;
     }
 
     @Override
@@ -97,7 +93,8 @@ public class OpenNLPStemmer implements Filter<String, String> {
                 cumulativeOutputBlockingTime += System.currentTimeMillis() - beforeOutputPipe;
                 outputCounter++;
             } catch (InterruptedException ie) {
-                ie.printStackTrace();
+                Thread.currentThread().interrupt();
+                break;
             }
         }
         totalProcessingTime = System.currentTimeMillis() - start;
@@ -106,7 +103,6 @@ public class OpenNLPStemmer implements Filter<String, String> {
     @Override
     public void run() {
         filter();
-        doneSignal.countDown();
         System.out.printf("%1$-26s | %2$10s | %3$11s | %4$9s | %5$8s | %6$8s%n", getClass().getSimpleName(), cumulativeInputBlockingTime, cumulativeOutputBlockingTime, totalProcessingTime, inputCounter, outputCounter);
     }
 }
@@ -1,9 +1,11 @@
 package pipefilter.filter;
 
+import pipefilter.pipe.OrderedLane;
 import pipefilter.pipe.Pipe;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static pipefilter.config.Configuration.SENTINEL_VALUE;
 
@@ -21,12 +23,22 @@ import static pipefilter.config.Configuration.SENTINEL_VALUE;
  *                              +--(pipe)-->[F1]--
  *                              +--(****)-->[**]--
  *
+ * The number of output pipes may change while the stream flows:
+ * output pipes can be added (see addOutput) and retired (see retireOutput).
+ * A retired output pipe receives the sentinel value so that the filter
+ * instance behind it finishes, and it receives no more items afterwards.
+ * For this to work, the list of outputs must be safe for concurrent
+ * reading and writing (e.g. CopyOnWriteArrayList).
+ *
+ * An ordered Parallelizer stamps every item with its sequence number in
+ * the stream (its output pipes are the inputs of OrderedLanes), so that
+ * the Serializer can put the outputs of the lanes back in order.
  */
 public class Parallelizer implements Filter<String, String> {
 
     private final Pipe<String> input;
     private final List<Pipe<String>> outputs;
-    private final CountDownLatch doneSignal;
+    private final boolean ordered;
 
     /**
      * Timing instrumentation code.
@@ -39,16 +51,32 @@ public class Parallelizer implements Filter<String, String> {
      * rest of the instrumentation code will be clearly
      * visible with the help of the IDE error highlighting.
      */
-    private long cumulativeInputBlockingTime;
-    private long cumulativeOutputBlockingTime;
+    private volatile long cumulativeInputBlockingTime;
+    private volatile long cumulativeOutputBlockingTime;
     private long totalProcessingTime;
-    private long inputCounter;
+    private volatile long inputCounter;
     private long outputCounter;
 
-    public Parallelizer(Pipe<String> input, List<Pipe<String>> outputs, CountDownLatch doneSignal) {
+    /**
+     * The number of outstanding requests to retire an output pipe.
+     */
+    private final AtomicInteger retirements = new AtomicInteger();
+    /**
+     * Set once the sentinel value has been dispatched to the output pipes.
+     */
+    private boolean ended;
+
+    public Parallelizer(Pipe<String> input, List<Pipe<String>> outputs) {
+        this(input, outputs, false);
+    }
+
+    /**
+     * @param ordered if true, the output pipes are OrderedLane inputs and get sequence numbers
+     */
+    public Parallelizer(Pipe<String> input, List<Pipe<String>> outputs, boolean ordered) {
         this.input = input;
         this.outputs = outputs;
-        this.doneSignal = doneSignal;
+        this.ordered = ordered;
     }
 
     @Override
@@ -57,8 +85,16 @@ public class Parallelizer implements Filter<String, String> {
         outputCounter = 0L;
         cumulativeInputBlockingTime = 0L;
         cumulativeOutputBlockingTime = 0L;
+        /*
+         * A new run (of a reset pipeline) starts with no pending retirements.
+         */
+        retirements.set(0);
+        synchronized (this) {
+            ended = false;
+        }
         long start = System.currentTimeMillis();
 
+        long sequence = 0L;
         int round = 0;
         while(true) {
             long beforeInputPipe;
@@ -74,33 +110,110 @@ public class Parallelizer implements Filter<String, String> {
                  * sentinel on all N output pipes.
                  */
                 if(word.equals(SENTINEL_VALUE)) {
-                    for (Pipe<String> output : outputs) {
+                    final List<Pipe<String>> remaining;
+                    synchronized (this) {
+                        ended = true;
+                        remaining = new ArrayList<>(outputs);
+                    }
+                    for (Pipe<String> output : remaining) {
                         beforeOutputPipe = System.currentTimeMillis();
                         output.put(word);
                         cumulativeOutputBlockingTime += System.currentTimeMillis() - beforeOutputPipe;
                     }
                     break;
                 }
+                if(retirements.get() > 0) {
+                    retire();
+                }
+                if(round >= outputs.size()) {
+                    round = 0;
+                }
                 /*
                  * put to the output pipes in Round-Robin turn
                  */
                 beforeOutputPipe = System.currentTimeMillis();
-                outputs.get(round).put(word);
+                if(ordered) {
+                    ((OrderedLane.Input) outputs.get(round)).put(sequence++, word);
+                } else {
+                    outputs.get(round).put(word);
+                }
                 cumulativeOutputBlockingTime += System.currentTimeMillis() - beforeOutputPipe;
                 outputCounter++;
 
                 round = (round + 1) % outputs.size();
             } catch (InterruptedException ie) {
-                ie.printStackTrace();
+                Thread.currentThread().interrupt();
+                break;
             }
         }
         totalProcessingTime = System.currentTimeMillis() - start;
     }
 
+    /**
+     * Adds an output pipe to the round-robin rotation.
+     *
+     * @param pipe the input pipe of a new parallel filter instance
+     * @return false if the stream has already ended (the pipe is not added
+     *         and will never receive the sentinel value from this Parallelizer)
+     */
+    public synchronized boolean addOutput(Pipe<String> pipe) {
+        if(ended) {
+            return false;
+        }
+        outputs.add(pipe);
+        return true;
+    }
+
+    /**
+     * Requests that one output pipe be taken out of the rotation.
+     * The request is carried out by the Parallelizer thread before
+     * it dispatches the next item. The last output is never retired.
+     *
+     * @return false if the request is turned down: the stream has already
+     *         ended, or the outstanding requests would retire the last output
+     */
+    public synchronized boolean retireOutput() {
+        if(ended || outputs.size() - retirements.get() < 2) {
+            return false;
+        }
+        retirements.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Removes the last output pipe and puts the sentinel value on it.
+     */
+    private void retire() throws InterruptedException {
+        retirements.decrementAndGet();
+        final Pipe<String> retired;
+        synchronized (this) {
+            if(outputs.size() < 2) {
+                return;
+            }
+            retired = outputs.remove(outputs.size() - 1);
+        }
+        retired.put(SENTINEL_VALUE);
+    }
+
+    public int getNumberOfOutputs() {
+        return outputs.size();
+    }
+
+    public long getCumulativeInputBlockingTime() {
+        return cumulativeInputBlockingTime;
+    }
+
+    public long getCumulativeOutputBlockingTime() {
+        return cumulativeOutputBlockingTime;
+    }
+
+    public long getInputCounter() {
+        return inputCounter;
+    }
+
     @Override
     public void run() {
         filter();
-        doneSignal.countDown();
         System.out.printf("%1$-26s + %2$10s + %3$11s + %4$9s + %5$8s + %6$8s%n", getClass().getSimpleName(), cumulativeInputBlockingTime, cumulativeOutputBlockingTime, totalProcessingTime, inputCounter, outputCounter);
     }
 }
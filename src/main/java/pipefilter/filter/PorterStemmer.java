@@ -2,8 +2,6 @@ package pipefilter.filter;
 
 import pipefilter.pipe.Pipe;
 
-import java.util.concurrent.CountDownLatch;
-
 import static pipefilter.config.Configuration.SENTINEL_VALUE;
 
 /**
@@ -22,7 +20,6 @@ public class PorterStemmer implements Filter<String, String> {
 
     private final Pipe<String> input;
     private final Pipe<String> output;
-    private final CountDownLatch doneSignal;
 
     /**
      * Timing instrumentation instance variables
@@ -33,10 +30,9 @@ public class PorterStemmer implements Filter<String, String> {
     private long inputCounter;
     private long outputCounter;
 
-    public PorterStemmer(Pipe<String> input, Pipe<String> output, CountDownLatch doneSignal) {
+    public PorterStemmer(Pipe<String> input, Pipe<String> output) {
         this.input = input;
         this.output = output;
-        this.doneSignal = doneSignal;
     }
 
     @Override
@@ -71,7 +67,8 @@ public class PorterStemmer implements Filter<String, String> {
                 cumulativeOutputBlockingTime += System.currentTimeMillis() - beforeOutputPipe;
                 outputCounter++;
             } catch (InterruptedException ie) {
-                ie.printStackTrace();
+                Thread.currentThread().interrupt();
+                break;
             }
         }
         totalProcessingTime = System.currentTimeMillis() - start;
@@ -80,7 +77,6 @@ public class PorterStemmer implements Filter<String, String> {
     @Override
     public void run() {
         filter();
-        doneSignal.countDown();
         System.out.printf("%1$-26s | %2$10s | %3$11s | %4$9s | %5$8s | %6$8s%n", getClass().getSimpleName(), cumulativeInputBlockingTime, cumulativeOutputBlockingTime, totalProcessingTime, inputCounter, outputCounter);
     }
 }
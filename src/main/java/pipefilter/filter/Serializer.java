@@ -1,9 +1,15 @@
 package pipefilter.filter;
 
+import pipefilter.pipe.FanInSignal;
+import pipefilter.pipe.OrderedLane;
 import pipefilter.pipe.Pipe;
 
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.concurrent.CountDownLatch;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
 
 import static pipefilter.config.Configuration.SENTINEL_VALUE;
 
@@ -19,12 +25,41 @@ import static pipefilter.config.Configuration.SENTINEL_VALUE;
  * -->+--(pipe)-->[F1]--(pipe)--+-->[Serializer]--(pipe)-->
  *    +--(pipe)-->[F1]--(pipe)--+
  *             -->[**]--(****)--+
+ *
+ * Input pipes can be added while the stream flows (see addInput).
+ * They join the rotation the next time the Serializer looks at it.
+ *
+ * The filter instances do not produce one output per input (e.g. the
+ * stop word remover drops items), so the Serializer cannot block on
+ * an empty input pipe: the Parallelizer may be blocked on the full
+ * input pipe of another instance whose output nobody takes. An empty
+ * input pipe loses its turn right away, and once all of them have been
+ * found empty, the Serializer sleeps on its FanInSignal until one of
+ * the filter instances puts something. The filter instances must put
+ * through pipes that raise the signal (see getSignal). The time the
+ * Serializer sleeps is the time it is blocked on its input.
+ *
+ * An ordered Serializer puts the items back in the order of the stream.
+ * Its input pipes are the outputs of OrderedLanes, so every item comes
+ * with the sequence number the Parallelizer gave its input, and every
+ * input ends with an end-of-item entry. The Serializer merges the lanes
+ * like sorted lists: it takes at most one entry per lane (the head of
+ * the lane) and only passes on the items of the next sequence number,
+ * from whichever lane has them at its head. A lane holds its items in
+ * sequence, so the reorder buffer never holds more than one entry per
+ * lane; the lanes that are ahead wait on their full output pipes.
  */
 public class Serializer implements Filter<String, String> {
 
     private final List<Pipe<String>> inputs;
     private final Pipe<String> output;
-    private final CountDownLatch doneSignal;
+    private final boolean ordered;
+    private final FanInSignal signal = new FanInSignal();
+
+    /**
+     * Input pipes added by other threads, not yet in the rotation.
+     */
+    private final Queue<Pipe<String>> pendingInputs = new ConcurrentLinkedQueue<>();
 
     /**
      * Timing instrumentation code.
@@ -43,10 +78,17 @@ public class Serializer implements Filter<String, String> {
     private long inputCounter;
     private long outputCounter;
 
-    public Serializer(List<Pipe<String>> inputs, Pipe<String> output, CountDownLatch doneSignal) {
+    public Serializer(List<Pipe<String>> inputs, Pipe<String> output) {
+        this(inputs, output, false);
+    }
+
+    /**
+     * @param ordered if true, the input pipes are OrderedLane outputs and the items are put back in sequence
+     */
+    public Serializer(List<Pipe<String>> inputs, Pipe<String> output, boolean ordered) {
         this.inputs = inputs;
         this.output = output;
-        this.doneSignal = doneSignal;
+        this.ordered = ordered;
     }
 
     @Override
@@ -56,24 +98,51 @@ public class Serializer implements Filter<String, String> {
         cumulativeInputBlockingTime = 0L;
         cumulativeOutputBlockingTime = 0L;
         long start = System.currentTimeMillis();
+        if(ordered) {
+            serializeInOrder();
+            totalProcessingTime = System.currentTimeMillis() - start;
+            return;
+        }
         try {
             long beforeInputPipe;
             long beforeOutputPipe;
             int round = 0;
+            /*
+             * The number of input pipes found empty in a row, and the
+             * version of the signal read before the first of them
+             */
+            int empty = 0;
+            long seen = 0L;
+            joinPendingInputs();
             while(inputs.size() > 0) {
-                beforeInputPipe = System.currentTimeMillis();
-                final String word = inputs.get(round).take();
-                cumulativeInputBlockingTime += System.currentTimeMillis() - beforeInputPipe;
-                inputCounter++;
+                if(empty == 0) {
+                    seen = signal.version();
+                }
+                final String word = inputs.get(round).poll(0L, TimeUnit.NANOSECONDS);
 
-                if(word.equals(SENTINEL_VALUE)) {
+                if(word == null) {
+                    /*
+                     * Nothing on this pipe for now; try the next one.
+                     * Nothing on any pipe: sleep until a filter instance puts.
+                     */
+                    if(++empty >= inputs.size()) {
+                        beforeInputPipe = System.currentTimeMillis();
+                        signal.await(seen);
+                        cumulativeInputBlockingTime += System.currentTimeMillis() - beforeInputPipe;
+                        empty = 0;
+                    }
+                } else if(word.equals(SENTINEL_VALUE)) {
+                    inputCounter++;
                     /*
                      * The pipe has exhausted its stream.
                      * Remove the pipe form the list of inputs
                      * so as not to block on it in the future.
                      */
                     inputs.remove(round);
+                    empty = 0;
                 } else {
+                    inputCounter++;
+                    empty = 0;
                     beforeOutputPipe = System.currentTimeMillis();
                     output.put(word);
                     cumulativeOutputBlockingTime += System.currentTimeMillis() - beforeOutputPipe;
@@ -82,6 +151,10 @@ public class Serializer implements Filter<String, String> {
                 /*
                  * take from input pipes in Round-Robin
                  */
+                if(!pendingInputs.isEmpty() || inputs.isEmpty()) {
+                    joinPendingInputs();
+                    empty = 0;
+                }
                 round = inputs.size() > 0 ? (round + 1) % inputs.size() : -1;
             }
             /*
@@ -92,15 +165,141 @@ public class Serializer implements Filter<String, String> {
             output.put(SENTINEL_VALUE);
             cumulativeOutputBlockingTime += System.currentTimeMillis() - beforeOutputPipe;
         } catch (InterruptedException ie) {
-            ie.printStackTrace();
+            Thread.currentThread().interrupt();
         }
         totalProcessingTime = System.currentTimeMillis() - start;
     }
 
+    /**
+     * The ordered serialization (see above).
+     */
+    private void serializeInOrder() {
+        final Map<Pipe<String>, OrderedLane.Entry> heads = new IdentityHashMap<>();
+        long next = 0L;
+        try {
+            long beforeInputPipe;
+            long beforeOutputPipe;
+            int round = 0;
+            /*
+             * The number of lanes found without new entries in a row,
+             * and the version of the signal read before the first of them
+             */
+            int idle = 0;
+            long seen = 0L;
+            joinPendingInputs();
+            while(inputs.size() > 0) {
+                if(idle == 0) {
+                    seen = signal.version();
+                }
+                final OrderedLane.Output lane = (OrderedLane.Output) inputs.get(round);
+                OrderedLane.Entry head = heads.remove(lane);
+                boolean moved = false;
+                while(true) {
+                    if(head == null) {
+                        head = lane.pollEntry(0L, TimeUnit.NANOSECONDS);
+                        if(head == null) {
+                            break;
+                        }
+                        moved = true;
+                        inputCounter++;
+                    }
+                    if(head.getSequence() != next) {
+                        break;
+                    }
+                    /*
+                     * The lane has the next item in sequence: pass its
+                     * outputs on, up to its end.
+                     */
+                    if(head.isEndOfItem()) {
+                        next++;
+                    } else {
+                        beforeOutputPipe = System.currentTimeMillis();
+                        output.put(head.getValue());
+                        cumulativeOutputBlockingTime += System.currentTimeMillis() - beforeOutputPipe;
+                        outputCounter++;
+                    }
+                    moved = true;
+                    head = null;
+                }
+                /*
+                 * No lane has anything new: sleep until a filter instance puts.
+                 */
+                idle = moved ? 0 : idle + 1;
+                if(idle >= inputs.size()) {
+                    beforeInputPipe = System.currentTimeMillis();
+                    signal.await(seen);
+                    cumulativeInputBlockingTime += System.currentTimeMillis() - beforeInputPipe;
+                    idle = 0;
+                }
+                if(head != null && head.getSequence() == OrderedLane.NO_SEQUENCE) {
+                    /*
+                     * The lane has ended (the sentinel value).
+                     */
+                    inputs.remove(round);
+                    idle = 0;
+                } else if(head != null) {
+                    heads.put(lane, head);
+                }
+                if(!pendingInputs.isEmpty() || inputs.isEmpty()) {
+                    joinPendingInputs();
+                    idle = 0;
+                }
+                round = inputs.size() > 0 ? (round + 1) % inputs.size() : -1;
+            }
+            beforeOutputPipe = System.currentTimeMillis();
+            output.put(SENTINEL_VALUE);
+            cumulativeOutputBlockingTime += System.currentTimeMillis() - beforeOutputPipe;
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public boolean isOrdered() {
+        return ordered;
+    }
+
+    /**
+     * @return the signal the input pipes must raise when something is put into them
+     *         (see FanInSignal.signalOnPut)
+     */
+    public FanInSignal getSignal() {
+        return signal;
+    }
+
+    /**
+     * Adds an input pipe to the rotation. Safe to call from any thread.
+     *
+     * The pipe must eventually deliver the sentinel value.
+     *
+     * @param pipe the output pipe of a new parallel filter instance
+     */
+    public void addInput(Pipe<String> pipe) {
+        pendingInputs.add(pipe);
+        signal.raise();
+    }
+
+    /**
+     * Replaces the input pipes before the next run (of a reset pipeline).
+     * Must not be called while the Serializer is running.
+     *
+     * @param pipes the output pipes of the parallel filter instances
+     */
+    public void resetInputs(List<Pipe<String>> pipes) {
+        pendingInputs.clear();
+        inputs.clear();
+        inputs.addAll(pipes);
+    }
+
+    private void joinPendingInputs() {
+        Pipe<String> pipe;
+        while((pipe = pendingInputs.poll()) != null) {
+            inputs.add(pipe);
+        }
+    }
+
     @Override
     public void run() {
         filter();
-        doneSignal.countDown();
         System.out.printf("%1$-26s - %2$10s - %3$11s - %4$9s - %5$8s - %6$8s%n", getClass().getSimpleName(), cumulativeInputBlockingTime, cumulativeOutputBlockingTime, totalProcessingTime, inputCounter, outputCounter);
     }
 }
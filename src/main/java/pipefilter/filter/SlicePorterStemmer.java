@@ -0,0 +1,90 @@
+package pipefilter.filter;
+
+import pipefilter.pipe.Pipe;
+
+/**
+ * @author Nardos Tessema
+ *
+ * The slice counterpart of the PorterStemmer.
+ *
+ * The stem replaces the token in the buffer of the batch. A stem is
+ * not longer than its word, but should it be, it is appended to the
+ * end of the buffer and the token points there.
+ *
+ * @see pipefilter.filter.TokenBatch
+ */
+public class SlicePorterStemmer implements Filter<TokenBatch, TokenBatch> {
+
+    private final Pipe<TokenBatch> input;
+    private final Pipe<TokenBatch> output;
+
+    private final Stemmer stemmer = new Stemmer();
+
+    /**
+     * Timing instrumentation instance variables
+     */
+    private long cumulativeInputBlockingTime;
+    private long cumulativeOutputBlockingTime;
+    private long totalProcessingTime;
+    private long inputCounter;
+    private long outputCounter;
+
+    public SlicePorterStemmer(Pipe<TokenBatch> input, Pipe<TokenBatch> output) {
+        this.input = input;
+        this.output = output;
+    }
+
+    @Override
+    public void filter() {
+        inputCounter = 0L;
+        outputCounter = 0L;
+        cumulativeInputBlockingTime = 0L;
+        cumulativeOutputBlockingTime = 0L;
+        long start = System.currentTimeMillis();
+        while(true) {
+            long beforeInputPipe;
+            long beforeOutputPipe;
+            try {
+                beforeInputPipe = System.currentTimeMillis();
+                final TokenBatch batch = input.take();
+                cumulativeInputBlockingTime += System.currentTimeMillis() - beforeInputPipe;
+
+                if(batch.isSentinelValue()) {
+                    beforeOutputPipe = System.currentTimeMillis();
+                    output.put(batch);
+                    cumulativeOutputBlockingTime += System.currentTimeMillis() - beforeOutputPipe;
+                    break;
+                }
+                inputCounter += batch.size();
+                for(int t = 0; t < batch.size(); t++) {
+                    final int offset = batch.offset(t);
+                    final int length = batch.length(t);
+                    stemmer.add(batch.chars(), offset, length);
+                    stemmer.stem();
+                    final int stemLength = stemmer.getResultLength();
+                    if(stemLength <= length) {
+                        System.arraycopy(stemmer.getResultBuffer(), 0, batch.chars(), offset, stemLength);
+                        batch.set(t, offset, stemLength);
+                    } else {
+                        batch.set(t, batch.append(stemmer.getResultBuffer(), 0, stemLength), stemLength);
+                    }
+                }
+                outputCounter += batch.size();
+
+                beforeOutputPipe = System.currentTimeMillis();
+                output.put(batch);
+                cumulativeOutputBlockingTime += System.currentTimeMillis() - beforeOutputPipe;
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        totalProcessingTime = System.currentTimeMillis() - start;
+    }
+
+    @Override
+    public void run() {
+        filter();
+        System.out.printf("%1$-26s | %2$10s | %3$11s | %4$9s | %5$8s | %6$8s%n", getClass().getSimpleName(), cumulativeInputBlockingTime, cumulativeOutputBlockingTime, totalProcessingTime, inputCounter, outputCounter);
+    }
+}
@@ -0,0 +1,86 @@
+package pipefilter.filter;
+
+import pipefilter.pipe.Pipe;
+
+/**
+ * @author Nardos Tessema
+ *
+ * The slice counterpart of the TrieStopWordRemover.
+ *
+ * The stop word trie is walked over the chars of the slices,
+ * so no String is made to look a token up.
+ *
+ * @see pipefilter.filter.TokenBatch
+ */
+public class SliceStopWordRemover implements Filter<TokenBatch, TokenBatch> {
+
+    private final Pipe<TokenBatch> input;
+    private final Pipe<TokenBatch> output;
+
+    private final StopWordTrie stopWords = StopWordTrie.getConfigured();
+
+    /**
+     * Timing instrumentation instance variables
+     */
+    private long cumulativeInputBlockingTime;
+    private long cumulativeOutputBlockingTime;
+    private long totalProcessingTime;
+    private long inputCounter;
+    private long outputCounter;
+
+    public SliceStopWordRemover(Pipe<TokenBatch> input, Pipe<TokenBatch> output) {
+        this.input = input;
+        this.output = output;
+    }
+
+    @Override
+    public void filter() {
+        inputCounter = 0L;
+        outputCounter = 0L;
+        cumulativeInputBlockingTime = 0L;
+        cumulativeOutputBlockingTime = 0L;
+        long start = System.currentTimeMillis();
+        while(true) {
+            long beforeInputPipe;
+            long beforeOutputPipe;
+            try {
+                beforeInputPipe = System.currentTimeMillis();
+                final TokenBatch batch = input.take();
+                cumulativeInputBlockingTime += System.currentTimeMillis() - beforeInputPipe;
+
+                if(batch.isSentinelValue()) {
+                    beforeOutputPipe = System.currentTimeMillis();
+                    output.put(batch);
+                    cumulativeOutputBlockingTime += System.currentTimeMillis() - beforeOutputPipe;
+                    break;
+                }
+                inputCounter += batch.size();
+                final char[] chars = batch.chars();
+                int kept = 0;
+                for(int t = 0; t < batch.size(); t++) {
+                    final int offset = batch.offset(t);
+                    final int length = batch.length(t);
+                    if(!stopWords.contains(chars, offset, length)) {
+                        batch.set(kept++, offset, length);
+                    }
+                }
+                batch.truncate(kept);
+                outputCounter += batch.size();
+
+                beforeOutputPipe = System.currentTimeMillis();
+                output.put(batch);
+                cumulativeOutputBlockingTime += System.currentTimeMillis() - beforeOutputPipe;
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        totalProcessingTime = System.currentTimeMillis() - start;
+    }
+
+    @Override
+    public void run() {
+        filter();
+        System.out.printf("%1$-26s | %2$10s | %3$11s | %4$9s | %5$8s | %6$8s%n", getClass().getSimpleName(), cumulativeInputBlockingTime, cumulativeOutputBlockingTime, totalProcessingTime, inputCounter, outputCounter);
+    }
+}
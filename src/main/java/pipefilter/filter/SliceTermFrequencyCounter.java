@@ -0,0 +1,204 @@
+package pipefilter.filter;
+
+import pipefilter.pipe.Pipe;
+
+import java.util.Arrays;
+
+import static pipefilter.config.Configuration.SENTINEL_VALUE;
+
+/**
+ * @author Nardos Tessema
+ *
+ * A filter that counts the number of occurrences of token slices.
+ *
+ * The counts are kept in an open-addressing table whose keys are
+ * compared with the chars of the slices, so a known term is counted
+ * without allocating anything. A String is made only when a new term
+ * enters the table.
+ *
+ * Input: batches of token slices
+ * Output: (term, frequency) pairs - one per distinct term - put when
+ *         the input stream has ended, followed by the sentinel value.
+ *
+ * @see pipefilter.filter.TokenBatch
+ */
+public class SliceTermFrequencyCounter implements Filter<TokenBatch, TermFrequency> {
+
+    private final Pipe<TokenBatch> input;
+    private final Pipe<TermFrequency> output;
+
+    private final SliceCounts counts = new SliceCounts();
+
+    /**
+     * Timing instrumentation instance variables
+     */
+    private long cumulativeInputBlockingTime;
+    private long cumulativeOutputBlockingTime;
+    private long totalProcessingTime;
+    private long inputCounter;
+    private long outputCounter;
+
+    public SliceTermFrequencyCounter(Pipe<TokenBatch> input, Pipe<TermFrequency> output) {
+        this.input = input;
+        this.output = output;
+    }
+
+    @Override
+    public void filter() {
+        inputCounter = 0;
+        outputCounter = 0;
+        cumulativeInputBlockingTime = 0;
+        cumulativeOutputBlockingTime = 0;
+        /*
+         * Every run counts a new stream from scratch.
+         */
+        counts.clear();
+        long start = System.currentTimeMillis();
+        try {
+            long beforeInputPipe;
+            while(true) {
+                beforeInputPipe = System.currentTimeMillis();
+                final TokenBatch batch = input.take();
+                cumulativeInputBlockingTime += System.currentTimeMillis() - beforeInputPipe;
+                if(batch.isSentinelValue()) {
+                    break;
+                }
+                inputCounter += batch.size();
+                for(int t = 0; t < batch.size(); t++) {
+                    counts.increment(batch.chars(), batch.offset(t), batch.length(t));
+                }
+            }
+            /*
+             * The stream has ended. Put the (term, frequency) pairs.
+             */
+            final long beforeOutputPipe = System.currentTimeMillis();
+            for(int slot = 0; slot < counts.terms.length; slot++) {
+                if(counts.terms[slot] != null) {
+                    output.put(new TermFrequency(counts.terms[slot], counts.counts[slot]));
+                    outputCounter++;
+                }
+            }
+            output.put(new TermFrequency(SENTINEL_VALUE, 0));
+            cumulativeOutputBlockingTime += System.currentTimeMillis() - beforeOutputPipe;
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+        totalProcessingTime = System.currentTimeMillis() - start;
+    }
+
+    @Override
+    public void run() {
+        filter();
+        System.out.printf("%1$-26s | %2$10s | %3$11s | %4$9s | %5$8s | %6$8s%n", getClass().getSimpleName(), cumulativeInputBlockingTime, cumulativeOutputBlockingTime, totalProcessingTime, inputCounter, outputCounter);
+    }
+
+    /**
+     * An open-addressing (linear probing) table of term counts
+     * that is looked up with char slices.
+     */
+    static final class SliceCounts {
+        private String[] terms = new String[1024];
+        private int[] hashes = new int[1024];
+        private int[] counts = new int[1024];
+        private int size;
+
+        /**
+         * @return the count of the slice after the increment
+         */
+        int increment(char[] chars, int offset, int length) {
+            final int hash = hash(chars, offset, length);
+            final int mask = terms.length - 1;
+            int slot = mix(hash) & mask;
+            while(terms[slot] != null) {
+                if(hashes[slot] == hash && matches(terms[slot], chars, offset, length)) {
+                    return ++counts[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            /*
+             * A new term: the only allocation of the counter.
+             */
+            terms[slot] = new String(chars, offset, length);
+            hashes[slot] = hash;
+            counts[slot] = 1;
+            if(++size > terms.length / 2) {
+                grow();
+            }
+            return 1;
+        }
+
+        /**
+         * @return the count of the term (0 if it has not occurred)
+         */
+        int count(String term) {
+            final char[] chars = term.toCharArray();
+            final int hash = hash(chars, 0, chars.length);
+            final int mask = terms.length - 1;
+            int slot = mix(hash) & mask;
+            while(terms[slot] != null) {
+                if(hashes[slot] == hash && terms[slot].equals(term)) {
+                    return counts[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return 0;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void clear() {
+            Arrays.fill(terms, null);
+            size = 0;
+        }
+
+        private void grow() {
+            final String[] oldTerms = terms;
+            final int[] oldHashes = hashes;
+            final int[] oldCounts = counts;
+            terms = new String[2 * oldTerms.length];
+            hashes = new int[terms.length];
+            counts = new int[terms.length];
+            final int mask = terms.length - 1;
+            for(int i = 0; i < oldTerms.length; i++) {
+                if(oldTerms[i] != null) {
+                    int slot = mix(oldHashes[i]) & mask;
+                    while(terms[slot] != null) {
+                        slot = (slot + 1) & mask;
+                    }
+                    terms[slot] = oldTerms[i];
+                    hashes[slot] = oldHashes[i];
+                    counts[slot] = oldCounts[i];
+                }
+            }
+        }
+
+        /**
+         * The hash of String.hashCode, computed over the slice.
+         */
+        private static int hash(char[] chars, int offset, int length) {
+            int h = 0;
+            for(int i = offset; i < offset + length; i++) {
+                h = 31 * h + chars[i];
+            }
+            return h;
+        }
+
+        private static int mix(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+
+        private static boolean matches(String term, char[] chars, int offset, int length) {
+            if(term.length() != length) {
+                return false;
+            }
+            for(int i = 0; i < length; i++) {
+                if(term.charAt(i) != chars[offset + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package pipefilter.filter;
+
+import pipefilter.pipe.Pipe;
+
+/**
+ * @author Nardos Tessema
+ *
+ * The slice counterpart of the TextPreprocessor:
+ * (1) Removes non-alphanumeric words
+ * (2) Removes numeric only words
+ * (3) Transforms to lower case
+ *
+ * The tokens are changed in place in the buffer of the batch.
+ *
+ * @see pipefilter.filter.TokenBatch
+ */
+public class SliceTextPreprocessor implements Filter<TokenBatch, TokenBatch> {
+
+    private final Pipe<TokenBatch> input;
+    private final Pipe<TokenBatch> output;
+
+    /**
+     * Timing instrumentation instance variables
+     */
+    private long cumulativeInputBlockingTime;
+    private long cumulativeOutputBlockingTime;
+    private long totalProcessingTime;
+    private long inputCounter;
+    private long outputCounter;
+
+    public SliceTextPreprocessor(Pipe<TokenBatch> input, Pipe<TokenBatch> output) {
+        this.input = input;
+        this.output = output;
+    }
+
+    @Override
+    public void filter() {
+        inputCounter = 0L;
+        outputCounter = 0L;
+        cumulativeInputBlockingTime = 0L;
+        cumulativeOutputBlockingTime = 0L;
+        long start = System.currentTimeMillis();
+        while(true) {
+            long beforeInputPipe;
+            long beforeOutputPipe;
+            try {
+                beforeInputPipe = System.currentTimeMillis();
+                final TokenBatch batch = input.take();
+                cumulativeInputBlockingTime += System.currentTimeMillis() - beforeInputPipe;
+
+                if(batch.isSentinelValue()) {
+                    beforeOutputPipe = System.currentTimeMillis();
+                    output.put(batch);
+                    cumulativeOutputBlockingTime += System.currentTimeMillis() - beforeOutputPipe;
+                    break;
+                }
+                inputCounter += batch.size();
+                /*
+                 * The kept tokens move to the front of the batch.
+                 */
+                final char[] chars = batch.chars();
+                int kept = 0;
+                for(int t = 0; t < batch.size(); t++) {
+                    final int offset = batch.offset(t);
+                    final int length = batch.length(t);
+                    if(isWord(chars, offset, length)) {
+                        toLowerCase(chars, offset, length);
+                        batch.set(kept++, offset, length);
+                    }
+                }
+                batch.truncate(kept);
+                outputCounter += batch.size();
+
+                beforeOutputPipe = System.currentTimeMillis();
+                output.put(batch);
+                cumulativeOutputBlockingTime += System.currentTimeMillis() - beforeOutputPipe;
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        totalProcessingTime = System.currentTimeMillis() - start;
+    }
+
+    /**
+     * @return true if the slice is an alphanumeric word (\w+) that is not numeric only (\d+)
+     */
+    static boolean isWord(char[] chars, int offset, int length) {
+        boolean numericOnly = true;
+        for(int i = offset; i < offset + length; i++) {
+            final char c = chars[i];
+            if(c >= '0' && c <= '9') {
+                continue;
+            }
+            numericOnly = false;
+            if(!(c >= 'a' && c <= 'z') && !(c >= 'A' && c <= 'Z') && c != '_') {
+                return false;
+            }
+        }
+        return length > 0 && !numericOnly;
+    }
+
+    private static void toLowerCase(char[] chars, int offset, int length) {
+        for(int i = offset; i < offset + length; i++) {
+            if(chars[i] >= 'A' && chars[i] <= 'Z') {
+                chars[i] += 'a' - 'A';
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        filter();
+        System.out.printf("%1$-26s | %2$10s | %3$11s | %4$9s | %5$8s | %6$8s%n", getClass().getSimpleName(), cumulativeInputBlockingTime, cumulativeOutputBlockingTime, totalProcessingTime, inputCounter, outputCounter);
+    }
+}
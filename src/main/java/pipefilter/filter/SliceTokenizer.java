@@ -0,0 +1,116 @@
+package pipefilter.filter;
+
+import pipefilter.pipe.Pipe;
+
+import static pipefilter.config.Configuration.SENTINEL_VALUE;
+import static pipefilter.config.Configuration.TOKEN_BATCH_SIZE;
+
+/**
+ * @author Nardos Tessema
+ *
+ * A tokenizer filter that puts tokens as slices of a shared buffer.
+ *
+ * The lines are copied into the buffer of a TokenBatch and the words
+ * (runs of letters, digits and '_', the words of the word boundary
+ * tokenizer) become (offset, length) slices of the buffer. A batch is
+ * handed on when it holds TOKEN_BATCH_SIZE tokens, so one put covers
+ * many tokens and no String is allocated per token.
+ *
+ * Unlike the WordBoundaryTokenizer, the tokenizer does not put the
+ * runs of white space and punctuation between the words.
+ *
+ * @see pipefilter.filter.TokenBatch
+ */
+public class SliceTokenizer implements Filter<String, TokenBatch> {
+
+    private final Pipe<String> input;
+    private final Pipe<TokenBatch> output;
+
+    /**
+     * Timing instrumentation instance variables
+     */
+    private long cumulativeInputBlockingTime;
+    private long cumulativeOutputBlockingTime;
+    private long totalProcessingTime;
+    private long inputCounter;
+    private long outputCounter;
+
+    public SliceTokenizer(Pipe<String> input, Pipe<TokenBatch> output) {
+        this.input = input;
+        this.output = output;
+    }
+
+    @Override
+    public void filter() {
+        inputCounter = 0L;
+        outputCounter = 0L;
+        cumulativeInputBlockingTime = 0L;
+        cumulativeOutputBlockingTime = 0L;
+        long start = System.currentTimeMillis();
+        TokenBatch batch = new TokenBatch(TOKEN_BATCH_SIZE);
+        while(true) {
+            long beforeInputPipe;
+            long beforeOutputPipe;
+            try {
+                beforeInputPipe = System.currentTimeMillis();
+                final String line = input.take();
+                cumulativeInputBlockingTime += System.currentTimeMillis() - beforeInputPipe;
+                inputCounter++;
+
+                if(line.equals(SENTINEL_VALUE)) {
+                    beforeOutputPipe = System.currentTimeMillis();
+                    if(batch.size() > 0) {
+                        output.put(batch);
+                    }
+                    output.put(TokenBatch.sentinel());
+                    cumulativeOutputBlockingTime += System.currentTimeMillis() - beforeOutputPipe;
+                    break;
+                }
+                tokenize(line, batch);
+                if(batch.size() >= TOKEN_BATCH_SIZE) {
+                    beforeOutputPipe = System.currentTimeMillis();
+                    output.put(batch);
+                    cumulativeOutputBlockingTime += System.currentTimeMillis() - beforeOutputPipe;
+                    batch = new TokenBatch(TOKEN_BATCH_SIZE);
+                }
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        totalProcessingTime = System.currentTimeMillis() - start;
+    }
+
+    /**
+     * Copies the line into the batch and adds its words as tokens.
+     */
+    private void tokenize(String line, TokenBatch batch) {
+        final int offset = batch.append(line);
+        final char[] chars = batch.chars();
+        final int end = offset + line.length();
+        int i = offset;
+        while(i < end) {
+            while(i < end && !isWordChar(chars[i])) {
+                i++;
+            }
+            final int wordStart = i;
+            while(i < end && isWordChar(chars[i])) {
+                i++;
+            }
+            if(i > wordStart) {
+                batch.add(wordStart, i - wordStart);
+                outputCounter++;
+            }
+        }
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    @Override
+    public void run() {
+        filter();
+        System.out.printf("%1$-26s | %2$10s | %3$11s | %4$9s | %5$8s | %6$8s%n", getClass().getSimpleName(), cumulativeInputBlockingTime, cumulativeOutputBlockingTime, totalProcessingTime, inputCounter, outputCounter);
+    }
+}
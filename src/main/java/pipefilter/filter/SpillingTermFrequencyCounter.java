@@ -0,0 +1,232 @@
+package pipefilter.filter;
+
+import pipefilter.exception.PipeFilterException;
+import pipefilter.pipe.Pipe;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import static pipefilter.config.Configuration.SENTINEL_VALUE;
+import static pipefilter.config.Configuration.SPILL_DIRECTORY;
+import static pipefilter.config.Configuration.SPILL_MEMORY_BUDGET;
+
+/**
+ * @author Nardos Tessema
+ *
+ * A filter that counts the number of occurrence of terms
+ * in a bounded amount of memory (external-memory counting).
+ *
+ * (1) Terms are counted in an in-memory table. When the estimated
+ *     size of the table exceeds SPILL_MEMORY_BUDGET bytes, the table
+ *     is sorted by term and written to a temporary file (a run), and
+ *     counting starts over with an empty table.
+ * (2) At the end of the stream, the last table is spilled as well and
+ *     the sorted runs are merged (k-way merge with a priority queue).
+ *     The counts of a term that appears in several runs are added up.
+ * (3) Each term is emitted once, with its total count, in alphabetical
+ *     order, followed by the sentinel.
+ *
+ * Only one table and one buffered record per run are in memory at any
+ * time. The runs are written to SPILL_DIRECTORY (the system temporary
+ * directory if null) and deleted after the merge.
+ *
+ * Input: a stream of terms
+ * Output: a stream of TermFrequency objects (one per distinct term)
+ */
+public class SpillingTermFrequencyCounter implements Filter<String, TermFrequency> {
+
+    /**
+     * Estimated heap footprint of a table entry in addition to the chars
+     * of the term: HashMap node, String, its byte array and the Integer.
+     */
+    static final int ENTRY_OVERHEAD = 96;
+
+    private final Pipe<String> input;
+    private final Pipe<TermFrequency> output;
+
+    private final Map<String, Integer> table = new HashMap<>();
+    private long tableSize;
+    private final List<Path> runs = new ArrayList<>();
+
+    /**
+     * Timing instrumentation instance variables
+     */
+    private long cumulativeInputBlockingTime;
+    private long cumulativeOutputBlockingTime;
+    private long totalProcessingTime;
+    private long inputCounter;
+    private long outputCounter;
+
+    public SpillingTermFrequencyCounter(Pipe<String> input, Pipe<TermFrequency> output) {
+        this.input = input;
+        this.output = output;
+    }
+
+    @Override
+    public void filter() {
+        inputCounter = 0;
+        outputCounter = 0;
+        cumulativeInputBlockingTime = 0;
+        cumulativeOutputBlockingTime = 0;
+        /*
+         * Every run counts a new stream from scratch.
+         */
+        table.clear();
+        tableSize = 0;
+        runs.clear();
+        long start = System.currentTimeMillis();
+        try {
+            long beforeInputPipe;
+            while(true) {
+                beforeInputPipe = System.currentTimeMillis();
+                final String word = input.take();
+                cumulativeInputBlockingTime += System.currentTimeMillis() - beforeInputPipe;
+                inputCounter++;
+                if(word.equals(SENTINEL_VALUE)) {
+                    break;
+                }
+                if(table.merge(word, 1, Integer::sum) == 1) {
+                    tableSize += ENTRY_OVERHEAD + word.length();
+                    if(tableSize > SPILL_MEMORY_BUDGET) {
+                        spill();
+                    }
+                }
+            }
+            spill();
+            merge();
+            final long beforeOutputPipe = System.currentTimeMillis();
+            output.put(new TermFrequency(SENTINEL_VALUE, 0));
+            cumulativeOutputBlockingTime += System.currentTimeMillis() - beforeOutputPipe;
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        } catch (IOException ioe) {
+            throw new PipeFilterException("I/O exception while spilling term counts: " + ioe.getMessage());
+        } finally {
+            deleteRuns();
+        }
+        totalProcessingTime = System.currentTimeMillis() - start;
+    }
+
+    /**
+     * @return the number of runs written so far
+     */
+    int runs() {
+        return runs.size();
+    }
+
+    /**
+     * Writes the table, sorted by term, to a new run file and empties the table.
+     */
+    private void spill() throws IOException {
+        if(table.isEmpty()) {
+            return;
+        }
+        final Path directory = SPILL_DIRECTORY == null ? Paths.get(System.getProperty("java.io.tmpdir")) : Paths.get(SPILL_DIRECTORY);
+        final Path run = Files.createTempFile(directory, "term-counts-", ".run");
+        runs.add(run);
+        final List<String> terms = new ArrayList<>(table.keySet());
+        terms.sort(Comparator.naturalOrder());
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run), 1 << 16))) {
+            for(String term : terms) {
+                out.writeUTF(term);
+                out.writeInt(table.get(term));
+            }
+        }
+        table.clear();
+        tableSize = 0;
+    }
+
+    /**
+     * Merges the sorted runs and emits each term with its total count.
+     */
+    private void merge() throws IOException, InterruptedException {
+        final PriorityQueue<RunReader> heads = new PriorityQueue<>(Math.max(1, runs.size()), Comparator.comparing((RunReader r) -> r.term));
+        final List<RunReader> readers = new ArrayList<>();
+        try {
+            for(Path run : runs) {
+                final RunReader reader = new RunReader(run);
+                readers.add(reader);
+                if(reader.next()) {
+                    heads.add(reader);
+                }
+            }
+            while(!heads.isEmpty()) {
+                RunReader reader = heads.poll();
+                final String term = reader.term;
+                int count = 0;
+                while(true) {
+                    count += reader.count;
+                    if(reader.next()) {
+                        heads.add(reader);
+                    }
+                    if(heads.isEmpty() || !heads.peek().term.equals(term)) {
+                        break;
+                    }
+                    reader = heads.poll();
+                }
+                final long beforeOutputPipe = System.currentTimeMillis();
+                output.put(new TermFrequency(term, count));
+                cumulativeOutputBlockingTime += System.currentTimeMillis() - beforeOutputPipe;
+                outputCounter++;
+            }
+        } finally {
+            for(RunReader reader : readers) {
+                reader.in.close();
+            }
+        }
+    }
+
+    private void deleteRuns() {
+        for(Path run : runs) {
+            try {
+                Files.deleteIfExists(run);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * The current record of a run file.
+     */
+    private static class RunReader {
+        private final DataInputStream in;
+        private String term;
+        private int count;
+
+        private RunReader(Path run) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run), 1 << 16));
+        }
+
+        /**
+         * @return false at the end of the run
+         */
+        private boolean next() throws IOException {
+            try {
+                term = in.readUTF();
+            } catch (EOFException eof) {
+                return false;
+            }
+            count = in.readInt();
+            return true;
+        }
+    }
+
+    @Override
+    public void run() {
+        filter();
+        System.out.printf("%1$-26s | %2$10s | %3$11s | %4$9s | %5$8s | %6$8s%n", getClass().getSimpleName(), cumulativeInputBlockingTime, cumulativeOutputBlockingTime, totalProcessingTime, inputCounter, outputCounter);
+    }
+}
@@ -97,6 +97,19 @@ class Stemmer
         for (int c = 0; c < wLen; c++) b[i++] = w[c];
     }
 
+    /** Adds wLen characters of a char[] array, starting at offset, to the
+     * word being stemmed (e.g. a token slice of a TokenBatch).
+     */
+
+    public void add(char[] w, int offset, int wLen)
+    {  if (i+wLen >= b.length)
+    {  char[] new_b = new char[i+wLen+INC];
+        for (int c = 0; c < i; c++) new_b[c] = b[c];
+        b = new_b;
+    }
+        for (int c = 0; c < wLen; c++) b[i++] = w[offset+c];
+    }
+
     /**
      * After a word has been stemmed, it can be retrieved by toString(),
      * or a reference to the internal buffer can be retrieved by getResultBuffer
@@ -5,7 +5,6 @@ import pipefilter.pipe.Pipe;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.CountDownLatch;
 
 import static pipefilter.config.Configuration.SENTINEL_VALUE;
 import static pipefilter.config.Configuration.STOP_WORDS;
@@ -21,7 +20,6 @@ public class StopWordRemover implements Filter<String, String> {
 
     private final Pipe<String> input;
     private final Pipe<String> output;
-    private final CountDownLatch doneSignal;
 
     /**
      * The data structure to hold stop words. HashMap is chosen
@@ -39,10 +37,9 @@ public class StopWordRemover implements Filter<String, String> {
     private long inputCounter;
     private long outputCounter;
 
-    public StopWordRemover(Pipe<String> input, Pipe<String> output, CountDownLatch doneSignal) {
+    public StopWordRemover(Pipe<String> input, Pipe<String> output) {
         this.input = input;
         this.output = output;
-        this.doneSignal = doneSignal;
     }
 
     @Override
@@ -76,7 +73,8 @@ public class StopWordRemover implements Filter<String, String> {
                     outputCounter++;
                 }
             } catch (InterruptedException ie) {
-                ie.printStackTrace();
+                Thread.currentThread().interrupt();
+                break;
             }
         }
         totalProcessingTime = System.currentTimeMillis() - start;
@@ -85,7 +83,6 @@ public class StopWordRemover implements Filter<String, String> {
     @Override
     public void run() {
         filter();
-        doneSignal.countDown();
         System.out.printf("%1$-26s | %2$10s | %3$11s | %4$9s | %5$8s | %6$8s%n", getClass().getSimpleName(), cumulativeInputBlockingTime, cumulativeOutputBlockingTime, totalProcessingTime, inputCounter, outputCounter);
     }
 }
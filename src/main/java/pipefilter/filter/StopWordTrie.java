@@ -0,0 +1,224 @@
+package pipefilter.filter;
+
+import pipefilter.exception.PipeFilterException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+
+import static pipefilter.config.Configuration.STOP_WORDS;
+import static pipefilter.config.Configuration.STOP_WORDS_FILE;
+
+/**
+ * @author Nardos Tessema
+ *
+ * A char trie of stop words for case-insensitive lookups
+ * that allocate nothing.
+ *
+ * The HashMap lookup of StopWordRemover needs a lowercase copy of
+ * every word (and a hash of it). The trie walks the chars of the
+ * word as they are, lowercasing one char at a time, and stops at
+ * the first char that leaves the trie; most words that are not stop
+ * words are rejected after a char or two.
+ *
+ * The trie is built once and then frozen into flat arrays:
+ *
+ *   node n has edgeCount[n] outgoing edges, stored from firstEdge[n]
+ *   on, sorted by char: edgeChars[e] leads to node edgeTargets[e].
+ *   terminal[n] is true if the path to n spells a stop word.
+ *
+ * The lookup time depends on the length of the word, not on the
+ * number of stop words, so large stop lists (see STOP_WORDS_FILE)
+ * cost no more per word than the built-in one.
+ */
+public class StopWordTrie {
+
+    private final char[] edgeChars;
+    private final int[] edgeTargets;
+    private final int[] firstEdge;
+    private final int[] edgeCount;
+    private final boolean[] terminal;
+
+    /**
+     * The trie of the configured stop words and the configuration it was built from
+     */
+    private static StopWordTrie configured;
+    private static String[] configuredWords;
+    private static String configuredFile;
+
+    public StopWordTrie(Iterable<String> words) {
+        /*
+         * (1) build a trie of linked nodes
+         */
+        final Node root = new Node();
+        int nodes = 1;
+        for(String word : words) {
+            Node node = root;
+            for(int i = 0; i < word.length(); i++) {
+                final char c = Character.toLowerCase(word.charAt(i));
+                Node child = node.children.get(c);
+                if(child == null) {
+                    child = new Node();
+                    node.children.put(c, child);
+                    nodes++;
+                }
+                node = child;
+            }
+            node.terminal = true;
+        }
+        /*
+         * (2) number the nodes breadth first and flatten the edges
+         */
+        edgeChars = new char[nodes - 1];
+        edgeTargets = new int[nodes - 1];
+        firstEdge = new int[nodes];
+        edgeCount = new int[nodes];
+        terminal = new boolean[nodes];
+        final Queue<Node> queue = new ArrayDeque<>();
+        root.id = 0;
+        queue.add(root);
+        int nextId = 1;
+        int nextEdge = 0;
+        while(!queue.isEmpty()) {
+            final Node node = queue.poll();
+            terminal[node.id] = node.terminal;
+            firstEdge[node.id] = nextEdge;
+            edgeCount[node.id] = node.children.size();
+            for(Map.Entry<Character, Node> edge : node.children.entrySet()) {
+                final Node child = edge.getValue();
+                child.id = nextId++;
+                edgeChars[nextEdge] = edge.getKey();
+                edgeTargets[nextEdge] = child.id;
+                nextEdge++;
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * The trie of the configured stop words: the words of STOP_WORDS_FILE
+     * if it is set, STOP_WORDS otherwise. It is rebuilt only when the
+     * configuration changes.
+     *
+     * @return the trie of the configured stop words
+     */
+    public static synchronized StopWordTrie getConfigured() {
+        if(configured == null || configuredWords != STOP_WORDS || !String.valueOf(configuredFile).equals(String.valueOf(STOP_WORDS_FILE))) {
+            configuredWords = STOP_WORDS;
+            configuredFile = STOP_WORDS_FILE;
+            configured = STOP_WORDS_FILE == null ? new StopWordTrie(Arrays.asList(STOP_WORDS)) : load(STOP_WORDS_FILE);
+        }
+        return configured;
+    }
+
+    /**
+     * Builds the trie of a stop word file. Words are separated
+     * by white space or commas (e.g. one word per line).
+     *
+     * @param file the path of the file
+     * @return the trie of the stop words in the file
+     */
+    public static StopWordTrie load(String file) {
+        final List<String> words = new ArrayList<>();
+        try {
+            for(String line : Files.readAllLines(Paths.get(file), StandardCharsets.UTF_8)) {
+                for(String word : line.split("[\\s,]+")) {
+                    if(!word.isEmpty()) {
+                        words.add(word);
+                    }
+                }
+            }
+        } catch (IOException ioe) {
+            throw new PipeFilterException("I/O exception while reading stop word file " + file);
+        }
+        return new StopWordTrie(words);
+    }
+
+    /**
+     * @param word a word (any case)
+     * @return true if the word is a stop word
+     */
+    public boolean contains(CharSequence word) {
+        int node = 0;
+        for(int i = 0; i < word.length(); i++) {
+            node = child(node, Character.toLowerCase(word.charAt(i)));
+            if(node < 0) {
+                return false;
+            }
+        }
+        return terminal[node];
+    }
+
+    /**
+     * @param chars a char buffer
+     * @param offset the index of the first char of the word
+     * @param length the length of the word
+     * @return true if the word is a stop word
+     */
+    public boolean contains(char[] chars, int offset, int length) {
+        int node = 0;
+        for(int i = offset; i < offset + length; i++) {
+            node = child(node, Character.toLowerCase(chars[i]));
+            if(node < 0) {
+                return false;
+            }
+        }
+        return terminal[node];
+    }
+
+    /**
+     * @param bytes a buffer of ASCII bytes (other bytes never match)
+     * @param offset the index of the first byte of the word
+     * @param length the length of the word
+     * @return true if the word is a stop word
+     */
+    public boolean contains(byte[] bytes, int offset, int length) {
+        int node = 0;
+        for(int i = offset; i < offset + length; i++) {
+            if(bytes[i] < 0) {
+                return false;
+            }
+            node = child(node, Character.toLowerCase((char) bytes[i]));
+            if(node < 0) {
+                return false;
+            }
+        }
+        return terminal[node];
+    }
+
+    /**
+     * Binary search of the edges of a node.
+     *
+     * @return the child of the node along the char, -1 if there is none
+     */
+    private int child(int node, char c) {
+        int low = firstEdge[node];
+        int high = low + edgeCount[node] - 1;
+        while(low <= high) {
+            final int middle = (low + high) >>> 1;
+            final char key = edgeChars[middle];
+            if(key < c) {
+                low = middle + 1;
+            } else if(key > c) {
+                high = middle - 1;
+            } else {
+                return edgeTargets[middle];
+            }
+        }
+        return -1;
+    }
+
+    private static class Node {
+        private final TreeMap<Character, Node> children = new TreeMap<>();
+        private boolean terminal;
+        private int id;
+    }
+}
@@ -0,0 +1,171 @@
+package pipefilter.filter;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * @author Nardos Tessema
+ *
+ * Scans UTF-8 bytes for line terminators and word boundaries
+ * 8 bytes at a time (SWAR: SIMD within a register).
+ *
+ * The bytes are read as little-endian longs, so byte i of a word is
+ * bits 8i..8i+7, and every test sets the high bit of the bytes that
+ * match. The lowest set bit is then the first match:
+ *
+ *   bytes:   t  h  e \n  c  a  t \r
+ *   flags:  00 00 00 80 00 00 00 80    (line terminators)
+ *   first:  numberOfTrailingZeros(flags) / 8 = 3
+ *
+ * The tests are exact (no false positives from borrows between bytes)
+ * and, for the character classes, only valid for ASCII bytes: a word
+ * with a non-ASCII byte is scanned up to that byte and left to the
+ * caller, which decodes the char.
+ *
+ * The head and the tail of a range that do not fill a long are
+ * scanned byte by byte.
+ *
+ * There is no Vector API variant (under META-INF/versions of a
+ * multi-release jar). The project targets Java 11, and up to the
+ * latest JDK the Vector API is an incubator module: a class that uses
+ * it only links if the JVM is started with --add-modules
+ * jdk.incubator.vector, so every caller would need a fallback to
+ * this class anyway. The lines and words of text are short, and a
+ * vector of 16 or 32 bytes mostly scans past their ends.
+ */
+public final class SwarScanner {
+
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+    private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+
+    private static final long NEW_LINES = ONES * '\n';
+    private static final long CARRIAGE_RETURNS = ONES * '\r';
+    private static final long UNDERSCORES = ONES * '_';
+
+    private SwarScanner() {
+    }
+
+    /**
+     * @return the index of the first \n or \r in bytes[from, to), to if there is none
+     */
+    public static int indexOfLineEnd(byte[] bytes, int from, int to) {
+        int i = from;
+        for(; i + Long.BYTES <= to; i += Long.BYTES) {
+            final long word = (long) LONGS.get(bytes, i);
+            final long flags = zeroBytes(word ^ NEW_LINES) | zeroBytes(word ^ CARRIAGE_RETURNS);
+            if(flags != 0L) {
+                return i + (Long.numberOfTrailingZeros(flags) >>> 3);
+            }
+        }
+        for(; i < to; i++) {
+            if(bytes[i] == '\n' || bytes[i] == '\r') {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    /**
+     * @return the index of the last \n or \r in bytes[from, to), -1 if there is none
+     */
+    public static int lastIndexOfLineEnd(byte[] bytes, int from, int to) {
+        int i = to;
+        for(; i - Long.BYTES >= from; i -= Long.BYTES) {
+            final long word = (long) LONGS.get(bytes, i - Long.BYTES);
+            final long flags = zeroBytes(word ^ NEW_LINES) | zeroBytes(word ^ CARRIAGE_RETURNS);
+            if(flags != 0L) {
+                return i - 1 - (Long.numberOfLeadingZeros(flags) >>> 3);
+            }
+        }
+        for(i = i - 1; i >= from; i--) {
+            if(bytes[i] == '\n' || bytes[i] == '\r') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the index of the first byte in bytes[from, to) that is not an
+     *         ASCII word char [A-Za-z0-9_] (it may be a non-ASCII byte), to if there is none
+     */
+    public static int skipWordChars(byte[] bytes, int from, int to) {
+        int i = from;
+        for(; i + Long.BYTES <= to; i += Long.BYTES) {
+            final long word = (long) LONGS.get(bytes, i);
+            final long flags = ~wordChars(word) & HIGH_BITS;
+            if(flags != 0L) {
+                return i + (Long.numberOfTrailingZeros(flags) >>> 3);
+            }
+        }
+        for(; i < to; i++) {
+            if(!isWordChar(bytes[i])) {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    /**
+     * @return the index of the first byte in bytes[from, to) that is an ASCII
+     *         word char or a non-ASCII byte, to if there is none
+     */
+    public static int skipNonWordChars(byte[] bytes, int from, int to) {
+        int i = from;
+        for(; i + Long.BYTES <= to; i += Long.BYTES) {
+            final long word = (long) LONGS.get(bytes, i);
+            final long flags = wordChars(word) | (word & HIGH_BITS);
+            if(flags != 0L) {
+                return i + (Long.numberOfTrailingZeros(flags) >>> 3);
+            }
+        }
+        for(; i < to; i++) {
+            if(bytes[i] < 0 || isWordChar(bytes[i])) {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    /**
+     * @return true for the ASCII word chars [A-Za-z0-9_]
+     */
+    public static boolean isWordChar(byte b) {
+        return (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z') || (b >= '0' && b <= '9') || b == '_';
+    }
+
+    /**
+     * @return the high bit of every byte that is an ASCII word char
+     *         (never set for a non-ASCII byte)
+     */
+    static long wordChars(long word) {
+        final long ascii = ~word & HIGH_BITS;
+        /*
+         * Clear the high bits: the byte-wise sums below cannot carry
+         * into the next byte, and non-ASCII bytes are masked out at the end.
+         */
+        final long low = word & LOW_BITS;
+        final long flags = between(low, '0', '9') | between(low, 'A', 'Z') | between(low, 'a', 'z') | zeroBytes(low ^ UNDERSCORES);
+        return flags & ascii;
+    }
+
+    /**
+     * @return the high bit of every byte in [lo, hi] (bytes < 0x80 only)
+     */
+    private static long between(long low, int lo, int hi) {
+        final long atLeast = low + ONES * (0x80 - lo);
+        final long atMost = ~(low + ONES * (0x7F - hi));
+        return atLeast & atMost & HIGH_BITS;
+    }
+
+    /**
+     * @return the high bit of every zero byte (exact)
+     */
+    private static long zeroBytes(long word) {
+        return ~(((word & LOW_BITS) + LOW_BITS) | word | LOW_BITS);
+    }
+}
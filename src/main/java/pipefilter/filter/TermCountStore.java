@@ -0,0 +1,51 @@
+package pipefilter.filter;
+
+import java.util.function.ObjIntConsumer;
+
+import static pipefilter.config.Configuration.TERM_COUNT_STORE;
+
+/**
+ * @author Nardos Tessema
+ *
+ * The counts of the terms seen so far (the counting state of TermFrequencyCounter).
+ *
+ * Available stores (Configuration.TERM_COUNT_STORE):
+ *
+ *   heap     : a HashMap (HeapTermCountStore)
+ *   off-heap : an open-addressing table in direct memory (OffHeapTermCountStore)
+ */
+public interface TermCountStore {
+
+    /**
+     * Counts one more occurrence of a term.
+     *
+     * @param term a term
+     * @return the count of the term (including this occurrence)
+     */
+    int increment(String term);
+
+    /**
+     * @param term a term
+     * @return the count of the term (0 if it has not been seen)
+     */
+    int count(String term);
+
+    /**
+     * @return the number of distinct terms
+     */
+    int size();
+
+    /**
+     * @param action what to do with each term and its count (in no particular order)
+     */
+    void forEach(ObjIntConsumer<String> action);
+
+    void clear();
+
+    /**
+     * @return the store configured in TERM_COUNT_STORE
+     */
+    static TermCountStore build() {
+        return TERM_COUNT_STORE.equalsIgnoreCase("off-heap") ? new OffHeapTermCountStore() : new HeapTermCountStore();
+    }
+}
@@ -0,0 +1,106 @@
+package pipefilter.filter;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author Nardos Tessema
+ *
+ * A dictionary that assigns dense int ids (0, 1, 2, ...) to terms.
+ *
+ * Downstream of the stemmer, the pipeline handles the same few tens
+ * of thousands of distinct terms over and over. With the dictionary,
+ * a term is hashed once, when it is encoded, and the components after
+ * that pass and count ints (see TermIdFrequencyCounter). Ids are
+ * decoded back to terms only when the final output is produced.
+ *
+ * The dictionary is safe for concurrent use. Looking up a known term
+ * does not lock; assigning a new id does.
+ *
+ * Every pipeline has a dictionary of its own. The pipeline hands it to
+ * the components that encode or decode terms (see User) when it is
+ * composed, and clears it when it is reset or shut down, so that the
+ * dictionary only ever holds the terms of one run. A component that is
+ * not part of a pipeline has a dictionary of its own.
+ */
+public class TermDictionary {
+
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    /**
+     * terms[id] is the term of the id
+     */
+    private volatile String[] terms = new String[1024];
+    private int size;
+
+    /**
+     * A component that encodes or decodes terms.
+     */
+    public interface User {
+        void useDictionary(TermDictionary dictionary);
+    }
+
+    /**
+     * Hands the dictionary to the component if it is a User.
+     *
+     * @param component a pipeline component
+     */
+    public void handTo(Object component) {
+        if(component instanceof User) {
+            ((User) component).useDictionary(this);
+        }
+    }
+
+    /**
+     * @param term a term
+     * @return the id of the term (a new id if the term is new)
+     */
+    public int encode(String term) {
+        final Integer id = ids.get(term);
+        if(id != null) {
+            return id;
+        }
+        return register(term);
+    }
+
+    /**
+     * @param id an id returned by encode
+     * @return the term of the id
+     */
+    public String decode(int id) {
+        return terms[id];
+    }
+
+    /**
+     * @return the number of ids assigned so far
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Forgets all the terms. The ids handed out so far are no longer valid.
+     * Must not be called while the pipeline runs.
+     */
+    public synchronized void clear() {
+        ids.clear();
+        terms = new String[1024];
+        size = 0;
+    }
+
+    private synchronized int register(String term) {
+        final Integer id = ids.get(term);
+        if(id != null) {
+            return id;
+        }
+        if(size == terms.length) {
+            terms = Arrays.copyOf(terms, 2 * size);
+        }
+        /*
+         * The term is stored before the id is published in the map,
+         * so whoever gets the id from the map can decode it.
+         */
+        terms[size] = term;
+        ids.put(term, size);
+        return size++;
+    }
+}
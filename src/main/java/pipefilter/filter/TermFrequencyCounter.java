@@ -2,10 +2,6 @@ package pipefilter.filter;
 
 import pipefilter.pipe.Pipe;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.concurrent.CountDownLatch;
-
 import static pipefilter.config.Configuration.SENTINEL_VALUE;
 
 /**
@@ -17,13 +13,12 @@ public class TermFrequencyCounter implements Filter<String, TermFrequency> {
 
     private final Pipe<String> input;
     private final Pipe<TermFrequency> output;
-    private final CountDownLatch doneSignal;
 
     /**
-     * A map of terms that have already occurred and been counted.
-     * The key is the term and the value is the count.
+     * The terms that have already occurred and been counted
+     * (on or off the heap, see Configuration.TERM_COUNT_STORE).
      */
-    private final Map<String, Integer> countedTerms = new HashMap<>();
+    private final TermCountStore countedTerms = TermCountStore.build();
 
     /**
      * Timing instrumentation instance variables
@@ -34,16 +29,21 @@ public class TermFrequencyCounter implements Filter<String, TermFrequency> {
     private long inputCounter;
     private long outputCounter;
 
-    public TermFrequencyCounter(Pipe<String> input, Pipe<TermFrequency> output, CountDownLatch doneSignal) {
+    public TermFrequencyCounter(Pipe<String> input, Pipe<TermFrequency> output) {
         this.input = input;
         this.output = output;
-        this.doneSignal = doneSignal;
     }
 
     @Override
     public void filter() {
         inputCounter = 0;
         outputCounter = 0;
+        cumulativeInputBlockingTime = 0;
+        cumulativeOutputBlockingTime = 0;
+        /*
+         * Every run counts a new stream from scratch.
+         */
+        countedTerms.clear();
         long start = System.currentTimeMillis();
         while(true) {
             long beforeInputPipe;
@@ -70,22 +70,17 @@ public class TermFrequencyCounter implements Filter<String, TermFrequency> {
                 /*
                  * - If term is new, set frequency to 1.
                  * - If term has occurred before, increment frequency by 1.
-                 * - Put the term into the map of already encountered terms.
-                 *   Note: putting an entry in a map:
-                 *         * creates a new entry if the key does not exist.
-                 *         * updates the value if the key exists in the map.
                  */
-                final int frequency = countedTerms.getOrDefault(word, 0);
                 tf.term = word;
-                tf.frequency = 1 + frequency;
-                countedTerms.put(tf.term, tf.frequency);
+                tf.frequency = countedTerms.increment(word);
 
                 beforeOutputPipe = System.currentTimeMillis();
                 output.put(tf);
                 cumulativeOutputBlockingTime += System.currentTimeMillis() - beforeOutputPipe;
                 outputCounter++;
             } catch (InterruptedException ie) {
-                ie.printStackTrace();
+                Thread.currentThread().interrupt();
+                break;
             }
         }
         totalProcessingTime = System.currentTimeMillis() - start;
@@ -94,7 +89,6 @@ public class TermFrequencyCounter implements Filter<String, TermFrequency> {
     @Override
     public void run() {
         filter();
-        doneSignal.countDown();
         System.out.printf("%1$-26s | %2$10s | %3$11s | %4$9s | %5$8s | %6$8s%n", getClass().getSimpleName(), cumulativeInputBlockingTime, cumulativeOutputBlockingTime, totalProcessingTime, inputCounter, outputCounter);
     }
 }
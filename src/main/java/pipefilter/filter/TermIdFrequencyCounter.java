@@ -0,0 +1,105 @@
+package pipefilter.filter;
+
+import pipefilter.pipe.IntPipe;
+import pipefilter.pipe.Pipe;
+
+import java.util.Arrays;
+
+import static pipefilter.config.Configuration.SENTINEL_ID;
+
+/**
+ * @author Nardos Tessema
+ *
+ * A filter that counts the number of occurrences of term ids.
+ *
+ * The ids are dense (see TermDictionary), so the counts are kept
+ * in an int array indexed by id instead of a map of terms.
+ *
+ * Input: a stream of term ids
+ * Output: (id, frequency) pairs - two consecutive ints per distinct
+ *         term - put when the input stream has ended, followed
+ *         by the sentinel id.
+ */
+public class TermIdFrequencyCounter implements Filter<Integer, Integer> {
+
+    private final IntPipe input;
+    private final IntPipe output;
+
+    /**
+     * counts[id] is the number of occurrences of the id
+     */
+    private int[] counts = new int[1024];
+
+    /**
+     * Timing instrumentation instance variables
+     */
+    private long cumulativeInputBlockingTime;
+    private long cumulativeOutputBlockingTime;
+    private long totalProcessingTime;
+    private long inputCounter;
+    private long outputCounter;
+
+    /**
+     * @param input an int pipe (PipeFactory builds an IntPipe for java.lang.Integer)
+     * @param output an int pipe
+     */
+    public TermIdFrequencyCounter(Pipe<Integer> input, Pipe<Integer> output) {
+        this.input = (IntPipe) input;
+        this.output = (IntPipe) output;
+    }
+
+    @Override
+    public void filter() {
+        inputCounter = 0;
+        outputCounter = 0;
+        cumulativeInputBlockingTime = 0;
+        cumulativeOutputBlockingTime = 0;
+        /*
+         * Every run counts a new stream from scratch.
+         */
+        Arrays.fill(counts, 0);
+        int highestId = -1;
+        long start = System.currentTimeMillis();
+        try {
+            long beforeInputPipe;
+            long beforeOutputPipe;
+            while(true) {
+                beforeInputPipe = System.currentTimeMillis();
+                final int id = input.takeInt();
+                cumulativeInputBlockingTime += System.currentTimeMillis() - beforeInputPipe;
+                inputCounter++;
+
+                if(id == SENTINEL_ID) {
+                    break;
+                }
+                if(id >= counts.length) {
+                    counts = Arrays.copyOf(counts, Math.max(2 * counts.length, id + 1));
+                }
+                counts[id]++;
+                highestId = Math.max(highestId, id);
+            }
+            /*
+             * The stream has ended. Put the (id, frequency) pairs.
+             */
+            beforeOutputPipe = System.currentTimeMillis();
+            for(int id = 0; id <= highestId; id++) {
+                if(counts[id] > 0) {
+                    output.putInt(id);
+                    output.putInt(counts[id]);
+                    outputCounter++;
+                }
+            }
+            output.putInt(SENTINEL_ID);
+            cumulativeOutputBlockingTime += System.currentTimeMillis() - beforeOutputPipe;
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+        totalProcessingTime = System.currentTimeMillis() - start;
+    }
+
+    @Override
+    public void run() {
+        filter();
+        System.out.printf("%1$-26s | %2$10s | %3$11s | %4$9s | %5$8s | %6$8s%n", getClass().getSimpleName(), cumulativeInputBlockingTime, cumulativeOutputBlockingTime, totalProcessingTime, inputCounter, outputCounter);
+    }
+}
@@ -0,0 +1,94 @@
+package pipefilter.filter;
+
+import pipefilter.pipe.IntPipe;
+import pipefilter.pipe.Pipe;
+
+import static pipefilter.config.Configuration.SENTINEL_ID;
+import static pipefilter.config.Configuration.SENTINEL_VALUE;
+
+/**
+ * @author Nardos Tessema
+ *
+ * A filter that stems English words with the Porter algorithm
+ * (like PorterStemmer) and puts the dictionary ids of the stems
+ * on an int pipe instead of the stems themselves.
+ *
+ * @see pipefilter.filter.TermDictionary
+ * @see pipefilter.filter.PorterStemmer
+ */
+public class TermIdPorterStemmer implements Filter<String, Integer>, TermDictionary.User {
+
+    private final Pipe<String> input;
+    private final IntPipe output;
+    private TermDictionary dictionary = new TermDictionary();
+
+    /**
+     * Timing instrumentation instance variables
+     */
+    private long cumulativeInputBlockingTime;
+    private long cumulativeOutputBlockingTime;
+    private long totalProcessingTime;
+    private long inputCounter;
+    private long outputCounter;
+
+    /**
+     * @param output an int pipe (PipeFactory builds an IntPipe for java.lang.Integer)
+     */
+    public TermIdPorterStemmer(Pipe<String> input, Pipe<Integer> output) {
+        this.input = input;
+        this.output = (IntPipe) output;
+    }
+
+    @Override
+    public void filter() {
+        inputCounter = 0;
+        outputCounter = 0;
+        cumulativeInputBlockingTime = 0;
+        cumulativeOutputBlockingTime = 0;
+        long start = System.currentTimeMillis();
+        while(true) {
+            long beforeInputPipe;
+            long beforeOutputPipe;
+            try {
+                beforeInputPipe = System.currentTimeMillis();
+                final String word = input.take();
+                cumulativeInputBlockingTime += System.currentTimeMillis() - beforeInputPipe;
+                inputCounter++;
+
+                if(word.equals(SENTINEL_VALUE)) {
+                    beforeOutputPipe = System.currentTimeMillis();
+                    output.putInt(SENTINEL_ID);
+                    cumulativeOutputBlockingTime += System.currentTimeMillis() - beforeOutputPipe;
+                    break;
+                }
+                Stemmer stemmer = new Stemmer();
+                stemmer.add(word.toCharArray(), word.length());
+                stemmer.stem();
+                final int id = dictionary.encode(stemmer.toString());
+
+                beforeOutputPipe = System.currentTimeMillis();
+                output.putInt(id);
+                cumulativeOutputBlockingTime += System.currentTimeMillis() - beforeOutputPipe;
+                outputCounter++;
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        totalProcessingTime = System.currentTimeMillis() - start;
+    }
+
+    /**
+     * @param dictionary the dictionary of the pipeline
+     */
+    @Override
+    public void useDictionary(TermDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    @Override
+    public void run() {
+        filter();
+        System.out.printf("%1$-26s | %2$10s | %3$11s | %4$9s | %5$8s | %6$8s%n", getClass().getSimpleName(), cumulativeInputBlockingTime, cumulativeOutputBlockingTime, totalProcessingTime, inputCounter, outputCounter);
+    }
+}
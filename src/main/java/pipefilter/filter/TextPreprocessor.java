@@ -2,8 +2,6 @@ package pipefilter.filter;
 
 import pipefilter.pipe.Pipe;
 
-import java.util.concurrent.CountDownLatch;
-
 import static pipefilter.config.Configuration.SENTINEL_VALUE;
 
 /**
@@ -21,7 +19,6 @@ public class TextPreprocessor implements Filter<String, String> {
 
     private final Pipe<String> input;
     private final Pipe<String> output;
-    private final CountDownLatch doneSignal;
 
     private static final String ALPHANUMERIC_WORD_PATTERN = "\\w+";
     private static final String NUMERIC_ONLY_WORD_PATTERN = "\\d+";
@@ -45,10 +42,9 @@ public class TextPreprocessor implements Filter<String, String> {
     private long outputCounter;
 
 
-    public TextPreprocessor(Pipe<String> input, Pipe<String> output, CountDownLatch doneSignal) {
+    public TextPreprocessor(Pipe<String> input, Pipe<String> output) {
         this.input = input;
         this.output = output;
-        this.doneSignal = doneSignal;
     }
 
     @Override
@@ -85,7 +81,8 @@ public class TextPreprocessor implements Filter<String, String> {
                     outputCounter++;
                 }
             } catch (InterruptedException ie) {
-                ie.printStackTrace();
+                Thread.currentThread().interrupt();
+                break;
             }
         }
         totalProcessingTime = System.currentTimeMillis() - start;
@@ -94,7 +91,6 @@ public class TextPreprocessor implements Filter<String, String> {
     @Override
     public void run() {
         filter();
-        doneSignal.countDown();
         System.out.printf("%1$-26s | %2$10s | %3$11s | %4$9s | %5$8s | %6$8s%n", getClass().getSimpleName(), cumulativeInputBlockingTime, cumulativeOutputBlockingTime, totalProcessingTime, inputCounter, outputCounter);
     }
 }
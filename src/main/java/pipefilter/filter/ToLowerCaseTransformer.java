@@ -2,8 +2,6 @@ package pipefilter.filter;
 
 import pipefilter.pipe.Pipe;
 
-import java.util.concurrent.CountDownLatch;
-
 import static pipefilter.config.Configuration.SENTINEL_VALUE;
 
 /**
@@ -21,7 +19,6 @@ public class ToLowerCaseTransformer implements Filter<String, String> {
 
     private final Pipe<String> input;
     private final Pipe<String> output;
-    private final CountDownLatch doneSignal;
 
     /**
      * Timing instrumentation instance variables
@@ -32,10 +29,9 @@ public class ToLowerCaseTransformer implements Filter<String, String> {
     private long inputCounter;
     private long outputCounter;
 
-    public ToLowerCaseTransformer(Pipe<String> input, Pipe<String> output, CountDownLatch doneSignal) {
+    public ToLowerCaseTransformer(Pipe<String> input, Pipe<String> output) {
         this.input = input;
         this.output = output;
-        this.doneSignal = doneSignal;
     }
 
     @Override
@@ -65,7 +61,8 @@ public class ToLowerCaseTransformer implements Filter<String, String> {
                 cumulativeOutputBlockingTime += System.currentTimeMillis() - beforeOutputPipe;
                 outputCounter++;
             } catch (InterruptedException ie) {
-                ie.printStackTrace();
+                Thread.currentThread().interrupt();
+                break;
             }
         }
         totalProcessingTime = System.currentTimeMillis() - start;
@@ -74,7 +71,6 @@ public class ToLowerCaseTransformer implements Filter<String, String> {
     @Override
     public void run() {
         filter();
-        doneSignal.countDown();
         System.out.printf("%1$-26s | %2$10s | %3$11s | %4$9s | %5$8s | %6$8s%n", getClass().getSimpleName(), cumulativeInputBlockingTime, cumulativeOutputBlockingTime, totalProcessingTime, inputCounter, outputCounter);
     }
 }
@@ -0,0 +1,150 @@
+package pipefilter.filter;
+
+import java.util.Arrays;
+
+/**
+ * @author Nardos Tessema
+ *
+ * A batch of tokens that are slices (offset, length) of one shared char buffer.
+ *
+ * The String pipeline allocates a String for every token, and most
+ * filters allocate yet another one (toLowerCase, the stem). With token
+ * batches, the tokenizer copies the text of its lines once into the
+ * buffer of a batch and the tokens are only offsets into that buffer:
+ *
+ *   chars:   [ T h e   q u i c k   f o x e s ]
+ *   tokens:    (0,3)   (4,5)       (10,5)
+ *
+ * The slice filters work on the buffer in place (lower case, stem) and
+ * drop tokens by compacting the (offset, length) arrays. A String is
+ * allocated only when a new term enters the dictionary of the counter
+ * (see SliceTermFrequencyCounter).
+ *
+ * A batch is owned by one filter at a time: the filter that takes it
+ * from its input pipe may change it and puts it into its output pipe.
+ */
+public class TokenBatch implements Data {
+
+    private static final TokenBatch SENTINEL = new TokenBatch(0);
+
+    private char[] chars;
+    private int used;
+    private int[] offsets;
+    private int[] lengths;
+    private int size;
+
+    /**
+     * @param capacity the number of tokens the batch is sized for (it grows if needed)
+     */
+    public TokenBatch(int capacity) {
+        this.chars = new char[8 * Math.max(1, capacity)];
+        this.offsets = new int[Math.max(1, capacity)];
+        this.lengths = new int[Math.max(1, capacity)];
+    }
+
+    /**
+     * @return the batch that signals the end of the stream
+     */
+    public static TokenBatch sentinel() {
+        return SENTINEL;
+    }
+
+    @Override
+    public boolean isSentinelValue() {
+        return this == SENTINEL;
+    }
+
+    /**
+     * @return the shared buffer of the tokens
+     */
+    public char[] chars() {
+        return chars;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int offset(int token) {
+        return offsets[token];
+    }
+
+    public int length(int token) {
+        return lengths[token];
+    }
+
+    /**
+     * @return the number of chars of the buffer in use
+     */
+    public int charCount() {
+        return used;
+    }
+
+    /**
+     * Copies text to the end of the buffer.
+     *
+     * @return the offset of the copied text in the buffer
+     */
+    public int append(String text) {
+        ensureChars(text.length());
+        text.getChars(0, text.length(), chars, used);
+        final int offset = used;
+        used += text.length();
+        return offset;
+    }
+
+    /**
+     * Copies a slice of chars to the end of the buffer.
+     *
+     * @return the offset of the copied chars in the buffer
+     */
+    public int append(char[] source, int offset, int length) {
+        ensureChars(length);
+        System.arraycopy(source, offset, chars, used, length);
+        final int start = used;
+        used += length;
+        return start;
+    }
+
+    /**
+     * Adds a token (a slice of the buffer).
+     */
+    public void add(int offset, int length) {
+        if(size == offsets.length) {
+            offsets = Arrays.copyOf(offsets, 2 * size);
+            lengths = Arrays.copyOf(lengths, 2 * size);
+        }
+        offsets[size] = offset;
+        lengths[size] = length;
+        size++;
+    }
+
+    /**
+     * Points a token at another slice of the buffer.
+     */
+    public void set(int token, int offset, int length) {
+        offsets[token] = offset;
+        lengths[token] = length;
+    }
+
+    /**
+     * Drops the tokens from the given index on. Filters that drop tokens
+     * move the kept ones to the front (set) and truncate the rest.
+     */
+    public void truncate(int newSize) {
+        size = newSize;
+    }
+
+    /**
+     * @return the token as a String (allocates; meant for tests and diagnostics)
+     */
+    public String token(int token) {
+        return new String(chars, offsets[token], lengths[token]);
+    }
+
+    private void ensureChars(int length) {
+        if(used + length > chars.length) {
+            chars = Arrays.copyOf(chars, Math.max(2 * chars.length, used + length));
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package pipefilter.filter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * @author Nardos Tessema
+ *
+ * The K terms with the highest counts seen so far.
+ *
+ * The terms are kept in a binary min-heap ordered by count (the
+ * root is the term with the lowest count among the K), together
+ * with a map from each term to its position in the heap:
+ *
+ *   - a count update of a term in the heap moves the term down
+ *     the heap (counts only grow): O(log K)
+ *   - a term that is not in the heap replaces the root if its
+ *     count is higher than the count of the root: O(log K)
+ *   - otherwise, the term is ignored: O(1)
+ *
+ * The memory used is bounded by K, not by the size of the vocabulary.
+ *
+ * The counts offered for a term must never decrease. That is the case
+ * for the running counts of TermFrequencyCounter (and for estimates
+ * that only ever grow). If the counts are exact, the K terms are
+ * exactly the top K terms (ties at the lowest count are broken in
+ * favour of the term that got there first).
+ */
+public class TopKTerms {
+
+    private final int k;
+    private final String[] terms;
+    private final int[] counts;
+    private final Map<String, Integer> positions;
+    private int size;
+
+    /**
+     * @param k the number of terms to keep
+     */
+    public TopKTerms(int k) {
+        this.k = Math.max(1, k);
+        this.terms = new String[this.k];
+        this.counts = new int[this.k];
+        this.positions = new HashMap<>(this.k * 2);
+    }
+
+    /**
+     * Updates the count of a term.
+     *
+     * @param term a term
+     * @param count the count of the term so far
+     */
+    public void offer(String term, int count) {
+        final Integer position = positions.get(term);
+        if(position != null) {
+            counts[position] = count;
+            siftDown(position);
+        } else if(size < k) {
+            terms[size] = term;
+            counts[size] = count;
+            positions.put(term, size);
+            siftUp(size++);
+        } else if(count > counts[0]) {
+            positions.remove(terms[0]);
+            terms[0] = term;
+            counts[0] = count;
+            positions.put(term, 0);
+            siftDown(0);
+        }
+    }
+
+    /**
+     * @return the lowest count among the K terms (0 if there are fewer than K terms)
+     */
+    public int threshold() {
+        return size < k ? 0 : counts[0];
+    }
+
+    /**
+     * @param term a term
+     * @return true if the term is among the K terms
+     */
+    public boolean contains(String term) {
+        return positions.containsKey(term);
+    }
+
+    /**
+     * @param term a term
+     * @return the count of the term, 0 if it is not among the K terms
+     */
+    public int count(String term) {
+        final Integer position = positions.get(term);
+        return position == null ? 0 : counts[position];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        for(int i = 0; i < size; i++) {
+            terms[i] = null;
+        }
+        positions.clear();
+        size = 0;
+    }
+
+    /**
+     * Groups the K terms by count.
+     *
+     * @param output the frequency-term map to put the terms in
+     */
+    public void collectInto(Map<Integer, List<String>> output) {
+        for(int i = 0; i < size; i++) {
+            output.computeIfAbsent(counts[i], c -> new ArrayList<>()).add(terms[i]);
+        }
+    }
+
+    /**
+     * @param action what to do with each of the K terms and its count (in no particular order)
+     */
+    public void forEach(ObjIntConsumer<String> action) {
+        for(int i = 0; i < size; i++) {
+            action.accept(terms[i], counts[i]);
+        }
+    }
+
+    private void siftUp(int i) {
+        while(i > 0) {
+            final int parent = (i - 1) >>> 1;
+            if(counts[parent] <= counts[i]) {
+                return;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while(true) {
+            final int left = 2 * i + 1;
+            if(left >= size) {
+                return;
+            }
+            final int right = left + 1;
+            final int smallest = right < size && counts[right] < counts[left] ? right : left;
+            if(counts[i] <= counts[smallest]) {
+                return;
+            }
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        final String term = terms[i];
+        final int count = counts[i];
+        terms[i] = terms[j];
+        counts[i] = counts[j];
+        terms[j] = term;
+        counts[j] = count;
+        positions.put(terms[i], i);
+        positions.put(terms[j], j);
+    }
+}
@@ -0,0 +1,84 @@
+package pipefilter.filter;
+
+import pipefilter.pipe.Pipe;
+
+import static pipefilter.config.Configuration.SENTINEL_VALUE;
+
+/**
+ * @author Nardos Tessema
+ *
+ * A filter that removes stop words.
+ *
+ * Same as StopWordRemover, but the words are looked up in a char trie
+ * (case-insensitive, without making a lowercase copy of each word).
+ *
+ * @see pipefilter.filter.StopWordTrie
+ */
+public class TrieStopWordRemover implements Filter<String, String> {
+
+    private final Pipe<String> input;
+    private final Pipe<String> output;
+
+    /**
+     * The configured stop words (Configuration.STOP_WORDS or STOP_WORDS_FILE)
+     */
+    private final StopWordTrie stopWords = StopWordTrie.getConfigured();
+
+    /**
+     * Timing instrumentation instance variables
+     */
+    private long cumulativeInputBlockingTime;
+    private long cumulativeOutputBlockingTime;
+    private long totalProcessingTime;
+    private long inputCounter;
+    private long outputCounter;
+
+    public TrieStopWordRemover(Pipe<String> input, Pipe<String> output) {
+        this.input = input;
+        this.output = output;
+    }
+
+    @Override
+    public void filter() {
+        inputCounter = 0;
+        outputCounter = 0;
+        cumulativeInputBlockingTime = 0;
+        cumulativeOutputBlockingTime = 0;
+        long start = System.currentTimeMillis();
+        while(true) {
+            long beforeInputPipe;
+            long beforeOutputPipe;
+            try {
+                beforeInputPipe = System.currentTimeMillis();
+                final String word = input.take();
+                cumulativeInputBlockingTime += System.currentTimeMillis() - beforeInputPipe;
+                inputCounter++;
+                if(word.equals(SENTINEL_VALUE)) {
+                    beforeOutputPipe = System.currentTimeMillis();
+                    output.put(SENTINEL_VALUE);
+                    cumulativeOutputBlockingTime += System.currentTimeMillis() - beforeOutputPipe;
+                    break;
+                }
+                /*
+                 * Discard if input is a stop word
+                 */
+                if(!stopWords.contains(word)) {
+                    beforeOutputPipe = System.currentTimeMillis();
+                    output.put(word);
+                    cumulativeOutputBlockingTime += System.currentTimeMillis() - beforeOutputPipe;
+                    outputCounter++;
+                }
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        totalProcessingTime = System.currentTimeMillis() - start;
+    }
+
+    @Override
+    public void run() {
+        filter();
+        System.out.printf("%1$-26s | %2$10s | %3$11s | %4$9s | %5$8s | %6$8s%n", getClass().getSimpleName(), cumulativeInputBlockingTime, cumulativeOutputBlockingTime, totalProcessingTime, inputCounter, outputCounter);
+    }
+}
@@ -0,0 +1,132 @@
+package pipefilter.filter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * @author Nardos Tessema
+ *
+ * A batch of slices (offset, length) of one shared buffer of UTF-8 bytes.
+ *
+ * The byte pipeline never decodes the text into Strings. The utf8-streamer
+ * reads chunks of the file into byte buffers and puts them as batches
+ * whose slices are the lines; the utf8-tokenizer puts batches over the
+ * same buffer whose slices are the words, and so on down to the counter,
+ * which keeps the terms as bytes (see Utf8TermFrequencyCounter).
+ *
+ * Like a TokenBatch, a batch is owned by one component at a time:
+ * the component that takes it from its input pipe may change it and
+ * puts it (or a batch over the same buffer) into its output pipe.
+ *
+ * @see pipefilter.filter.TokenBatch
+ */
+public class Utf8Batch implements Data {
+
+    private static final Utf8Batch SENTINEL = new Utf8Batch(new byte[0], 0, 0);
+
+    private byte[] bytes;
+    private int used;
+    private int[] offsets;
+    private int[] lengths;
+    private int size;
+
+    /**
+     * @param bytes the buffer of the slices
+     * @param used the number of bytes of the buffer in use
+     * @param capacity the number of slices the batch is sized for (it grows if needed)
+     */
+    public Utf8Batch(byte[] bytes, int used, int capacity) {
+        this.bytes = bytes;
+        this.used = used;
+        this.offsets = new int[Math.max(1, capacity)];
+        this.lengths = new int[Math.max(1, capacity)];
+    }
+
+    /**
+     * @return the batch that signals the end of the stream
+     */
+    public static Utf8Batch sentinel() {
+        return SENTINEL;
+    }
+
+    @Override
+    public boolean isSentinelValue() {
+        return this == SENTINEL;
+    }
+
+    /**
+     * @return the shared buffer of the slices
+     */
+    public byte[] bytes() {
+        return bytes;
+    }
+
+    /**
+     * @return the number of bytes of the buffer in use
+     */
+    public int byteCount() {
+        return used;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int offset(int slice) {
+        return offsets[slice];
+    }
+
+    public int length(int slice) {
+        return lengths[slice];
+    }
+
+    /**
+     * Adds a slice of the buffer.
+     */
+    public void add(int offset, int length) {
+        if(size == offsets.length) {
+            offsets = Arrays.copyOf(offsets, 2 * size);
+            lengths = Arrays.copyOf(lengths, 2 * size);
+        }
+        offsets[size] = offset;
+        lengths[size] = length;
+        size++;
+    }
+
+    /**
+     * Points a slice at another part of the buffer.
+     */
+    public void set(int slice, int offset, int length) {
+        offsets[slice] = offset;
+        lengths[slice] = length;
+    }
+
+    /**
+     * Drops the slices from the given index on.
+     */
+    public void truncate(int newSize) {
+        size = newSize;
+    }
+
+    /**
+     * Copies bytes to the end of the buffer (which grows if needed).
+     *
+     * @return the offset of the copied bytes in the buffer
+     */
+    public int append(byte[] source, int offset, int length) {
+        if(used + length > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(2 * bytes.length, used + length));
+        }
+        System.arraycopy(source, offset, bytes, used, length);
+        final int start = used;
+        used += length;
+        return start;
+    }
+
+    /**
+     * @return the slice decoded into a String (allocates; meant for tests and diagnostics)
+     */
+    public String slice(int slice) {
+        return new String(bytes, offsets[slice], lengths[slice], StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,118 @@
+package pipefilter.filter;
+
+import pipefilter.pipe.Pipe;
+
+/**
+ * @author Nardos Tessema
+ *
+ * The byte counterpart of the PorterStemmer.
+ *
+ * The stemmer works on the ASCII words of the text preprocessor; the
+ * stem replaces the word in the buffer of the batch. A word with non-ASCII
+ * bytes is not stemmed.
+ *
+ * @see pipefilter.filter.Utf8Batch
+ */
+public class Utf8PorterStemmer implements Filter<Utf8Batch, Utf8Batch> {
+
+    private final Pipe<Utf8Batch> input;
+    private final Pipe<Utf8Batch> output;
+
+    private final Stemmer stemmer = new Stemmer();
+    private char[] word = new char[64];
+    private byte[] stem = new byte[64];
+
+    /**
+     * Timing instrumentation instance variables
+     */
+    private long cumulativeInputBlockingTime;
+    private long cumulativeOutputBlockingTime;
+    private long totalProcessingTime;
+    private long inputCounter;
+    private long outputCounter;
+
+    public Utf8PorterStemmer(Pipe<Utf8Batch> input, Pipe<Utf8Batch> output) {
+        this.input = input;
+        this.output = output;
+    }
+
+    @Override
+    public void filter() {
+        inputCounter = 0L;
+        outputCounter = 0L;
+        cumulativeInputBlockingTime = 0L;
+        cumulativeOutputBlockingTime = 0L;
+        long start = System.currentTimeMillis();
+        while(true) {
+            long beforeInputPipe;
+            long beforeOutputPipe;
+            try {
+                beforeInputPipe = System.currentTimeMillis();
+                final Utf8Batch batch = input.take();
+                cumulativeInputBlockingTime += System.currentTimeMillis() - beforeInputPipe;
+
+                if(batch.isSentinelValue()) {
+                    beforeOutputPipe = System.currentTimeMillis();
+                    output.put(batch);
+                    cumulativeOutputBlockingTime += System.currentTimeMillis() - beforeOutputPipe;
+                    break;
+                }
+                inputCounter += batch.size();
+                for(int t = 0; t < batch.size(); t++) {
+                    final int offset = batch.offset(t);
+                    final int length = batch.length(t);
+                    if(!ascii(batch.bytes(), offset, length)) {
+                        continue;
+                    }
+                    if(word.length < length) {
+                        word = new char[2 * length];
+                    }
+                    for(int i = 0; i < length; i++) {
+                        word[i] = (char) batch.bytes()[offset + i];
+                    }
+                    stemmer.add(word, length);
+                    stemmer.stem();
+                    final int stemLength = stemmer.getResultLength();
+                    if(stemLength > length) {
+                        stem = new byte[stemLength];
+                    }
+                    final char[] result = stemmer.getResultBuffer();
+                    final byte[] target = stemLength <= length ? batch.bytes() : stem;
+                    final int at = stemLength <= length ? offset : 0;
+                    for(int i = 0; i < stemLength; i++) {
+                        target[at + i] = (byte) result[i];
+                    }
+                    if(stemLength <= length) {
+                        batch.set(t, offset, stemLength);
+                    } else {
+                        batch.set(t, batch.append(stem, 0, stemLength), stemLength);
+                    }
+                }
+                outputCounter += batch.size();
+
+                beforeOutputPipe = System.currentTimeMillis();
+                output.put(batch);
+                cumulativeOutputBlockingTime += System.currentTimeMillis() - beforeOutputPipe;
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        totalProcessingTime = System.currentTimeMillis() - start;
+    }
+
+    private static boolean ascii(byte[] bytes, int offset, int length) {
+        for(int i = offset; i < offset + length; i++) {
+            if(bytes[i] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void run() {
+        filter();
+        System.out.printf("%1$-26s | %2$10s | %3$11s | %4$9s | %5$8s | %6$8s%n", getClass().getSimpleName(), cumulativeInputBlockingTime, cumulativeOutputBlockingTime, totalProcessingTime, inputCounter, outputCounter);
+    }
+}
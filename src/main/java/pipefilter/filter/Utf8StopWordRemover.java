@@ -0,0 +1,85 @@
+package pipefilter.filter;
+
+import pipefilter.pipe.Pipe;
+
+/**
+ * @author Nardos Tessema
+ *
+ * The byte counterpart of the TrieStopWordRemover.
+ *
+ * The stop word trie is walked over the bytes of the slices.
+ *
+ * @see pipefilter.filter.Utf8Batch
+ */
+public class Utf8StopWordRemover implements Filter<Utf8Batch, Utf8Batch> {
+
+    private final Pipe<Utf8Batch> input;
+    private final Pipe<Utf8Batch> output;
+
+    private final StopWordTrie stopWords = StopWordTrie.getConfigured();
+
+    /**
+     * Timing instrumentation instance variables
+     */
+    private long cumulativeInputBlockingTime;
+    private long cumulativeOutputBlockingTime;
+    private long totalProcessingTime;
+    private long inputCounter;
+    private long outputCounter;
+
+    public Utf8StopWordRemover(Pipe<Utf8Batch> input, Pipe<Utf8Batch> output) {
+        this.input = input;
+        this.output = output;
+    }
+
+    @Override
+    public void filter() {
+        inputCounter = 0L;
+        outputCounter = 0L;
+        cumulativeInputBlockingTime = 0L;
+        cumulativeOutputBlockingTime = 0L;
+        long start = System.currentTimeMillis();
+        while(true) {
+            long beforeInputPipe;
+            long beforeOutputPipe;
+            try {
+                beforeInputPipe = System.currentTimeMillis();
+                final Utf8Batch batch = input.take();
+                cumulativeInputBlockingTime += System.currentTimeMillis() - beforeInputPipe;
+
+                if(batch.isSentinelValue()) {
+                    beforeOutputPipe = System.currentTimeMillis();
+                    output.put(batch);
+                    cumulativeOutputBlockingTime += System.currentTimeMillis() - beforeOutputPipe;
+                    break;
+                }
+                inputCounter += batch.size();
+                final byte[] bytes = batch.bytes();
+                int kept = 0;
+                for(int t = 0; t < batch.size(); t++) {
+                    final int offset = batch.offset(t);
+                    final int length = batch.length(t);
+                    if(!stopWords.contains(bytes, offset, length)) {
+                        batch.set(kept++, offset, length);
+                    }
+                }
+                batch.truncate(kept);
+                outputCounter += batch.size();
+
+                beforeOutputPipe = System.currentTimeMillis();
+                output.put(batch);
+                cumulativeOutputBlockingTime += System.currentTimeMillis() - beforeOutputPipe;
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        totalProcessingTime = System.currentTimeMillis() - start;
+    }
+
+    @Override
+    public void run() {
+        filter();
+        System.out.printf("%1$-26s | %2$10s | %3$11s | %4$9s | %5$8s | %6$8s%n", getClass().getSimpleName(), cumulativeInputBlockingTime, cumulativeOutputBlockingTime, totalProcessingTime, inputCounter, outputCounter);
+    }
+}
@@ -0,0 +1,216 @@
+package pipefilter.filter;
+
+import pipefilter.pipe.Pipe;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static pipefilter.config.Configuration.SENTINEL_VALUE;
+
+/**
+ * @author Nardos Tessema
+ *
+ * A filter that counts the number of occurrences of UTF-8 terms.
+ *
+ * The terms are hashed and stored as byte sequences: the bytes of a
+ * new term are appended to one growing byte array (the arena) and the
+ * open-addressing table keeps their offsets. Terms are decoded into
+ * Strings only once, when the counts are put at the end of the stream.
+ *
+ * Input: batches of UTF-8 term slices
+ * Output: (term, frequency) pairs - one per distinct term - put when
+ *         the input stream has ended, followed by the sentinel value.
+ *
+ * @see pipefilter.filter.Utf8Batch
+ */
+public class Utf8TermFrequencyCounter implements Filter<Utf8Batch, TermFrequency> {
+
+    private final Pipe<Utf8Batch> input;
+    private final Pipe<TermFrequency> output;
+
+    private final ByteCounts counts = new ByteCounts();
+
+    /**
+     * Timing instrumentation instance variables
+     */
+    private long cumulativeInputBlockingTime;
+    private long cumulativeOutputBlockingTime;
+    private long totalProcessingTime;
+    private long inputCounter;
+    private long outputCounter;
+
+    public Utf8TermFrequencyCounter(Pipe<Utf8Batch> input, Pipe<TermFrequency> output) {
+        this.input = input;
+        this.output = output;
+    }
+
+    @Override
+    public void filter() {
+        inputCounter = 0;
+        outputCounter = 0;
+        cumulativeInputBlockingTime = 0;
+        cumulativeOutputBlockingTime = 0;
+        /*
+         * Every run counts a new stream from scratch.
+         */
+        counts.clear();
+        long start = System.currentTimeMillis();
+        try {
+            long beforeInputPipe;
+            while(true) {
+                beforeInputPipe = System.currentTimeMillis();
+                final Utf8Batch batch = input.take();
+                cumulativeInputBlockingTime += System.currentTimeMillis() - beforeInputPipe;
+                if(batch.isSentinelValue()) {
+                    break;
+                }
+                inputCounter += batch.size();
+                for(int t = 0; t < batch.size(); t++) {
+                    counts.increment(batch.bytes(), batch.offset(t), batch.length(t));
+                }
+            }
+            /*
+             * The stream has ended. Put the (term, frequency) pairs.
+             */
+            final long beforeOutputPipe = System.currentTimeMillis();
+            for(int slot = 0; slot < counts.counts.length; slot++) {
+                if(counts.counts[slot] > 0) {
+                    output.put(new TermFrequency(counts.term(slot), counts.counts[slot]));
+                    outputCounter++;
+                }
+            }
+            output.put(new TermFrequency(SENTINEL_VALUE, 0));
+            cumulativeOutputBlockingTime += System.currentTimeMillis() - beforeOutputPipe;
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+        totalProcessingTime = System.currentTimeMillis() - start;
+    }
+
+    @Override
+    public void run() {
+        filter();
+        System.out.printf("%1$-26s | %2$10s | %3$11s | %4$9s | %5$8s | %6$8s%n", getClass().getSimpleName(), cumulativeInputBlockingTime, cumulativeOutputBlockingTime, totalProcessingTime, inputCounter, outputCounter);
+    }
+
+    /**
+     * An open-addressing (linear probing) table of term counts whose
+     * keys are byte sequences in an arena. A slot is empty if its count is 0.
+     */
+    static final class ByteCounts {
+        private byte[] arena = new byte[16 * 1024];
+        private int arenaSize;
+        private int[] offsets = new int[1024];
+        private int[] lengths = new int[1024];
+        private int[] hashes = new int[1024];
+        private int[] counts = new int[1024];
+        private int size;
+
+        /**
+         * @return the count of the term after the increment
+         */
+        int increment(byte[] bytes, int offset, int length) {
+            final int hash = hash(bytes, offset, length);
+            final int mask = counts.length - 1;
+            int slot = mix(hash) & mask;
+            while(counts[slot] > 0) {
+                if(hashes[slot] == hash && lengths[slot] == length
+                        && Arrays.equals(arena, offsets[slot], offsets[slot] + length, bytes, offset, offset + length)) {
+                    return ++counts[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            /*
+             * A new term: its bytes go to the arena.
+             */
+            if(arenaSize + length > arena.length) {
+                arena = Arrays.copyOf(arena, Math.max(2 * arena.length, arenaSize + length));
+            }
+            System.arraycopy(bytes, offset, arena, arenaSize, length);
+            offsets[slot] = arenaSize;
+            lengths[slot] = length;
+            hashes[slot] = hash;
+            counts[slot] = 1;
+            arenaSize += length;
+            if(++size > counts.length / 2) {
+                grow();
+            }
+            return 1;
+        }
+
+        /**
+         * @return the count of the term (0 if it has not occurred)
+         */
+        int count(String term) {
+            final byte[] bytes = term.getBytes(StandardCharsets.UTF_8);
+            final int hash = hash(bytes, 0, bytes.length);
+            final int mask = counts.length - 1;
+            int slot = mix(hash) & mask;
+            while(counts[slot] > 0) {
+                if(hashes[slot] == hash && lengths[slot] == bytes.length
+                        && Arrays.equals(arena, offsets[slot], offsets[slot] + bytes.length, bytes, 0, bytes.length)) {
+                    return counts[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return 0;
+        }
+
+        /**
+         * @return the term of an occupied slot, decoded
+         */
+        String term(int slot) {
+            return new String(arena, offsets[slot], lengths[slot], StandardCharsets.UTF_8);
+        }
+
+        int size() {
+            return size;
+        }
+
+        void clear() {
+            Arrays.fill(counts, 0);
+            arenaSize = 0;
+            size = 0;
+        }
+
+        private void grow() {
+            final int[] oldOffsets = offsets;
+            final int[] oldLengths = lengths;
+            final int[] oldHashes = hashes;
+            final int[] oldCounts = counts;
+            final int capacity = 2 * oldCounts.length;
+            offsets = new int[capacity];
+            lengths = new int[capacity];
+            hashes = new int[capacity];
+            counts = new int[capacity];
+            final int mask = capacity - 1;
+            for(int i = 0; i < oldCounts.length; i++) {
+                if(oldCounts[i] > 0) {
+                    int slot = mix(oldHashes[i]) & mask;
+                    while(counts[slot] > 0) {
+                        slot = (slot + 1) & mask;
+                    }
+                    offsets[slot] = oldOffsets[i];
+                    lengths[slot] = oldLengths[i];
+                    hashes[slot] = oldHashes[i];
+                    counts[slot] = oldCounts[i];
+                }
+            }
+        }
+
+        /**
+         * FNV-1a over the bytes
+         */
+        private static int hash(byte[] bytes, int offset, int length) {
+            int h = 0x811C9DC5;
+            for(int i = offset; i < offset + length; i++) {
+                h = (h ^ (bytes[i] & 0xFF)) * 0x01000193;
+            }
+            return h;
+        }
+
+        private static int mix(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
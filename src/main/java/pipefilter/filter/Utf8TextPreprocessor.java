@@ -0,0 +1,117 @@
+package pipefilter.filter;
+
+import pipefilter.pipe.Pipe;
+
+/**
+ * @author Nardos Tessema
+ *
+ * The byte counterpart of the TextPreprocessor:
+ * (1) Removes non-alphanumeric words
+ * (2) Removes numeric only words
+ * (3) Transforms to lower case
+ *
+ * A word with a non-ASCII byte is not alphanumeric (\w is ASCII),
+ * so the words that are kept are ASCII and lower-cased in place.
+ *
+ * @see pipefilter.filter.Utf8Batch
+ */
+public class Utf8TextPreprocessor implements Filter<Utf8Batch, Utf8Batch> {
+
+    private final Pipe<Utf8Batch> input;
+    private final Pipe<Utf8Batch> output;
+
+    /**
+     * Timing instrumentation instance variables
+     */
+    private long cumulativeInputBlockingTime;
+    private long cumulativeOutputBlockingTime;
+    private long totalProcessingTime;
+    private long inputCounter;
+    private long outputCounter;
+
+    public Utf8TextPreprocessor(Pipe<Utf8Batch> input, Pipe<Utf8Batch> output) {
+        this.input = input;
+        this.output = output;
+    }
+
+    @Override
+    public void filter() {
+        inputCounter = 0L;
+        outputCounter = 0L;
+        cumulativeInputBlockingTime = 0L;
+        cumulativeOutputBlockingTime = 0L;
+        long start = System.currentTimeMillis();
+        while(true) {
+            long beforeInputPipe;
+            long beforeOutputPipe;
+            try {
+                beforeInputPipe = System.currentTimeMillis();
+                final Utf8Batch batch = input.take();
+                cumulativeInputBlockingTime += System.currentTimeMillis() - beforeInputPipe;
+
+                if(batch.isSentinelValue()) {
+                    beforeOutputPipe = System.currentTimeMillis();
+                    output.put(batch);
+                    cumulativeOutputBlockingTime += System.currentTimeMillis() - beforeOutputPipe;
+                    break;
+                }
+                inputCounter += batch.size();
+                /*
+                 * The kept tokens move to the front of the batch.
+                 */
+                final byte[] bytes = batch.bytes();
+                int kept = 0;
+                for(int t = 0; t < batch.size(); t++) {
+                    final int offset = batch.offset(t);
+                    final int length = batch.length(t);
+                    if(isWord(bytes, offset, length)) {
+                        toLowerCase(bytes, offset, length);
+                        batch.set(kept++, offset, length);
+                    }
+                }
+                batch.truncate(kept);
+                outputCounter += batch.size();
+
+                beforeOutputPipe = System.currentTimeMillis();
+                output.put(batch);
+                cumulativeOutputBlockingTime += System.currentTimeMillis() - beforeOutputPipe;
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        totalProcessingTime = System.currentTimeMillis() - start;
+    }
+
+    /**
+     * @return true if the slice is an alphanumeric word (\w+) that is not numeric only (\d+)
+     */
+    static boolean isWord(byte[] bytes, int offset, int length) {
+        boolean numericOnly = true;
+        for(int i = offset; i < offset + length; i++) {
+            final byte c = bytes[i];
+            if(c >= '0' && c <= '9') {
+                continue;
+            }
+            numericOnly = false;
+            if(!(c >= 'a' && c <= 'z') && !(c >= 'A' && c <= 'Z') && c != '_') {
+                return false;
+            }
+        }
+        return length > 0 && !numericOnly;
+    }
+
+    private static void toLowerCase(byte[] bytes, int offset, int length) {
+        for(int i = offset; i < offset + length; i++) {
+            if(bytes[i] >= 'A' && bytes[i] <= 'Z') {
+                bytes[i] += 'a' - 'A';
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        filter();
+        System.out.printf("%1$-26s | %2$10s | %3$11s | %4$9s | %5$8s | %6$8s%n", getClass().getSimpleName(), cumulativeInputBlockingTime, cumulativeOutputBlockingTime, totalProcessingTime, inputCounter, outputCounter);
+    }
+}
@@ -0,0 +1,167 @@
+package pipefilter.filter;
+
+import pipefilter.pipe.Pipe;
+
+/**
+ * @author Nardos Tessema
+ *
+ * A tokenizer filter that scans UTF-8 bytes.
+ *
+ * The words (runs of letters, digits and '_', as for the slice-tokenizer)
+ * of the lines of a batch become slices of the same byte buffer. ASCII
+ * bytes are classified 8 at a time (see SwarScanner); only the bytes of
+ * a non-ASCII char are decoded (to a code point) to find out whether
+ * the char is a letter.
+ *
+ * @see pipefilter.filter.Utf8Batch
+ */
+public class Utf8Tokenizer implements Filter<Utf8Batch, Utf8Batch> {
+
+    private final Pipe<Utf8Batch> input;
+    private final Pipe<Utf8Batch> output;
+
+    /**
+     * Timing instrumentation instance variables
+     */
+    private long cumulativeInputBlockingTime;
+    private long cumulativeOutputBlockingTime;
+    private long totalProcessingTime;
+    private long inputCounter;
+    private long outputCounter;
+
+    public Utf8Tokenizer(Pipe<Utf8Batch> input, Pipe<Utf8Batch> output) {
+        this.input = input;
+        this.output = output;
+    }
+
+    @Override
+    public void filter() {
+        inputCounter = 0L;
+        outputCounter = 0L;
+        cumulativeInputBlockingTime = 0L;
+        cumulativeOutputBlockingTime = 0L;
+        long start = System.currentTimeMillis();
+        while(true) {
+            long beforeInputPipe;
+            long beforeOutputPipe;
+            try {
+                beforeInputPipe = System.currentTimeMillis();
+                final Utf8Batch lines = input.take();
+                cumulativeInputBlockingTime += System.currentTimeMillis() - beforeInputPipe;
+
+                if(lines.isSentinelValue()) {
+                    beforeOutputPipe = System.currentTimeMillis();
+                    output.put(lines);
+                    cumulativeOutputBlockingTime += System.currentTimeMillis() - beforeOutputPipe;
+                    break;
+                }
+                inputCounter += lines.size();
+                /*
+                 * The words are slices of the buffer of the lines.
+                 */
+                final Utf8Batch words = new Utf8Batch(lines.bytes(), lines.byteCount(), 8 * lines.size());
+                for(int l = 0; l < lines.size(); l++) {
+                    tokenize(lines.bytes(), lines.offset(l), lines.offset(l) + lines.length(l), words);
+                }
+                outputCounter += words.size();
+
+                beforeOutputPipe = System.currentTimeMillis();
+                output.put(words);
+                cumulativeOutputBlockingTime += System.currentTimeMillis() - beforeOutputPipe;
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        totalProcessingTime = System.currentTimeMillis() - start;
+    }
+
+    /**
+     * Adds the words of bytes[from, to) to the batch.
+     *
+     * The runs of ASCII bytes are skipped 8 bytes at a time (see SwarScanner).
+     */
+    static void tokenize(byte[] bytes, int from, int to, Utf8Batch words) {
+        int i = from;
+        while(i < to) {
+            i = SwarScanner.skipNonWordChars(bytes, i, to);
+            if(i == to) {
+                return;
+            }
+            if(bytes[i] < 0 && !isLetterOrDigit(bytes, i, to)) {
+                i += width(bytes, i, to);
+                continue;
+            }
+            /*
+             * A word starts at i.
+             */
+            int end = i;
+            while(true) {
+                end = SwarScanner.skipWordChars(bytes, end, to);
+                if(end < to && bytes[end] < 0 && isLetterOrDigit(bytes, end, to)) {
+                    end += width(bytes, end, to);
+                } else {
+                    break;
+                }
+            }
+            words.add(i, end - i);
+            i = end;
+        }
+    }
+
+    /**
+     * @return true if the non-ASCII char at the offset is a letter or a digit
+     */
+    private static boolean isLetterOrDigit(byte[] bytes, int offset, int to) {
+        final int codePoint = decode(bytes, offset, width(bytes[offset]), to);
+        return codePoint >= 0 && Character.isLetterOrDigit(codePoint);
+    }
+
+    /**
+     * @return the number of bytes of the char at the offset (1 for a malformed byte,
+     *         which is skipped on its own)
+     */
+    private static int width(byte[] bytes, int offset, int to) {
+        final int width = width(bytes[offset]);
+        return decode(bytes, offset, width, to) >= 0 ? width : 1;
+    }
+
+    /**
+     * @return the number of bytes of the UTF-8 sequence that starts with the (non-ASCII) byte
+     */
+    private static int width(byte lead) {
+        if((lead & 0xE0) == 0xC0) {
+            return 2;
+        }
+        if((lead & 0xF0) == 0xE0) {
+            return 3;
+        }
+        if((lead & 0xF8) == 0xF0) {
+            return 4;
+        }
+        return 1;
+    }
+
+    /**
+     * @return the code point of the sequence, -1 if it is malformed or truncated
+     */
+    private static int decode(byte[] bytes, int offset, int width, int to) {
+        if(width == 1 || offset + width > to) {
+            return -1;
+        }
+        int codePoint = bytes[offset] & (0x7F >> width);
+        for(int i = offset + 1; i < offset + width; i++) {
+            if((bytes[i] & 0xC0) != 0x80) {
+                return -1;
+            }
+            codePoint = (codePoint << 6) | (bytes[i] & 0x3F);
+        }
+        return codePoint;
+    }
+
+    @Override
+    public void run() {
+        filter();
+        System.out.printf("%1$-26s | %2$10s | %3$11s | %4$9s | %5$8s | %6$8s%n", getClass().getSimpleName(), cumulativeInputBlockingTime, cumulativeOutputBlockingTime, totalProcessingTime, inputCounter, outputCounter);
+    }
+}
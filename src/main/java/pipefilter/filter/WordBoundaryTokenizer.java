@@ -2,8 +2,6 @@ package pipefilter.filter;
 
 import pipefilter.pipe.Pipe;
 
-import java.util.concurrent.CountDownLatch;
-
 import static pipefilter.config.Configuration.SENTINEL_VALUE;
 
 /**
@@ -14,6 +12,10 @@ import static pipefilter.config.Configuration.SENTINEL_VALUE;
  * This filter splits a line of text into an array of words.
  * The splitting is done by the word boundary character '\b'.
  *
+ * The boundaries of an ASCII line are found without the regex, on
+ * the chars of the line: a word is a run of the word chars [A-Za-z0-9_]
+ * or a run of the other chars. The words are the same.
+ *
  * @see <a href="https://docs.oracle.com/javase/7/docs/api/java/util/regex/Pattern.html">Java RegEx<a/>
  * @see <a href="https://www.regular-expressions.info/wordboundaries.html">Regular Expressions - Word Boundaries</a>
  */
@@ -21,7 +23,6 @@ public class WordBoundaryTokenizer implements Filter<String, String> {
 
     private final Pipe<String> input;
     private final Pipe<String> output;
-    private final CountDownLatch doneSignal;
 
     private static final String WORD_BOUNDARY = "\\b";
 
@@ -34,10 +35,9 @@ public class WordBoundaryTokenizer implements Filter<String, String> {
     private long inputCounter;
     private long outputCounter;
 
-    public WordBoundaryTokenizer(Pipe<String> input, Pipe<String> output, CountDownLatch doneSignal) {
+    public WordBoundaryTokenizer(Pipe<String> input, Pipe<String> output) {
         this.input = input;
         this.output = output;
-        this.doneSignal = doneSignal;
     }
 
     @Override
@@ -64,26 +64,61 @@ public class WordBoundaryTokenizer implements Filter<String, String> {
                 }
                 /*
                  * Split line by word boundary.
+                 * An ASCII line is split on its chars (nothing is encoded).
+                 * A line with other chars is left to the regex, which knows
+                 * which of them are letters.
                  */
-
-                final String[] words = line.split(WORD_BOUNDARY);
-                for(String word : words) {
-                    beforeOutputPipe = System.currentTimeMillis();
-                    output.put(word);
-                    cumulativeOutputBlockingTime += System.currentTimeMillis() - beforeOutputPipe;
-                    outputCounter++;
+                if(line.isEmpty() || !isAscii(line)) {
+                    for(String word : line.split(WORD_BOUNDARY)) {
+                        put(word);
+                    }
+                } else {
+                    final int length = line.length();
+                    int from = 0;
+                    while(from < length) {
+                        final boolean wordChars = isWordChar(line.charAt(from));
+                        int to = from + 1;
+                        while(to < length && isWordChar(line.charAt(to)) == wordChars) {
+                            to++;
+                        }
+                        put(line.substring(from, to));
+                        from = to;
+                    }
                 }
             } catch (InterruptedException ie) {
-                ie.printStackTrace();
+                Thread.currentThread().interrupt();
+                break;
             }
         }
         totalProcessingTime = System.currentTimeMillis() - start;
     }
 
+    private static boolean isAscii(String line) {
+        for(int i = 0; i < line.length(); i++) {
+            if(line.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true for the ASCII word chars [A-Za-z0-9_]
+     */
+    private static boolean isWordChar(char c) {
+        return c < 0x80 && SwarScanner.isWordChar((byte) c);
+    }
+
+    private void put(String word) throws InterruptedException {
+        final long beforeOutputPipe = System.currentTimeMillis();
+        output.put(word);
+        cumulativeOutputBlockingTime += System.currentTimeMillis() - beforeOutputPipe;
+        outputCounter++;
+    }
+
     @Override
     public void run() {
         filter();
-        doneSignal.countDown();
         System.out.printf("%1$-26s | %2$10s | %3$11s | %4$9s | %5$8s | %6$8s%n", getClass().getSimpleName(), cumulativeInputBlockingTime, cumulativeOutputBlockingTime, totalProcessingTime, inputCounter, outputCounter);
     }
 }
@@ -0,0 +1,218 @@
+package pipefilter.pipe;
+
+import pipefilter.exception.PipeFilterException;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * @author Nardos Tessema
+ *
+ * A Pipe whose capacity adapts to the observed behaviour
+ * of its producer and its consumer.
+ *
+ * The pipe starts small and:
+ *
+ * (1) grows (doubles) when the producer finds it full while the
+ *     consumer has recently found it empty. The two sides run at
+ *     fluctuating rates and more slack lets them both keep going.
+ * (2) grows when the producer has been blocked on a full pipe for
+ *     longer than GROWTH_STALL_MILLIS, i.e. the consumer is not
+ *     draining the pipe at all (e.g. it is waiting on some other
+ *     pipe, as the Serializer does in the parallel pipeline).
+ * (3) shrinks (halves) when, over a whole observation window, the
+ *     producer never blocked and the pipe never got more than a
+ *     quarter full. The slack is not needed and is given back.
+ *
+ * A producer that is merely faster than a steady consumer does not
+ * make the pipe grow: the consumer is the bottleneck and a bigger
+ * buffer would only hold more items without improving throughput.
+ *
+ * All capacity, the initial one too, is drawn from a PipeCapacityBudget
+ * which is shared by the adaptive pipes of a pipeline. When the budget
+ * is exhausted, the pipe behaves like a plain bounded blocking queue of
+ * its current capacity. A pipe that is no longer used gives its whole
+ * capacity back (release).
+ *
+ * @param <T> the type of the pipe
+ */
+public class AdaptiveCapacityPipe<T> implements Pipe<T> {
+
+    /**
+     * The number of take operations after which the
+     * shrinking rule (3) is evaluated.
+     */
+    static final int OBSERVATION_WINDOW = 1024;
+    /**
+     * How long a producer waits on a full pipe before rule (2) kicks in.
+     */
+    static final long GROWTH_STALL_MILLIS = 5L;
+
+    private final ArrayDeque<T> buffer;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+
+    private final PipeCapacityBudget budget;
+    private final int minimumCapacity;
+    private int capacity;
+
+    /**
+     * Observations made since the last capacity adjustment.
+     */
+    private int producerStalls;
+    private int consumerStalls;
+    private int takes;
+    private int peakSize;
+
+    /**
+     * @param initialCapacity the capacity the pipe starts with (also the smallest it will shrink to)
+     * @param budget the budget out of which the pipe draws its capacity
+     * @throws PipeFilterException if the budget cannot give the initial capacity
+     */
+    public AdaptiveCapacityPipe(int initialCapacity, PipeCapacityBudget budget) {
+        this.budget = budget;
+        this.minimumCapacity = Math.max(1, initialCapacity);
+        final int granted = budget.acquire(minimumCapacity);
+        if(granted < minimumCapacity) {
+            budget.release(granted);
+            throw new PipeFilterException("Pipe capacity budget exhausted: " + minimumCapacity + " slots wanted, " + granted + " available");
+        }
+        this.capacity = minimumCapacity;
+        this.buffer = new ArrayDeque<>(minimumCapacity);
+    }
+
+    @Override
+    public T take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while(buffer.isEmpty()) {
+                consumerStalls++;
+                notEmpty.await();
+            }
+            final T t = buffer.poll();
+            notFull.signal();
+            if(++takes >= OBSERVATION_WINDOW) {
+                shrinkIfIdle();
+            }
+            return t;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while(buffer.isEmpty()) {
+                if(nanos <= 0L) {
+                    return null;
+                }
+                consumerStalls++;
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            final T t = buffer.poll();
+            notFull.signal();
+            if(++takes >= OBSERVATION_WINDOW) {
+                shrinkIfIdle();
+            }
+            return t;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void put(T t) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while(buffer.size() >= capacity) {
+                producerStalls++;
+                if(consumerStalls > 0 && grow()) {
+                    continue;
+                }
+                /*
+                 * If the consumer takes nothing for a while, it is
+                 * stuck elsewhere. Try to make room for the producer.
+                 */
+                if(!notFull.await(GROWTH_STALL_MILLIS, TimeUnit.MILLISECONDS) && buffer.size() >= capacity) {
+                    if(!grow()) {
+                        notFull.await();
+                    }
+                }
+            }
+            buffer.add(t);
+            peakSize = Math.max(peakSize, buffer.size());
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the current capacity of the pipe
+     */
+    public int capacity() {
+        lock.lock();
+        try {
+            return capacity;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gives the whole capacity of the pipe back to the budget.
+     * The pipe must not be used anymore.
+     */
+    public void release() {
+        lock.lock();
+        try {
+            budget.release(capacity);
+            capacity = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Doubles the capacity (or takes whatever the budget can still give).
+     * Must be called with the lock held.
+     *
+     * @return true if the capacity has increased
+     */
+    private boolean grow() {
+        final int granted = budget.acquire(capacity);
+        if(granted == 0) {
+            return false;
+        }
+        capacity += granted;
+        resetObservations();
+        notFull.signalAll();
+        return true;
+    }
+
+    /**
+     * Halves the capacity if the last window shows that the slack
+     * is not used. Must be called with the lock held.
+     */
+    private void shrinkIfIdle() {
+        if(producerStalls == 0 && peakSize < capacity / 4 && capacity > minimumCapacity) {
+            final int reduced = Math.max(minimumCapacity, Math.max(buffer.size(), capacity / 2));
+            budget.release(capacity - reduced);
+            capacity = reduced;
+        }
+        resetObservations();
+    }
+
+    private void resetObservations() {
+        producerStalls = 0;
+        consumerStalls = 0;
+        takes = 0;
+        peakSize = buffer.size();
+    }
+}
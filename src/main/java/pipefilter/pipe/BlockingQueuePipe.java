@@ -1,6 +1,7 @@
 package pipefilter.pipe;
 
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author Nardos Tessema
@@ -8,23 +9,64 @@ import java.util.concurrent.BlockingQueue;
  * A Pipe implementation that uses a blocking queue
  * as the underlying buffer data structure.
  *
+ * With a wait strategy other than BLOCK, the pipe never waits
+ * inside the queue: it offers and polls, and idles in between.
+ *
  * @param <T> the type of the pipe
  */
 public class BlockingQueuePipe<T> implements Pipe<T> {
 
     private final BlockingQueue<T> pipe;
+    private final WaitStrategy waitStrategy;
 
     public BlockingQueuePipe(BlockingQueue<T> pipe) {
+        this(pipe, WaitStrategy.BLOCK);
+    }
+
+    public BlockingQueuePipe(BlockingQueue<T> pipe, WaitStrategy waitStrategy) {
         this.pipe = pipe;
+        this.waitStrategy = waitStrategy;
     }
 
     @Override
     public T take() throws InterruptedException {
-        return pipe.take();
+        if(waitStrategy == WaitStrategy.BLOCK) {
+            return pipe.take();
+        }
+        int attempt = 0;
+        T t;
+        while((t = pipe.poll()) == null) {
+            waitStrategy.idle(attempt++);
+        }
+        return t;
     }
 
     @Override
     public void put(T t) throws InterruptedException {
-        pipe.put(t);
+        if(waitStrategy == WaitStrategy.BLOCK) {
+            pipe.put(t);
+            return;
+        }
+        int attempt = 0;
+        while(!pipe.offer(t)) {
+            waitStrategy.idle(attempt++);
+        }
+    }
+
+    @Override
+    public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+        if(waitStrategy == WaitStrategy.BLOCK) {
+            return pipe.poll(timeout, unit);
+        }
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        int attempt = 0;
+        T t;
+        while((t = pipe.poll()) == null) {
+            if(System.nanoTime() - deadline >= 0L) {
+                return null;
+            }
+            waitStrategy.idle(attempt++);
+        }
+        return t;
     }
 }
@@ -0,0 +1,169 @@
+package pipefilter.pipe;
+
+import pipefilter.exception.PipeFilterException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * @author Nardos Tessema
+ *
+ * A pipe with one producer and several consumers (branches)
+ * that each receive every item.
+ *
+ * The items are put once into a shared ring buffer and each branch
+ * reads them with its own cursor. No item is copied per branch; the
+ * branches share the same objects and must not modify them.
+ *
+ *            +---------- cursor of branch 1
+ *            v
+ *   [ . . . x x x x x . . . ]
+ *                  ^        ^
+ *                  |        +-- next put
+ *                  +----------- cursor of branch 0
+ *
+ * Backpressure is per branch: a branch that falls behind holds on to
+ * the items it has not read yet. The producer blocks only when the
+ * slowest branch is a whole buffer (capacity) behind; the other
+ * branches keep taking the items that are buffered.
+ *
+ * The producer puts into this pipe; the consumers take from the
+ * pipes returned by branch(i).
+ *
+ * @param <T> the type of the pipe
+ */
+public class BroadcastPipe<T> implements Pipe<T> {
+
+    private final Object[] buffer;
+    private final int capacity;
+    /**
+     * The number of items put so far, and the number of
+     * items each branch has taken so far
+     */
+    private long head;
+    private final long[] cursors;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+
+    private final List<Pipe<T>> branches;
+
+    /**
+     * @param capacity the number of items the slowest branch may fall behind
+     * @param numberOfBranches the number of consumers
+     */
+    public BroadcastPipe(int capacity, int numberOfBranches) {
+        this.capacity = Math.max(1, capacity);
+        this.buffer = new Object[this.capacity];
+        this.cursors = new long[numberOfBranches];
+        final List<Pipe<T>> views = new ArrayList<>(numberOfBranches);
+        for(int i = 0; i < numberOfBranches; i++) {
+            views.add(new Branch(i));
+        }
+        this.branches = Collections.unmodifiableList(views);
+    }
+
+    /**
+     * @param i the number of the branch (0 .. numberOfBranches - 1)
+     * @return the pipe the consumer of the branch takes from
+     */
+    public Pipe<T> branch(int i) {
+        return branches.get(i);
+    }
+
+    @Override
+    public void put(T t) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while(head - slowestCursor() >= capacity) {
+                notFull.await();
+            }
+            buffer[(int) (head % capacity)] = t;
+            head++;
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public T take() {
+        throw new PipeFilterException("Items are taken from the branches of a broadcast pipe");
+    }
+
+    @Override
+    public T poll(long timeout, TimeUnit unit) {
+        throw new PipeFilterException("Items are taken from the branches of a broadcast pipe");
+    }
+
+    /**
+     * @param branch the number of the branch
+     * @param nanos how long to wait for an item (negative: as long as it takes)
+     * @return the next item of the branch, null if none arrived in time
+     */
+    @SuppressWarnings("unchecked")
+    private T read(int branch, long nanos) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while(cursors[branch] == head) {
+                if(nanos < 0L) {
+                    notEmpty.await();
+                } else if(nanos == 0L) {
+                    return null;
+                } else {
+                    nanos = Math.max(0L, notEmpty.awaitNanos(nanos));
+                }
+            }
+            final long position = cursors[branch]++;
+            final T t = (T) buffer[(int) (position % capacity)];
+            /*
+             * Only the slowest branch frees a slot for the producer.
+             */
+            if(position == slowestCursor() - 1) {
+                notFull.signal();
+            }
+            return t;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long slowestCursor() {
+        long slowest = head;
+        for(long cursor : cursors) {
+            slowest = Math.min(slowest, cursor);
+        }
+        return slowest;
+    }
+
+    /**
+     * The consumer side of a branch
+     */
+    private class Branch implements Pipe<T> {
+        private final int branch;
+
+        private Branch(int branch) {
+            this.branch = branch;
+        }
+
+        @Override
+        public T take() throws InterruptedException {
+            return read(branch, -1L);
+        }
+
+        @Override
+        public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+            return read(branch, Math.max(0L, unit.toNanos(timeout)));
+        }
+
+        @Override
+        public void put(T t) {
+            throw new PipeFilterException("Items are put into the broadcast pipe, not into its branches");
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package pipefilter.pipe;
+
+/**
+ * @author Nardos Tessema
+ *
+ * A pipe of double values.
+ *
+ * The components that produce or consume doubles use putDouble/takeDouble,
+ * which do not box. The inherited put/take (Double) remain for
+ * components that are written against Pipe<Double>.
+ *
+ * PipeFactory builds a pipe of this type for java.lang.Double.
+ */
+public interface DoublePipe extends Pipe<Double> {
+    double takeDouble() throws InterruptedException;
+    void putDouble(double value) throws InterruptedException;
+}
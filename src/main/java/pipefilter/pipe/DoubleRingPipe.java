@@ -0,0 +1,71 @@
+package pipefilter.pipe;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Nardos Tessema
+ *
+ * A bounded blocking DoublePipe backed by a double[] ring buffer.
+ *
+ * It works like an ArrayBlockingQueue<Double> (one lock, two
+ * conditions) but holds the values in a primitive array, so
+ * putting and taking a double allocates nothing.
+ *
+ * The indexing and the waiting are those of PrimitiveRing.
+ */
+public class DoubleRingPipe extends PrimitiveRing implements DoublePipe {
+
+    private final double[] ring;
+
+    public DoubleRingPipe(int capacity) {
+        this(capacity, WaitStrategy.BLOCK);
+    }
+
+    public DoubleRingPipe(int capacity, WaitStrategy waitStrategy) {
+        super(capacity, waitStrategy);
+        this.ring = new double[capacity()];
+    }
+
+    @Override
+    public double takeDouble() throws InterruptedException {
+        final int slot = awaitValue();
+        try {
+            return ring[slot];
+        } finally {
+            emptied();
+        }
+    }
+
+    @Override
+    public void putDouble(double value) throws InterruptedException {
+        final int slot = awaitSlot();
+        try {
+            ring[slot] = value;
+        } finally {
+            filled();
+        }
+    }
+
+    @Override
+    public Double take() throws InterruptedException {
+        return takeDouble();
+    }
+
+    @Override
+    public void put(Double value) throws InterruptedException {
+        putDouble(value);
+    }
+
+    @Override
+    public Double poll(long timeout, TimeUnit unit) throws InterruptedException {
+        final int slot = awaitValue(timeout, unit);
+        if(slot < 0) {
+            return null;
+        }
+        try {
+            return ring[slot];
+        } finally {
+            emptied();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package pipefilter.pipe;
+
+/**
+ * @author Nardos Tessema
+ *
+ * A pipe that merges the streams of several producers.
+ *
+ * Every producer ends its stream with the sentinel value,
+ * and the consumers get the end of the merged stream only
+ * after the last producer's sentinel value.
+ *
+ * @param <T> the type of the pipe
+ */
+public interface FanInPipe<T> extends Pipe<T> {
+
+    /**
+     * Sets the number of producers whose sentinel values make up
+     * the end of the stream of the next run.
+     * Must not be called while the stream flows.
+     */
+    void expectProducers(int count);
+
+    /**
+     * Registers one more producer while the stream flows.
+     * The new producer must end its stream with the sentinel value.
+     *
+     * @return false if the end of the stream has already been taken
+     *         (the producer is not registered)
+     */
+    boolean addProducer();
+}
@@ -0,0 +1,101 @@
+package pipefilter.pipe;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * @author Nardos Tessema
+ *
+ * The signal a consumer of several pipes (the Serializer) sleeps on
+ * while all of its pipes are empty.
+ *
+ *  --[F1]--(pipe)--+
+ *  --[F1]--(pipe)--+-->[Serializer]
+ *  --[F1]--(pipe)--+
+ *        \____________/ signal
+ *
+ * The producers put through pipes that raise the signal after every
+ * put (see signalOnPut). The consumer reads the version of the signal,
+ * looks at each of its pipes once, and if they were all empty, waits
+ * until the version changes. Whatever was put after the consumer read
+ * the version wakes it up, and whatever was put before, it has seen.
+ *
+ * A producer only takes the lock if the consumer is asleep, so the
+ * signal costs the producers one atomic increment per item.
+ */
+public class FanInSignal {
+
+    private final AtomicLong version = new AtomicLong();
+    private volatile boolean waiting;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition raised = lock.newCondition();
+
+    /**
+     * @return the version to wait on after the pipes have been looked at
+     */
+    public long version() {
+        return version.get();
+    }
+
+    /**
+     * Wakes up the consumer.
+     */
+    public void raise() {
+        version.incrementAndGet();
+        if(waiting) {
+            lock.lock();
+            try {
+                raised.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Waits until the signal is raised after the given version was read.
+     *
+     * @param seen the version read before the pipes were looked at
+     */
+    public void await(long seen) throws InterruptedException {
+        if(version.get() != seen) {
+            return;
+        }
+        lock.lockInterruptibly();
+        try {
+            waiting = true;
+            while(version.get() == seen) {
+                raised.await();
+            }
+        } finally {
+            waiting = false;
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param pipe a pipe of the consumer
+     * @return the pipe the producer puts into: the same pipe, raising the signal after every put
+     */
+    public <T> Pipe<T> signalOnPut(Pipe<T> pipe) {
+        return new Pipe<T>() {
+            @Override
+            public T take() throws InterruptedException {
+                return pipe.take();
+            }
+
+            @Override
+            public void put(T t) throws InterruptedException {
+                pipe.put(t);
+                raise();
+            }
+
+            @Override
+            public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+                return pipe.poll(timeout, unit);
+            }
+        };
+    }
+}
@@ -0,0 +1,17 @@
+package pipefilter.pipe;
+
+/**
+ * @author Nardos Tessema
+ *
+ * A pipe of int values.
+ *
+ * The components that produce or consume ints use putInt/takeInt,
+ * which do not box. The inherited put/take (Integer) remain for
+ * components that are written against Pipe<Integer>.
+ *
+ * PipeFactory builds a pipe of this type for java.lang.Integer.
+ */
+public interface IntPipe extends Pipe<Integer> {
+    int takeInt() throws InterruptedException;
+    void putInt(int value) throws InterruptedException;
+}
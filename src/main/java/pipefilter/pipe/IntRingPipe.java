@@ -0,0 +1,71 @@
+package pipefilter.pipe;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Nardos Tessema
+ *
+ * A bounded blocking IntPipe backed by an int[] ring buffer.
+ *
+ * It works like an ArrayBlockingQueue<Integer> (one lock, two
+ * conditions) but holds the values in a primitive array, so
+ * putting and taking an int allocates nothing.
+ *
+ * The indexing and the waiting are those of PrimitiveRing.
+ */
+public class IntRingPipe extends PrimitiveRing implements IntPipe {
+
+    private final int[] ring;
+
+    public IntRingPipe(int capacity) {
+        this(capacity, WaitStrategy.BLOCK);
+    }
+
+    public IntRingPipe(int capacity, WaitStrategy waitStrategy) {
+        super(capacity, waitStrategy);
+        this.ring = new int[capacity()];
+    }
+
+    @Override
+    public int takeInt() throws InterruptedException {
+        final int slot = awaitValue();
+        try {
+            return ring[slot];
+        } finally {
+            emptied();
+        }
+    }
+
+    @Override
+    public void putInt(int value) throws InterruptedException {
+        final int slot = awaitSlot();
+        try {
+            ring[slot] = value;
+        } finally {
+            filled();
+        }
+    }
+
+    @Override
+    public Integer take() throws InterruptedException {
+        return takeInt();
+    }
+
+    @Override
+    public void put(Integer value) throws InterruptedException {
+        putInt(value);
+    }
+
+    @Override
+    public Integer poll(long timeout, TimeUnit unit) throws InterruptedException {
+        final int slot = awaitValue(timeout, unit);
+        if(slot < 0) {
+            return null;
+        }
+        try {
+            return ring[slot];
+        } finally {
+            emptied();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package pipefilter.pipe;
+
+/**
+ * @author Nardos Tessema
+ *
+ * A pipe of long values.
+ *
+ * The components that produce or consume longs use putLong/takeLong,
+ * which do not box. The inherited put/take (Long) remain for
+ * components that are written against Pipe<Long>.
+ *
+ * PipeFactory builds a pipe of this type for java.lang.Long.
+ */
+public interface LongPipe extends Pipe<Long> {
+    long takeLong() throws InterruptedException;
+    void putLong(long value) throws InterruptedException;
+}
@@ -0,0 +1,71 @@
+package pipefilter.pipe;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Nardos Tessema
+ *
+ * A bounded blocking LongPipe backed by a long[] ring buffer.
+ *
+ * It works like an ArrayBlockingQueue<Long> (one lock, two
+ * conditions) but holds the values in a primitive array, so
+ * putting and taking a long allocates nothing.
+ *
+ * The indexing and the waiting are those of PrimitiveRing.
+ */
+public class LongRingPipe extends PrimitiveRing implements LongPipe {
+
+    private final long[] ring;
+
+    public LongRingPipe(int capacity) {
+        this(capacity, WaitStrategy.BLOCK);
+    }
+
+    public LongRingPipe(int capacity, WaitStrategy waitStrategy) {
+        super(capacity, waitStrategy);
+        this.ring = new long[capacity()];
+    }
+
+    @Override
+    public long takeLong() throws InterruptedException {
+        final int slot = awaitValue();
+        try {
+            return ring[slot];
+        } finally {
+            emptied();
+        }
+    }
+
+    @Override
+    public void putLong(long value) throws InterruptedException {
+        final int slot = awaitSlot();
+        try {
+            ring[slot] = value;
+        } finally {
+            filled();
+        }
+    }
+
+    @Override
+    public Long take() throws InterruptedException {
+        return takeLong();
+    }
+
+    @Override
+    public void put(Long value) throws InterruptedException {
+        putLong(value);
+    }
+
+    @Override
+    public Long poll(long timeout, TimeUnit unit) throws InterruptedException {
+        final int slot = awaitValue(timeout, unit);
+        if(slot < 0) {
+            return null;
+        }
+        try {
+            return ring[slot];
+        } finally {
+            emptied();
+        }
+    }
+}
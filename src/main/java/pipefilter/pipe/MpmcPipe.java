@@ -0,0 +1,311 @@
+package pipefilter.pipe;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * @author Nardos Tessema
+ *
+ * A bounded lock-free pipe with many producers and many consumers.
+ *
+ * The ring works like the ring of the MpscPipe (see there), except
+ * that the consumers, too, claim their positions with a compare-and-set
+ * on the head. A consumer that is faster than the others simply takes
+ * more items: the load balances itself.
+ *
+ * Fan-out: the parallel instances of a filter all take from one pipe.
+ * The sentinel value is taken once from the ring, after which every
+ * consumer that finds the pipe empty gets the sentinel value, so that
+ * all the instances end. One consumer can be ended early while the
+ * stream flows (see retireConsumer): the next consumer that comes to
+ * take gets the sentinel value instead of an item.
+ *
+ *                    +-->[F1]--
+ *   --(mpmc pipe)--->+-->[F1]--
+ *                    +-->[F1]--
+ *
+ * Fan-in: like the MpscPipe, the pipe also merges the streams of
+ * several producers, which is how two parallel stages connect
+ * without a Serializer and a Parallelizer in between.
+ *
+ *   --[F1]--+                 +-->[F2]--
+ *   --[F1]--+--(mpmc pipe)--->+-->[F2]--
+ *   --[F1]--+                 +-->[F2]--
+ *
+ * The pipe keeps track of the time its producers wait on a full ring
+ * and its consumers wait on an empty one, and of the items taken from
+ * it; the ParallelismController measures the throughput of the stage
+ * by the items taken when there is no Parallelizer.
+ *
+ * @param <T> the type of the pipe
+ */
+public class MpmcPipe<T> implements FanInPipe<T> {
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<T> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * The sentinel value, the number of producers whose stream has
+     * not ended yet, the number of consumers to end early, and
+     * whether the end of the merged stream has been taken
+     */
+    private final T endOfStream;
+    private final AtomicInteger producers = new AtomicInteger(1);
+    private final AtomicInteger retirements = new AtomicInteger();
+    private volatile boolean ended;
+    private final WaitStrategy waitStrategy;
+
+    /**
+     * Timing instrumentation code (nanoseconds).
+     */
+    private final AtomicLong cumulativePutBlockingTime = new AtomicLong();
+    private final AtomicLong cumulativeTakeBlockingTime = new AtomicLong();
+
+    /**
+     * @param capacity the number of items the pipe holds (rounded up to a power of 2)
+     * @param endOfStream the sentinel value
+     */
+    public MpmcPipe(int capacity, T endOfStream) {
+        this(capacity, endOfStream, WaitStrategy.BLOCK);
+    }
+
+    /**
+     * @param capacity the number of items the pipe holds (rounded up to a power of 2)
+     * @param endOfStream the sentinel value
+     * @param waitStrategy how the producers and the consumers wait
+     */
+    public MpmcPipe(int capacity, T endOfStream, WaitStrategy waitStrategy) {
+        int size = 1;
+        while(size < Math.max(2, capacity)) {
+            size <<= 1;
+        }
+        this.capacity = size;
+        this.mask = size - 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for(int s = 0; s < size; s++) {
+            sequences.set(s, s);
+        }
+        this.endOfStream = endOfStream;
+        this.waitStrategy = waitStrategy;
+    }
+
+    @Override
+    public void put(T t) throws InterruptedException {
+        if(offer(t)) {
+            return;
+        }
+        final long before = System.nanoTime();
+        int attempt = 0;
+        try {
+            while(!offer(t)) {
+                waitStrategy.idle(attempt++);
+            }
+        } finally {
+            cumulativePutBlockingTime.addAndGet(System.nanoTime() - before);
+        }
+    }
+
+    @Override
+    public T take() throws InterruptedException {
+        T t = next();
+        if(t != null) {
+            return t;
+        }
+        final long before = System.nanoTime();
+        int attempt = 0;
+        try {
+            while((t = next()) == null) {
+                waitStrategy.idle(attempt++);
+            }
+        } finally {
+            cumulativeTakeBlockingTime.addAndGet(System.nanoTime() - before);
+        }
+        return t;
+    }
+
+    @Override
+    public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+        final long before = System.nanoTime();
+        final long deadline = before + unit.toNanos(timeout);
+        int attempt = 0;
+        T t;
+        try {
+            while((t = next()) == null) {
+                if(System.nanoTime() - deadline >= 0L) {
+                    return null;
+                }
+                waitStrategy.idle(attempt++);
+            }
+        } finally {
+            if(attempt > 0) {
+                cumulativeTakeBlockingTime.addAndGet(System.nanoTime() - before);
+            }
+        }
+        return t;
+    }
+
+    /**
+     * Puts an item if there is room for it.
+     *
+     * @return false if the pipe is full
+     */
+    public boolean offer(T t) {
+        long position = tail.get();
+        while(true) {
+            final int slot = (int) position & mask;
+            final long turn = sequences.get(slot) - position;
+            if(turn == 0L) {
+                if(tail.compareAndSet(position, position + 1)) {
+                    slots.lazySet(slot, t);
+                    sequences.set(slot, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if(turn < 0L) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    @Override
+    public void expectProducers(int count) {
+        producers.set(count);
+    }
+
+    @Override
+    public boolean addProducer() {
+        while(true) {
+            final int current = producers.get();
+            if(current == 0) {
+                return false;
+            }
+            if(producers.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Ends the stream of one consumer: the next consumer
+     * that takes gets the sentinel value instead of an item.
+     *
+     * @return false if the stream has already ended (all the consumers end anyway)
+     */
+    public boolean retireConsumer() {
+        if(ended) {
+            return false;
+        }
+        retirements.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Opens the pipe for the next run (of a reset pipeline).
+     * A pipe with a single producer expects it again; the number
+     * of producers of a fan-in is set with expectProducers.
+     * Must not be called while the stream flows.
+     */
+    public void reopen() {
+        retirements.set(0);
+        producers.compareAndSet(0, 1);
+        ended = false;
+    }
+
+    /**
+     * @return the number of items in the pipe (an estimate while the stream flows)
+     */
+    public int size() {
+        return (int) Math.max(0L, Math.min(capacity, tail.get() - head.get()));
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the time (ms) the producers have spent waiting on a full pipe
+     */
+    public long getCumulativePutBlockingTime() {
+        return TimeUnit.NANOSECONDS.toMillis(cumulativePutBlockingTime.get());
+    }
+
+    /**
+     * @return the time (ms) the consumers have spent waiting on an empty pipe, all together
+     */
+    public long getCumulativeTakeBlockingTime() {
+        return TimeUnit.NANOSECONDS.toMillis(cumulativeTakeBlockingTime.get());
+    }
+
+    /**
+     * @return the number of items taken from the ring since the pipe was created
+     */
+    public long getTakeCounter() {
+        return head.get();
+    }
+
+    /**
+     * @return the next item for a consumer, or null if there is none for now
+     */
+    private T next() {
+        while(true) {
+            final int pending = retirements.get();
+            if(pending > 0) {
+                if(retirements.compareAndSet(pending, pending - 1)) {
+                    return endOfStream;
+                }
+                continue;
+            }
+            final T t = dequeue();
+            if(t == null) {
+                return ended ? endOfStream : null;
+            }
+            if(!t.equals(endOfStream)) {
+                return t;
+            }
+            /*
+             * The sentinel value of a producer other than the last one is swallowed.
+             */
+            if(producers.decrementAndGet() == 0) {
+                ended = true;
+                return t;
+            }
+        }
+    }
+
+    private T dequeue() {
+        long position = head.get();
+        while(true) {
+            final int slot = (int) position & mask;
+            final long turn = sequences.get(slot) - (position + 1);
+            if(turn == 0L) {
+                if(head.compareAndSet(position, position + 1)) {
+                    final T t = slots.get(slot);
+                    slots.lazySet(slot, null);
+                    sequences.set(slot, position + capacity);
+                    return t;
+                }
+                position = head.get();
+            } else if(turn < 0L) {
+                /*
+                 * The item of this position has not been put yet.
+                 */
+                return null;
+            } else {
+                /*
+                 * Another consumer got the position first.
+                 */
+                position = head.get();
+            }
+        }
+    }
+}
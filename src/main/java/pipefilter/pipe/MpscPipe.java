@@ -0,0 +1,224 @@
+package pipefilter.pipe;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Predicate;
+
+/**
+ * @author Nardos Tessema
+ *
+ * A bounded lock-free pipe with many producers and a single consumer.
+ *
+ * The items are kept in a ring of slots. Every slot has a sequence
+ * number that tells whose turn it is:
+ *
+ *   sequence == position       the slot is free for the put at that position
+ *   sequence == position + 1   the slot holds the item put at that position
+ *
+ * A producer claims a position with a compare-and-set on the tail and
+ * publishes its item by advancing the sequence of the slot. The consumer
+ * is the only thread that moves the head, so it needs no atomic update.
+ * Neither side ever takes a lock; a producer that finds the pipe full
+ * (or the consumer that finds it empty) idles the way the WaitStrategy
+ * of the pipe says. BLOCK spins briefly, then yields and then parks.
+ *
+ * Fan-in: with an end-of-stream test, the pipe merges the streams of
+ * its producers. Every producer ends its stream with a sentinel value,
+ * and the consumer gets the sentinel value only once, after the last
+ * producer's. The number of producers is set before each run (see
+ * expectProducers) and may grow while the stream flows (see addProducer).
+ *
+ *   --[F1]--+
+ *   --[F1]--+--(mpsc pipe)-->[F2]
+ *   --[F1]--+
+ *
+ * @param <T> the type of the pipe
+ */
+public class MpscPipe<T> implements FanInPipe<T> {
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<T> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    /**
+     * Written by the consumer only
+     */
+    private volatile long head;
+
+    /**
+     * Fan-in: the test for the sentinel value (null: no fan-in) and
+     * the number of producers whose stream has not ended yet
+     */
+    private final Predicate<? super T> isEndOfStream;
+    private final AtomicInteger producers = new AtomicInteger(1);
+    private final WaitStrategy waitStrategy;
+
+    /**
+     * @param capacity the number of items the pipe holds (rounded up to a power of 2)
+     */
+    public MpscPipe(int capacity) {
+        this(capacity, null);
+    }
+
+    /**
+     * @param capacity the number of items the pipe holds (rounded up to a power of 2)
+     * @param isEndOfStream the test for the sentinel value of the producers
+     */
+    public MpscPipe(int capacity, Predicate<? super T> isEndOfStream) {
+        this(capacity, isEndOfStream, WaitStrategy.BLOCK);
+    }
+
+    /**
+     * @param capacity the number of items the pipe holds (rounded up to a power of 2)
+     * @param isEndOfStream the test for the sentinel value of the producers
+     * @param waitStrategy how the producers and the consumer wait
+     */
+    public MpscPipe(int capacity, Predicate<? super T> isEndOfStream, WaitStrategy waitStrategy) {
+        int size = 1;
+        while(size < Math.max(2, capacity)) {
+            size <<= 1;
+        }
+        this.capacity = size;
+        this.mask = size - 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for(int s = 0; s < size; s++) {
+            sequences.set(s, s);
+        }
+        this.isEndOfStream = isEndOfStream;
+        this.waitStrategy = waitStrategy;
+    }
+
+    @Override
+    public void put(T t) throws InterruptedException {
+        int attempt = 0;
+        while(!offer(t)) {
+            waitStrategy.idle(attempt++);
+        }
+    }
+
+    @Override
+    public T take() throws InterruptedException {
+        while(true) {
+            int attempt = 0;
+            T t;
+            while((t = next()) == null) {
+                waitStrategy.idle(attempt++);
+            }
+            if(!swallow(t)) {
+                return t;
+            }
+        }
+    }
+
+    @Override
+    public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        int attempt = 0;
+        while(true) {
+            final T t = next();
+            if(t == null) {
+                if(System.nanoTime() - deadline >= 0L) {
+                    return null;
+                }
+                waitStrategy.idle(attempt++);
+            } else if(!swallow(t)) {
+                return t;
+            }
+        }
+    }
+
+    /**
+     * Puts an item if there is room for it.
+     *
+     * @return false if the pipe is full
+     */
+    public boolean offer(T t) {
+        long position = tail.get();
+        while(true) {
+            final int slot = (int) position & mask;
+            final long turn = sequences.get(slot) - position;
+            if(turn == 0L) {
+                if(tail.compareAndSet(position, position + 1)) {
+                    slots.lazySet(slot, t);
+                    sequences.set(slot, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if(turn < 0L) {
+                /*
+                 * The slot still holds the item put a whole ring earlier.
+                 */
+                return false;
+            } else {
+                /*
+                 * Another producer got the position first.
+                 */
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Fan-in only.
+     */
+    @Override
+    public void expectProducers(int count) {
+        producers.set(count);
+    }
+
+    /**
+     * Fan-in only.
+     */
+    @Override
+    public boolean addProducer() {
+        while(true) {
+            final int current = producers.get();
+            if(current == 0) {
+                return false;
+            }
+            if(producers.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @return the number of items in the pipe (an estimate while the stream flows)
+     */
+    public int size() {
+        return (int) Math.max(0L, Math.min(capacity, tail.get() - head));
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Takes the next item, if any. Only the consumer calls it.
+     */
+    private T next() {
+        final long position = head;
+        final int slot = (int) position & mask;
+        if(sequences.get(slot) != position + 1) {
+            return null;
+        }
+        final T t = slots.get(slot);
+        slots.lazySet(slot, null);
+        sequences.set(slot, position + capacity);
+        head = position + 1;
+        return t;
+    }
+
+    /**
+     * @return true if the item is the sentinel value of a producer
+     *         other than the last one (the consumer does not get it)
+     */
+    private boolean swallow(T t) {
+        return isEndOfStream != null && isEndOfStream.test(t) && producers.decrementAndGet() > 0;
+    }
+}
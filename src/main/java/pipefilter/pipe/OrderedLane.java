@@ -0,0 +1,186 @@
+package pipefilter.pipe;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Nardos Tessema
+ *
+ * The input and output pipes of one instance of a filter in an
+ * ordered parallel stage.
+ *
+ *  --[Parallelizer]--(input)-->[F1]--(output)--[Serializer]--
+ *
+ * The Parallelizer puts every item into the input with its sequence
+ * number. The filter instance sees plain items, and every item it puts
+ * into the output carries the sequence number of the item it took last.
+ * When the instance comes back to take its next item, it is done with
+ * the previous one, and the lane puts an end-of-item entry into the
+ * output. So the Serializer knows when an item is complete, also when
+ * the filter puts nothing for it (e.g. a stop word).
+ *
+ * This only holds for filters that deal with one item at a time,
+ * which the parallelizable filters all do.
+ *
+ * Every entry put into the output raises the FanInSignal of the
+ * Serializer, which sleeps on it while all of its lanes are empty.
+ */
+public class OrderedLane {
+
+    /**
+     * The sequence number of the sentinel value (and of nothing else)
+     */
+    public static final long NO_SEQUENCE = -1L;
+
+    private final Pipe<Entry> in;
+    private final Pipe<Entry> out;
+    private final Input input = new Input();
+    private final Output output = new Output();
+    /**
+     * The sequence number of the item the filter instance works on.
+     * Only the thread of the filter instance touches it.
+     */
+    private long current = NO_SEQUENCE;
+
+    /**
+     * @param capacity the capacity of the input and of the output pipe
+     * @param waitStrategy how the threads wait on the pipes
+     * @param signal the signal of the Serializer that takes from the output
+     */
+    public OrderedLane(int capacity, WaitStrategy waitStrategy, FanInSignal signal) {
+        this.in = new BlockingQueuePipe<>(new ArrayBlockingQueue<>(capacity), waitStrategy);
+        this.out = signal.signalOnPut(new BlockingQueuePipe<>(new ArrayBlockingQueue<>(capacity), waitStrategy));
+    }
+
+    /**
+     * @return the input pipe of the filter instance
+     */
+    public Input input() {
+        return input;
+    }
+
+    /**
+     * @return the output pipe of the filter instance
+     */
+    public Output output() {
+        return output;
+    }
+
+    /**
+     * Puts the end-of-item entry of the item the filter instance is done with.
+     */
+    private void endItem() throws InterruptedException {
+        if(current != NO_SEQUENCE) {
+            out.put(new Entry(current, null));
+            current = NO_SEQUENCE;
+        }
+    }
+
+    /**
+     * An item with its sequence number.
+     */
+    public static final class Entry {
+        private final long sequence;
+        private final String value;
+
+        private Entry(long sequence, String value) {
+            this.sequence = sequence;
+            this.value = value;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        /**
+         * @return the item (null for the end of an item)
+         */
+        public String getValue() {
+            return value;
+        }
+
+        public boolean isEndOfItem() {
+            return value == null;
+        }
+    }
+
+    public class Input implements Pipe<String> {
+
+        /**
+         * Puts an item with its sequence number (the Parallelizer).
+         */
+        public void put(long sequence, String item) throws InterruptedException {
+            in.put(new Entry(sequence, item));
+        }
+
+        /**
+         * Puts an item without a sequence number: the sentinel value.
+         */
+        @Override
+        public void put(String item) throws InterruptedException {
+            in.put(new Entry(NO_SEQUENCE, item));
+        }
+
+        @Override
+        public String take() throws InterruptedException {
+            endItem();
+            final Entry entry = in.take();
+            current = entry.sequence;
+            return entry.value;
+        }
+
+        @Override
+        public String poll(long timeout, TimeUnit unit) throws InterruptedException {
+            endItem();
+            final Entry entry = in.poll(timeout, unit);
+            if(entry == null) {
+                return null;
+            }
+            current = entry.sequence;
+            return entry.value;
+        }
+    }
+
+    public class Output implements Pipe<String> {
+
+        /**
+         * Puts an output of the current item (the filter instance).
+         */
+        @Override
+        public void put(String item) throws InterruptedException {
+            out.put(new Entry(current, item));
+        }
+
+        /**
+         * Takes the next entry (the Serializer).
+         *
+         * @return the next entry, or null if there is none in the given time
+         */
+        public Entry pollEntry(long timeout, TimeUnit unit) throws InterruptedException {
+            return out.poll(timeout, unit);
+        }
+
+        /**
+         * Takes the next item, skipping the ends of items.
+         */
+        @Override
+        public String take() throws InterruptedException {
+            Entry entry;
+            while((entry = out.take()).isEndOfItem()) {
+                // not an item
+            }
+            return entry.value;
+        }
+
+        @Override
+        public String poll(long timeout, TimeUnit unit) throws InterruptedException {
+            final long deadline = System.nanoTime() + unit.toNanos(timeout);
+            while(true) {
+                final Entry entry = out.poll(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if(entry == null || !entry.isEndOfItem()) {
+                    return entry == null ? null : entry.value;
+                }
+            }
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package pipefilter.pipe;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * @author Nardos Tessema
  *
@@ -29,4 +31,11 @@ package pipefilter.pipe;
 public interface Pipe<T> {
     T take() throws InterruptedException;
     void put(T t) throws InterruptedException;
+
+    /**
+     * Waits at most the given time for an item.
+     *
+     * @return the item, or null if the pipe stayed empty
+     */
+    T poll(long timeout, TimeUnit unit) throws InterruptedException;
 }
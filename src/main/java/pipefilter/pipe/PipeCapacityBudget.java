@@ -0,0 +1,67 @@
+package pipefilter.pipe;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author Nardos Tessema
+ *
+ * A budget of pipe slots shared by adaptive pipes.
+ *
+ * Adaptive pipes grow and shrink their capacity at runtime.
+ * The sum of the capacities of all the pipes that draw from
+ * the same budget never exceeds the size of the budget, so
+ * the memory held by buffered items stays bounded no matter
+ * how many pipes there are in the pipeline.
+ *
+ * Every pipeline has a budget of its own (see PipeFactory), and a
+ * pipe that is discarded (e.g. the pipes of a retired filter instance)
+ * gives its slots back.
+ *
+ * @see pipefilter.pipe.AdaptiveCapacityPipe
+ */
+public class PipeCapacityBudget {
+
+    private final long size;
+    private final AtomicLong available;
+
+    public PipeCapacityBudget(long size) {
+        this.size = size;
+        this.available = new AtomicLong(size);
+    }
+
+    /**
+     * Takes up to the requested number of slots out of the budget.
+     *
+     * @param requested the number of slots wanted
+     * @return the number of slots granted (0 if the budget is exhausted)
+     */
+    public int acquire(int requested) {
+        while(true) {
+            final long current = available.get();
+            final int granted = (int) Math.min(requested, current);
+            if(granted <= 0) {
+                return 0;
+            }
+            if(available.compareAndSet(current, current - granted)) {
+                return granted;
+            }
+        }
+    }
+
+    /**
+     * Gives slots back to the budget.
+     *
+     * @param released the number of slots returned
+     */
+    public void release(int released) {
+        available.addAndGet(released);
+    }
+
+    public long available() {
+        return available.get();
+    }
+
+    public long size() {
+        return size;
+    }
+}
@@ -2,10 +2,14 @@ package pipefilter.pipe;
 
 import pipefilter.exception.PipeFilterException;
 import pipefilter.filter.TermFrequency;
+import pipefilter.filter.TokenBatch;
+import pipefilter.filter.Utf8Batch;
 
 import java.util.concurrent.ArrayBlockingQueue;
 
-import static pipefilter.config.Configuration.PIPE_CAPACITY;
+import static pipefilter.config.Configuration.ADAPTIVE_PIPE_CAPACITY;
+import static pipefilter.config.Configuration.ADAPTIVE_PIPE_INITIAL_CAPACITY;
+import static pipefilter.config.Configuration.PIPE_CAPACITY_BUDGET;
 
 /**
  * @author Nardos Tessema
@@ -13,13 +17,27 @@ import static pipefilter.config.Configuration.PIPE_CAPACITY;
  * ArrayBlockingQueue is chosen as the buffer.
  * The capacity of the pipes is configurable.
  *
+ * If adaptive pipe capacity is turned on, the pipes start small
+ * and adjust their capacities at runtime within a budget. Every
+ * pipeline has a budget of its own for all its pipes; a pipe built
+ * without a budget gets a budget of its own. The requested capacity
+ * is then only an upper bound for the initial capacity of the pipe.
+ *
  * @see pipefilter.config.Configuration
+ * @see pipefilter.pipe.AdaptiveCapacityPipe
  *
  * The data type of the pipe comes as an input to the factory method.
  *
  * There could be an entry for every conceivable data type.
  *
  * I have defined only a few just to demonstrate the possibilities.
+ *
+ * Integer, Long and Double pipes are primitive ring buffers (IntPipe,
+ * LongPipe, DoublePipe) so that numeric values are not boxed. Their
+ * capacity is fixed; adaptive capacity applies to the pipes of objects.
+ *
+ * Every pipe waits with a WaitStrategy (WAIT_STRATEGY if none is given).
+ * Adaptive pipes always block: they grow when their producers block.
  */
 public class PipeFactory {
 
@@ -28,18 +46,72 @@ public class PipeFactory {
      * @return a Pipe object
      */
     public static Pipe<?> build(String type, int capacity) {
+        return build(type, capacity, WaitStrategy.byDefault());
+    }
+
+    /**
+     * @param type the type of the data the Pipe holds
+     * @param waitStrategy how the producer and the consumer wait on the pipe
+     * @return a Pipe object
+     */
+    public static Pipe<?> build(String type, int capacity, WaitStrategy waitStrategy) {
+        return build(type, capacity, waitStrategy, null);
+    }
+
+    /**
+     * @param type the type of the data the Pipe holds
+     * @param waitStrategy how the producer and the consumer wait on the pipe
+     * @param budget the budget adaptive pipes draw their capacity from (null: a budget of its own)
+     * @return a Pipe object
+     */
+    public static Pipe<?> build(String type, int capacity, WaitStrategy waitStrategy, PipeCapacityBudget budget) {
         if(type.equals("java.lang.String")) {
-            return new BlockingQueuePipe<String>(new ArrayBlockingQueue<>(capacity));
+            return PipeFactory.<String>buffer(capacity, waitStrategy, budget);
         }
         if(type.equals("pipefilter.filter.TermFrequency")) {
-            return new BlockingQueuePipe<TermFrequency>(new ArrayBlockingQueue<>(capacity));
+            return PipeFactory.<TermFrequency>buffer(capacity, waitStrategy, budget);
+        }
+        if(type.equals("pipefilter.filter.TokenBatch")) {
+            return PipeFactory.<TokenBatch>buffer(capacity, waitStrategy, budget);
+        }
+        if(type.equals("pipefilter.filter.Utf8Batch")) {
+            return PipeFactory.<Utf8Batch>buffer(capacity, waitStrategy, budget);
         }
         if(type.equals("java.lang.Integer")) {
-            return new BlockingQueuePipe<Integer>(new ArrayBlockingQueue<>(capacity));
+            return new IntRingPipe(capacity, waitStrategy);
+        }
+        if(type.equals("java.lang.Long")) {
+            return new LongRingPipe(capacity, waitStrategy);
         }
         if(type.equals("java.lang.Double")) {
-            return new BlockingQueuePipe<Double>(new ArrayBlockingQueue<>(capacity));
+            return new DoubleRingPipe(capacity, waitStrategy);
         }
         throw new PipeFilterException("Unknown pipe type: " + type);
     }
+
+    /**
+     * @return a budget of the configured size for the pipes of a pipeline
+     */
+    public static PipeCapacityBudget newCapacityBudget() {
+        return new PipeCapacityBudget(PIPE_CAPACITY_BUDGET);
+    }
+
+    /**
+     * Gives the capacity of a pipe that is no longer used back to its budget.
+     *
+     * @param pipe a pipe that nobody puts into or takes from anymore
+     */
+    public static void discard(Pipe<?> pipe) {
+        if(pipe instanceof AdaptiveCapacityPipe) {
+            ((AdaptiveCapacityPipe<?>) pipe).release();
+        }
+    }
+
+    private static <T> Pipe<T> buffer(int capacity, WaitStrategy waitStrategy, PipeCapacityBudget budget) {
+        if(ADAPTIVE_PIPE_CAPACITY) {
+            final int initialCapacity = Math.min(capacity, ADAPTIVE_PIPE_INITIAL_CAPACITY);
+            return new AdaptiveCapacityPipe<>(initialCapacity, budget != null ? budget : newCapacityBudget());
+        }
+        return new BlockingQueuePipe<>(new ArrayBlockingQueue<>(capacity), waitStrategy);
+    }
 }
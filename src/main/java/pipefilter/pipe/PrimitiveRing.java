@@ -0,0 +1,143 @@
+package pipefilter.pipe;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * @author Nardos Tessema
+ *
+ * The indexing and the locking of the primitive ring pipes
+ * (IntRingPipe, LongRingPipe, DoubleRingPipe).
+ *
+ * It works like an ArrayBlockingQueue (one lock, two conditions)
+ * but leaves the array to the subclass, which holds the values in
+ * an array of its primitive type. A put and a take each go:
+ *
+ *   int slot = awaitSlot();   // lock held, the ring not full
+ *   ring[slot] = value;
+ *   filled();                 // lock released
+ *
+ *   int slot = awaitValue();  // lock held, the ring not empty
+ *   value = ring[slot];
+ *   emptied();                // lock released
+ *
+ * A producer on a full ring and a consumer on an empty ring wait
+ * the way the WaitStrategy of the pipe says.
+ */
+abstract class PrimitiveRing {
+
+    private final int capacity;
+    private int head;
+    private int tail;
+    private int size;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final WaitStrategy waitStrategy;
+
+    PrimitiveRing(int capacity, WaitStrategy waitStrategy) {
+        this.capacity = Math.max(1, capacity);
+        this.waitStrategy = waitStrategy;
+    }
+
+    /**
+     * @return the length of the array the subclass holds the values in
+     */
+    final int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Takes the lock and waits until the ring is not full.
+     * The caller writes the slot and then calls filled().
+     *
+     * @return the index of the slot to put the value into
+     */
+    final int awaitSlot() throws InterruptedException {
+        lock.lockInterruptibly();
+        boolean locked = false;
+        try {
+            int attempt = 0;
+            while(size == capacity) {
+                waitStrategy.await(lock, notFull, attempt++);
+            }
+            locked = true;
+            return tail;
+        } finally {
+            if(!locked) {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Must be called after awaitSlot(): publishes the slot and releases the lock.
+     */
+    final void filled() {
+        tail = tail + 1 == capacity ? 0 : tail + 1;
+        size++;
+        notEmpty.signal();
+        lock.unlock();
+    }
+
+    /**
+     * Takes the lock and waits until the ring is not empty.
+     * The caller reads the slot and then calls emptied().
+     *
+     * @return the index of the slot to take the value from
+     */
+    final int awaitValue() throws InterruptedException {
+        lock.lockInterruptibly();
+        boolean locked = false;
+        try {
+            int attempt = 0;
+            while(size == 0) {
+                waitStrategy.await(lock, notEmpty, attempt++);
+            }
+            locked = true;
+            return head;
+        } finally {
+            if(!locked) {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Like awaitValue(), but waits at most the given time.
+     *
+     * @return the index of the slot to take the value from, or -1 (and the lock released) if the time ran out
+     */
+    final int awaitValue(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        boolean locked = false;
+        try {
+            int attempt = 0;
+            while(size == 0) {
+                if(nanos <= 0L) {
+                    return -1;
+                }
+                nanos = waitStrategy.awaitNanos(lock, notEmpty, nanos, attempt++);
+            }
+            locked = true;
+            return head;
+        } finally {
+            if(!locked) {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Must be called after awaitValue(): frees the slot and releases the lock.
+     */
+    final void emptied() {
+        head = head + 1 == capacity ? 0 : head + 1;
+        size--;
+        notFull.signal();
+        lock.unlock();
+    }
+}
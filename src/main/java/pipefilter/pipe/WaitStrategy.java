@@ -0,0 +1,138 @@
+package pipefilter.pipe;
+
+import pipefilter.exception.PipeFilterException;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static pipefilter.config.Configuration.WAIT_STRATEGIES;
+import static pipefilter.config.Configuration.WAIT_STRATEGY;
+
+/**
+ * @author Nardos Tessema
+ *
+ * How a thread waits on a pipe: a consumer on an empty pipe,
+ * or a producer on a full one.
+ *
+ *  - BLOCK: the thread sleeps on a condition variable and is woken
+ *    up by the other side. Costs no CPU, but every wake-up takes
+ *    microseconds. The lock-free pipes, which have no condition
+ *    variable, spin a little, then yield, then park for a while.
+ *  - PARK: the thread parks for a short time and looks again,
+ *    parking twice as long every time (up to MAX_PARK_NANOS).
+ *  - YIELD: the thread gives up the core and looks again.
+ *  - SPIN: the thread looks again right away. Lowest latency, but
+ *    it keeps a core busy; for threads that have a core of their own.
+ *
+ * The strategy of a pipe is the strategy of the component that takes
+ * from it (see WAIT_STRATEGIES), or WAIT_STRATEGY if it has none.
+ */
+public enum WaitStrategy {
+
+    BLOCK, PARK, YIELD, SPIN;
+
+    /**
+     * The back-off of BLOCK on the lock-free pipes: SPINS busy spins,
+     * then YIELDS yields, then parks of BLOCK_PARK_NANOS.
+     */
+    static final int SPINS = 64;
+    static final int YIELDS = 64;
+    static final long BLOCK_PARK_NANOS = 20_000L;
+    /**
+     * The first and the longest park of PARK
+     */
+    static final long MIN_PARK_NANOS = 1_000L;
+    static final long MAX_PARK_NANOS = 1_000_000L;
+
+    /**
+     * @param name block | park | yield | spin
+     * @return the strategy of the name
+     */
+    public static WaitStrategy of(String name) {
+        try {
+            return valueOf(name.toUpperCase());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new PipeFilterException("Unknown wait strategy: " + name);
+        }
+    }
+
+    /**
+     * @param component the registry identifier of the component that takes from the pipe
+     * @return the wait strategy of its input pipe
+     */
+    public static WaitStrategy forComponent(String component) {
+        return of(WAIT_STRATEGIES.getOrDefault(component, WAIT_STRATEGY));
+    }
+
+    /**
+     * @return the strategy pipes get if nothing else is said
+     */
+    public static WaitStrategy byDefault() {
+        return of(WAIT_STRATEGY);
+    }
+
+    /**
+     * Waits once, before the thread looks at the pipe again.
+     *
+     * @param attempt the number of times the thread has waited for the same item
+     */
+    public void idle(int attempt) throws InterruptedException {
+        switch(this) {
+            case BLOCK:
+                if(attempt < SPINS) {
+                    Thread.onSpinWait();
+                } else if(attempt < SPINS + YIELDS) {
+                    Thread.yield();
+                } else {
+                    LockSupport.parkNanos(BLOCK_PARK_NANOS);
+                }
+                break;
+            case PARK:
+                LockSupport.parkNanos(Math.min(MAX_PARK_NANOS, MIN_PARK_NANOS << Math.min(attempt, 10)));
+                break;
+            case YIELD:
+                Thread.yield();
+                break;
+            default:
+                Thread.onSpinWait();
+        }
+        if(Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+    }
+
+    /**
+     * Waits once on a pipe that is guarded by a lock (held by the caller).
+     * BLOCK waits on the condition; the other strategies let go of the
+     * lock while they idle, so nobody needs to signal them.
+     *
+     * @param attempt the number of times the thread has waited for the same item
+     */
+    public void await(ReentrantLock lock, Condition condition, int attempt) throws InterruptedException {
+        if(this == BLOCK) {
+            condition.await();
+            return;
+        }
+        lock.unlock();
+        try {
+            idle(attempt);
+        } finally {
+            lock.lock();
+        }
+    }
+
+    /**
+     * Like await, but waits at most the given time.
+     *
+     * @return the time left
+     */
+    public long awaitNanos(ReentrantLock lock, Condition condition, long nanos, int attempt) throws InterruptedException {
+        if(this == BLOCK) {
+            return condition.awaitNanos(nanos);
+        }
+        final long before = System.nanoTime();
+        await(lock, condition, attempt);
+        return nanos - (System.nanoTime() - before);
+    }
+}
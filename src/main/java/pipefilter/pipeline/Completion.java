@@ -0,0 +1,146 @@
+package pipefilter.pipeline;
+
+import pipefilter.exception.PipeFilterException;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Nardos Tessema
+ *
+ * The components of one run of a pipeline, and the wait for them to complete.
+ *
+ * The pipelines wait on the futures of the components (not on a
+ * CountDownLatch, which cannot be counted down again once it reaches
+ * zero), so the same components can be run any number of times.
+ *
+ * The components are waited for in the order they complete, not in the
+ * order they were started: if one fails (or the waiting thread is
+ * interrupted), the other components of the run are interrupted right
+ * away. They would otherwise block forever on pipes that nobody puts
+ * into or takes from anymore. A component that is interrupted returns
+ * (with the interrupt status set) and puts nothing more, not even the
+ * sentinel value.
+ *
+ * Components can be added while the run is waited for (the filter
+ * instances that are added while the stream flows). A component added
+ * after the run was cancelled is cancelled right away.
+ *
+ * A cancelled run is waited for until its components have returned
+ * (up to CANCELLATION_TIMEOUT seconds), so that none of them is still
+ * taking from or putting into the pipes when await throws.
+ */
+class Completion {
+
+    /**
+     * The longest wait (in seconds) for the components of a cancelled run to return
+     */
+    static final long CANCELLATION_TIMEOUT = 10L;
+
+    private final ExecutorService executor;
+    private final List<Component> running = new CopyOnWriteArrayList<>();
+    private final BlockingQueue<Future<?>> completed = new LinkedBlockingQueue<>();
+    /**
+     * The number of components the waiting thread has seen complete
+     */
+    private int awaited;
+    private volatile boolean cancelled;
+
+    /**
+     * @param executor the executor that runs the components
+     */
+    Completion(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Starts a component of the run.
+     */
+    void submit(Runnable component) {
+        final Component task = new Component(component);
+        running.add(task);
+        if(cancelled) {
+            task.cancel(true);
+        }
+        executor.execute(task);
+    }
+
+    /**
+     * Waits until every component submitted so far has completed.
+     */
+    void await() throws InterruptedException {
+        try {
+            while(awaited < running.size()) {
+                final Future<?> component = completed.take();
+                awaited++;
+                component.get();
+            }
+        } catch (ExecutionException ee) {
+            cancel();
+            throw new PipeFilterException("Pipeline component failed: " + ee.getCause());
+        } catch (CancellationException | InterruptedException e) {
+            cancel();
+            throw e;
+        }
+    }
+
+    /**
+     * Interrupts the components and waits until they have returned.
+     */
+    private void cancel() {
+        cancelled = true;
+        running.forEach(component -> component.cancel(true));
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(CANCELLATION_TIMEOUT);
+        boolean interrupted = false;
+        for(Component component : running) {
+            while(true) {
+                try {
+                    component.returned.await(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    break;
+                } catch (InterruptedException ie) {
+                    interrupted = true;
+                }
+            }
+        }
+        if(interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * A component and the signal that it has returned. The future of a
+     * cancelled component is done right away, while its thread may still
+     * be running.
+     */
+    private class Component extends FutureTask<Void> {
+
+        private final CountDownLatch returned = new CountDownLatch(1);
+
+        private Component(Runnable component) {
+            super(component, null);
+        }
+
+        @Override
+        public void run() {
+            try {
+                super.run();
+            } finally {
+                returned.countDown();
+            }
+        }
+
+        @Override
+        protected void done() {
+            completed.add(this);
+        }
+    }
+}
@@ -1,11 +1,20 @@
 package pipefilter.pipeline;
 
+import pipefilter.config.Parallelism;
+import pipefilter.exception.PipeFilterException;
 import pipefilter.filter.Filter;
 import pipefilter.filter.FilterFactory;
+import pipefilter.filter.TermDictionary;
 import pipefilter.filter.Parallelizer;
 import pipefilter.filter.Serializer;
+import pipefilter.pipe.FanInPipe;
+import pipefilter.pipe.MpmcPipe;
+import pipefilter.pipe.MpscPipe;
+import pipefilter.pipe.OrderedLane;
 import pipefilter.pipe.Pipe;
+import pipefilter.pipe.PipeCapacityBudget;
 import pipefilter.pipe.PipeFactory;
+import pipefilter.pipe.WaitStrategy;
 import pipefilter.pump.Pump;
 import pipefilter.pump.PumpFactory;
 import pipefilter.sink.Sink;
@@ -15,12 +24,19 @@ import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import static pipefilter.config.Configuration.DYNAMIC_PARALLELISM;
+import static pipefilter.config.Configuration.FAN_IN;
+import static pipefilter.config.Configuration.FAN_OUT;
 import static pipefilter.config.Configuration.NUMBER_OF_PARALLEL_INSTANCES;
+import static pipefilter.config.Configuration.PARALLEL_INSTANCES;
 import static pipefilter.config.Configuration.PIPE_CAPACITY;
+import static pipefilter.config.Configuration.PRESERVE_ORDER;
+import static pipefilter.config.Configuration.SENTINEL_VALUE;
 import static pipefilter.config.Registry.parallelizable;
 
 /**
@@ -40,61 +56,162 @@ import static pipefilter.config.Registry.parallelizable;
  * (2) I am assuming parallelizable filters all use String Pipes.
  *     The dynamic type checking is sort of lost here...
  * (3)
+ *
+ * The degree of parallelism is set per filter (PARALLEL_INSTANCES, with
+ * NUMBER_OF_PARALLEL_INSTANCES as the default). With DYNAMIC_PARALLELISM
+ * turned on, a ParallelismController adds or retires filter instances
+ * while the pipeline runs.
+ *
+ * The pipeline can be reset and run again on a new input. The next run
+ * starts with the filter instances the previous run ended with.
+ *
+ * With FAN_IN direct, the filter instances of a stage put straight into
+ * the input pipe of the next filter (an MpscPipe) and there is no Serializer.
+ * With FAN_OUT direct, the filter instances of a stage take straight from
+ * the output pipe of the previous filter (an MpmcPipe) and there is no
+ * Parallelizer. With both, two parallel stages share one MpmcPipe.
+ *
+ * A filter declared ORDERED in Registry.parallelizable (or every filter,
+ * with PRESERVE_ORDER) keeps the order of the stream: its Parallelizer
+ * stamps sequence numbers and its Serializer puts the items back in order.
  */
 public class ParallelPipeline implements Pipeline {
 
     private String input;
     private Map<String, Integer> output;
     private final List<Runnable> pipelineComponents;
-    private final CountDownLatch doneSignal;
+    private final List<ParallelStage> parallelStages;
+    private Pump<String, ?> pump;
+    /**
+     * The budget the adaptive pipes of the pipeline draw their capacity from
+     */
+    private final PipeCapacityBudget budget = PipeFactory.newCapacityBudget();
+    /**
+     * The term ids of the pipeline (cleared at every reset)
+     */
+    private final TermDictionary dictionary = new TermDictionary();
+    /**
+     * The executor that runs the components. If it is supplied by the
+     * creator of the pipeline, it is not shut down by the pipeline;
+     * the threads are kept for other pipelines.
+     */
+    private final ExecutorService sharedExecutor;
+    private ExecutorService executor;
+    /**
+     * Set when the pipeline has run and must be reset before it runs again.
+     */
+    private boolean completed;
+    /**
+     * Set when a run has failed. The pipes may still hold items of that
+     * run, so the pipeline can neither run again nor be reset.
+     */
+    private boolean failed;
 
     public ParallelPipeline(String input, Map<String, Integer> output, String[] pipeline) {
+        this(input, output, pipeline, null);
+    }
+
+    public ParallelPipeline(String input, Map<String, Integer> output, String[] pipeline, ExecutorService executor) {
+        this.sharedExecutor = executor;
         this.input = input;
         this.output = output;
         this.pipelineComponents = new LinkedList<>();
+        this.parallelStages = new ArrayList<>();
 
-        int countDown = pipeline.length;
-        for(String component : pipeline) {
-            if(parallelizable.containsKey(component) && parallelizable.get(component)) {
-                countDown += NUMBER_OF_PARALLEL_INSTANCES + 1;
-            }
-        }
-        this.doneSignal = new CountDownLatch(countDown);
         compose(input, output, pipeline);
+        /*
+         * The filter instances of the parallel stages pass Strings;
+         * none of them encodes or decodes term ids.
+         */
+        pipelineComponents.forEach(dictionary::handTo);
     }
 
     @Override
     public void run() throws InterruptedException {
+        if(failed) {
+            throw new PipeFilterException("The pipeline has failed; build a new one.");
+        }
+        if(completed) {
+            throw new PipeFilterException("The pipeline must be reset before it runs again.");
+        }
         System.out.println("---------------------------------------------------------------------------------------");
         System.out.printf("%1$-26s | %2$10s | %3$11s | %4$9s | %5$8s | %6$8s%n", "Component Class Name", "Blocked on", " Blocked on", " Response", "   Input", "  Output");
         System.out.printf("%1$-26s | %2$10s | %3$11s | %4$9s | %5$5s | %6$6s%n", "[Pump | Filter | Sink]", "Input (ms)", "Output (ms)", "Time (ms)", "   Count", "   Count");
         System.out.println("---------------------------------------------------------------------------------------");
         /*
          * Use ExecutorService instead of creating Threads explicitly.
-         * We know exactly how many threads there will be in the pipeline,
-         * so we can use a fixed thread pool.
+         * The number of threads changes if filter instances are added
+         * at runtime, so the pool is a cached one. The threads are kept
+         * between runs and released with shutdown().
          */
-        final int nThreads = (int) doneSignal.getCount();
-        ExecutorService executor = Executors.newCachedThreadPool();
-        pipelineComponents.forEach(executor::execute);
+        if(executor == null) {
+            executor = sharedExecutor != null ? sharedExecutor : Executors.newCachedThreadPool();
+        }
+        final Completion run = new Completion(executor);
+        parallelStages.forEach(stage -> stage.start(run));
+        pipelineComponents.forEach(run::submit);
         /*
-         * Wait for all threads to be done before returning to the main thread.
+         * The controller moves filter instances around while the stream flows.
          */
-        doneSignal.await();
+        Future<?> controller = null;
+        if(DYNAMIC_PARALLELISM && !parallelStages.isEmpty()) {
+            controller = executor.submit(new ParallelismController(parallelStages));
+        }
         /*
-         * Shutdown the executor so that the program returns
+         * Wait for all threads to be done before returning to the main thread.
          */
-        executor.shutdown();
+        try {
+            try {
+                run.await();
+            } finally {
+                if(controller != null) {
+                    controller.cancel(true);
+                }
+            }
+            /*
+             * The lanes added after the last component completed (and before
+             * the controller stopped) have been closed right away. Wait for them, too.
+             */
+            parallelStages.forEach(ParallelStage::close);
+            run.await();
+        } catch (RuntimeException | InterruptedException e) {
+            failed = true;
+            throw e;
+        }
+        completed = true;
         /*
          * At this point, it is guaranteed that all the threads
          * (the pump, the filters, and the sink) have completed
          * their operations (threads have stopped), meaning that
          * the text processing has completed.
          *
-         * This is guaranteed by the countdown latch.
+         * This is guaranteed by the futures of the components.
          */
     }
 
+    @Override
+    public void reset(String input) {
+        if(failed) {
+            throw new PipeFilterException("The pipeline has failed; build a new one.");
+        }
+        pump.reset(input);
+        dictionary.clear();
+        this.input = input;
+        completed = false;
+    }
+
+    /**
+     * Shutdown the executor so that the program returns
+     * (unless the executor belongs to the creator of the pipeline).
+     */
+    @Override
+    public void shutdown() {
+        dictionary.clear();
+        if(executor != null && sharedExecutor == null) {
+            executor.shutdown();
+        }
+    }
+
     /**
      * Composes a parallel pipeline.
      *
@@ -139,9 +256,9 @@ public class ParallelPipeline implements Pipeline {
          * If next filter is parallelized, get a bigger pipe capacity.
          */
         int capacity = getCapacity(0, components);
-        Pipe<?> out = PipeFactory.build(pipeDataType, capacity);
+        Pipe<?> out = buildPipe(pipeDataType, capacity, 0, components);
         Pipe<?> in = out;
-        Pump<?, ?> pump = PumpFactory.build(name, input, out, doneSignal);
+        pump = PumpFactory.build(name, input, out);
         pipelineComponents.add(pump);
 
         /*
@@ -158,50 +275,79 @@ public class ParallelPipeline implements Pipeline {
              * bigger so that the parallelizer has more room...
              */
             capacity = getCapacity(i, components);
-            out = PipeFactory.build(pipeDataType, capacity);
 
             /*
              * If filter is not parallelized, fit it into the pipeline in series.
              */
-            if(!parallelizable.containsKey(name) || !parallelizable.get(name)) {
-                Filter<?, ?> filter = FilterFactory.build(name, in, out, doneSignal);
+            if(!isParallelized(name)) {
+                out = buildPipe(pipeDataType, capacity, i, components);
+                Filter<?, ?> filter = FilterFactory.build(name, in, out);
                 pipelineComponents.add(filter);
             } else {
                 /*
                  * Get the degree of parallelism from Configuration.
                  */
-                final int N = NUMBER_OF_PARALLEL_INSTANCES;//parallelComponents.get(name);
-                /*
-                 * Parallel instances of filter
-                 */
-                List<Filter<?,?>> parallelFilters = new ArrayList<>();
-                /*
-                 * A list of input pipes for each parallel filter instance
-                 */
-                List<Pipe<String>> inputs = new ArrayList<>();
+                final int N = degreeOfParallelism(name);
                 /*
-                 * A list of output pipes for each parallel filter instance
+                 * A list of input pipes for each parallel filter instance.
+                 * The Parallelizer reads it while lanes are added/retired.
                  */
-                List<Pipe<String>> outputs = new ArrayList<>();
+                List<Pipe<String>> inputs = new CopyOnWriteArrayList<>();
                 /*
-                 * Parallelizer spreads the stream out into N parallel streams
+                 * Parallelizer spreads the stream out into N parallel streams,
+                 * unless the N instances take from the shared input pipe.
                  */
-                Parallelizer parallelizer = new Parallelizer((Pipe<String>) in, inputs, doneSignal);
+                final boolean ordered = isOrdered(name);
+                final MpmcPipe<String> spread = in instanceof MpmcPipe ? (MpmcPipe<String>) in : null;
+                final Parallelizer parallelizer = spread == null ? new Parallelizer((Pipe<String>) in, inputs, ordered) : null;
+                final ParallelStage stage;
+                Serializer serializer = null;
+                if(directFanIn(name)) {
+                    /*
+                     * The N parallel streams are merged by the pipe itself.
+                     * The stage tells it how many streams to wait for at every run.
+                     * If the next filter is spread out, too, its instances take from the same pipe.
+                     */
+                    final WaitStrategy waitStrategy = WaitStrategy.forComponent(components[i + 1]);
+                    final FanInPipe<String> merged = isSpread(i + 1, components)
+                            ? new MpmcPipe<>(capacity, SENTINEL_VALUE, waitStrategy)
+                            : new MpscPipe<>(capacity, SENTINEL_VALUE::equals, waitStrategy);
+                    out = merged;
+                    stage = spread != null ? new ParallelStage(name, spread, merged, budget) : new ParallelStage(name, parallelizer, inputs, merged, budget);
+                } else {
+                    out = buildPipe(pipeDataType, capacity, i, components);
+                    /*
+                     * Serializer collects the N parallel streams into one stream.
+                     * The stage hands it the output pipes of the lanes at every run.
+                     */
+                    serializer = new Serializer(new ArrayList<>(), (Pipe<String>) out, ordered);
+                    stage = spread != null ? new ParallelStage(name, spread, serializer, budget) : new ParallelStage(name, parallelizer, inputs, serializer, budget);
+                    pipelineComponents.add(serializer);
+                }
                 /*
-                 * Create N input pipes, N output pipes, Parallelizer, Serializer
+                 * Create N input pipes (or share one), N output pipes (or the merged pipe) and N instances of the filter.
+                 * The pipes inside the stage wait the way the parallelized filter wants.
+                 * The pipes of an ordered stage carry the sequence numbers of the items.
+                 * The instances put into the output pipes through the signal of the Serializer.
                  */
+                final WaitStrategy laneWaitStrategy = WaitStrategy.forComponent(name);
                 for(int j = 0; j < N; j++) {
-                    inputs.add(j, (Pipe<String>) PipeFactory.build("java.lang.String", PIPE_CAPACITY));
-                    outputs.add(j, (Pipe<String>) PipeFactory.build("java.lang.String", PIPE_CAPACITY));
-                    parallelFilters.add(FilterFactory.build(name, inputs.get(j), outputs.get(j), doneSignal));
+                    final OrderedLane lane = ordered ? new OrderedLane(PIPE_CAPACITY, laneWaitStrategy, serializer.getSignal()) : null;
+                    final Pipe<String> laneInput = ordered ? lane.input() : spread != null ? spread : (Pipe<String>) PipeFactory.build("java.lang.String", PIPE_CAPACITY, laneWaitStrategy, budget);
+                    final Pipe<String> laneOutput = ordered ? lane.output() : directFanIn(name) ? (Pipe<String>) out : (Pipe<String>) PipeFactory.build("java.lang.String", PIPE_CAPACITY, laneWaitStrategy, budget);
+                    if(spread == null) {
+                        inputs.add(laneInput);
+                    }
+                    final Pipe<String> filterOutput = serializer != null && !ordered ? serializer.getSignal().signalOnPut(laneOutput) : laneOutput;
+                    stage.addInitialLane(laneInput, laneOutput, FilterFactory.build(name, laneInput, filterOutput));
                 }
                 /*
-                 * Serializer collects the N parallel streams into one stream
+                 * The filter instances are started by the stage.
                  */
-                Serializer serializer = new Serializer(outputs, (Pipe<String>) out, doneSignal);
-                pipelineComponents.add(parallelizer);
-                parallelFilters.forEach(filter -> pipelineComponents.add(filter));
-                pipelineComponents.add(serializer);
+                if(parallelizer != null) {
+                    pipelineComponents.add(parallelizer);
+                }
+                parallelStages.add(stage);
             }
             /*
              * progress to the next component in the chain
@@ -213,7 +359,7 @@ public class ParallelPipeline implements Pipeline {
          * Create sink and attach to pipeline
          */
         name = components[components.length - 1];
-        Sink<?, ?> sink = SinkFactory.build(name, in, output, doneSignal);
+        Sink<?, ?> sink = SinkFactory.build(name, in, output);
         pipelineComponents.add(sink);
     }
 
@@ -225,6 +371,9 @@ public class ParallelPipeline implements Pipeline {
      * its input/output pipe should be bigger than the other pipes in the
      * pipeline as the data volume is likely to be high at those points.
      *
+     * With adaptive pipe capacity turned on, the returned value only caps
+     * the initial capacity; the pipes find their own sizes at runtime.
+     *
      * @param indexOfCurrentComponent index of current component
      * @param components the array of pipeline components
      * @return pipe capacity
@@ -233,13 +382,75 @@ public class ParallelPipeline implements Pipeline {
         final String thisComponent = components[indexOfCurrentComponent];
         final String nextComponent = indexOfCurrentComponent <= components.length - 2 ? components[indexOfCurrentComponent + 1] : "";
         int capacity = PIPE_CAPACITY;
-        if((parallelizable.containsKey(nextComponent) && parallelizable.get(nextComponent)) ||
-                (parallelizable.containsKey(thisComponent) && parallelizable.get(thisComponent))) {
+        if((isParallelized(nextComponent) && hasParallelStreams(nextComponent)) ||
+                (isParallelized(thisComponent) && hasParallelStreams(thisComponent))) {
             /*
              * if # streams > 1 get a bigger pipe capacity
              */
-            capacity = NUMBER_OF_PARALLEL_INSTANCES > 1 ? 16 * PIPE_CAPACITY : PIPE_CAPACITY;
+            capacity = 16 * PIPE_CAPACITY;
         }
         return capacity;
     }
+
+    /**
+     * A filter may have more than one instance at some point if it starts with
+     * more than one, or if instances may be added while the pipeline runs.
+     */
+    private static boolean hasParallelStreams(String component) {
+        return degreeOfParallelism(component) > 1 || DYNAMIC_PARALLELISM;
+    }
+
+    /**
+     * Builds the output pipe of the pump or of a filter that is not parallelized.
+     * If the instances of the next filter take straight from it, it is an MpmcPipe.
+     * The pipe waits the way the next component wants.
+     */
+    private Pipe<?> buildPipe(String dataType, int capacity, int indexOfCurrentComponent, String[] components) {
+        final WaitStrategy waitStrategy = WaitStrategy.forComponent(components[indexOfCurrentComponent + 1]);
+        if(isSpread(indexOfCurrentComponent + 1, components)) {
+            return new MpmcPipe<>(capacity, SENTINEL_VALUE, waitStrategy);
+        }
+        return PipeFactory.build(dataType, capacity, waitStrategy, budget);
+    }
+
+    /**
+     * @return true if the component is a filter whose instances share their input pipe
+     */
+    private static boolean isSpread(int indexOfComponent, String[] components) {
+        if(indexOfComponent > components.length - 2) {
+            return false;
+        }
+        final String component = components[indexOfComponent];
+        return isParallelized(component) && directFanOut(component);
+    }
+
+    private static boolean isParallelized(String component) {
+        return parallelizable.containsKey(component);
+    }
+
+    /**
+     * @return true if the parallel instances of the filter must keep the order of the stream
+     */
+    private static boolean isOrdered(String component) {
+        return PRESERVE_ORDER || parallelizable.get(component) == Parallelism.ORDERED;
+    }
+
+    /**
+     * An ordered stage always has a Serializer and a Parallelizer.
+     */
+    private static boolean directFanIn(String component) {
+        return FAN_IN.equalsIgnoreCase("direct") && !isOrdered(component);
+    }
+
+    private static boolean directFanOut(String component) {
+        return FAN_OUT.equalsIgnoreCase("direct") && !isOrdered(component);
+    }
+
+    /**
+     * @param component the registry identifier of a parallelizable filter
+     * @return the configured number of parallel instances of the filter
+     */
+    private static int degreeOfParallelism(String component) {
+        return PARALLEL_INSTANCES.getOrDefault(component, NUMBER_OF_PARALLEL_INSTANCES);
+    }
 }
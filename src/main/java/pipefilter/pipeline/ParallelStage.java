@@ -0,0 +1,318 @@
+package pipefilter.pipeline;
+
+import pipefilter.exception.PipeFilterException;
+import pipefilter.filter.FilterFactory;
+import pipefilter.filter.Parallelizer;
+import pipefilter.filter.Serializer;
+import pipefilter.pipe.FanInPipe;
+import pipefilter.pipe.MpmcPipe;
+import pipefilter.pipe.OrderedLane;
+import pipefilter.pipe.Pipe;
+import pipefilter.pipe.PipeCapacityBudget;
+import pipefilter.pipe.PipeFactory;
+import pipefilter.pipe.WaitStrategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static pipefilter.config.Configuration.PIPE_CAPACITY;
+import static pipefilter.config.Configuration.SENTINEL_VALUE;
+
+/**
+ * @author Nardos Tessema
+ *
+ * A parallelized filter of the parallel pipeline: a Parallelizer,
+ * a number of instances of the filter (the lanes), and a Serializer.
+ *
+ *                                 +--(pipe)-->[F1]--(pipe)--+
+ *  [F0]--(pipe)-->[Parallelizer]--+--(pipe)-->[F1]--(pipe)--+-->[Serializer]--(pipe)-->[F2]
+ *                                 +--(pipe)-->[F1]--(pipe)--+
+ *
+ * Lanes can be added and retired while the stream flows.
+ * It is the ParallelismController that decides when.
+ *
+ * Without a Serializer, the lanes all put into one merged FanInPipe
+ * (FAN_IN direct), which ends the stream after the last lane's end.
+ * Without a Parallelizer, the lanes all take from one shared MpmcPipe
+ * (FAN_OUT direct), which ends the stream of every lane.
+ * The lanes of an ordered stage are OrderedLanes (with a Parallelizer
+ * and a Serializer that are ordered, too).
+ *
+ * The stage starts the lanes of every run. A run starts with
+ * the lanes that were still in the rotation at the end of the
+ * previous run; retired lanes are dropped.
+ */
+class ParallelStage {
+
+    private final String name;
+    /**
+     * Either the Parallelizer and its output pipes (the input pipes
+     * of the lanes), or the input pipe shared by the lanes
+     */
+    private final Parallelizer parallelizer;
+    private final List<Pipe<String>> rotation;
+    private final MpmcPipe<String> spread;
+    /**
+     * Either the Serializer or the merged output pipe of the lanes
+     */
+    private final Serializer serializer;
+    private final FanInPipe<String> merged;
+    private final PipeCapacityBudget budget;
+    private final List<Lane> lanes = new CopyOnWriteArrayList<>();
+    private final AtomicInteger instances = new AtomicInteger();
+    /**
+     * The number of lanes retired from the shared input pipe in this run
+     */
+    private int retired;
+    /**
+     * The run the lanes are part of
+     */
+    private Completion run;
+    /**
+     * Set once the run is over. No lanes are added after that.
+     */
+    private boolean closed;
+
+    /**
+     * @param name the registry identifier of the filter
+     * @param parallelizer the Parallelizer of the stage
+     * @param rotation the list of output pipes of the Parallelizer
+     * @param serializer the Serializer of the stage
+     * @param budget the budget the pipes of the lanes draw their capacity from
+     */
+    ParallelStage(String name, Parallelizer parallelizer, List<Pipe<String>> rotation, Serializer serializer, PipeCapacityBudget budget) {
+        this(name, parallelizer, rotation, null, serializer, null, budget);
+    }
+
+    /**
+     * @param name the registry identifier of the filter
+     * @param parallelizer the Parallelizer of the stage
+     * @param rotation the list of output pipes of the Parallelizer
+     * @param merged the output pipe shared by the lanes
+     * @param budget the budget the pipes of the lanes draw their capacity from
+     */
+    ParallelStage(String name, Parallelizer parallelizer, List<Pipe<String>> rotation, FanInPipe<String> merged, PipeCapacityBudget budget) {
+        this(name, parallelizer, rotation, null, null, merged, budget);
+    }
+
+    /**
+     * @param name the registry identifier of the filter
+     * @param spread the input pipe shared by the lanes
+     * @param serializer the Serializer of the stage
+     * @param budget the budget the pipes of the lanes draw their capacity from
+     */
+    ParallelStage(String name, MpmcPipe<String> spread, Serializer serializer, PipeCapacityBudget budget) {
+        this(name, null, null, spread, serializer, null, budget);
+    }
+
+    /**
+     * @param name the registry identifier of the filter
+     * @param spread the input pipe shared by the lanes
+     * @param merged the output pipe shared by the lanes
+     * @param budget the budget the pipes of the lanes draw their capacity from
+     */
+    ParallelStage(String name, MpmcPipe<String> spread, FanInPipe<String> merged, PipeCapacityBudget budget) {
+        this(name, null, null, spread, null, merged, budget);
+    }
+
+    private ParallelStage(String name, Parallelizer parallelizer, List<Pipe<String>> rotation, MpmcPipe<String> spread, Serializer serializer, FanInPipe<String> merged, PipeCapacityBudget budget) {
+        this.name = name;
+        this.budget = budget;
+        this.parallelizer = parallelizer;
+        this.rotation = rotation;
+        this.spread = spread;
+        this.serializer = serializer;
+        this.merged = merged;
+    }
+
+    /**
+     * Registers a lane created when the pipeline is composed.
+     * Its input pipe must already be in the rotation (or be the shared input pipe).
+     */
+    void addInitialLane(Pipe<String> in, Pipe<String> out, Runnable filter) {
+        lanes.add(new Lane(in, out, filter));
+    }
+
+    /**
+     * Starts the lanes of a run (before the Serializer or the next filter starts).
+     *
+     * The lanes that take from a shared input pipe are all alike, so
+     * any lanes can make up for the ones retired in the previous run.
+     * The pipes of the retired lanes give their capacity back.
+     *
+     * @param run the run of the pipeline the lanes are part of
+     */
+    synchronized void start(Completion run) {
+        if(parallelizer != null) {
+            for(Lane lane : lanes) {
+                if(!rotation.contains(lane.in)) {
+                    discard(lane);
+                }
+            }
+            lanes.removeIf(lane -> !rotation.contains(lane.in));
+        } else {
+            for(; retired > 0 && lanes.size() > 1; retired--) {
+                discard(lanes.remove(lanes.size() - 1));
+            }
+            retired = 0;
+            spread.reopen();
+        }
+        if(serializer != null) {
+            final List<Pipe<String>> outputs = new ArrayList<>();
+            lanes.forEach(lane -> outputs.add(lane.out));
+            serializer.resetInputs(outputs);
+        } else {
+            merged.expectProducers(lanes.size());
+        }
+        this.run = run;
+        lanes.forEach(lane -> run.submit(lane.filter));
+        instances.set(lanes.size());
+        closed = false;
+    }
+
+    /**
+     * Ends the run of the stage: no lanes are added after that.
+     */
+    synchronized void close() {
+        closed = true;
+    }
+
+    /**
+     * Creates one more instance of the filter and starts it.
+     *
+     * The new lane is registered with the Serializer (or the merged pipe)
+     * before it is offered to the Parallelizer. If the Parallelizer has
+     * already dispatched the end of the stream, the lane is closed right
+     * away with the sentinel value so that the Serializer does not wait on it.
+     * A lane that takes from the shared input pipe needs neither: the pipe
+     * ends it like the other lanes.
+     *
+     * No lane is added if the capacity budget cannot give its pipes.
+     *
+     * @return true if the stage has one more instance that takes part in the stream
+     */
+    @SuppressWarnings("unchecked")
+    synchronized boolean addLane() throws InterruptedException {
+        if(closed) {
+            return false;
+        }
+        final WaitStrategy waitStrategy = WaitStrategy.forComponent(name);
+        final Pipe<String> in;
+        final Pipe<String> out;
+        if(serializer != null && serializer.isOrdered()) {
+            final OrderedLane ordered = new OrderedLane(PIPE_CAPACITY, waitStrategy, serializer.getSignal());
+            in = ordered.input();
+            out = ordered.output();
+        } else {
+            try {
+                in = spread != null ? spread : (Pipe<String>) PipeFactory.build("java.lang.String", PIPE_CAPACITY, waitStrategy, budget);
+            } catch (PipeFilterException budgetExhausted) {
+                return false;
+            }
+            try {
+                out = merged != null ? merged : (Pipe<String>) PipeFactory.build("java.lang.String", PIPE_CAPACITY, waitStrategy, budget);
+            } catch (PipeFilterException budgetExhausted) {
+                PipeFactory.discard(in);
+                return false;
+            }
+        }
+        /*
+         * The instance puts through the signal of the Serializer (the OrderedLane does that itself).
+         */
+        final Pipe<String> filterOutput = serializer != null && !serializer.isOrdered() ? serializer.getSignal().signalOnPut(out) : out;
+        final Lane lane = new Lane(in, out, FilterFactory.build(name, in, filterOutput));
+        /*
+         * The merged pipe has already ended the stream: too late for another lane.
+         */
+        if(merged != null && !merged.addProducer()) {
+            discard(lane);
+            return false;
+        }
+        lanes.add(lane);
+        run.submit(lane.filter);
+        if(serializer != null) {
+            serializer.addInput(out);
+        }
+        if(spread != null || parallelizer.addOutput(in)) {
+            instances.incrementAndGet();
+            return true;
+        }
+        in.put(SENTINEL_VALUE);
+        return false;
+    }
+
+    /**
+     * Takes one lane out of the rotation (never the last one).
+     *
+     * @return true if a lane is retired; false if the stage has a single
+     *         lane left, or the stream has already ended
+     */
+    synchronized boolean retireLane() {
+        if(instances.get() < 2) {
+            return false;
+        }
+        final boolean retiredOne;
+        if(spread != null) {
+            retiredOne = spread.retireConsumer();
+            if(retiredOne) {
+                retired++;
+            }
+        } else {
+            retiredOne = parallelizer.retireOutput();
+        }
+        if(retiredOne) {
+            instances.decrementAndGet();
+        }
+        return retiredOne;
+    }
+
+    /**
+     * Gives the capacity of the pipes that only the lane used back to the budget.
+     */
+    private void discard(Lane lane) {
+        if(lane.in != spread) {
+            PipeFactory.discard(lane.in);
+        }
+        if(lane.out != merged) {
+            PipeFactory.discard(lane.out);
+        }
+    }
+
+    String getName() {
+        return name;
+    }
+
+    /**
+     * @return the number of instances of the filter that take part in the stream
+     */
+    int getInstances() {
+        return instances.get();
+    }
+
+    /**
+     * @return the number of items that have entered the stage
+     */
+    long getInputCounter() {
+        if(spread != null) {
+            return spread.getTakeCounter();
+        }
+        return parallelizer.getInputCounter();
+    }
+
+    /**
+     * An instance of the filter and its input and output pipes
+     */
+    private static class Lane {
+        private final Pipe<String> in;
+        private final Pipe<String> out;
+        private final Runnable filter;
+
+        private Lane(Pipe<String> in, Pipe<String> out, Runnable filter) {
+            this.in = in;
+            this.out = out;
+            this.filter = filter;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package pipefilter.pipeline;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static pipefilter.config.Configuration.MAX_PARALLEL_INSTANCES;
+import static pipefilter.config.Configuration.PARALLELISM_SAMPLING_INTERVAL;
+
+/**
+ * @author Nardos Tessema
+ *
+ * Adjusts the number of filter instances of parallel stages
+ * while the pipeline runs.
+ *
+ * Every PARALLELISM_SAMPLING_INTERVAL milliseconds, the controller
+ * measures the throughput of each parallel stage (the items per second
+ * that enter it) and climbs towards the number of instances beyond
+ * which the throughput does not grow anymore:
+ *
+ * (1) The controller tries one more instance. If the throughput of the
+ *     stage grows by at least half of what the instance would add if
+ *     the stage scaled linearly, the instance stays and the controller
+ *     tries another one (up to MAX_PARALLEL_INSTANCES). If not, the
+ *     stage has enough instances (it is not where the work is) and the
+ *     instance is retired again.
+ * (2) The controller then tries one instance less. If the throughput
+ *     drops by less than half of what the instance contributed, the
+ *     instance was not needed, and the controller tries retiring
+ *     another one. If not, the instance is added back.
+ *
+ * So the stages where the work is collect instances, and the others
+ * give theirs up. After the controller has turned back, it leaves the
+ * stage alone for HOLD_INTERVALS intervals before it tries again (the
+ * stream may have changed by then). A change shows in the measurements
+ * of the interval after the one it was made in.
+ *
+ * The controller runs until it is interrupted.
+ */
+class ParallelismController implements Runnable {
+
+    /**
+     * The number of intervals the controller leaves a stage alone after turning back
+     */
+    static final int HOLD_INTERVALS = 4;
+
+    private final List<ParallelStage> stages;
+
+    /**
+     * The throughput measurements and the climb of every stage
+     */
+    private final Map<ParallelStage, long[]> previous = new HashMap<>();
+    private final Map<ParallelStage, Climb> climbs = new HashMap<>();
+
+    ParallelismController(List<ParallelStage> stages) {
+        this.stages = stages;
+    }
+
+    @Override
+    public void run() {
+        try {
+            while(!Thread.currentThread().isInterrupted()) {
+                adjust();
+                TimeUnit.MILLISECONDS.sleep(PARALLELISM_SAMPLING_INTERVAL);
+            }
+        } catch (InterruptedException ignored) {
+            // the pipeline has completed
+        }
+    }
+
+    /**
+     * Takes one measurement of every stage and adjusts the stages.
+     * The first call only takes the measurements.
+     */
+    void adjust() throws InterruptedException {
+        for(ParallelStage stage : stages) {
+            adjust(stage);
+        }
+    }
+
+    private void adjust(ParallelStage stage) throws InterruptedException {
+        final long[] now = sample(stage);
+        final long[] before = previous.put(stage, now);
+        if(before == null) {
+            climbs.put(stage, new Climb());
+            return;
+        }
+        final long interval = now[0] - before[0];
+        final long items = now[1] - before[1];
+        if(interval <= 0L || items <= 0L) {
+            /*
+             * Nothing flows: nothing to measure.
+             */
+            return;
+        }
+        final long throughput = TimeUnit.SECONDS.toNanos(1L) * items / interval;
+        final int instances = stage.getInstances();
+        final Climb climb = climbs.get(stage);
+        final int step = climb.next(throughput, instances, MAX_PARALLEL_INSTANCES);
+        if(step == 0) {
+            return;
+        }
+        if(!(step > 0 ? stage.addLane() : stage.retireLane())) {
+            climb.refused();
+            return;
+        }
+        System.out.printf("%1$-26s > %2$s: %3$d -> %4$d instances (%5$d items/s)%n",
+                getClass().getSimpleName(), stage.getName(), instances, stage.getInstances(), throughput);
+    }
+
+    /**
+     * @return { time (ns), items } of the stage
+     */
+    private static long[] sample(ParallelStage stage) {
+        return new long[] {
+                System.nanoTime(),
+                stage.getInputCounter()
+        };
+    }
+
+    /**
+     * The climb of one stage towards the number of instances
+     * beyond which its throughput does not grow anymore.
+     */
+    static class Climb {
+
+        /**
+         * The throughput before the last change, and the change (+1, -1, or 0 for none)
+         */
+        private long throughputBefore;
+        private int change;
+        /**
+         * Set right after a change: the interval of the change is not measured.
+         */
+        private boolean settling;
+        /**
+         * The direction of the next try, and the intervals to wait before it
+         */
+        private int direction = 1;
+        private int hold;
+
+        /**
+         * @param throughput the throughput of the stage in the last interval
+         * @param instances the number of instances of the stage
+         * @param maximum the highest number of instances the stage may have
+         * @return +1 to add an instance, -1 to retire one, 0 to leave the stage as it is
+         */
+        int next(long throughput, int instances, int maximum) {
+            if(settling) {
+                settling = false;
+                return 0;
+            }
+            if(change > 0) {
+                /*
+                 * n instances became n + 1: worth it if the throughput grew by more than half of 1/n.
+                 */
+                final long n = instances - 1;
+                if(2 * n * throughput > (2 * n + 1) * throughputBefore) {
+                    return instances < maximum ? change(throughput, 1) : turnBack(0);
+                }
+                return turnBack(-1);
+            }
+            if(change < 0) {
+                /*
+                 * n instances became n - 1: the instance was needed if the throughput dropped by more than half of 1/n.
+                 */
+                final long n = instances + 1;
+                if(2 * n * throughput >= (2 * n - 1) * throughputBefore) {
+                    return instances > 1 ? change(throughput, -1) : turnBack(0);
+                }
+                return turnBack(1);
+            }
+            if(hold > 0) {
+                hold--;
+                return 0;
+            }
+            if(direction > 0 && instances < maximum) {
+                return change(throughput, 1);
+            }
+            if(instances > 1) {
+                return change(throughput, -1);
+            }
+            return instances < maximum ? change(throughput, 1) : 0;
+        }
+
+        /**
+         * The stage turned the last change down.
+         */
+        void refused() {
+            change = 0;
+            settling = false;
+            hold = HOLD_INTERVALS;
+        }
+
+        private int change(long throughput, int step) {
+            throughputBefore = throughput;
+            change = step;
+            settling = true;
+            return step;
+        }
+
+        /**
+         * Stops climbing (undoing the last change if the step says so)
+         * and tries the other direction after a while.
+         */
+        private int turnBack(int step) {
+            direction = -change;
+            change = 0;
+            hold = HOLD_INTERVALS;
+            settling = step != 0;
+            return step;
+        }
+    }
+}
@@ -5,7 +5,30 @@ package pipefilter.pipeline;
  *
  * A representation of the ordered assembly of
  * a Pump, a series of Filters, and a Sink.
+ *
+ * A pipeline can be run more than once. After a run has completed,
+ * reset gives the pump a new input and the same components, pipes
+ * and threads process it in the next run. The threads are released
+ * with shutdown once the pipeline is no longer needed.
+ *
+ * A run that fails cancels its components and returns once they have
+ * ended. The pipes may still hold items of the failed run, so such a
+ * pipeline cannot run again: a new one has to be built.
  */
 public interface Pipeline {
     void run() throws InterruptedException;
+
+    /**
+     * Prepares a completed pipeline for another run.
+     *
+     * @param input the input of the next run
+     * @throws pipefilter.exception.PipeFilterException if a run of the pipeline has failed
+     */
+    void reset(String input);
+
+    /**
+     * Releases the threads of the pipeline (unless
+     * they belong to the creator of the pipeline).
+     */
+    void shutdown();
 }
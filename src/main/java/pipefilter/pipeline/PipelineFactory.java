@@ -5,7 +5,10 @@ import pipefilter.filter.FilterFactory;
 import pipefilter.pump.PumpFactory;
 import pipefilter.sink.SinkFactory;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 import static pipefilter.config.Registry.*;
 
@@ -28,8 +31,22 @@ public class PipelineFactory {
      * @param <U> the output type
      * @return a Pipeline object
      */
-    @SuppressWarnings("unchecked")
     public static <T, U> Pipeline build(T input, U output, String[] pipeline, String pipelineType) {
+        return build(input, output, pipeline, pipelineType, null);
+    }
+
+    /**
+     * @param input the input to the pipeline
+     * @param output the output of the pipeline
+     * @param pipeline the ordered list of components that make up the pipeline
+     * @param pipelineType they type of pipeline (serial, parallel, etc.)
+     * @param executor the executor that runs the components (null: the pipeline creates its own)
+     * @param <T> the input type
+     * @param <U> the output type
+     * @return a Pipeline object
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, U> Pipeline build(T input, U output, String[] pipeline, String pipelineType, ExecutorService executor) {
 
         /*
          * (1) check if the user supplied compatible sequence of components
@@ -43,13 +60,40 @@ public class PipelineFactory {
          */
         if(pipelineType.equalsIgnoreCase("serial")) {
             // TODO: check if input & output types are correct before building the pipeline.
-            return new SerialPipeline((String) input, (Map<String, Integer>) output, pipeline);
+            return new SerialPipeline((String) input, (Map<String, Integer>) output, pipeline, executor);
         } else if(pipelineType.equalsIgnoreCase("parallel")) {
-            return new ParallelPipeline((String) input, (Map<String, Integer>) output, pipeline);
+            return new ParallelPipeline((String) input, (Map<String, Integer>) output, pipeline, executor);
         }
         throw new PipeFilterException("Unknown pipeline assembly: " + pipelineType);
     }
 
+    /**
+     * Builds a pipeline that forks (tee) into several branches (see TeePipeline).
+     *
+     * Every branch, appended to the trunk, must be a valid linear pipeline.
+     *
+     * @param input the input to the pipeline
+     * @param outputs the outputs of the sinks (one per branch)
+     * @param trunk the pump and the filters shared by all the branches
+     * @param branches the filters and the sink of each branch
+     * @param executor the executor that runs the components (null: the pipeline creates its own)
+     * @return a Pipeline object
+     */
+    public static Pipeline build(String input, List<?> outputs, String[] trunk, String[][] branches, ExecutorService executor) {
+        if(trunk.length == 0 || branches.length == 0) {
+            throw new PipeFilterException("A tee needs a pump and at least one branch");
+        }
+        for(String[] branch : branches) {
+            if(branch.length == 0) {
+                throw new PipeFilterException("Every branch of a tee ends with a sink");
+            }
+            final String[] pipeline = Arrays.copyOf(trunk, trunk.length + branch.length);
+            System.arraycopy(branch, 0, pipeline, trunk.length, branch.length);
+            validate(pipeline);
+        }
+        return new TeePipeline(input, outputs, trunk, branches, executor);
+    }
+
     /**
      * Check if the given pipeline assembly is valid by comparing
      * the output and the input types of adjacent components.
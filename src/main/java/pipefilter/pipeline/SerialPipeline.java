@@ -1,9 +1,13 @@
 package pipefilter.pipeline;
 
+import pipefilter.exception.PipeFilterException;
 import pipefilter.filter.Filter;
 import pipefilter.filter.FilterFactory;
+import pipefilter.filter.TermDictionary;
 import pipefilter.pipe.Pipe;
+import pipefilter.pipe.PipeCapacityBudget;
 import pipefilter.pipe.PipeFactory;
+import pipefilter.pipe.WaitStrategy;
 import pipefilter.pump.Pump;
 import pipefilter.pump.PumpFactory;
 import pipefilter.sink.Sink;
@@ -12,8 +16,6 @@ import pipefilter.sink.SinkFactory;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -29,26 +31,64 @@ import static pipefilter.config.Configuration.PIPE_CAPACITY;
  *
  * It is the single point where the pipeline operation
  * could be triggered.
+ *
+ * The pipeline can be reset and run again on a new input.
+ * The components, the pipes and the threads are reused.
  */
 public class SerialPipeline implements Pipeline {
 
     private String input;
     private Map<String, Integer> output;
     private final List<Runnable> pipelineComponents;
-    private final CountDownLatch doneSignal;
+    private Pump<String, ?> pump;
+    /**
+     * The budget the adaptive pipes of the pipeline draw their capacity from
+     */
+    private final PipeCapacityBudget budget = PipeFactory.newCapacityBudget();
+    /**
+     * The term ids of the pipeline (cleared at every reset)
+     */
+    private final TermDictionary dictionary = new TermDictionary();
+    /**
+     * The executor that runs the components. If it is supplied by the
+     * creator of the pipeline, it is not shut down by the pipeline;
+     * the threads are kept for other pipelines.
+     */
+    private final ExecutorService sharedExecutor;
+    private ExecutorService executor;
+    /**
+     * Set when the pipeline has run and must be reset before it runs again.
+     */
+    private boolean completed;
+    /**
+     * Set when a run has failed. The pipes may still hold items of that
+     * run, so the pipeline can neither run again nor be reset.
+     */
+    private boolean failed;
 
     public SerialPipeline(String input, Map<String, Integer> output, String[] pipeline) {
+        this(input, output, pipeline, null);
+    }
 
+    public SerialPipeline(String input, Map<String, Integer> output, String[] pipeline, ExecutorService executor) {
+
+        this.sharedExecutor = executor;
         this.input = input;
         this.output = output;
         this.pipelineComponents = new LinkedList<>();
-        this.doneSignal = new CountDownLatch(pipeline.length);
 
         compose(input, output, pipeline);
+        pipelineComponents.forEach(dictionary::handTo);
     }
 
     @Override
     public void run() throws InterruptedException {
+        if(failed) {
+            throw new PipeFilterException("The pipeline has failed; build a new one.");
+        }
+        if(completed) {
+            throw new PipeFilterException("The pipeline must be reset before it runs again.");
+        }
         System.out.println("---------------------------------------------------------------------------------------");
         System.out.printf("%1$-26s | %2$10s | %3$11s | %4$9s | %5$8s | %6$8s%n", "Component Class Name", "Blocked on", " Blocked on", " Response", "   Input", "  Output");
         System.out.printf("%1$-26s | %2$10s | %3$11s | %4$9s | %5$5s | %6$6s%n", "[Pump | Filter | Sink]", "Input (ms)", "Output (ms)", "Time (ms)", "   Count", "   Count");
@@ -57,38 +97,66 @@ public class SerialPipeline implements Pipeline {
         /*
          * Use ExecutorService instead of creating Threads explicitly.
          * We know exactly how many threads there will be in the pipeline,
-         * so we can use a fixed thread pool.
+         * so we can use a fixed thread pool. The threads are kept
+         * between runs and released with shutdown().
          */
-        final int nThreads = (int) doneSignal.getCount();
-        ExecutorService executor = Executors.newFixedThreadPool(nThreads);
-        pipelineComponents.forEach(executor::execute);
+        if(executor == null) {
+            final int nThreads = pipelineComponents.size();
+            executor = sharedExecutor != null ? sharedExecutor : Executors.newFixedThreadPool(nThreads);
+        }
+        final Completion run = new Completion(executor);
+        pipelineComponents.forEach(run::submit);
         /*
          * Wait for all threads to be done before returning to the main thread.
          */
-        doneSignal.await();
-        /*
-         * Shutdown the executor so that the program returns
-         */
-        executor.shutdown();
+        try {
+            run.await();
+        } catch (RuntimeException | InterruptedException e) {
+            failed = true;
+            throw e;
+        }
+        completed = true;
         /*
          * At this point, it is guaranteed that all the threads
          * (the pump, the filters, and the sink) have completed
          * their operations (threads have stopped), meaning that
          * the text processing has completed.
          *
-         * This is guaranteed by the countdown latch.
+         * This is guaranteed by the futures of the components.
          */
     }
 
+    @Override
+    public void reset(String input) {
+        if(failed) {
+            throw new PipeFilterException("The pipeline has failed; build a new one.");
+        }
+        pump.reset(input);
+        dictionary.clear();
+        this.input = input;
+        completed = false;
+    }
+
+    /**
+     * Shutdown the executor so that the program returns
+     * (unless the executor belongs to the creator of the pipeline).
+     */
+    @Override
+    public void shutdown() {
+        dictionary.clear();
+        if(executor != null && sharedExecutor == null) {
+            executor.shutdown();
+        }
+    }
+
     /**
      * Given an array of names of pipeline components, this method assembles
-     * a pipeline using the Java Reflection API. Each Pump, Sink, or Filter
-     * has a unique name assigned to it in the registry.
+     * a pipeline using the component descriptors of the registry. Each Pump,
+     * Sink, or Filter has a unique name assigned to it in the registry.
      *
      * @see pipefilter.config.Registry
      *
-     * The method uses the registry to determine the class type of the component
-     * and then uses the Java reflection API to:
+     * The method uses the descriptor of each component to:
      * (1) determine the specific types of pipes that will fit the components.
      * (2) determine which Pump, Filter, Sink to instantiate.
      * It assembles the components as a list of Threads (the Pumps, Filters,
@@ -106,9 +174,12 @@ public class SerialPipeline implements Pipeline {
         String name = components[0];
         String pipeDataType = PumpFactory.getPumpOutputType(name);
 
-        Pipe<?> out = PipeFactory.build(pipeDataType, PIPE_CAPACITY);
+        /*
+         * A pipe waits the way the component that takes from it wants.
+         */
+        Pipe<?> out = PipeFactory.build(pipeDataType, PIPE_CAPACITY, WaitStrategy.forComponent(components[1]), budget);
         Pipe<?> in = out;
-        Pump<?, ?> pump = PumpFactory.build(name, input, out, doneSignal);
+        pump = PumpFactory.build(name, input, out);
         pipelineComponents.add(pump);
 
         /*
@@ -119,8 +190,8 @@ public class SerialPipeline implements Pipeline {
         for(int i = 1; i <= components.length - 2; i++) {
             name = components[i];
             pipeDataType = FilterFactory.getFilterOutputType(name);
-            out = PipeFactory.build(pipeDataType, PIPE_CAPACITY);
-            Filter<?, ?> filter = FilterFactory.build(name, in, out, doneSignal);
+            out = PipeFactory.build(pipeDataType, PIPE_CAPACITY, WaitStrategy.forComponent(components[i + 1]), budget);
+            Filter<?, ?> filter = FilterFactory.build(name, in, out);
             pipelineComponents.add(filter);
             in = out;
         }
@@ -128,7 +199,7 @@ public class SerialPipeline implements Pipeline {
          * Create sink and attach to pipeline
          */
         name = components[components.length - 1];
-        Sink<?, ?> sink = SinkFactory.build(name, in, output, doneSignal);
+        Sink<?, ?> sink = SinkFactory.build(name, in, output);
         pipelineComponents.add(sink);
     }
 }
@@ -0,0 +1,168 @@
+package pipefilter.pipeline;
+
+import pipefilter.exception.PipeFilterException;
+import pipefilter.filter.FilterFactory;
+import pipefilter.filter.TermDictionary;
+import pipefilter.pipe.BroadcastPipe;
+import pipefilter.pipe.Pipe;
+import pipefilter.pipe.PipeCapacityBudget;
+import pipefilter.pipe.PipeFactory;
+import pipefilter.pipe.WaitStrategy;
+import pipefilter.pump.Pump;
+import pipefilter.pump.PumpFactory;
+import pipefilter.sink.SinkFactory;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static pipefilter.config.Configuration.PIPE_CAPACITY;
+
+/**
+ * @author Nardos Tessema
+ *
+ * A pipeline whose stream forks (tee) into several branches,
+ * each ending in its own sink with its own output:
+ *
+ *                                                   +--> filter --> sink (output 0)
+ *   pump --> filter --> ... --> filter --> [tee] ---+
+ *                                                   +--> sink (output 1)
+ *
+ * The trunk (the pump and the filters before the tee) runs once for all
+ * the branches, e.g. the text is read, tokenized and preprocessed once
+ * for the full counts and for the top-k terms.
+ *
+ * The tee is a BroadcastPipe: the items are not copied per branch, and
+ * each branch has its own backpressure (see BroadcastPipe).
+ *
+ * Like the SerialPipeline, every component runs in its own thread,
+ * and the pipeline can be reset and run again on a new input.
+ */
+public class TeePipeline implements Pipeline {
+
+    private final List<Runnable> pipelineComponents = new LinkedList<>();
+    private Pump<String, ?> pump;
+    /**
+     * The budget the adaptive pipes of the pipeline draw their capacity from
+     */
+    private final PipeCapacityBudget budget = PipeFactory.newCapacityBudget();
+    /**
+     * The term ids of the pipeline (cleared at every reset)
+     */
+    private final TermDictionary dictionary = new TermDictionary();
+    private final ExecutorService sharedExecutor;
+    private ExecutorService executor;
+    private boolean completed;
+    /**
+     * Set when a run has failed. The pipes may still hold items of that
+     * run, so the pipeline can neither run again nor be reset.
+     */
+    private boolean failed;
+
+    /**
+     * @param input the input of the pump
+     * @param outputs the outputs of the sinks (one per branch)
+     * @param trunk the pump and the filters before the tee
+     * @param branches the filters and the sink of each branch
+     * @param executor the executor that runs the components (null: the pipeline creates its own)
+     */
+    public TeePipeline(String input, List<?> outputs, String[] trunk, String[][] branches, ExecutorService executor) {
+        if(branches.length != outputs.size()) {
+            throw new PipeFilterException("Every branch of the tee needs an output: " + branches.length + " branches, " + outputs.size() + " outputs");
+        }
+        this.sharedExecutor = executor;
+        compose(input, outputs, trunk, branches);
+        pipelineComponents.forEach(dictionary::handTo);
+    }
+
+    @Override
+    public void run() throws InterruptedException {
+        if(failed) {
+            throw new PipeFilterException("The pipeline has failed; build a new one.");
+        }
+        if(completed) {
+            throw new PipeFilterException("The pipeline must be reset before it runs again.");
+        }
+        System.out.println("---------------------------------------------------------------------------------------");
+        System.out.printf("%1$-26s | %2$10s | %3$11s | %4$9s | %5$8s | %6$8s%n", "Component Class Name", "Blocked on", " Blocked on", " Response", "   Input", "  Output");
+        System.out.printf("%1$-26s | %2$10s | %3$11s | %4$9s | %5$5s | %6$6s%n", "[Pump | Filter | Sink]", "Input (ms)", "Output (ms)", "Time (ms)", "   Count", "   Count");
+        System.out.println("---------------------------------------------------------------------------------------");
+
+        if(executor == null) {
+            executor = sharedExecutor != null ? sharedExecutor : Executors.newFixedThreadPool(pipelineComponents.size());
+        }
+        final Completion run = new Completion(executor);
+        pipelineComponents.forEach(run::submit);
+        try {
+            run.await();
+        } catch (RuntimeException | InterruptedException e) {
+            failed = true;
+            throw e;
+        }
+        completed = true;
+    }
+
+    @Override
+    public void reset(String input) {
+        if(failed) {
+            throw new PipeFilterException("The pipeline has failed; build a new one.");
+        }
+        pump.reset(input);
+        dictionary.clear();
+        completed = false;
+    }
+
+    @Override
+    public void shutdown() {
+        dictionary.clear();
+        if(executor != null && sharedExecutor == null) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Assembles the trunk, the tee and the branches.
+     */
+    private void compose(String input, List<?> outputs, String[] trunk, String[][] branches) {
+        /*
+         * (1) the pump and the filters of the trunk
+         */
+        String pipeDataType = PumpFactory.getPumpOutputType(trunk[0]);
+        Pipe<?> in;
+        Pipe<?> out = trunk.length == 1 ? tee(pipeDataType, branches.length) : PipeFactory.build(pipeDataType, PIPE_CAPACITY, WaitStrategy.forComponent(trunk[1]), budget);
+        pump = PumpFactory.build(trunk[0], input, out);
+        pipelineComponents.add(pump);
+        for(int i = 1; i < trunk.length; i++) {
+            in = out;
+            pipeDataType = FilterFactory.getFilterOutputType(trunk[i]);
+            out = i == trunk.length - 1 ? tee(pipeDataType, branches.length) : PipeFactory.build(pipeDataType, PIPE_CAPACITY, WaitStrategy.forComponent(trunk[i + 1]), budget);
+            pipelineComponents.add(FilterFactory.build(trunk[i], in, out));
+        }
+        /*
+         * (2) each branch starts at its end of the tee
+         */
+        final BroadcastPipe<?> tee = (BroadcastPipe<?>) out;
+        for(int b = 0; b < branches.length; b++) {
+            final String[] branch = branches[b];
+            in = tee.branch(b);
+            for(int i = 0; i < branch.length - 1; i++) {
+                pipeDataType = FilterFactory.getFilterOutputType(branch[i]);
+                out = PipeFactory.build(pipeDataType, PIPE_CAPACITY, WaitStrategy.forComponent(branch[i + 1]), budget);
+                pipelineComponents.add(FilterFactory.build(branch[i], in, out));
+                in = out;
+            }
+            pipelineComponents.add(SinkFactory.build(branch[branch.length - 1], in, outputs.get(b)));
+        }
+    }
+
+    /**
+     * @return the broadcast pipe of the tee (pipes of objects only)
+     */
+    private static BroadcastPipe<?> tee(String pipeDataType, int numberOfBranches) {
+        if(pipeDataType.equals("java.lang.Integer") || pipeDataType.equals("java.lang.Long") || pipeDataType.equals("java.lang.Double")) {
+            throw new PipeFilterException("A pipe of primitive values cannot be teed: " + pipeDataType);
+        }
+        return new BroadcastPipe<>(PIPE_CAPACITY, numberOfBranches);
+    }
+}
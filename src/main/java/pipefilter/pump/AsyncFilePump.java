@@ -0,0 +1,220 @@
+package pipefilter.pump;
+
+import pipefilter.exception.PipeFilterException;
+import pipefilter.pipe.Pipe;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import static pipefilter.config.Configuration.ASYNC_READ_BUFFERS;
+import static pipefilter.config.Configuration.ASYNC_READ_BUFFER_SIZE;
+import static pipefilter.config.Configuration.SENTINEL_VALUE;
+
+/**
+ * @author Nardos Tessema
+ *
+ * The Source of the text stream
+ *
+ * Reads a UTF-8 text file ahead of the lines it streams. The file is
+ * read into ASYNC_READ_BUFFERS direct buffers with an asynchronous
+ * channel: while the lines of one buffer are decoded and put (and the
+ * pump blocks on a full pipe), the next blocks of the file are already
+ * being read.
+ *
+ *   file:     [ block 0 ][ block 1 ][ block 2 ][ block 3 ] ...
+ *   buffers:   buffer 0   buffer 1   buffer 0   buffer 1
+ *              decoding   reading
+ *
+ * A buffer is read again (at the next block of the file) as soon as
+ * its lines have been put. A char whose bytes straddle two buffers is
+ * decoded from a small carry buffer.
+ */
+public class AsyncFilePump implements Pump<String, String> {
+
+    private Path file;
+    private final Pipe<String> pipe;
+
+    private final LineDecoder decoder = new LineDecoder(8192);
+    /**
+     * The bytes of an incomplete char at the end of a buffer
+     */
+    private final ByteBuffer carry = ByteBuffer.allocate(8);
+
+    /**
+     * Timing instrumentation instance variables
+     */
+    private long cumulativeLineReadingTime;
+    private long cumulativeOutputBlockingTime;
+    private long totalProcessingTime;
+    private long inputCounter;
+    private long outputCounter;
+
+    public AsyncFilePump(String filePath, Pipe<String> pipe) {
+        this.pipe = pipe;
+        reset(filePath);
+    }
+
+    /**
+     * Takes another file for the next run. The file is opened (and
+     * closed) by pump(), so a pump that does not run holds no file open.
+     *
+     * @param filePath the path of the file
+     */
+    @Override
+    public void reset(String filePath) {
+        try {
+            this.file = Paths.get(filePath);
+        } catch (RuntimeException e) {
+            throw new PipeFilterException("I/O exception while reading file " + filePath);
+        }
+        if(!Files.isReadable(file)) {
+            throw new PipeFilterException("I/O exception while reading file " + filePath);
+        }
+    }
+
+    @Override
+    public void pump() {
+        inputCounter = 0L;
+        outputCounter = 0L;
+        cumulativeLineReadingTime = 0L;
+        cumulativeOutputBlockingTime = 0L;
+        decoder.reset();
+        carry.clear();
+        long start = System.currentTimeMillis();
+        final int numberOfBuffers = Math.max(2, ASYNC_READ_BUFFERS);
+        final ByteBuffer[] buffers = new ByteBuffer[numberOfBuffers];
+        final long[] positions = new long[numberOfBuffers];
+        final Future<?>[] reads = new Future<?>[numberOfBuffers];
+        try (AsynchronousFileChannel channel = AsynchronousFileChannel.open(file, StandardOpenOption.READ)) {
+            /*
+             * Start reading the first blocks.
+             */
+            long next = 0L;
+            for(int b = 0; b < numberOfBuffers; b++) {
+                buffers[b] = ByteBuffer.allocateDirect(Math.max(8, ASYNC_READ_BUFFER_SIZE));
+                positions[b] = next;
+                reads[b] = channel.read(buffers[b], next);
+                next += buffers[b].capacity();
+            }
+            int b = 0;
+            while(true) {
+                final ByteBuffer buffer = buffers[b];
+                final long beforeReading = System.currentTimeMillis();
+                final boolean endOfFile = complete(channel, reads[b], buffer, positions[b]);
+                cumulativeLineReadingTime += System.currentTimeMillis() - beforeReading;
+
+                buffer.flip();
+                decode(buffer);
+                buffer.clear();
+                if(endOfFile) {
+                    break;
+                }
+                /*
+                 * The buffer reads the next block while the other buffers are decoded.
+                 */
+                positions[b] = next;
+                reads[b] = channel.read(buffer, next);
+                next += buffer.capacity();
+                b = (b + 1) % numberOfBuffers;
+            }
+            /*
+             * The reads beyond the end of the file are done before the channel is closed.
+             */
+            for(Future<?> read : reads) {
+                try {
+                    read.get();
+                } catch (ExecutionException ignored) {
+                }
+            }
+            /*
+             * The last line may not end with a line terminator.
+             */
+            carry.flip();
+            decoder.decode(carry, this::put);
+            decoder.flush(this::put);
+        } catch (IOException | ExecutionException e) {
+            e.printStackTrace();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        } finally {
+            /*
+             * End the stream also if reading failed half way (or the file
+             * could not be opened), or the filters downstream would wait
+             * forever. A cancelled run (interrupted) has nobody downstream.
+             */
+            if(!Thread.currentThread().isInterrupted()) {
+                try {
+                    final long beforeOutputPipe = System.currentTimeMillis();
+                    pipe.put(SENTINEL_VALUE);
+                    cumulativeOutputBlockingTime += System.currentTimeMillis() - beforeOutputPipe;
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        totalProcessingTime = System.currentTimeMillis() - start;
+    }
+
+    /**
+     * Waits for a read and, if it returned fewer bytes than the buffer holds
+     * before the end of the file, reads the rest of the block.
+     *
+     * @return true if the end of the file is in this block
+     */
+    private static boolean complete(AsynchronousFileChannel channel, Future<?> read, ByteBuffer buffer, long position) throws InterruptedException, ExecutionException {
+        Integer count = (Integer) read.get();
+        while(count != -1 && buffer.hasRemaining()) {
+            count = channel.read(buffer, position + buffer.position()).get();
+        }
+        return buffer.hasRemaining();
+    }
+
+    /**
+     * Decodes a buffer, starting with the bytes carried over from the previous one.
+     */
+    private void decode(ByteBuffer bytes) throws InterruptedException {
+        if(carry.position() > 0) {
+            final int carried = carry.position();
+            final int lent = Math.min(bytes.remaining(), carry.remaining());
+            final ByteBuffer head = bytes.duplicate();
+            head.limit(head.position() + lent);
+            carry.put(head);
+            carry.flip();
+            decoder.decode(carry, this::put);
+            final int used = carry.position() - carried;
+            if(used < 0) {
+                /*
+                 * Still not a whole char (the buffer holds fewer bytes than it needs)
+                 */
+                carry.compact();
+                bytes.position(bytes.position() + lent);
+                return;
+            }
+            carry.clear();
+            bytes.position(bytes.position() + used);
+        }
+        decoder.decode(bytes, this::put);
+        carry.put(bytes);
+    }
+
+    private void put(String line) throws InterruptedException {
+        inputCounter++;
+        final long beforeOutputPipe = System.currentTimeMillis();
+        pipe.put(line);
+        cumulativeOutputBlockingTime += System.currentTimeMillis() - beforeOutputPipe;
+        outputCounter++;
+    }
+
+    @Override
+    public void run() {
+        pump();
+        System.out.printf("%1$-26s | %2$10s | %3$11s | %4$9s | %5$8s | %6$8s%n", getClass().getSimpleName(), cumulativeLineReadingTime, cumulativeOutputBlockingTime, totalProcessingTime, inputCounter, outputCounter);
+    }
+}
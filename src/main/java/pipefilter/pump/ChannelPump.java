@@ -0,0 +1,136 @@
+package pipefilter.pump;
+
+import pipefilter.exception.PipeFilterException;
+import pipefilter.pipe.Pipe;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import static pipefilter.config.Configuration.SENTINEL_VALUE;
+import static pipefilter.config.Configuration.STREAM_BUFFER_SIZE;
+
+/**
+ * @author Nardos Tessema
+ *
+ * The Source of the text stream
+ *
+ * Reads UTF-8 text from the standard input (input "-") or from a
+ * named pipe (FIFO) and streams the lines, so upstream tools
+ * (decompressors, extractors, ...) can pipe text straight into the
+ * pipeline without staging it on disk:
+ *
+ *   $ zcat corpus.txt.gz | java -jar executable.jar -
+ *
+ * The bytes are read into a direct buffer of STREAM_BUFFER_SIZE bytes
+ * and decoded in place (see LineDecoder). A named pipe is opened when
+ * the pump starts (opening it blocks until a writer opens the other
+ * end), not when the pump is built.
+ */
+public class ChannelPump implements Pump<String, String> {
+
+    public static final String STANDARD_INPUT = "-";
+
+    private String source;
+    private final Pipe<String> pipe;
+
+    /**
+     * Timing instrumentation instance variables
+     */
+    private long cumulativeLineReadingTime;
+    private long cumulativeOutputBlockingTime;
+    private long totalProcessingTime;
+    private long inputCounter;
+    private long outputCounter;
+
+    public ChannelPump(String source, Pipe<String> pipe) {
+        this.pipe = pipe;
+        reset(source);
+    }
+
+    /**
+     * @param source "-" (standard input) or the path of a named pipe
+     */
+    @Override
+    public void reset(String source) {
+        if(source == null || source.isEmpty()) {
+            throw new PipeFilterException("No stream to read from (use - for the standard input)");
+        }
+        if(!source.equals(STANDARD_INPUT) && !Files.isReadable(Paths.get(source))) {
+            throw new PipeFilterException("I/O exception while reading stream " + source);
+        }
+        this.source = source;
+    }
+
+    @Override
+    public void pump() {
+        inputCounter = 0L;
+        outputCounter = 0L;
+        cumulativeLineReadingTime = 0L;
+        cumulativeOutputBlockingTime = 0L;
+        long start = System.currentTimeMillis();
+        try (ReadableByteChannel channel = open()) {
+            final ByteBuffer bytes = ByteBuffer.allocateDirect(STREAM_BUFFER_SIZE);
+            final LineDecoder decoder = new LineDecoder(STREAM_BUFFER_SIZE);
+            long beforeReading = System.currentTimeMillis();
+            while(channel.read(bytes) != -1) {
+                cumulativeLineReadingTime += System.currentTimeMillis() - beforeReading;
+                bytes.flip();
+                decoder.decode(bytes, this::put);
+                bytes.compact();
+                beforeReading = System.currentTimeMillis();
+            }
+            cumulativeLineReadingTime += System.currentTimeMillis() - beforeReading;
+            /*
+             * The last line may not end with a line terminator.
+             */
+            decoder.flush(this::put);
+        } catch (IOException ioe) {
+            ioe.printStackTrace();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        } finally {
+            /*
+             * End the stream also if reading failed half way,
+             * or the filters downstream would wait forever.
+             * A cancelled run (interrupted) has nobody downstream.
+             */
+            if(!Thread.currentThread().isInterrupted()) {
+                try {
+                    final long beforeOutputPipe = System.currentTimeMillis();
+                    pipe.put(SENTINEL_VALUE);
+                    cumulativeOutputBlockingTime += System.currentTimeMillis() - beforeOutputPipe;
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        totalProcessingTime = System.currentTimeMillis() - start;
+    }
+
+    private ReadableByteChannel open() throws IOException {
+        if(source.equals(STANDARD_INPUT)) {
+            return Channels.newChannel(System.in);
+        }
+        return FileChannel.open(Paths.get(source), StandardOpenOption.READ);
+    }
+
+    private void put(String line) throws InterruptedException {
+        inputCounter++;
+        final long beforeOutputPipe = System.currentTimeMillis();
+        pipe.put(line);
+        cumulativeOutputBlockingTime += System.currentTimeMillis() - beforeOutputPipe;
+        outputCounter++;
+    }
+
+    @Override
+    public void run() {
+        pump();
+        System.out.printf("%1$-26s | %2$10s | %3$11s | %4$9s | %5$8s | %6$8s%n", getClass().getSimpleName(), cumulativeLineReadingTime, cumulativeOutputBlockingTime, totalProcessingTime, inputCounter, outputCounter);
+    }
+}
@@ -0,0 +1,109 @@
+package pipefilter.pump;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * @author Nardos Tessema
+ *
+ * Decodes chunks of UTF-8 bytes into lines for the pumps that read
+ * raw byte channels. A line may span any number of chunks, and so may
+ * the bytes of a char. Lines end with \n, \r\n or \r.
+ *
+ * Malformed input is replaced rather than rejected: a stream cannot
+ * be rewound to report where it went wrong.
+ */
+class LineDecoder {
+
+    /**
+     * Receives the decoded lines (e.g. puts them on a pipe).
+     */
+    interface LineConsumer {
+        void accept(String line) throws InterruptedException;
+    }
+
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final CharBuffer chars;
+    private final StringBuilder line = new StringBuilder();
+    private boolean afterCarriageReturn;
+
+    /**
+     * @param bufferSize the number of chars decoded at a time
+     */
+    LineDecoder(int bufferSize) {
+        this.chars = CharBuffer.allocate(Math.max(2, bufferSize));
+    }
+
+    /**
+     * Decodes the remaining bytes of a buffer (bytes of an incomplete char
+     * are left in the buffer) and passes on the complete lines.
+     *
+     * @param bytes a buffer ready to be read (flipped)
+     * @param consumer receives the complete lines
+     */
+    void decode(ByteBuffer bytes, LineConsumer consumer) throws InterruptedException {
+        while(true) {
+            final CoderResult result = decoder.decode(bytes, chars, false);
+            chars.flip();
+            emitLines(consumer);
+            chars.clear();
+            if(!result.isOverflow()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Passes on the incomplete last line, if there is one (end of input).
+     *
+     * @param consumer receives the line
+     */
+    void flush(LineConsumer consumer) throws InterruptedException {
+        decoder.decode(ByteBuffer.allocate(0), chars, true);
+        decoder.flush(chars);
+        chars.flip();
+        emitLines(consumer);
+        chars.clear();
+        if(line.length() > 0) {
+            consumer.accept(line.toString());
+        }
+        reset();
+    }
+
+    /**
+     * Forgets the incomplete line and bytes (e.g. the input starts over).
+     */
+    void reset() {
+        decoder.reset();
+        chars.clear();
+        line.setLength(0);
+        afterCarriageReturn = false;
+    }
+
+    private void emitLines(LineConsumer consumer) throws InterruptedException {
+        while(chars.hasRemaining()) {
+            final char c = chars.get();
+            /*
+             * \r\n: the line was already passed on at \r
+             * (the \n may be in the next chunk)
+             */
+            if(c == '\n' && afterCarriageReturn) {
+                afterCarriageReturn = false;
+                continue;
+            }
+            afterCarriageReturn = c == '\r';
+            if(c == '\n' || c == '\r') {
+                consumer.accept(line.toString());
+                line.setLength(0);
+            } else {
+                line.append(c);
+            }
+        }
+    }
+}
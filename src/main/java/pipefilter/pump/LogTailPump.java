@@ -0,0 +1,187 @@
+package pipefilter.pump;
+
+import pipefilter.exception.PipeFilterException;
+import pipefilter.pipe.Pipe;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import static pipefilter.config.Configuration.SENTINEL_VALUE;
+import static pipefilter.config.Configuration.STREAM_BUFFER_SIZE;
+import static pipefilter.config.Configuration.TAIL_IDLE_TIMEOUT;
+import static pipefilter.config.Configuration.TAIL_POLL_INTERVAL;
+
+/**
+ * @author Nardos Tessema
+ *
+ * The Source of the text stream
+ *
+ * Follows a (log) file as it grows, like tail -F, and streams its lines:
+ *
+ * (1) The file is read from the beginning. At the end of the file, the
+ *     pump waits TAIL_POLL_INTERVAL ms and reads what has been appended.
+ * (2) A line is streamed once it is complete (a writer may be half way
+ *     through a line).
+ * (3) Rotation: if the path now names another file (the old file was
+ *     renamed and a new one created), the rest of the old file is read
+ *     and the pump follows the new file from its beginning. If the file
+ *     got shorter (truncated in place), the pump starts over at its
+ *     beginning.
+ *
+ * The stream ends (sentinel) when stop is called, or when nothing has
+ * been appended for TAIL_IDLE_TIMEOUT ms (0: follow forever).
+ */
+public class LogTailPump implements Pump<String, String> {
+
+    private Path file;
+    private final Pipe<String> pipe;
+    private volatile boolean stopped;
+
+    /**
+     * Timing instrumentation instance variables
+     */
+    private long cumulativeLineReadingTime;
+    private long cumulativeOutputBlockingTime;
+    private long totalProcessingTime;
+    private long inputCounter;
+    private long outputCounter;
+
+    public LogTailPump(String filePath, Pipe<String> pipe) {
+        this.pipe = pipe;
+        reset(filePath);
+    }
+
+    /**
+     * @param filePath the path of the file to follow
+     */
+    @Override
+    public void reset(String filePath) {
+        if(!Files.isReadable(Paths.get(filePath))) {
+            throw new PipeFilterException("I/O exception while reading file " + filePath);
+        }
+        this.file = Paths.get(filePath);
+        this.stopped = false;
+    }
+
+    /**
+     * Ends the stream after the lines that have been read so far.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    @Override
+    public void pump() {
+        inputCounter = 0L;
+        outputCounter = 0L;
+        cumulativeLineReadingTime = 0L;
+        cumulativeOutputBlockingTime = 0L;
+        long start = System.currentTimeMillis();
+        final ByteBuffer bytes = ByteBuffer.allocateDirect(STREAM_BUFFER_SIZE);
+        final LineDecoder decoder = new LineDecoder(STREAM_BUFFER_SIZE);
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+            Object fileKey = fileKey();
+            long lastAppend = System.currentTimeMillis();
+            while(!stopped) {
+                final long beforeReading = System.currentTimeMillis();
+                final int read = channel.read(bytes);
+                cumulativeLineReadingTime += System.currentTimeMillis() - beforeReading;
+                if(read > 0) {
+                    bytes.flip();
+                    decoder.decode(bytes, this::put);
+                    bytes.compact();
+                    lastAppend = System.currentTimeMillis();
+                    continue;
+                }
+                /*
+                 * At the end of the file: has it been rotated or truncated?
+                 */
+                final Object currentKey = fileKey();
+                if(currentKey != null && !Objects.equals(currentKey, fileKey)) {
+                    channel.close();
+                    channel = FileChannel.open(file, StandardOpenOption.READ);
+                    fileKey = currentKey;
+                    decoder.flush(this::put);
+                    bytes.clear();
+                    continue;
+                }
+                if(currentKey != null && Files.size(file) < channel.position()) {
+                    channel.position(0L);
+                    decoder.reset();
+                    bytes.clear();
+                    continue;
+                }
+                if(TAIL_IDLE_TIMEOUT > 0 && System.currentTimeMillis() - lastAppend >= TAIL_IDLE_TIMEOUT) {
+                    break;
+                }
+                TimeUnit.MILLISECONDS.sleep(TAIL_POLL_INTERVAL);
+            }
+            decoder.flush(this::put);
+        } catch (IOException ioe) {
+            ioe.printStackTrace();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if(channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                }
+            }
+            /*
+             * End the stream also if reading failed half way,
+             * or the filters downstream would wait forever.
+             * A cancelled run (interrupted) has nobody downstream.
+             */
+            if(!Thread.currentThread().isInterrupted()) {
+                try {
+                    final long beforeOutputPipe = System.currentTimeMillis();
+                    pipe.put(SENTINEL_VALUE);
+                    cumulativeOutputBlockingTime += System.currentTimeMillis() - beforeOutputPipe;
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        totalProcessingTime = System.currentTimeMillis() - start;
+    }
+
+    /**
+     * @return the identity of the file the path currently names (e.g. the inode),
+     *         null if the path names no file right now (between rotation steps)
+     *         or the file system has no such identity
+     */
+    private Object fileKey() throws IOException {
+        try {
+            final Object key = Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+            return key != null ? key : file;
+        } catch (NoSuchFileException nsfe) {
+            return null;
+        }
+    }
+
+    private void put(String line) throws InterruptedException {
+        inputCounter++;
+        final long beforeOutputPipe = System.currentTimeMillis();
+        pipe.put(line);
+        cumulativeOutputBlockingTime += System.currentTimeMillis() - beforeOutputPipe;
+        outputCounter++;
+    }
+
+    @Override
+    public void run() {
+        pump();
+        System.out.printf("%1$-26s | %2$10s | %3$11s | %4$9s | %5$8s | %6$8s%n", getClass().getSimpleName(), cumulativeLineReadingTime, cumulativeOutputBlockingTime, totalProcessingTime, inputCounter, outputCounter);
+    }
+}
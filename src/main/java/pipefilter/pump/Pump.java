@@ -11,20 +11,29 @@ package pipefilter.pump;
  * Pumps are active and, therefore, Runnable.
  *
  * A pump that implements this interface must have
- * EXACTLY ONE constructor that takes THREE arguments
+ * EXACTLY ONE constructor that takes TWO arguments
  * in the following order:
  *
  *   1st arg: the input (eg. filename, etc.)
  *   2nd arg: the output pipe
- *   3rd arg: a CountDownLatch to signal completion of pumping activity
  *
- * This constraint must be strictly followed because the creation of a pump
- * and its output pipe is done dynamically through the Java reflection API by
- * inferring types from the constructor arguments.
+ * This constraint must be strictly followed because the component is
+ * registered with a reference to that constructor (or created through
+ * it by a method handle) and the types of its pipes are inferred from
+ * the type arguments of the interface (see ComponentDescriptor).
+ *
+ * A pump is reused when its pipeline is reset: reset replaces the
+ * input that was given to the constructor, and the next run pumps
+ * the new input into the same output pipe.
  *
  * @param <T> the input type
  * @param <U> the output type
  */
 public interface Pump<T, U> extends Runnable {
     void pump();
+
+    /**
+     * @param input the input of the next run
+     */
+    void reset(T input);
 }
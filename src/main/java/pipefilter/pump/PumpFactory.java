@@ -1,13 +1,9 @@
 package pipefilter.pump;
 
+import pipefilter.config.ComponentDescriptor;
 import pipefilter.exception.PipeFilterException;
 import pipefilter.pipe.Pipe;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.ParameterizedType;
-import java.util.concurrent.CountDownLatch;
-
 import static pipefilter.config.Registry.registeredPumps;
 
 /**
@@ -21,49 +17,44 @@ public class PumpFactory {
      * @param name the unique identifier of the Pump implementation
      * @param input the input Pipe object
      * @param output the output Pipe object
-     * @param signal countdown latch to signal completion of pumping
      * @param <T> the input type
      * @param <U> the output type
      * @return
      */
-    public static <T, U> Pump<T, U> build(String name, T input, Pipe<U> output, CountDownLatch signal) {
-        Class<?> c = registeredPumps.get(name);
+    @SuppressWarnings("unchecked")
+    public static <T, U> Pump<T, U> build(String name, T input, Pipe<U> output) {
+        final ComponentDescriptor<Pump<?, ?>> descriptor = registeredPumps.get(name);
+        if(descriptor == null) {
+            throw new PipeFilterException("Pump not in the registry while building pump " + name);
+        }
         try {
-            @SuppressWarnings("unchecked")
-            Constructor<Pump<T, U>> constructor = (Constructor<Pump<T, U>>) c.getConstructors()[0];
-            return constructor.newInstance(input, output, signal);
-        } catch (IllegalAccessException iae) {
-            throw new PipeFilterException("Illegal access exception while building pump " + name);
-        } catch (InvocationTargetException ite) {
-            throw new PipeFilterException("ERROR while building pump - check if input file exists:  " + input);
-        } catch (InstantiationException ie) {
-            throw new PipeFilterException("Instantiation exception while building pump " + name);
-        } catch (NullPointerException npe) {
-            // Pump not registered
-            throw new PipeFilterException("NullPointerException while building pump " + name);
+            return (Pump<T, U>) descriptor.create(input, output);
+        } catch (PipeFilterException pfe) {
+            /*
+             * Not every pump reads a file: keep the reason of the failure.
+             */
+            throw new PipeFilterException("ERROR while building pump " + name + ": " + pfe.getMessage());
         }
     }
 
     /**
-     * This method infers the input type of a pump by reflection.
+     * The input type of a pump (inferred when the pump was registered).
      *
      * @param name the name of the pump in the registry
      * @return the input type of the pump
      */
     public static String getPumpInputType(String name) {
-        ParameterizedType t = (ParameterizedType) registeredPumps.get(name).getGenericInterfaces()[0];
-        return t.getActualTypeArguments()[0].getTypeName();
+        return registeredPumps.get(name).getInputType();
     }
 
     /**
-     * This method infers the output type of a pump by reflection.
+     * The output type of a pump (inferred when the pump was registered).
      *
      * @param name the name of the pump in the registry
      * @return the output type of the pump
      */
     public static String getPumpOutputType(String name) {
-        ParameterizedType t = (ParameterizedType) registeredPumps.get(name).getGenericInterfaces()[0];
-        return t.getActualTypeArguments()[1].getTypeName();
+        return registeredPumps.get(name).getOutputType();
     }
 
 }
@@ -1,14 +1,18 @@
 package pipefilter.pump;
 
 import pipefilter.exception.PipeFilterException;
+import pipefilter.filter.SwarScanner;
 import pipefilter.pipe.Pipe;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.concurrent.CountDownLatch;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 
 import static pipefilter.config.Configuration.*;
 
@@ -18,12 +22,18 @@ import static pipefilter.config.Configuration.*;
  * The Source of the text stream
  *
  * Reads a text file and streams the lines
+ *
+ * The file is read in chunks of UTF8_CHUNK_SIZE bytes. The line
+ * terminators (\n, \r\n or \r) are found 8 bytes at a time (see
+ * SwarScanner), and only the bytes of a line are decoded, straight
+ * into the String that is put on the pipe. The bytes of an incomplete
+ * last line are moved to the start of the chunk; a line that does not
+ * fit into the chunk gets a larger one.
  */
 public class TextFilePump implements Pump<String, String>, Runnable {
 
-    private final BufferedReader reader;
+    private Path file;
     private final Pipe<String> pipe;
-    private final CountDownLatch doneSignal;
 
     /**
      * Timing instrumentation code.
@@ -42,68 +52,122 @@ public class TextFilePump implements Pump<String, String>, Runnable {
     private long inputCounter;
     private long outputCounter;
 
-    public TextFilePump(String filePath, Pipe<String> pipe, CountDownLatch doneSignal) {
+    public TextFilePump(String filePath, Pipe<String> pipe) {
+        this.pipe = pipe;
+        reset(filePath);
+    }
+
+    /**
+     * Takes another file for the next run. The file is opened (and
+     * closed) by pump(), so a pump that does not run holds no file open.
+     *
+     * @param filePath the path of the file
+     */
+    @Override
+    public void reset(String filePath) {
         try {
-            this.pipe = pipe;
-            // this.reader = new BufferedReader(new FileReader(filePath), 4_194_304); // 4MB buffer
-            this.reader = Files.newBufferedReader(Paths.get(filePath));
-            this.doneSignal = doneSignal;
-        } catch (IOException ioe) {
+            this.file = Paths.get(filePath);
+        } catch (RuntimeException e) {
+            throw new PipeFilterException("I/O exception while reading file " + filePath);
+        }
+        if(!Files.isReadable(file)) {
             throw new PipeFilterException("I/O exception while reading file " + filePath);
         }
     }
 
     @Override
     public void pump() {
+        inputCounter = 0L;
+        outputCounter = 0L;
         cumulativeLineReadingTime = 0L;
         cumulativeOutputBlockingTime = 0L;
         long start = System.currentTimeMillis();
-        try (reader) {
-            long beforeReadingLine;
-            long beforeOutputPipe;
-            String line;
-            beforeReadingLine = System.currentTimeMillis();
-            while ((line = reader.readLine()) != null) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            byte[] chunk = new byte[Math.max(2, UTF8_CHUNK_SIZE)];
+            int filled = 0;
+            long beforeReadingLine = System.currentTimeMillis();
+            while(true) {
+                if(filled == chunk.length) {
+                    /*
+                     * A line longer than the chunk
+                     */
+                    chunk = Arrays.copyOf(chunk, 2 * chunk.length);
+                }
+                final int read = channel.read(ByteBuffer.wrap(chunk, filled, chunk.length - filled));
+                if(read == -1) {
+                    break;
+                }
+                filled += read;
                 cumulativeLineReadingTime += System.currentTimeMillis() - beforeReadingLine;
-                inputCounter++;
-
-                beforeOutputPipe = System.currentTimeMillis();
-                pipe.put(line);
-                cumulativeOutputBlockingTime += System.currentTimeMillis() - beforeOutputPipe;
-                outputCounter++;
+                /*
+                 * The incomplete last line starts the chunk of the next read.
+                 */
+                final int end = putLines(chunk, filled, false);
+                System.arraycopy(chunk, end, chunk, 0, filled - end);
+                filled -= end;
                 beforeReadingLine = System.currentTimeMillis();
             }
-
-            /* // parallel stream implementation appears to be slower than the above.
-            reader.lines().parallel().forEach(l -> {
+            cumulativeLineReadingTime += System.currentTimeMillis() - beforeReadingLine;
+            /*
+             * The last line may not end with a line terminator.
+             */
+            putLines(chunk, filled, true);
+        } catch (IOException ioe) {
+            ioe.printStackTrace();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        } finally {
+            /*
+             * End the stream also if reading failed half way (or the file
+             * could not be opened), or the filters downstream would wait
+             * forever. A cancelled run (interrupted) has nobody downstream.
+             */
+            if(!Thread.currentThread().isInterrupted()) {
                 try {
-                    pipe.put(l);
-                } catch (InterruptedException ignored) {
+                    final long beforeOutputPipe = System.currentTimeMillis();
+                    pipe.put(SENTINEL_VALUE);
+                    cumulativeOutputBlockingTime += System.currentTimeMillis() - beforeOutputPipe;
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
                 }
-            });*/
+            }
+        }
+        totalProcessingTime = System.currentTimeMillis() - start;
+    }
 
+    /**
+     * Decodes and puts the complete lines of the first filled bytes of the chunk.
+     *
+     * @param last true at the end of the file: the remaining bytes are a line, too
+     * @return the index of the first byte that is not part of a line put
+     */
+    private int putLines(byte[] chunk, int filled, boolean last) throws InterruptedException {
+        int lineStart = 0;
+        while(lineStart < filled) {
+            final int end = SwarScanner.indexOfLineEnd(chunk, lineStart, filled);
             /*
-             * A null line indicates the stream has ended. The
-             * filter will put the sentinel value on the pipe
-             * to notify the next component down the line that
-             * the stream has ended.
+             * No terminator yet, or a \r whose \n may come with the next read
              */
-            beforeOutputPipe = System.currentTimeMillis();
-            pipe.put(SENTINEL_VALUE);
+            if(!last && (end == filled || (chunk[end] == '\r' && end + 1 == filled))) {
+                return lineStart;
+            }
+            inputCounter++;
+            final String line = new String(chunk, lineStart, end - lineStart, StandardCharsets.UTF_8);
+            final long beforeOutputPipe = System.currentTimeMillis();
+            pipe.put(line);
             cumulativeOutputBlockingTime += System.currentTimeMillis() - beforeOutputPipe;
-        } catch (IOException | InterruptedException e) {
-            e.printStackTrace();
+            outputCounter++;
+            if(end == filled) {
+                return filled;
+            }
+            lineStart = end + (chunk[end] == '\r' && end + 1 < filled && chunk[end + 1] == '\n' ? 2 : 1);
         }
-        totalProcessingTime = System.currentTimeMillis() - start;
+        return lineStart;
     }
 
     @Override
     public void run() {
         pump();
-        /*
-         * Decrement the countdown latch when thread is done.
-         */
-        doneSignal.countDown();
         System.out.printf("%1$-26s | %2$10s | %3$11s | %4$9s | %5$8s | %6$8s%n", getClass().getSimpleName(), cumulativeLineReadingTime, cumulativeOutputBlockingTime, totalProcessingTime, inputCounter, outputCounter);
     }
 }
@@ -0,0 +1,175 @@
+package pipefilter.pump;
+
+import pipefilter.exception.PipeFilterException;
+import pipefilter.filter.SwarScanner;
+import pipefilter.filter.Utf8Batch;
+import pipefilter.pipe.Pipe;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static pipefilter.config.Configuration.UTF8_CHUNK_SIZE;
+
+/**
+ * @author Nardos Tessema
+ *
+ * The Source of the text stream
+ *
+ * Reads a UTF-8 text file in chunks of raw bytes and streams the
+ * lines as slices of the chunks (see Utf8Batch). The bytes are never
+ * decoded: the components of the byte pipeline work on them directly.
+ *
+ * A chunk ends at the last complete line it holds; the bytes of the
+ * incomplete line are moved to the start of the next chunk. A line
+ * that does not fit into a chunk gets a larger one. Lines end with
+ * \n, \r\n or \r, which are found 8 bytes at a time (see SwarScanner).
+ */
+public class Utf8FilePump implements Pump<String, Utf8Batch> {
+
+    private Path file;
+    private final Pipe<Utf8Batch> pipe;
+
+    /**
+     * Timing instrumentation instance variables
+     */
+    private long cumulativeLineReadingTime;
+    private long cumulativeOutputBlockingTime;
+    private long totalProcessingTime;
+    private long inputCounter;
+    private long outputCounter;
+
+    public Utf8FilePump(String filePath, Pipe<Utf8Batch> pipe) {
+        this.pipe = pipe;
+        reset(filePath);
+    }
+
+    /**
+     * Takes another file for the next run. The file is opened (and
+     * closed) by pump(), so a pump that does not run holds no file open.
+     *
+     * @param filePath the path of the file
+     */
+    @Override
+    public void reset(String filePath) {
+        try {
+            this.file = Paths.get(filePath);
+        } catch (RuntimeException e) {
+            throw new PipeFilterException("I/O exception while reading file " + filePath);
+        }
+        if(!Files.isReadable(file)) {
+            throw new PipeFilterException("I/O exception while reading file " + filePath);
+        }
+    }
+
+    @Override
+    public void pump() {
+        inputCounter = 0L;
+        outputCounter = 0L;
+        cumulativeLineReadingTime = 0L;
+        cumulativeOutputBlockingTime = 0L;
+        long start = System.currentTimeMillis();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            byte[] chunk = new byte[Math.max(1, UTF8_CHUNK_SIZE)];
+            int filled = 0;
+            long beforeReading = System.currentTimeMillis();
+            while(true) {
+                if(filled == chunk.length) {
+                    /*
+                     * A line longer than the chunk
+                     */
+                    chunk = Arrays.copyOf(chunk, 2 * chunk.length);
+                }
+                final int read = channel.read(ByteBuffer.wrap(chunk, filled, chunk.length - filled));
+                if(read == -1) {
+                    break;
+                }
+                filled += read;
+                final int end = endOfLastLine(chunk, filled);
+                if(end > 0) {
+                    cumulativeLineReadingTime += System.currentTimeMillis() - beforeReading;
+                    /*
+                     * The incomplete last line starts the next chunk.
+                     */
+                    final byte[] next = new byte[Math.max(UTF8_CHUNK_SIZE, filled - end + 1)];
+                    System.arraycopy(chunk, end, next, 0, filled - end);
+                    put(chunk, end);
+                    chunk = next;
+                    filled -= end;
+                    beforeReading = System.currentTimeMillis();
+                }
+            }
+            cumulativeLineReadingTime += System.currentTimeMillis() - beforeReading;
+            /*
+             * The last line may not end with a line terminator.
+             */
+            if(filled > 0) {
+                put(chunk, filled);
+            }
+        } catch (IOException ioe) {
+            ioe.printStackTrace();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        } finally {
+            /*
+             * End the stream also if reading failed half way (or the file
+             * could not be opened), or the filters downstream would wait
+             * forever. A cancelled run (interrupted) has nobody downstream.
+             */
+            if(!Thread.currentThread().isInterrupted()) {
+                try {
+                    final long beforeOutputPipe = System.currentTimeMillis();
+                    pipe.put(Utf8Batch.sentinel());
+                    cumulativeOutputBlockingTime += System.currentTimeMillis() - beforeOutputPipe;
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        totalProcessingTime = System.currentTimeMillis() - start;
+    }
+
+    /**
+     * @return the index after the last line terminator of the chunk (0 if there is none).
+     *         A \r at the very end does not count: its \n may come with the next read.
+     */
+    static int endOfLastLine(byte[] chunk, int filled) {
+        int last = SwarScanner.lastIndexOfLineEnd(chunk, 0, filled);
+        if(last == filled - 1 && chunk[last] == '\r') {
+            last = SwarScanner.lastIndexOfLineEnd(chunk, 0, last);
+        }
+        return last + 1;
+    }
+
+    /**
+     * Puts the lines of the first length bytes of the chunk as one batch.
+     */
+    private void put(byte[] chunk, int length) throws InterruptedException {
+        final Utf8Batch batch = new Utf8Batch(chunk, length, 64);
+        int lineStart = 0;
+        while(lineStart < length) {
+            final int end = SwarScanner.indexOfLineEnd(chunk, lineStart, length);
+            batch.add(lineStart, end - lineStart);
+            if(end == length) {
+                break;
+            }
+            lineStart = end + (chunk[end] == '\r' && end + 1 < length && chunk[end + 1] == '\n' ? 2 : 1);
+        }
+        inputCounter += batch.size();
+        final long beforeOutputPipe = System.currentTimeMillis();
+        pipe.put(batch);
+        cumulativeOutputBlockingTime += System.currentTimeMillis() - beforeOutputPipe;
+        outputCounter += batch.size();
+    }
+
+    @Override
+    public void run() {
+        pump();
+        System.out.printf("%1$-26s | %2$10s | %3$11s | %4$9s | %5$8s | %6$8s%n", getClass().getSimpleName(), cumulativeLineReadingTime, cumulativeOutputBlockingTime, totalProcessingTime, inputCounter, outputCounter);
+    }
+}
@@ -0,0 +1,211 @@
+package pipefilter.server;
+
+import pipefilter.exception.PipeFilterException;
+import pipefilter.pipeline.Pipeline;
+import pipefilter.pipeline.PipelineFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static pipefilter.config.Configuration.NUMBER_OF_MOST_COMMON_TERMS;
+
+/**
+ * @author Nardos Tessema
+ *
+ * A long-running pipeline server.
+ *
+ * Starting a JVM, loading the registered components, assembling
+ * a pipeline and warming up the JIT compiler costs more than
+ * processing a small file. The server pays for all of that once
+ * and then processes files (jobs) one after the other in the same
+ * process. The pipeline is assembled for the first job and reset
+ * for every job after that, so the same components, pipes and
+ * threads process all the files.
+ *
+ * The server listens on the loopback interface only. The protocol is
+ * line based (UTF-8). A client sends one request per line:
+ *
+ *   /absolute/path/to/file.txt       process the file
+ *   SHUTDOWN                         stop the server
+ *
+ * For every processed file, the server answers with the most commonly
+ * occurring terms, one frequency per line, and a terminating line:
+ *
+ *   42 term1 term2
+ *   17 term3
+ *   END
+ *
+ * If the job fails, the answer is a single line: ERROR message
+ *
+ * Jobs are processed one at a time because the pipeline configuration
+ * is global (see Configuration).
+ */
+public class PipelineServer {
+
+    public static final String END = "END";
+    public static final String ERROR = "ERROR";
+    public static final String SHUTDOWN = "SHUTDOWN";
+
+    private final ServerSocket serverSocket;
+    private final String[] assembly;
+    private final String pipelineType;
+    /**
+     * The threads that run the pipeline components (a cached thread
+     * pool). Idle threads are reused by the components of the next job.
+     */
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS, new SynchronousQueue<>());
+    private final Map<Integer, List<String>> frequencies = new TreeMap<>(Collections.reverseOrder());
+    private Pipeline pipeline;
+    private volatile boolean running = true;
+
+    /**
+     * @param port the loopback port to listen on (0: any free port)
+     * @param assembly the components of the pipeline
+     * @param pipelineType serial | parallel
+     */
+    public PipelineServer(int port, String[] assembly, String pipelineType) {
+        this.assembly = assembly;
+        this.pipelineType = pipelineType;
+        try {
+            this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        } catch (IOException ioe) {
+            throw new PipeFilterException("Cannot listen on port " + port + ": " + ioe.getMessage());
+        }
+    }
+
+    /**
+     * @return the port the server is listening on
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Accepts clients until a SHUTDOWN request arrives.
+     */
+    public void serve() {
+        System.out.printf("Pipeline server listening on %s:%d%n", serverSocket.getInetAddress().getHostAddress(), getPort());
+        while(running) {
+            try (Socket client = serverSocket.accept()) {
+                handle(client);
+            } catch (IOException ioe) {
+                if(running) {
+                    System.out.println("Connection error: " + ioe.getMessage());
+                }
+            }
+        }
+        close();
+    }
+
+    /**
+     * Stops the server and the threads of the pipeline components.
+     */
+    public void close() {
+        running = false;
+        executor.shutdown();
+        try {
+            serverSocket.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private void handle(Socket client) throws IOException {
+        final BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+        final PrintWriter out = new PrintWriter(client.getOutputStream(), true, StandardCharsets.UTF_8);
+        String request;
+        while((request = in.readLine()) != null) {
+            request = request.trim();
+            if(request.isEmpty()) {
+                continue;
+            }
+            if(request.equals(SHUTDOWN)) {
+                running = false;
+                out.println(END);
+                return;
+            }
+            try {
+                respond(out, process(request));
+            } catch (PipeFilterException pfe) {
+                out.println(ERROR + " " + pfe.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Runs the pipeline on a file.
+     *
+     * @param file the path of the input file
+     * @return the frequency-term map (in descending order of frequency),
+     *         valid until the next job
+     */
+    Map<Integer, List<String>> process(String file) {
+        if(!Files.isReadable(Paths.get(file))) {
+            throw new PipeFilterException("Cannot read input file: " + file);
+        }
+        if(pipeline == null) {
+            pipeline = PipelineFactory.build(file, frequencies, assembly, pipelineType, executor);
+        } else {
+            pipeline.reset(file);
+        }
+        try {
+            pipeline.run();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            discardPipeline();
+            throw new PipeFilterException("Interrupted while processing " + file);
+        } catch (PipeFilterException pfe) {
+            /*
+             * A failed run leaves items in the pipes of the pipeline.
+             * The next job gets a newly assembled one.
+             */
+            discardPipeline();
+            throw pfe;
+        }
+        return frequencies;
+    }
+
+    /**
+     * Drops the pipeline of a failed job. The failed run has already
+     * stopped its components and waited for them (see Pipeline), so
+     * none of them keeps a thread of the executor.
+     */
+    private void discardPipeline() {
+        pipeline.shutdown();
+        pipeline = null;
+    }
+
+    /**
+     * @return the threads that run the pipeline components
+     */
+    ThreadPoolExecutor getExecutor() {
+        return executor;
+    }
+
+    private static void respond(PrintWriter out, Map<Integer, List<String>> frequencies) {
+        frequencies.keySet()
+                .stream()
+                .filter(k -> !frequencies.get(k).isEmpty())
+                .limit(NUMBER_OF_MOST_COMMON_TERMS)
+                .forEach(k -> {
+                    final List<String> terms = frequencies.get(k);
+                    Collections.sort(terms);
+                    out.println(k + " " + String.join(" ", terms));
+                });
+        out.println(END);
+    }
+}
@@ -0,0 +1,31 @@
+package pipefilter.sink;
+
+import pipefilter.filter.TermFrequency;
+import pipefilter.pipe.Pipe;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author Nardos Tessema
+ *
+ * A FrequencyTermInverter for counters that put every term only once,
+ * with its final count (e.g. the spilling-term-frequency-counter, the
+ * approximate-term-frequency-counter, and the slice and utf8 counters).
+ *
+ * A term is only appended to the list of its frequency; there is no
+ * previous list to take it out of. Running counts (e.g. those of the
+ * term-frequency-counter) would leave a term in every list up to its
+ * count, so they need the FrequencyTermInverter.
+ *
+ * (The registry reads the input and output types of a component from the
+ * interface it implements, hence the repeated implements clause.)
+ *
+ * @see pipefilter.sink.FrequencyTermInverter
+ */
+public class FinalFrequencyTermInverter extends FrequencyTermInverter implements Sink<TermFrequency, Map<Integer, List<String>>> {
+
+    public FinalFrequencyTermInverter(Pipe<TermFrequency> input, Map<Integer, List<String>> output) {
+        super(input, output, true);
+    }
+}
@@ -8,9 +8,10 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
+import static pipefilter.config.Configuration.PRINT_SUMMARY;
+
 /**
  * @author Nardos Tessema
  *
@@ -44,12 +45,21 @@ import java.util.concurrent.TimeUnit;
  * Since the keys are needed to be sorted in descending order for this application,
  * TreeMap with a reverse order comparator is the best choice as no further sorting
  * operations are needed.
+ *
+ * Taking a term out of its previous list is a linear search of that list.
+ * Counters that put every term only once, with its final count, do not
+ * need it: the FinalFrequencyTermInverter appends their terms only.
+ *
+ * @see pipefilter.sink.FinalFrequencyTermInverter
  */
 public class FrequencyTermInverter implements Sink<TermFrequency, Map<Integer, List<String>>> {
 
     private final Pipe<TermFrequency> input;
     private final Map<Integer, List<String>> output;
-    private final CountDownLatch doneSignal;
+    /**
+     * Whether every term comes once, with its final count
+     */
+    private final boolean finalCounts;
 
     /**
      * Timing instrumentation instance variables
@@ -60,10 +70,19 @@ public class FrequencyTermInverter implements Sink<TermFrequency, Map<Integer, L
     private long inputCounter;
     private long outputCounter;
 
-    public FrequencyTermInverter(Pipe<TermFrequency> input, Map<Integer, List<String>> output, CountDownLatch doneSignal) {
+    public FrequencyTermInverter(Pipe<TermFrequency> input, Map<Integer, List<String>> output) {
+        this(input, output, false);
+    }
+
+    /**
+     * @param input the term frequencies
+     * @param output the Frequency-Term mapping
+     * @param finalCounts whether every term comes once, with its final count
+     */
+    protected FrequencyTermInverter(Pipe<TermFrequency> input, Map<Integer, List<String>> output, boolean finalCounts) {
         this.input = input;
         this.output = output;
-        this.doneSignal = doneSignal;
+        this.finalCounts = finalCounts;
     }
 
     @Override
@@ -72,6 +91,11 @@ public class FrequencyTermInverter implements Sink<TermFrequency, Map<Integer, L
         outputCounter = 0;
         cumulativeInputBlockingTime = 0;
         cumulativeOutputBlockingTime = 0;
+        /*
+         * The inversion relies on the lists of the previous frequencies,
+         * so the output of a previous run (if any) is discarded.
+         */
+        output.clear();
         long start = System.currentTimeMillis();
         while(true) {
             long beforeInputPipe;
@@ -103,11 +127,22 @@ public class FrequencyTermInverter implements Sink<TermFrequency, Map<Integer, L
                  * Get the previous list and remove term so that term lives only
                  * in its highest-frequency-so-far list.
                  */
-                if(tf.frequency > 1) {
-                    output.get(tf.frequency - 1).remove(tf.term);
+                if(!finalCounts && tf.frequency > 1) {
+                    /*
+                     * Counters that do not emit every running count (e.g. the
+                     * approximate counter) leave no previous list behind.
+                     */
+                    final List<String> previous = output.get(tf.frequency - 1);
+                    if(previous != null) {
+                        previous.remove(tf.term);
+                    }
                 }
             } catch (InterruptedException ie) {
-                ie.printStackTrace();
+                /*
+                 * The run was cancelled: it has no output.
+                 */
+                Thread.currentThread().interrupt();
+                return;
             }
         }
         totalProcessingTime = System.currentTimeMillis() - start;
@@ -118,8 +153,10 @@ public class FrequencyTermInverter implements Sink<TermFrequency, Map<Integer, L
     @Override
     public void run() {
         drain();
-        doneSignal.countDown();
         System.out.printf("%1$-26s | %2$10s | %3$11s | %4$9s | %5$8s | %6$8s%n", getClass().getSimpleName(), cumulativeInputBlockingTime, cumulativeOutputBlockingTime, totalProcessingTime, inputCounter, outputCounter);
+        if(!PRINT_SUMMARY || Thread.currentThread().isInterrupted()) {
+            return;
+        }
 
         /*
          * Some artificial delay...
@@ -128,7 +165,6 @@ public class FrequencyTermInverter implements Sink<TermFrequency, Map<Integer, L
             TimeUnit.MILLISECONDS.sleep(1000L);
         } catch (InterruptedException ignored) {
         }
-        System.out.println("---------------------------------------------------------------------------------------");
         /*
          * This is the last component in the pipeline,
          * and it is done with its draining operations.
@@ -138,18 +174,8 @@ public class FrequencyTermInverter implements Sink<TermFrequency, Map<Integer, L
          */
 
         // Show the ten most frequently occurring terms
-        final int N_MOST_COMMON = 10;
-        System.out.printf("%nThe %d most commonly occurring terms:%n%n", N_MOST_COMMON);
-        System.out.printf("%1$6s----%2$s%n", "---------", "--------");
-        System.out.printf("%1$6s    %2$s%n", "FREQUENCY", "TERMS");
-        System.out.printf("%1$6s----%2$s%n", "---------", "--------");
         // If TreeMap with reverse order comparator is used for output
-        output.keySet()
-                .stream()
-                .filter(k -> !output.get(k).isEmpty())
-                .limit(N_MOST_COMMON)
-                .forEach(k -> System.out.printf("%1$9d -> %2$s%n", k, Utilities.prettyPrint(output.get(k))));
-        System.out.printf("%1$6s----%2$s%n", "---------", "--------");
+        Utilities.printMostCommonTerms(output);
         // If HashMap is used for the output
         // Map<Integer, List<String>> mostCommon = Utilities.mostCommonTerms(output, N_MOST_COMMON);
         // System.out.println(Utilities.prettyPrintMap(mostCommon));
@@ -11,15 +11,15 @@ package pipefilter.sink;
  * Sinks are active and, therefore, Runnable.
  *
  * A sink that implements this interface must have EXACTLY ONE constructor
- * that takes THREE arguments in the following order:
+ * that takes TWO arguments in the following order:
  *
  *   1st arg: the input pipe
  *   2nd arg: the output data structure
- *   3rd arg: a CountDownLatch to signal completion of draining activity
  *
- * This constraint must be strictly followed because the creation of a sink
- * and its input pipe is done dynamically through the Java reflection API by
- * inferring types from the constructor arguments.
+ * This constraint must be strictly followed because the component is
+ * registered with a reference to that constructor (or created through
+ * it by a method handle) and the types of its pipes are inferred from
+ * the type arguments of the interface (see ComponentDescriptor).
  *
  * @param <T> the input type
  * @param <U> the output type
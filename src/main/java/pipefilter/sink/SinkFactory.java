@@ -1,13 +1,9 @@
 package pipefilter.sink;
 
+import pipefilter.config.ComponentDescriptor;
 import pipefilter.exception.PipeFilterException;
 import pipefilter.pipe.Pipe;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.ParameterizedType;
-import java.util.concurrent.CountDownLatch;
-
 import static pipefilter.config.Registry.registeredSinks;
 
 /**
@@ -21,46 +17,39 @@ public class SinkFactory {
      * @param name the unique identifier of the Sink implementation
      * @param pipe the input pipe of the sink
      * @param output the output of the sink (the data structure that holds the final results)
-     * @param signal the countdown latch to signal completion of draining.
      * @param <T> the input type
      * @param <U> the output type
      * @return a Sink object
      */
-    public static <T, U> Sink<T, U> build(String name, Pipe<T> pipe, U output, CountDownLatch signal) {
-        Class<?> c = registeredSinks.get(name);
-        try {
-            @SuppressWarnings("unchecked")
-            Constructor<Sink<T, U>> constructor = (Constructor<Sink<T, U>>) c.getConstructors()[0];
-            return constructor.newInstance(pipe, output, signal);
-        }  catch (IllegalAccessException iae) {
-            throw new PipeFilterException("Illegal access exception while building sink " + name);
-        } catch (InvocationTargetException ite) {
-            throw new PipeFilterException("Invocation target exception while building sink " + name);
-        } catch (InstantiationException ie) {
-            throw new PipeFilterException("Instantiation exception while building sink " + name);
-        } catch(NullPointerException npe) {
-            throw new PipeFilterException("Sink not found in the registry: " + name);
-        }
+    @SuppressWarnings("unchecked")
+    public static <T, U> Sink<T, U> build(String name, Pipe<T> pipe, U output) {
+        return (Sink<T, U>) descriptor(name).create(pipe, output);
     }
 
     /**
-     * This method infers the input type of a sink by reflection.
+     * The input type of a sink (inferred when the sink was registered).
      *
      * @param name the name of the sink in the registry
      * @return the input type of the sink
      */
     public static String getSinkInputType(String name) {
-        ParameterizedType t = (ParameterizedType) registeredSinks.get(name).getGenericInterfaces()[0];
-        return t.getActualTypeArguments()[0].getTypeName();
+        return descriptor(name).getInputType();
     }
     /**
-     * This method infers the output type of a sink by reflection.
+     * The output type of a sink (inferred when the sink was registered).
      *
      * @param name the name of the sink in the registry
      * @return the output type of the sink
      */
     public static String getSinkOutputType(String name) {
-        ParameterizedType t = (ParameterizedType) registeredSinks.get(name).getGenericInterfaces()[0];
-        return t.getActualTypeArguments()[1].getTypeName();
+        return descriptor(name).getOutputType();
+    }
+
+    private static ComponentDescriptor<Sink<?, ?>> descriptor(String name) {
+        final ComponentDescriptor<Sink<?, ?>> descriptor = registeredSinks.get(name);
+        if(descriptor == null) {
+            throw new PipeFilterException("Sink not found in the registry: " + name);
+        }
+        return descriptor;
     }
 }
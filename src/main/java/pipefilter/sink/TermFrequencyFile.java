@@ -0,0 +1,276 @@
+package pipefilter.sink;
+
+import pipefilter.exception.PipeFilterException;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author Nardos Tessema
+ *
+ * A compact binary file of terms and their frequencies that is
+ * memory-mapped and queried in place, without parsing.
+ *
+ * Layout (big endian):
+ *
+ *   header       | magic (int) | version (int) | number of terms (int) | block size (int) | number of blocks (int) |
+ *   frequencies  | int per term, in the order of the sorted terms |
+ *   block index  | int per block: position of the block in the term section |
+ *   terms        | the terms, sorted by their UTF-8 bytes, in blocks of (block size) terms |
+ *
+ * The terms are front coded: the first term of a block is stored whole
+ * (length, bytes); every other term is stored as the length of the
+ * prefix it shares with the previous term, the length of the rest,
+ * and the rest:
+ *
+ *   "pipe", "piper", "pipes"  ==>  [4]pipe  [4][1]r  [4][1]s
+ *
+ * A lookup binary searches the first terms of the blocks and then
+ * decodes at most one block. Lengths are variable-length ints
+ * (7 bits per byte, high bit set on all but the last byte).
+ *
+ * The reader takes the block size from the header, so files written
+ * with another BLOCK_SIZE are read correctly. A mapped file may be
+ * queried by any number of threads at the same time: the lookups only
+ * read the buffer, and every lookup decodes into an array of its own.
+ */
+public class TermFrequencyFile {
+
+    static final int MAGIC = 0x50465446;  // "PFTF"
+    static final int VERSION = 1;
+    static final int BLOCK_SIZE = 16;
+    private static final int HEADER_SIZE = 5 * Integer.BYTES;
+
+    private final MappedByteBuffer buffer;
+    private final int size;
+    private final int blockSize;
+    private final int blocks;
+    private final int frequencies;
+    private final int blockIndex;
+    private final int terms;
+
+    private TermFrequencyFile(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+        if(buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new PipeFilterException("Not a term frequency file (or an unsupported version)");
+        }
+        this.size = buffer.getInt(8);
+        this.blockSize = buffer.getInt(12);
+        this.blocks = buffer.getInt(16);
+        if(size < 0 || blockSize < 1 || blocks != (size + blockSize - 1) / blockSize) {
+            throw new PipeFilterException("Corrupt term frequency file header: " + size + " terms, blocks of " + blockSize + ", " + blocks + " blocks");
+        }
+        this.frequencies = HEADER_SIZE;
+        this.blockIndex = frequencies + size * Integer.BYTES;
+        this.terms = blockIndex + blocks * Integer.BYTES;
+    }
+
+    /**
+     * Writes the terms and their frequencies to a file.
+     *
+     * @param file the path of the file
+     * @param termFrequencies the frequency of each term
+     */
+    public static void write(Path file, Map<String, Integer> termFrequencies) {
+        write(file, termFrequencies, BLOCK_SIZE);
+    }
+
+    /**
+     * @param blockSize the number of terms per block
+     */
+    static void write(Path file, Map<String, Integer> termFrequencies, int blockSize) {
+        final List<Map.Entry<byte[], Integer>> sorted = new ArrayList<>(termFrequencies.size());
+        termFrequencies.forEach((term, frequency) -> sorted.add(Map.entry(term.getBytes(StandardCharsets.UTF_8), frequency)));
+        sorted.sort((a, b) -> Arrays.compareUnsigned(a.getKey(), b.getKey()));
+        final int blocks = (sorted.size() + blockSize - 1) / blockSize;
+        /*
+         * (1) front code the terms and note where each block starts
+         */
+        final ByteArrayOutputStream termSection = new ByteArrayOutputStream();
+        final int[] blockPositions = new int[blocks];
+        byte[] previous = null;
+        for(int i = 0; i < sorted.size(); i++) {
+            final byte[] term = sorted.get(i).getKey();
+            if(i % blockSize == 0) {
+                blockPositions[i / blockSize] = termSection.size();
+                writeVarInt(termSection, term.length);
+                termSection.write(term, 0, term.length);
+            } else {
+                final int shared = sharedPrefix(previous, term);
+                writeVarInt(termSection, shared);
+                writeVarInt(termSection, term.length - shared);
+                termSection.write(term, shared, term.length - shared);
+            }
+            previous = term;
+        }
+        /*
+         * (2) write the header, the frequencies, the block index and the terms
+         */
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(sorted.size());
+            out.writeInt(blockSize);
+            out.writeInt(blocks);
+            for(Map.Entry<byte[], Integer> entry : sorted) {
+                out.writeInt(entry.getValue());
+            }
+            for(int position : blockPositions) {
+                out.writeInt(position);
+            }
+            termSection.writeTo(out);
+        } catch (IOException ioe) {
+            throw new PipeFilterException("I/O exception while writing term frequency file " + file + ": " + ioe.getMessage());
+        }
+    }
+
+    /**
+     * Maps a term frequency file into memory.
+     *
+     * @param file the path of the file
+     * @return the mapped file
+     */
+    public static TermFrequencyFile open(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new TermFrequencyFile(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException ioe) {
+            throw new PipeFilterException("I/O exception while opening term frequency file " + file + ": " + ioe.getMessage());
+        }
+    }
+
+    /**
+     * @return the number of terms in the file
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param term a term
+     * @return the frequency of the term (0 if it is not in the file)
+     */
+    public int frequency(String term) {
+        final byte[] key = term.getBytes(StandardCharsets.UTF_8);
+        /*
+         * (1) the last block whose first term is not greater than the key
+         */
+        int low = 0;
+        int high = blocks - 1;
+        int block = -1;
+        while(low <= high) {
+            final int middle = (low + high) >>> 1;
+            final int position = terms + buffer.getInt(blockIndex + middle * Integer.BYTES);
+            final int length = readVarInt(position);
+            final int comparison = compare(position + varIntSize(length), length, key);
+            if(comparison == 0) {
+                return buffer.getInt(frequencies + middle * blockSize * Integer.BYTES);
+            }
+            if(comparison < 0) {
+                block = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        if(block < 0) {
+            return 0;
+        }
+        /*
+         * (2) decode the block (into an array of this lookup)
+         */
+        final int first = block * blockSize;
+        final int last = Math.min(size, first + blockSize);
+        byte[] scratch = new byte[Math.max(64, key.length)];
+        int position = terms + buffer.getInt(blockIndex + block * Integer.BYTES);
+        int length = 0;
+        for(int i = first; i < last; i++) {
+            final int shared;
+            final int suffix;
+            if(i == first) {
+                shared = 0;
+                suffix = readVarInt(position);
+                position += varIntSize(suffix);
+            } else {
+                shared = readVarInt(position);
+                position += varIntSize(shared);
+                suffix = readVarInt(position);
+                position += varIntSize(suffix);
+            }
+            length = shared + suffix;
+            if(scratch.length < length) {
+                scratch = Arrays.copyOf(scratch, Math.max(length, scratch.length * 2));
+            }
+            for(int j = 0; j < suffix; j++) {
+                scratch[shared + j] = buffer.get(position + j);
+            }
+            position += suffix;
+            final int comparison = Arrays.compareUnsigned(scratch, 0, length, key, 0, key.length);
+            if(comparison == 0) {
+                return buffer.getInt(frequencies + i * Integer.BYTES);
+            }
+            if(comparison > 0) {
+                return 0;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Compares the term stored at a position of the buffer with a key.
+     */
+    private int compare(int position, int length, byte[] key) {
+        final int n = Math.min(length, key.length);
+        for(int i = 0; i < n; i++) {
+            final int comparison = Byte.toUnsignedInt(buffer.get(position + i)) - Byte.toUnsignedInt(key[i]);
+            if(comparison != 0) {
+                return comparison;
+            }
+        }
+        return length - key.length;
+    }
+
+    private int readVarInt(int position) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get(position++);
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while((b & 0x80) != 0);
+        return value;
+    }
+
+    private static int varIntSize(int value) {
+        int n = 1;
+        while((value >>>= 7) != 0) {
+            n++;
+        }
+        return n;
+    }
+
+    private static void writeVarInt(ByteArrayOutputStream out, int value) {
+        while((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int sharedPrefix(byte[] a, byte[] b) {
+        final int mismatch = Arrays.mismatch(a, b);
+        return mismatch < 0 ? a.length : mismatch;
+    }
+}
@@ -0,0 +1,111 @@
+package pipefilter.sink;
+
+import pipefilter.Utilities;
+import pipefilter.filter.TermFrequency;
+import pipefilter.pipe.Pipe;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static pipefilter.config.Configuration.PRINT_SUMMARY;
+import static pipefilter.config.Configuration.TERM_FREQUENCY_FILE;
+
+/**
+ * @author Nardos Tessema
+ *
+ * A Sink that writes the final frequency of every term to a
+ * TermFrequencyFile (TERM_FREQUENCY_FILE), which downstream systems
+ * memory-map and query without re-running the pipeline.
+ *
+ * Like FrequencyTermInverter, the sink also fills the Frequency-Term
+ * mapping of the run (the output).
+ *
+ * Input: a stream of TermFrequency objects
+ * Output: a map that maps frequencies to a list of terms
+ *
+ * @see pipefilter.sink.TermFrequencyFile
+ */
+public class TermFrequencyFileWriter implements Sink<TermFrequency, Map<Integer, List<String>>> {
+
+    private final Pipe<TermFrequency> input;
+    private final Map<Integer, List<String>> output;
+
+    /**
+     * The latest (highest) frequency of each term
+     */
+    private final Map<String, Integer> termFrequencies = new HashMap<>();
+
+    /**
+     * Timing instrumentation instance variables
+     */
+    private long cumulativeInputBlockingTime;
+    private long cumulativeOutputBlockingTime;
+    private long totalProcessingTime;
+    private long inputCounter;
+    private long outputCounter;
+
+    public TermFrequencyFileWriter(Pipe<TermFrequency> input, Map<Integer, List<String>> output) {
+        this.input = input;
+        this.output = output;
+    }
+
+    @Override
+    public void drain() {
+        inputCounter = 0;
+        outputCounter = 0;
+        cumulativeInputBlockingTime = 0;
+        cumulativeOutputBlockingTime = 0;
+        termFrequencies.clear();
+        output.clear();
+        long start = System.currentTimeMillis();
+        while(true) {
+            long beforeInputPipe;
+            try {
+                beforeInputPipe = System.currentTimeMillis();
+                final TermFrequency tf = input.take();
+                cumulativeInputBlockingTime += System.currentTimeMillis() - beforeInputPipe;
+                inputCounter++;
+                /*
+                 * If input is sentinel value, be done.
+                 */
+                if(tf.isSentinelValue()) {
+                    break;
+                }
+                termFrequencies.merge(tf.term, tf.frequency, Math::max);
+            } catch (InterruptedException ie) {
+                /*
+                 * The run was cancelled: it has no output.
+                 */
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        final long beforeOutput = System.currentTimeMillis();
+        TermFrequencyFile.write(Paths.get(TERM_FREQUENCY_FILE), termFrequencies);
+        cumulativeOutputBlockingTime = System.currentTimeMillis() - beforeOutput;
+        termFrequencies.forEach((term, frequency) -> output.computeIfAbsent(frequency, f -> new ArrayList<>()).add(term));
+        totalProcessingTime = System.currentTimeMillis() - start;
+        outputCounter = termFrequencies.size();
+    }
+
+    @Override
+    public void run() {
+        drain();
+        System.out.printf("%1$-26s | %2$10s | %3$11s | %4$9s | %5$8s | %6$8s%n", getClass().getSimpleName(), cumulativeInputBlockingTime, cumulativeOutputBlockingTime, totalProcessingTime, inputCounter, outputCounter);
+        if(!PRINT_SUMMARY || Thread.currentThread().isInterrupted()) {
+            return;
+        }
+        /*
+         * Some artificial delay...
+         */
+        try {
+            TimeUnit.MILLISECONDS.sleep(1000L);
+        } catch (InterruptedException ignored) {
+        }
+        Utilities.printMostCommonTerms(output);
+    }
+}
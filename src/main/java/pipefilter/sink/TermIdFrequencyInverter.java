@@ -0,0 +1,107 @@
+package pipefilter.sink;
+
+import pipefilter.Utilities;
+import pipefilter.filter.TermDictionary;
+import pipefilter.pipe.IntPipe;
+import pipefilter.pipe.Pipe;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static pipefilter.config.Configuration.PRINT_SUMMARY;
+import static pipefilter.config.Configuration.SENTINEL_ID;
+
+/**
+ * @author Nardos Tessema
+ *
+ * A Sink that inverts (id, frequency) pairs into a Frequency-Term
+ * mapping of terms & their frequencies (like FrequencyTermInverter).
+ *
+ * The pairs carry the final frequency of every term (see
+ * TermIdFrequencyCounter), so each term is put in exactly one list
+ * and never has to be removed from the list of a lower frequency.
+ * The ids are decoded into terms here, at the very end of the pipeline.
+ *
+ * Input: (id, frequency) pairs followed by the sentinel id
+ * Output: a map that maps frequencies to a list of terms
+ */
+public class TermIdFrequencyInverter implements Sink<Integer, Map<Integer, List<String>>>, TermDictionary.User {
+
+    private final IntPipe input;
+    private final Map<Integer, List<String>> output;
+    private TermDictionary dictionary = new TermDictionary();
+
+    /**
+     * Timing instrumentation instance variables
+     */
+    private long cumulativeInputBlockingTime;
+    private long cumulativeOutputBlockingTime;
+    private long totalProcessingTime;
+    private long inputCounter;
+    private long outputCounter;
+
+    /**
+     * @param input an int pipe (PipeFactory builds an IntPipe for java.lang.Integer)
+     */
+    public TermIdFrequencyInverter(Pipe<Integer> input, Map<Integer, List<String>> output) {
+        this.input = (IntPipe) input;
+        this.output = output;
+    }
+
+    @Override
+    public void drain() {
+        inputCounter = 0;
+        outputCounter = 0;
+        cumulativeInputBlockingTime = 0;
+        cumulativeOutputBlockingTime = 0;
+        output.clear();
+        long start = System.currentTimeMillis();
+        try {
+            long beforeInputPipe;
+            while(true) {
+                beforeInputPipe = System.currentTimeMillis();
+                final int id = input.takeInt();
+                if(id == SENTINEL_ID) {
+                    cumulativeInputBlockingTime += System.currentTimeMillis() - beforeInputPipe;
+                    break;
+                }
+                final int frequency = input.takeInt();
+                cumulativeInputBlockingTime += System.currentTimeMillis() - beforeInputPipe;
+                inputCounter++;
+
+                output.computeIfAbsent(frequency, f -> new ArrayList<>()).add(dictionary.decode(id));
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+        totalProcessingTime = System.currentTimeMillis() - start;
+        outputCounter = output.size();
+    }
+
+    /**
+     * @param dictionary the dictionary of the pipeline
+     */
+    @Override
+    public void useDictionary(TermDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    @Override
+    public void run() {
+        drain();
+        System.out.printf("%1$-26s | %2$10s | %3$11s | %4$9s | %5$8s | %6$8s%n", getClass().getSimpleName(), cumulativeInputBlockingTime, cumulativeOutputBlockingTime, totalProcessingTime, inputCounter, outputCounter);
+        if(!PRINT_SUMMARY || Thread.currentThread().isInterrupted()) {
+            return;
+        }
+        /*
+         * Some artificial delay...
+         */
+        try {
+            TimeUnit.MILLISECONDS.sleep(1000L);
+        } catch (InterruptedException ignored) {
+        }
+        Utilities.printMostCommonTerms(output);
+    }
+}
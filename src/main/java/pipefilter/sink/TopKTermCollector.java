@@ -0,0 +1,102 @@
+package pipefilter.sink;
+
+import pipefilter.Utilities;
+import pipefilter.filter.TermFrequency;
+import pipefilter.filter.TopKTerms;
+import pipefilter.pipe.Pipe;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static pipefilter.config.Configuration.PRINT_SUMMARY;
+import static pipefilter.config.Configuration.TOP_K;
+
+/**
+ * @author Nardos Tessema
+ *
+ * A Sink that keeps only the TOP_K most commonly occurring terms.
+ *
+ * FrequencyTermInverter builds the Frequency-Term mapping of the
+ * whole vocabulary, of which only the top few entries are used.
+ * This sink maintains the top K terms as the running counts arrive
+ * (see TopKTerms) and holds no more than K terms at any time.
+ *
+ * Input: a stream of TermFrequency objects
+ * Output: a map that maps frequencies to a list of terms (the top K terms only)
+ *
+ * @see pipefilter.filter.TopKTerms
+ */
+public class TopKTermCollector implements Sink<TermFrequency, Map<Integer, List<String>>> {
+
+    private final Pipe<TermFrequency> input;
+    private final Map<Integer, List<String>> output;
+    private final TopKTerms topTerms = new TopKTerms(TOP_K);
+
+    /**
+     * Timing instrumentation instance variables
+     */
+    private long cumulativeInputBlockingTime;
+    private long cumulativeOutputBlockingTime;
+    private long totalProcessingTime;
+    private long inputCounter;
+    private long outputCounter;
+
+    public TopKTermCollector(Pipe<TermFrequency> input, Map<Integer, List<String>> output) {
+        this.input = input;
+        this.output = output;
+    }
+
+    @Override
+    public void drain() {
+        inputCounter = 0;
+        outputCounter = 0;
+        cumulativeInputBlockingTime = 0;
+        cumulativeOutputBlockingTime = 0;
+        topTerms.clear();
+        output.clear();
+        long start = System.currentTimeMillis();
+        while(true) {
+            long beforeInputPipe;
+            try {
+                beforeInputPipe = System.currentTimeMillis();
+                final TermFrequency tf = input.take();
+                cumulativeInputBlockingTime += System.currentTimeMillis() - beforeInputPipe;
+                inputCounter++;
+                /*
+                 * If input is sentinel value, be done.
+                 */
+                if(tf.isSentinelValue()) {
+                    break;
+                }
+                topTerms.offer(tf.term, tf.frequency);
+            } catch (InterruptedException ie) {
+                /*
+                 * The run was cancelled: it has no output.
+                 */
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        topTerms.collectInto(output);
+        totalProcessingTime = System.currentTimeMillis() - start;
+        outputCounter = output.size();
+    }
+
+    @Override
+    public void run() {
+        drain();
+        System.out.printf("%1$-26s | %2$10s | %3$11s | %4$9s | %5$8s | %6$8s%n", getClass().getSimpleName(), cumulativeInputBlockingTime, cumulativeOutputBlockingTime, totalProcessingTime, inputCounter, outputCounter);
+        if(!PRINT_SUMMARY || Thread.currentThread().isInterrupted()) {
+            return;
+        }
+        /*
+         * Some artificial delay...
+         */
+        try {
+            TimeUnit.MILLISECONDS.sleep(1000L);
+        } catch (InterruptedException ignored) {
+        }
+        Utilities.printMostCommonTerms(output);
+    }
+}
@@ -0,0 +1,230 @@
+package pipefilter.sink;
+
+import pipefilter.exception.PipeFilterException;
+import pipefilter.filter.TopKTerms;
+import pipefilter.pipe.Pipe;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+
+import static pipefilter.config.Configuration.PRINT_SUMMARY;
+import static pipefilter.config.Configuration.SENTINEL_VALUE;
+import static pipefilter.config.Configuration.WINDOW_PANE_CAPACITY;
+import static pipefilter.config.Configuration.WINDOW_SIZE;
+import static pipefilter.config.Configuration.WINDOW_SLIDE;
+import static pipefilter.config.Configuration.WINDOW_TOP_K;
+
+/**
+ * @author Nardos Tessema
+ *
+ * A Sink that counts terms in time windows and reports the most
+ * commonly occurring terms of every window as soon as it closes,
+ * for pipelines that never end (e.g. fed by the log-tailer).
+ *
+ * Windows are WINDOW_SIZE ms long and start every WINDOW_SLIDE ms:
+ *
+ *   WINDOW_SLIDE == WINDOW_SIZE : tumbling windows (one after the other)
+ *   WINDOW_SLIDE <  WINDOW_SIZE : sliding windows (overlapping)
+ *
+ * Terms are counted in panes of WINDOW_SLIDE ms (by arrival time), and
+ * a window is the sum of the WINDOW_SIZE / WINDOW_SLIDE panes it covers.
+ * Each pane counts at most WINDOW_PANE_CAPACITY distinct terms with the
+ * Space-Saving algorithm: when the pane is full, a new term takes the
+ * place of the term with the lowest count (and inherits that count).
+ * The counts of frequent terms stay accurate and the memory of the sink
+ * is bounded no matter how long it runs or how large the vocabulary is.
+ *
+ * The sink takes terms (one item per occurrence), not running counts:
+ * a term frequency counter would hold the whole vocabulary forever.
+ *
+ * Input: a stream of terms
+ * Output: the Frequency-Term mapping of the top WINDOW_TOP_K terms
+ *         of the last closed window
+ */
+public class WindowedTermCounter implements Sink<String, Map<Integer, List<String>>> {
+
+    private final Pipe<String> input;
+    private final Map<Integer, List<String>> output;
+
+    private final long slide = Math.max(1L, WINDOW_SLIDE);
+    private final int panesPerWindow = (int) Math.max(1L, (WINDOW_SIZE + slide - 1) / slide);
+    /**
+     * The panes of the windows that have not closed yet (oldest first)
+     */
+    private final ArrayDeque<Pane> panes = new ArrayDeque<>();
+    /**
+     * The last pane of the last window that has been reported
+     */
+    private long lastReported;
+
+    /**
+     * The time source (replaced in tests)
+     */
+    LongSupplier clock = System::currentTimeMillis;
+    /**
+     * Receives the start time and the top terms of every closed window
+     */
+    BiConsumer<Long, Map<Integer, List<String>>> windowListener = WindowedTermCounter::print;
+
+    /**
+     * Timing instrumentation instance variables
+     */
+    private long cumulativeInputBlockingTime;
+    private long cumulativeOutputBlockingTime;
+    private long totalProcessingTime;
+    private long inputCounter;
+    private long outputCounter;
+
+    public WindowedTermCounter(Pipe<String> input, Map<Integer, List<String>> output) {
+        if(WINDOW_SLIDE > WINDOW_SIZE) {
+            /*
+             * The windows would leave gaps between them.
+             */
+            throw new PipeFilterException("A window of " + WINDOW_SIZE + " ms cannot slide by " + WINDOW_SLIDE + " ms");
+        }
+        this.input = input;
+        this.output = output;
+    }
+
+    @Override
+    public void drain() {
+        inputCounter = 0;
+        outputCounter = 0;
+        cumulativeInputBlockingTime = 0;
+        cumulativeOutputBlockingTime = 0;
+        panes.clear();
+        lastReported = Long.MIN_VALUE / 2;
+        long start = System.currentTimeMillis();
+        while(true) {
+            long beforeInputPipe;
+            try {
+                beforeInputPipe = System.currentTimeMillis();
+                /*
+                 * Windows close on time, not only when a term arrives.
+                 */
+                final String term = input.poll(slide, TimeUnit.MILLISECONDS);
+                cumulativeInputBlockingTime += System.currentTimeMillis() - beforeInputPipe;
+                final long paneIndex = clock.getAsLong() / slide;
+                closeWindowsBefore(paneIndex);
+                if(term == null) {
+                    continue;
+                }
+                inputCounter++;
+                if(term.equals(SENTINEL_VALUE)) {
+                    /*
+                     * The last window is reported as it is.
+                     */
+                    closeWindowsBefore(paneIndex + 1);
+                    break;
+                }
+                pane(paneIndex).add(term);
+            } catch (InterruptedException ie) {
+                /*
+                 * The run was cancelled: it has no output.
+                 */
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        totalProcessingTime = System.currentTimeMillis() - start;
+    }
+
+    /**
+     * Reports the windows that end before a pane and drops the panes
+     * that no open window covers.
+     */
+    private void closeWindowsBefore(long paneIndex) {
+        if(panes.isEmpty()) {
+            return;
+        }
+        /*
+         * Only the windows that cover at least one pane can have terms.
+         */
+        final long from = Math.max(lastReported + 1, panes.getFirst().index);
+        final long to = Math.min(paneIndex - 1, panes.getLast().index + panesPerWindow - 1);
+        for(long last = from; last <= to; last++) {
+            report(last);
+        }
+        lastReported = Math.max(lastReported, paneIndex - 1);
+        while(!panes.isEmpty() && panes.getFirst().index <= paneIndex - panesPerWindow) {
+            panes.removeFirst();
+        }
+    }
+
+    /**
+     * Reports the window that ends with a pane.
+     */
+    private void report(long lastPane) {
+        final Map<String, Integer> counts = new HashMap<>();
+        for(Pane pane : panes) {
+            if(pane.index > lastPane - panesPerWindow && pane.index <= lastPane) {
+                pane.counts.forEach((term, count) -> counts.merge(term, count, Integer::sum));
+            }
+        }
+        if(counts.isEmpty()) {
+            return;
+        }
+        final TopKTerms top = new TopKTerms(WINDOW_TOP_K);
+        counts.forEach(top::offer);
+        final Map<Integer, List<String>> window = new TreeMap<>(Collections.reverseOrder());
+        top.collectInto(window);
+        synchronized(output) {
+            output.clear();
+            output.putAll(window);
+        }
+        outputCounter++;
+        windowListener.accept((lastPane - panesPerWindow + 1) * slide, window);
+    }
+
+    private Pane pane(long index) {
+        if(panes.isEmpty() || panes.getLast().index != index) {
+            panes.addLast(new Pane(index));
+        }
+        return panes.getLast();
+    }
+
+    private static void print(long windowStart, Map<Integer, List<String>> window) {
+        if(!PRINT_SUMMARY || Thread.currentThread().isInterrupted()) {
+            return;
+        }
+        final StringBuilder sb = new StringBuilder();
+        window.forEach((frequency, terms) -> {
+            Collections.sort(terms);
+            sb.append(" | ").append(frequency).append(' ').append(String.join(" ", terms));
+        });
+        System.out.printf("[%s]%s%n", Instant.ofEpochMilli(windowStart), sb);
+    }
+
+    /**
+     * The counts of the terms that arrived in a WINDOW_SLIDE ms interval.
+     */
+    private static class Pane {
+        private final long index;
+        private final TopKTerms counts = new TopKTerms(WINDOW_PANE_CAPACITY);
+
+        private Pane(long index) {
+            this.index = index;
+        }
+
+        /**
+         * Space-Saving update
+         */
+        private void add(String term) {
+            counts.offer(term, (counts.contains(term) ? counts.count(term) : counts.threshold()) + 1);
+        }
+    }
+
+    @Override
+    public void run() {
+        drain();
+        System.out.printf("%1$-26s | %2$10s | %3$11s | %4$9s | %5$8s | %6$8s%n", getClass().getSimpleName(), cumulativeInputBlockingTime, cumulativeOutputBlockingTime, totalProcessingTime, inputCounter, outputCounter);
+    }
+}
@@ -0,0 +1,116 @@
+package pipefilter.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pipefilter.sink.TermFrequencyFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static pipefilter.config.Configuration.PRINT_SUMMARY;
+import static pipefilter.config.Configuration.STOP_WORDS_FILE;
+import static pipefilter.config.Configuration.TERM_FREQUENCY_FILE;
+import static pipefilter.config.Configuration.TOP_K;
+
+public class CachedCorpusProcessorTest {
+
+    private static final String[] ASSEMBLY = new String[] {
+            "text-streamer",
+            "tokenizer",
+            "text-preprocessor",
+            "stop-word-remover",
+            "en-porter-stemmer",
+            "term-frequency-counter",
+            "frequency-term-inverter"
+    };
+
+    @TempDir
+    Path path;
+
+    @BeforeEach
+    public void init() {
+        PRINT_SUMMARY = false;
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        PRINT_SUMMARY = true;
+        STOP_WORDS_FILE = null;
+        TOP_K = 500;
+        TERM_FREQUENCY_FILE = "term-frequencies.bin";
+    }
+
+    @Test
+    public void rerunOnlyProcessesChangedFiles() throws IOException, InterruptedException {
+        final Path corpus = Files.createDirectory(path.resolve("corpus"));
+        Files.write(corpus.resolve("first.txt"), Arrays.asList("Cats chase mice.", "Mice fear cats."));
+        Files.write(corpus.resolve("second.txt"), Arrays.asList("Dogs chase cats."));
+        final CachedCorpusProcessor processor = new CachedCorpusProcessor(new TermCountCache(path.resolve("cache")), ASSEMBLY, "serial");
+        final Map<Integer, List<String>> output = new TreeMap<>(Collections.reverseOrder());
+
+        processor.process(corpus, output);
+        assertThat(processor.misses()).isEqualTo(2);
+        assertThat(processor.hits()).isEqualTo(0);
+        assertThat(termCountsOf(output)).containsOnly(
+                Map.entry("cat", 3), Map.entry("chase", 2), Map.entry("mice", 2), Map.entry("fear", 1), Map.entry("dog", 1));
+
+        Files.write(corpus.resolve("second.txt"), Arrays.asList("Dogs chase dogs."));
+        processor.process(corpus, output);
+        assertThat(processor.misses()).isEqualTo(1);
+        assertThat(processor.hits()).isEqualTo(1);
+        assertThat(termCountsOf(output)).containsOnly(
+                Map.entry("cat", 2), Map.entry("chase", 2), Map.entry("mice", 2), Map.entry("fear", 1), Map.entry("dog", 2));
+    }
+
+    @Test
+    public void theCountsOfTheCorpusAreWrittenToTheTermFrequencyFileOnce() throws IOException, InterruptedException {
+        final Path corpus = Files.createDirectory(path.resolve("corpus"));
+        Files.write(corpus.resolve("first.txt"), Arrays.asList("Cats chase mice."));
+        Files.write(corpus.resolve("second.txt"), Arrays.asList("Dogs chase cats."));
+        final String[] assembly = ASSEMBLY.clone();
+        assembly[assembly.length - 1] = "term-frequency-file-writer";
+        TERM_FREQUENCY_FILE = path.resolve("term-frequencies.bin").toString();
+        final CachedCorpusProcessor processor = new CachedCorpusProcessor(new TermCountCache(path.resolve("cache")), assembly, "serial");
+        final Map<Integer, List<String>> output = new TreeMap<>(Collections.reverseOrder());
+
+        processor.process(corpus, output);
+        final TermFrequencyFile file = TermFrequencyFile.open(Paths.get(TERM_FREQUENCY_FILE));
+        assertThat(file.size()).isEqualTo(4);
+        assertThat(file.frequency("cat")).isEqualTo(2);
+        assertThat(file.frequency("chase")).isEqualTo(2);
+        assertThat(file.frequency("mice")).isEqualTo(1);
+        assertThat(file.frequency("dog")).isEqualTo(1);
+    }
+
+    @Test
+    public void theKeyChangesWithTheConfigurationOfTheCounts() throws IOException {
+        final Path file = Files.write(path.resolve("first.txt"), Arrays.asList("Cats chase mice."));
+        final String key = TermCountCache.key(file, ASSEMBLY);
+        assertThat(TermCountCache.key(file, ASSEMBLY)).isEqualTo(key);
+
+        final Path stopWords = Files.write(path.resolve("stop-words.txt"), Arrays.asList("cats"));
+        STOP_WORDS_FILE = stopWords.toString();
+        final String withStopWords = TermCountCache.key(file, ASSEMBLY);
+        assertThat(withStopWords).isNotEqualTo(key);
+        Files.write(stopWords, Arrays.asList("mice"));
+        assertThat(TermCountCache.key(file, ASSEMBLY)).isNotEqualTo(withStopWords);
+        STOP_WORDS_FILE = null;
+
+        TOP_K = TOP_K + 1;
+        assertThat(TermCountCache.key(file, ASSEMBLY)).isNotEqualTo(key);
+    }
+
+    private static Map<String, Integer> termCountsOf(Map<Integer, List<String>> output) {
+        return CachedCorpusProcessor.termCounts(output);
+    }
+}
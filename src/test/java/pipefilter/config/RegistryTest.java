@@ -0,0 +1,38 @@
+package pipefilter.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import pipefilter.filter.Filter;
+import pipefilter.filter.FilterFactory;
+import pipefilter.filter.ToLowerCaseTransformer;
+import pipefilter.pipe.Pipe;
+import pipefilter.pipe.PipeFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static pipefilter.config.Registry.registeredFilters;
+
+public class RegistryTest {
+
+    @AfterEach
+    public void cleanUp() {
+        registeredFilters.remove("reflective-lower-case-transformer");
+    }
+
+    @Test
+    public void descriptorsResolveThePipeTypesAtRegistration() {
+        final ComponentDescriptor<Filter<?, ?>> descriptor = registeredFilters.get("term-frequency-counter");
+        assertThat(descriptor.getInputType()).isEqualTo("java.lang.String");
+        assertThat(descriptor.getOutputType()).isEqualTo("pipefilter.filter.TermFrequency");
+        assertThat(FilterFactory.getFilterOutputType("term-frequency-counter")).isEqualTo("pipefilter.filter.TermFrequency");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void componentRegisteredWithItsClassOnlyIsBuiltThroughItsConstructor() {
+        Registry.registerFilter("reflective-lower-case-transformer", ToLowerCaseTransformer.class);
+        final Pipe<String> pipe = (Pipe<String>) PipeFactory.build("java.lang.String", 1);
+        final Filter<String, String> filter = FilterFactory.build("reflective-lower-case-transformer", pipe, pipe);
+        assertThat(filter).isInstanceOf(ToLowerCaseTransformer.class);
+        assertThat(FilterFactory.getFilterInputType("reflective-lower-case-transformer")).isEqualTo("java.lang.String");
+    }
+}
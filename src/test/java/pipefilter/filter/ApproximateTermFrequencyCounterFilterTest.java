@@ -0,0 +1,55 @@
+package pipefilter.filter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pipefilter.TestUtilities;
+import pipefilter.pipe.Pipe;
+import pipefilter.pipe.PipeFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static pipefilter.config.Configuration.*;
+
+public class ApproximateTermFrequencyCounterFilterTest {
+    private Pipe<String> input;
+    private Pipe<TermFrequency> output;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void init() {
+
+        /*
+         * mock configuration values
+         */
+        SENTINEL_VALUE = "$$$";
+        SKETCH_EPSILON = 0.01;
+        SKETCH_DELTA = 0.01;
+        HEAVY_HITTERS = 2;
+
+        input = (Pipe<String>) PipeFactory.build("java.lang.String", 100);
+        output = (Pipe<TermFrequency>) PipeFactory.build("pipefilter.filter.TermFrequency", 100);
+    }
+
+    @Test
+    public void filterEmitsTheHeavyHittersAtTheEndOfTheStream() throws InterruptedException {
+        final String[] words = new String[] {
+                "I", "felt", "happy", "because", "I", "saw",
+                "the", "others", "were", "happy", "and", "because",
+                "I", "knew", "I", "should", "feel", "happy", "but",
+                "I", "was", "not", "really", "happy",
+                SENTINEL_VALUE
+        };
+        TestUtilities.loadArrayIntoPipe(input, words);
+        new ApproximateTermFrequencyCounter(input, output).filter();
+        final Map<String, Integer> actual = new HashMap<>();
+        TermFrequency tf;
+        while(!(tf = output.take()).isSentinelValue()) {
+            actual.put(tf.term, tf.frequency);
+        }
+        assertThat(actual).containsOnlyKeys("I", "happy");
+        assertThat(actual.get("I")).isGreaterThanOrEqualTo(5);
+        assertThat(actual.get("happy")).isGreaterThanOrEqualTo(4);
+    }
+}
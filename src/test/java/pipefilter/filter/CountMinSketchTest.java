@@ -0,0 +1,56 @@
+package pipefilter.filter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CountMinSketchTest {
+
+    @Test
+    public void dimensionsFollowFromTheErrorBounds() {
+        final CountMinSketch sketch = CountMinSketch.withErrorBounds(0.01, 0.01);
+        assertThat(sketch.width()).isEqualTo(272);
+        assertThat(sketch.depth()).isEqualTo(5);
+    }
+
+    @Test
+    public void estimatesAreNeverLowerThanTheTrueCountsAndTheHeavyHittersAreWithinTheErrorBound() {
+        final CountMinSketch sketch = CountMinSketch.withErrorBounds(0.001, 0.001);
+        final Map<String, Integer> counts = new HashMap<>();
+        final Random random = new Random(42);
+        for(int i = 0; i < 100_000; i++) {
+            /*
+             * a skewed stream: a few frequent terms and a long tail
+             */
+            final String term = "t" + (random.nextBoolean() ? random.nextInt(10) : random.nextInt(50_000));
+            counts.merge(term, 1, Integer::sum);
+            sketch.add(term);
+        }
+        counts.forEach((term, count) -> assertThat(sketch.estimate(term)).isGreaterThanOrEqualTo(count));
+        /*
+         * The bound holds with probability 1 - delta per term (the stream is seeded).
+         */
+        final int bound = (int) (0.001 * sketch.total());
+        for(int i = 0; i < 10; i++) {
+            assertThat(sketch.estimate("t" + i) - counts.get("t" + i)).isLessThanOrEqualTo(bound);
+        }
+    }
+
+    @Test
+    public void termsWithTheSameHashCodeDoNotShareTheirCounters() {
+        assertThat("Aa".hashCode()).isEqualTo("BB".hashCode());
+        final CountMinSketch sketch = CountMinSketch.withErrorBounds(0.001, 0.001);
+        for(int i = 0; i < 100; i++) {
+            sketch.add("Aa");
+        }
+        sketch.add("BB");
+        assertThat(sketch.estimate("Aa")).isEqualTo(100);
+        assertThat(sketch.estimate("BB")).isEqualTo(1);
+        assertThat(sketch.estimate("AaAa")).isZero();
+        assertThat(sketch.estimate("BBBB")).isZero();
+    }
+}
@@ -0,0 +1,45 @@
+package pipefilter.filter;
+
+import pipefilter.pipe.Pipe;
+
+import static pipefilter.config.Configuration.SENTINEL_VALUE;
+
+/**
+ * A filter that passes words on and fails on the word FAILURE.
+ *
+ * Tests register it to make a run of a pipeline fail half way.
+ */
+public class FailingFilter implements Filter<String, String> {
+
+    public static final String NAME = "failing-filter";
+    public static final String FAILURE = "explode";
+
+    private final Pipe<String> input;
+    private final Pipe<String> output;
+
+    public FailingFilter(Pipe<String> input, Pipe<String> output) {
+        this.input = input;
+        this.output = output;
+    }
+
+    @Override
+    public void filter() {
+        try {
+            String word;
+            while(!(word = input.take()).equals(SENTINEL_VALUE)) {
+                if(word.equals(FAILURE)) {
+                    throw new IllegalStateException("failing filter");
+                }
+                output.put(word);
+            }
+            output.put(SENTINEL_VALUE);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void run() {
+        filter();
+    }
+}
@@ -6,8 +6,6 @@ import pipefilter.TestUtilities;
 import pipefilter.pipe.Pipe;
 import pipefilter.pipe.PipeFactory;
 
-import java.util.concurrent.CountDownLatch;
-
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static pipefilter.config.Configuration.PIPE_CAPACITY;
 import static pipefilter.config.Configuration.SENTINEL_VALUE;
@@ -36,8 +34,7 @@ public class NonAlphaNumericWordRemoverFilterTest {
         /*
          * instantiate the filter
          */
-        final CountDownLatch signal = new CountDownLatch(1);
-        final NonAlphaNumericWordRemover filter = new NonAlphaNumericWordRemover(input, output, signal);
+        final NonAlphaNumericWordRemover filter = new NonAlphaNumericWordRemover(input, output);
         final String[] words = new String[] {
                 "God#101", "god", "101",
                 "se:480", "se", "480",
@@ -6,8 +6,6 @@ import pipefilter.TestUtilities;
 import pipefilter.pipe.Pipe;
 import pipefilter.pipe.PipeFactory;
 
-import java.util.concurrent.CountDownLatch;
-
 import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
 import static pipefilter.config.Configuration.PIPE_CAPACITY;
 import static pipefilter.config.Configuration.SENTINEL_VALUE;
@@ -16,7 +14,6 @@ public class NumericOnlyWordRemoverFilterTest {
 
     private Pipe<String> input;
     private Pipe<String> output;
-    private CountDownLatch signal;
 
     @BeforeEach
     @SuppressWarnings("unchecked")
@@ -30,7 +27,6 @@ public class NumericOnlyWordRemoverFilterTest {
 
         input = (Pipe<String>) PipeFactory.build("java.lang.String", 100);
         output = (Pipe<String>) PipeFactory.build("java.lang.String", 100);
-        signal = new CountDownLatch(1);
     }
 
     @Test
@@ -38,7 +34,7 @@ public class NumericOnlyWordRemoverFilterTest {
         /*
          * instantiate the filter
          */
-        final NumericOnlyWordRemover filter = new NumericOnlyWordRemover(input, output, signal);
+        final NumericOnlyWordRemover filter = new NumericOnlyWordRemover(input, output);
         final String[] words = new String[] {
                 "God101", "god", "101",
                 "se480", "se", "480",
@@ -0,0 +1,78 @@
+package pipefilter.filter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class OffHeapTermCountStoreTest {
+
+    @Test
+    public void storeCountsTerms() {
+        final TermCountStore store = new OffHeapTermCountStore(1024);
+        assertThat(store.increment("happy")).isEqualTo(1);
+        assertThat(store.increment("felt")).isEqualTo(1);
+        assertThat(store.increment("happy")).isEqualTo(2);
+        assertThat(store.increment("Happy")).isEqualTo(1);
+        assertThat(store.count("happy")).isEqualTo(2);
+        assertThat(store.count("sad")).isEqualTo(0);
+        assertThat(store.size()).isEqualTo(3);
+    }
+
+    @Test
+    public void storeKeepsNonAsciiTermsApart() {
+        final TermCountStore store = new OffHeapTermCountStore(1024);
+        store.increment("café");
+        store.increment("cafe");
+        store.increment("café");
+        store.increment("😀");
+        final Map<String, Integer> counts = new HashMap<>();
+        store.forEach(counts::put);
+        assertThat(counts).containsOnly(Map.entry("café", 2), Map.entry("cafe", 1), Map.entry("😀", 1));
+    }
+
+    @Test
+    public void storeGrowsBeyondItsInitialIndexAndSegment() {
+        final TermCountStore store = new OffHeapTermCountStore(4096);
+        for(int round = 1; round <= 2; round++) {
+            for(int i = 0; i < 100_000; i++) {
+                assertThat(store.increment("term" + i)).isEqualTo(round);
+            }
+        }
+        assertThat(store.size()).isEqualTo(100_000);
+        assertThat(store.count("term99999")).isEqualTo(2);
+        store.clear();
+        assertThat(store.size()).isEqualTo(0);
+        assertThat(store.count("term1")).isEqualTo(0);
+        assertThat(store.increment("term1")).isEqualTo(1);
+    }
+
+    @Test
+    public void indexGrowsAcrossSeveralBuffers() {
+        final OffHeapTermCountStore store = new OffHeapTermCountStore(4096, 1 << 10);
+        for(int i = 0; i < 100_000; i++) {
+            store.increment("term" + i);
+        }
+        store.increment("term12345");
+        assertThat(store.slots()).isGreaterThan(1 << 10);
+        assertThat(store.size()).isEqualTo(100_000);
+        assertThat(store.count("term12345")).isEqualTo(2);
+        assertThat(store.count("term99999")).isEqualTo(1);
+        store.clear();
+        assertThat(store.count("term12345")).isEqualTo(0);
+    }
+
+    @Test
+    public void slotOffsetsDoNotOverflowPastTwoToTheTwentySeven() {
+        final int bufferSlots = 1 << 20;
+        final long slot = (1L << 27) + 3;
+        assertThat(slot * 16).isGreaterThan(Integer.MAX_VALUE);
+        assertThat(OffHeapTermCountStore.indexBufferNumber(slot, bufferSlots)).isEqualTo(128);
+        assertThat(OffHeapTermCountStore.indexOffset(slot, bufferSlots)).isEqualTo(3 * 16);
+        final long last = (1L << 31) - 1;
+        assertThat(OffHeapTermCountStore.indexBufferNumber(last, bufferSlots)).isEqualTo(2047);
+        assertThat(OffHeapTermCountStore.indexOffset(last, bufferSlots)).isEqualTo((bufferSlots - 1) * 16);
+    }
+}
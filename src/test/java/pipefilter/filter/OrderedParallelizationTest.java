@@ -0,0 +1,74 @@
+package pipefilter.filter;
+
+import org.junit.jupiter.api.Test;
+import pipefilter.pipe.OrderedLane;
+import pipefilter.pipe.Pipe;
+import pipefilter.pipe.PipeFactory;
+import pipefilter.pipe.WaitStrategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static pipefilter.config.Configuration.SENTINEL_VALUE;
+
+public class OrderedParallelizationTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void orderedLanesPutTheOutputsBackInTheOrderOfTheInputs() throws InterruptedException {
+        final List<String> lines = new ArrayList<>();
+        for(int i = 0; i < 500; i++) {
+            lines.add("line " + i + (i % 3 == 0 ? "" : " has more words " + i) + (i % 7 == 0 ? " and even more" : ""));
+        }
+        final List<String> expected = new ArrayList<>();
+        lines.forEach(line -> expected.addAll(List.of(line.split(" "))));
+
+        final ExecutorService executor = Executors.newCachedThreadPool();
+        final Pipe<String> input = (Pipe<String>) PipeFactory.build("java.lang.String", 1000);
+        final Pipe<String> output = (Pipe<String>) PipeFactory.build("java.lang.String", 10000);
+        final List<Pipe<String>> rotation = new CopyOnWriteArrayList<>();
+        final List<Pipe<String>> outputs = new ArrayList<>();
+        final Serializer serializer = new Serializer(outputs, output, true);
+        /*
+         * Lanes of different speeds, with small pipes
+         */
+        for(int j = 0; j < 3; j++) {
+            final OrderedLane lane = new OrderedLane(2, WaitStrategy.BLOCK, serializer.getSignal());
+            rotation.add(lane.input());
+            outputs.add(lane.output());
+            final long delay = j;
+            executor.submit(() -> {
+                try {
+                    String line;
+                    while(!(line = lane.input().take()).equals(SENTINEL_VALUE)) {
+                        TimeUnit.MICROSECONDS.sleep(100 * delay);
+                        for(String word : line.split(" ")) {
+                            lane.output().put(word);
+                        }
+                    }
+                    lane.output().put(SENTINEL_VALUE);
+                } catch (InterruptedException ignored) {
+                }
+            });
+        }
+        executor.submit(new Parallelizer(input, rotation, true));
+        executor.submit(serializer);
+        for(String line : lines) {
+            input.put(line);
+        }
+        input.put(SENTINEL_VALUE);
+
+        final List<String> words = new ArrayList<>();
+        String word;
+        while(!(word = output.take()).equals(SENTINEL_VALUE)) {
+            words.add(word);
+        }
+        executor.shutdown();
+        assertThat(words).isEqualTo(expected);
+    }
+}
@@ -0,0 +1,130 @@
+package pipefilter.filter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pipefilter.TestUtilities;
+import pipefilter.pipe.Pipe;
+import pipefilter.pipe.PipeFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static pipefilter.config.Configuration.*;
+
+public class SliceFiltersTest {
+
+    private Pipe<String> lines;
+    private Pipe<TokenBatch> tokens;
+    private Pipe<TokenBatch> preprocessed;
+    private Pipe<TokenBatch> filtered;
+    private Pipe<TokenBatch> stemmed;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void init() {
+
+        /*
+         * mock configuration values
+         */
+        SENTINEL_VALUE = "$$$";
+        TOKEN_BATCH_SIZE = 4;
+        STOP_WORDS = new String[] { "a", "is", "the", "to" };
+        STOP_WORDS_FILE = null;
+
+        lines = (Pipe<String>) PipeFactory.build("java.lang.String", 100);
+        tokens = (Pipe<TokenBatch>) PipeFactory.build("pipefilter.filter.TokenBatch", 100);
+        preprocessed = (Pipe<TokenBatch>) PipeFactory.build("pipefilter.filter.TokenBatch", 100);
+        filtered = (Pipe<TokenBatch>) PipeFactory.build("pipefilter.filter.TokenBatch", 100);
+        stemmed = (Pipe<TokenBatch>) PipeFactory.build("pipefilter.filter.TokenBatch", 100);
+    }
+
+    @Test
+    public void tokenizerPutsTheWordsAsSlicesInBatches() throws InterruptedException {
+        TestUtilities.loadArrayIntoPipe(lines, new String[] {
+                "SE480 - Computer Architecture I",
+                "Pipe&Filter Pattern...",
+                " is enough to fill a man's heart.",
+                SENTINEL_VALUE
+        });
+        new SliceTokenizer(lines, tokens).filter();
+        assertThat(drain(tokens)).containsExactly(
+                "SE480", "Computer", "Architecture", "I",
+                "Pipe", "Filter", "Pattern",
+                "is", "enough", "to", "fill", "a", "man", "s", "heart");
+    }
+
+    @Test
+    public void sliceFiltersPreprocessRemoveStopWordsAndStemInPlace() throws InterruptedException {
+        TestUtilities.loadArrayIntoPipe(lines, new String[] {
+                "The Connected 480 connections",
+                "is CONNECTING to_the nodes",
+                SENTINEL_VALUE
+        });
+        new SliceTokenizer(lines, tokens).filter();
+        new SliceTextPreprocessor(tokens, preprocessed).filter();
+        new SliceStopWordRemover(preprocessed, filtered).filter();
+        new SlicePorterStemmer(filtered, stemmed).filter();
+        assertThat(drain(stemmed)).containsExactly("connect", "connect", "connect", "to_th", "node");
+    }
+
+    @Test
+    public void counterPutsTheCountOfEveryTermAtTheEndOfTheStream() throws InterruptedException {
+        /*
+         * 50 lines of 100 words
+         */
+        final List<String> text = new ArrayList<>();
+        for(int line = 0; line < 50; line++) {
+            final StringBuilder sb = new StringBuilder();
+            for(int i = 100 * line; i < 100 * (line + 1); i++) {
+                sb.append("term").append(i % 1500).append(' ');
+            }
+            text.add(sb.toString());
+        }
+        text.add(SENTINEL_VALUE);
+        TestUtilities.loadArrayIntoPipe(lines, text.toArray(new String[0]));
+        final Pipe<TokenBatch> batches = (Pipe<TokenBatch>) PipeFactory.build("pipefilter.filter.TokenBatch", 2000);
+        new SliceTokenizer(lines, batches).filter();
+        final Pipe<TermFrequency> output = (Pipe<TermFrequency>) PipeFactory.build("pipefilter.filter.TermFrequency", 2000);
+        new SliceTermFrequencyCounter(batches, output).filter();
+
+        final Map<String, Integer> frequencies = new HashMap<>();
+        TermFrequency tf;
+        while(!(tf = output.take()).isSentinelValue()) {
+            assertThat(frequencies.put(tf.term, tf.frequency)).isNull();
+        }
+        assertThat(frequencies).hasSize(1500);
+        assertThat(frequencies.get("term0")).isEqualTo(4);
+        assertThat(frequencies.get("term1499")).isEqualTo(3);
+    }
+
+    @Test
+    public void countTableGrowsAndFindsTermsBySlice() {
+        final SliceTermFrequencyCounter.SliceCounts table = new SliceTermFrequencyCounter.SliceCounts();
+        final char[] chars = "xxnodexx".toCharArray();
+        for(int i = 0; i < 3000; i++) {
+            final char[] term = ("t" + i).toCharArray();
+            table.increment(term, 0, term.length);
+        }
+        assertThat(table.increment(chars, 2, 4)).isEqualTo(1);
+        assertThat(table.increment(chars, 2, 4)).isEqualTo(2);
+        assertThat(table.size()).isEqualTo(3001);
+        assertThat(table.count("node")).isEqualTo(2);
+        assertThat(table.count("t2999")).isEqualTo(1);
+        assertThat(table.count("absent")).isZero();
+    }
+
+    private static List<String> drain(Pipe<TokenBatch> pipe) throws InterruptedException {
+        final List<String> result = new ArrayList<>();
+        TokenBatch batch;
+        while(!(batch = pipe.take()).isSentinelValue()) {
+            assertThat(batch.size()).isPositive();
+            for(int t = 0; t < batch.size(); t++) {
+                result.add(batch.token(t));
+            }
+        }
+        return result;
+    }
+}
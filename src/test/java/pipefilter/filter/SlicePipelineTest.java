@@ -0,0 +1,89 @@
+package pipefilter.filter;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pipefilter.pipeline.Pipeline;
+import pipefilter.pipeline.PipelineFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static pipefilter.config.Configuration.PRINT_SUMMARY;
+
+public class SlicePipelineTest {
+
+    private static final String[] STRINGS = new String[] {
+            "text-streamer",
+            "tokenizer",
+            "text-preprocessor",
+            "stop-word-remover",
+            "en-porter-stemmer",
+            "term-frequency-counter",
+            "frequency-term-inverter"
+    };
+
+    private static final String[] SLICES = new String[] {
+            "text-streamer",
+            "slice-tokenizer",
+            "slice-text-preprocessor",
+            "slice-stop-word-remover",
+            "slice-porter-stemmer",
+            "slice-term-frequency-counter",
+            "frequency-term-inverter"
+    };
+
+    @TempDir
+    Path path;
+
+    private String file;
+
+    @BeforeEach
+    public void init() throws IOException {
+        PRINT_SUMMARY = false;
+        final List<String> lines = new ArrayList<>();
+        for(int i = 0; i < 500; i++) {
+            lines.add("Connected connections connect " + i % 5 + " nodes; the node " + (i % 3 == 0 ? "disconnects" : "waits"));
+        }
+        final Path input = path.resolve("slice-pipeline-input.txt");
+        Files.write(input, lines);
+        file = input.toAbsolutePath().toString();
+    }
+
+    @AfterEach
+    public void restoreConfiguration() {
+        PRINT_SUMMARY = true;
+    }
+
+    @Test
+    public void slicePipelineCountsLikeTheStringPipeline() throws InterruptedException {
+        final Map<Integer, TreeSet<String>> expected = run(STRINGS);
+        assertThat(run(SLICES)).isEqualTo(expected);
+    }
+
+    private Map<Integer, TreeSet<String>> run(String[] assembly) throws InterruptedException {
+        final Map<Integer, List<String>> output = new TreeMap<>(Collections.reverseOrder());
+        final Pipeline pipeline = PipelineFactory.build(file, output, assembly, "serial");
+        pipeline.run();
+        pipeline.shutdown();
+        /*
+         * The order of terms within a frequency is not specified.
+         */
+        final Map<Integer, TreeSet<String>> normalized = new TreeMap<>();
+        output.forEach((k, v) -> {
+            if(!v.isEmpty()) {
+                normalized.put(k, new TreeSet<>(v));
+            }
+        });
+        return normalized;
+    }
+}
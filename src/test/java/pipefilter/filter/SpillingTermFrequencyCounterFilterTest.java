@@ -0,0 +1,69 @@
+package pipefilter.filter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pipefilter.TestUtilities;
+import pipefilter.pipe.Pipe;
+import pipefilter.pipe.PipeFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static pipefilter.config.Configuration.*;
+
+public class SpillingTermFrequencyCounterFilterTest {
+    private Pipe<String> input;
+    private Pipe<TermFrequency> output;
+
+    @TempDir
+    Path spillDirectory;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void init() {
+
+        /*
+         * mock configuration values: a table of about two terms
+         */
+        SENTINEL_VALUE = "$$$";
+        SPILL_MEMORY_BUDGET = 2 * SpillingTermFrequencyCounter.ENTRY_OVERHEAD + 10;
+        SPILL_DIRECTORY = spillDirectory.toString();
+
+        input = (Pipe<String>) PipeFactory.build("java.lang.String", 100);
+        output = (Pipe<TermFrequency>) PipeFactory.build("pipefilter.filter.TermFrequency", 100);
+    }
+
+    @Test
+    public void filterMergesTheSpilledRunsIntoTotalCounts() throws InterruptedException, IOException {
+        final String[] words = new String[] {
+                "I", "felt", "happy", "because", "I", "saw",
+                "the", "others", "were", "happy", "and", "because",
+                "I", "knew", "I", "should", "feel", "happy", "but",
+                "I", "was", "not", "really", "happy",
+                SENTINEL_VALUE
+        };
+        final String[] expected = new String[] {
+                "I:5", "and:1", "because:2", "but:1", "feel:1", "felt:1", "happy:4", "knew:1",
+                "not:1", "others:1", "really:1", "saw:1", "should:1", "the:1", "was:1", "were:1"
+        };
+        TestUtilities.loadArrayIntoPipe(input, words);
+        final SpillingTermFrequencyCounter filter = new SpillingTermFrequencyCounter(input, output);
+        filter.filter();
+        final List<String> actual = new ArrayList<>();
+        TermFrequency tf;
+        while(!(tf = output.take()).isSentinelValue()) {
+            actual.add(tf.term + ":" + tf.frequency);
+        }
+        assertThat(actual).containsExactly(expected);
+        assertThat(filter.runs()).isGreaterThan(1);
+        try (Stream<Path> files = Files.list(spillDirectory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+}
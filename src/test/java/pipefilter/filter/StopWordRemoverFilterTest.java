@@ -8,7 +8,6 @@ import pipefilter.pipe.PipeFactory;
 
 import java.util.Arrays;
 import java.util.HashMap;
-import java.util.concurrent.CountDownLatch;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static pipefilter.config.Configuration.*;
@@ -17,7 +16,6 @@ public class StopWordRemoverFilterTest {
 
     private Pipe<String> input;
     private Pipe<String> output;
-    private CountDownLatch signal;
 
     @BeforeEach
     @SuppressWarnings("unchecked")
@@ -35,7 +33,6 @@ public class StopWordRemoverFilterTest {
 
         input = (Pipe<String>) PipeFactory.build("java.lang.String", 100);
         output = (Pipe<String>) PipeFactory.build("java.lang.String", 100);
-        signal = new CountDownLatch(1);
     }
 
     @Test
@@ -57,7 +54,7 @@ public class StopWordRemoverFilterTest {
                 SENTINEL_VALUE
         };
         TestUtilities.loadArrayIntoPipe(input, words);
-        StopWordRemover filter = new StopWordRemover(input, output, signal);
+        StopWordRemover filter = new StopWordRemover(input, output);
         filter.filter();
         final String[] actual = TestUtilities.getPipeContentAsArray(output);
         assertThat(expected).isEqualTo(actual);
@@ -0,0 +1,56 @@
+package pipefilter.filter;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StopWordTrieTest {
+
+    private final StopWordTrie trie = new StopWordTrie(Arrays.asList("a", "an", "and", "The", "can't"));
+
+    @Test
+    public void trieContainsTheWordsOnly() {
+        assertThat(trie.contains("a")).isTrue();
+        assertThat(trie.contains("an")).isTrue();
+        assertThat(trie.contains("and")).isTrue();
+        assertThat(trie.contains("can't")).isTrue();
+        assertThat(trie.contains("")).isFalse();
+        assertThat(trie.contains("th")).isFalse();
+        assertThat(trie.contains("andy")).isFalse();
+        assertThat(trie.contains("cat")).isFalse();
+    }
+
+    @Test
+    public void lookupIsCaseInsensitive() {
+        assertThat(trie.contains("the")).isTrue();
+        assertThat(trie.contains("THE")).isTrue();
+        assertThat(trie.contains("AnD")).isTrue();
+    }
+
+    @Test
+    public void lookupOfACharSlice() {
+        final char[] chars = "xxTheandy".toCharArray();
+        assertThat(trie.contains(chars, 2, 3)).isTrue();
+        assertThat(trie.contains(chars, 5, 3)).isTrue();
+        assertThat(trie.contains(chars, 5, 4)).isFalse();
+        assertThat(trie.contains(chars, 0, 2)).isFalse();
+    }
+
+    @Test
+    public void trieIsLoadedFromAFile(@TempDir Path directory) throws IOException {
+        final Path file = directory.resolve("stopwords.txt");
+        Files.writeString(file, "lorem\nipsum dolor,sit\n\n  amet\n");
+        final StopWordTrie loaded = StopWordTrie.load(file.toString());
+        assertThat(loaded.contains("Lorem")).isTrue();
+        assertThat(loaded.contains("dolor")).isTrue();
+        assertThat(loaded.contains("sit")).isTrue();
+        assertThat(loaded.contains("amet")).isTrue();
+        assertThat(loaded.contains("the")).isFalse();
+    }
+}
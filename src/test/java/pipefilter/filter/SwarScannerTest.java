@@ -0,0 +1,75 @@
+package pipefilter.filter;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SwarScannerTest {
+
+    @Test
+    public void scannerFindsLineEnds() {
+        final byte[] bytes = "the first line\r\nthe cafés\rlast".getBytes(StandardCharsets.UTF_8);
+        assertThat(SwarScanner.indexOfLineEnd(bytes, 0, bytes.length)).isEqualTo(14);
+        assertThat(SwarScanner.indexOfLineEnd(bytes, 16, bytes.length)).isEqualTo(26);
+        assertThat(SwarScanner.indexOfLineEnd(bytes, 27, bytes.length)).isEqualTo(bytes.length);
+        assertThat(SwarScanner.lastIndexOfLineEnd(bytes, 0, bytes.length)).isEqualTo(26);
+        assertThat(SwarScanner.lastIndexOfLineEnd(bytes, 0, 15)).isEqualTo(14);
+        assertThat(SwarScanner.lastIndexOfLineEnd(bytes, 0, 14)).isEqualTo(-1);
+    }
+
+    @Test
+    public void scannerSkipsWordAndNonWordChars() {
+        final byte[] bytes = "SE480_x - Computer,Architecture… café".getBytes(StandardCharsets.UTF_8);
+        assertThat(SwarScanner.skipWordChars(bytes, 0, bytes.length)).isEqualTo(7);
+        assertThat(SwarScanner.skipNonWordChars(bytes, 7, bytes.length)).isEqualTo(10);
+        assertThat(SwarScanner.skipWordChars(bytes, 10, bytes.length)).isEqualTo(18);
+        /*
+         * A non-ASCII byte ends a run of word chars and a run of non-word chars.
+         */
+        assertThat(SwarScanner.skipWordChars(bytes, 19, bytes.length)).isEqualTo(31);
+        assertThat(SwarScanner.skipNonWordChars(bytes, 31, bytes.length)).isEqualTo(31);
+    }
+
+    @Test
+    public void scannerAgreesWithAByteByByteScanOnRandomBytes() {
+        final Random random = new Random(42L);
+        final byte[] alphabet = "aZ09_ \n\r-,.\u007f".getBytes(StandardCharsets.US_ASCII);
+        for(int round = 0; round < 200; round++) {
+            final byte[] bytes = new byte[random.nextInt(40)];
+            for(int i = 0; i < bytes.length; i++) {
+                bytes[i] = random.nextInt(10) == 0 ? (byte) (0x80 | random.nextInt(0x80)) : alphabet[random.nextInt(alphabet.length)];
+            }
+            for(int from = 0; from <= bytes.length; from++) {
+                assertThat(SwarScanner.indexOfLineEnd(bytes, from, bytes.length)).isEqualTo(first(bytes, from, b -> b == '\n' || b == '\r'));
+                assertThat(SwarScanner.skipWordChars(bytes, from, bytes.length)).isEqualTo(first(bytes, from, b -> !SwarScanner.isWordChar(b)));
+                assertThat(SwarScanner.skipNonWordChars(bytes, from, bytes.length)).isEqualTo(first(bytes, from, b -> b < 0 || SwarScanner.isWordChar(b)));
+                assertThat(SwarScanner.lastIndexOfLineEnd(bytes, 0, from)).isEqualTo(last(bytes, from));
+            }
+        }
+    }
+
+    private interface BytePredicate {
+        boolean test(byte b);
+    }
+
+    private static int first(byte[] bytes, int from, BytePredicate predicate) {
+        for(int i = from; i < bytes.length; i++) {
+            if(predicate.test(bytes[i])) {
+                return i;
+            }
+        }
+        return bytes.length;
+    }
+
+    private static int last(byte[] bytes, int to) {
+        for(int i = to - 1; i >= 0; i--) {
+            if(bytes[i] == '\n' || bytes[i] == '\r') {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
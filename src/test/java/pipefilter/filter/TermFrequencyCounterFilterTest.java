@@ -6,16 +6,14 @@ import pipefilter.TestUtilities;
 import pipefilter.pipe.Pipe;
 import pipefilter.pipe.PipeFactory;
 
-import java.util.concurrent.CountDownLatch;
-
 import static org.assertj.core.api.Assertions.assertThat;
 import static pipefilter.config.Configuration.PIPE_CAPACITY;
 import static pipefilter.config.Configuration.SENTINEL_VALUE;
+import static pipefilter.config.Configuration.TERM_COUNT_STORE;
 
 public class TermFrequencyCounterFilterTest {
     private Pipe<String> input;
     private Pipe<TermFrequency> output;
-    private CountDownLatch signal;
 
     @BeforeEach
     @SuppressWarnings("unchecked")
@@ -26,11 +24,17 @@ public class TermFrequencyCounterFilterTest {
          */
         SENTINEL_VALUE = "$$$";
         PIPE_CAPACITY = 40;
+        TERM_COUNT_STORE = "heap";
 
 
         input = (Pipe<String>) PipeFactory.build("java.lang.String", 100);
         output = (Pipe<TermFrequency>) PipeFactory.build("pipefilter.filter.TermFrequency", 100);
-        signal = new CountDownLatch(1);
+    }
+
+    @Test
+    public void filterCountsIncomingWordsOffHeap() {
+        TERM_COUNT_STORE = "off-heap";
+        filterCountsIncomingWords();
     }
 
     @Test
@@ -70,7 +74,7 @@ public class TermFrequencyCounterFilterTest {
                 SENTINEL_VALUE + ":0"
         };
         TestUtilities.loadArrayIntoPipe(input, words);
-        TermFrequencyCounter filter = new TermFrequencyCounter(input, output, signal);
+        TermFrequencyCounter filter = new TermFrequencyCounter(input, output);
         filter.filter();
         final Data[] actualData = TestUtilities.pipeToArrayOfData(output);
         final String[] actual = new String[actualData.length];
@@ -6,8 +6,6 @@ import pipefilter.TestUtilities;
 import pipefilter.pipe.Pipe;
 import pipefilter.pipe.PipeFactory;
 
-import java.util.concurrent.CountDownLatch;
-
 import static org.assertj.core.api.Assertions.assertThat;
 import static pipefilter.config.Configuration.PIPE_CAPACITY;
 import static pipefilter.config.Configuration.SENTINEL_VALUE;
@@ -16,7 +14,6 @@ public class ToLowerCaseTransformerFilterTest {
 
     private Pipe<String> input;
     private Pipe<String> output;
-    private CountDownLatch signal;
 
     @BeforeEach
     @SuppressWarnings("unchecked")
@@ -30,7 +27,6 @@ public class ToLowerCaseTransformerFilterTest {
 
         input = (Pipe<String>) PipeFactory.build("java.lang.String", 100);
         output = (Pipe<String>) PipeFactory.build("java.lang.String", 100);
-        signal = new CountDownLatch(1);
     }
 
     @Test
@@ -50,7 +46,7 @@ public class ToLowerCaseTransformerFilterTest {
                 SENTINEL_VALUE
         };
         TestUtilities.loadArrayIntoPipe(input, words);
-        ToLowerCaseTransformer filter = new ToLowerCaseTransformer(input, output, signal);
+        ToLowerCaseTransformer filter = new ToLowerCaseTransformer(input, output);
         filter.filter();
         final String[] actual = TestUtilities.getPipeContentAsArray(output);
         assertThat(expected).isEqualTo(actual);
@@ -0,0 +1,43 @@
+package pipefilter.filter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TopKTermsTest {
+
+    @Test
+    public void theTermsWithTheHighestRunningCountsAreKept() {
+        final TopKTerms top = new TopKTerms(2);
+        final String[] stream = { "a", "b", "c", "a", "c", "c", "d", "a", "b", "c" };
+        final Map<String, Integer> counts = new HashMap<>();
+        for(String term : stream) {
+            top.offer(term, counts.merge(term, 1, Integer::sum));
+        }
+        final Map<Integer, List<String>> output = new HashMap<>();
+        top.collectInto(output);
+        assertThat(top.size()).isEqualTo(2);
+        assertThat(output).containsOnlyKeys(4, 3);
+        assertThat(output.get(4)).containsExactly("c");
+        assertThat(output.get(3)).containsExactly("a");
+        assertThat(top.threshold()).isEqualTo(3);
+    }
+
+    @Test
+    public void termsBelowTheThresholdAreIgnored() {
+        final TopKTerms top = new TopKTerms(1);
+        top.offer("a", 1);
+        top.offer("a", 2);
+        top.offer("b", 1);
+        top.offer("b", 2);
+        assertThat(top.contains("a")).isTrue();
+        assertThat(top.contains("b")).isFalse();
+        top.offer("b", 3);
+        assertThat(top.contains("a")).isFalse();
+        assertThat(top.contains("b")).isTrue();
+    }
+}
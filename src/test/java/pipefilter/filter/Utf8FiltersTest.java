@@ -0,0 +1,132 @@
+package pipefilter.filter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pipefilter.pipe.Pipe;
+import pipefilter.pipe.PipeFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static pipefilter.config.Configuration.*;
+
+public class Utf8FiltersTest {
+
+    private Pipe<Utf8Batch> lines;
+    private Pipe<Utf8Batch> tokens;
+    private Pipe<Utf8Batch> preprocessed;
+    private Pipe<Utf8Batch> filtered;
+    private Pipe<Utf8Batch> stemmed;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void init() {
+
+        /*
+         * mock configuration values
+         */
+        SENTINEL_VALUE = "$$$";
+        STOP_WORDS = new String[] { "a", "is", "the", "to" };
+        STOP_WORDS_FILE = null;
+
+        lines = (Pipe<Utf8Batch>) PipeFactory.build("pipefilter.filter.Utf8Batch", 100);
+        tokens = (Pipe<Utf8Batch>) PipeFactory.build("pipefilter.filter.Utf8Batch", 100);
+        preprocessed = (Pipe<Utf8Batch>) PipeFactory.build("pipefilter.filter.Utf8Batch", 100);
+        filtered = (Pipe<Utf8Batch>) PipeFactory.build("pipefilter.filter.Utf8Batch", 100);
+        stemmed = (Pipe<Utf8Batch>) PipeFactory.build("pipefilter.filter.Utf8Batch", 100);
+    }
+
+    @Test
+    public void tokenizerFindsTheWordsOfAsciiAndNonAsciiText() throws InterruptedException {
+        put(lines, "SE480 - Computer Architecture I", "the café's crème—brûlée", "Pipe&Filter Pattern...");
+        new Utf8Tokenizer(lines, tokens).filter();
+        assertThat(drain(tokens)).containsExactly(
+                "SE480", "Computer", "Architecture", "I",
+                "the", "café", "s", "crème", "brûlée",
+                "Pipe", "Filter", "Pattern");
+    }
+
+    @Test
+    public void byteFiltersPreprocessRemoveStopWordsAndStemInPlace() throws InterruptedException {
+        put(lines, "The Connected 480 connections café", "is CONNECTING to_the nodes");
+        new Utf8Tokenizer(lines, tokens).filter();
+        new Utf8TextPreprocessor(tokens, preprocessed).filter();
+        new Utf8StopWordRemover(preprocessed, filtered).filter();
+        new Utf8PorterStemmer(filtered, stemmed).filter();
+        assertThat(drain(stemmed)).containsExactly("connect", "connect", "connect", "to_th", "node");
+    }
+
+    @Test
+    public void counterKeepsTheTermsAsBytes() throws InterruptedException {
+        final List<String> text = new ArrayList<>();
+        for(int i = 0; i < 5000; i++) {
+            text.add("term" + (i % 1500) + " naïve");
+        }
+        put(tokens, text.toArray(new String[0]));
+        /*
+         * The lines go straight to the counter through the tokenizer.
+         */
+        final Pipe<Utf8Batch> words = (Pipe<Utf8Batch>) PipeFactory.build("pipefilter.filter.Utf8Batch", 100);
+        new Utf8Tokenizer(tokens, words).filter();
+        final Pipe<TermFrequency> output = (Pipe<TermFrequency>) PipeFactory.build("pipefilter.filter.TermFrequency", 2000);
+        new Utf8TermFrequencyCounter(words, output).filter();
+
+        final Map<String, Integer> frequencies = new HashMap<>();
+        TermFrequency tf;
+        while(!(tf = output.take()).isSentinelValue()) {
+            assertThat(frequencies.put(tf.term, tf.frequency)).isNull();
+        }
+        assertThat(frequencies).hasSize(1501);
+        assertThat(frequencies.get("naïve")).isEqualTo(5000);
+        assertThat(frequencies.get("term0")).isEqualTo(4);
+        assertThat(frequencies.get("term1499")).isEqualTo(3);
+    }
+
+    @Test
+    public void countTableGrowsAndFindsTermsByBytes() {
+        final Utf8TermFrequencyCounter.ByteCounts table = new Utf8TermFrequencyCounter.ByteCounts();
+        for(int i = 0; i < 3000; i++) {
+            final byte[] term = ("t" + i).getBytes(StandardCharsets.UTF_8);
+            table.increment(term, 0, term.length);
+        }
+        final byte[] bytes = "xxnodexx".getBytes(StandardCharsets.UTF_8);
+        assertThat(table.increment(bytes, 2, 4)).isEqualTo(1);
+        assertThat(table.increment(bytes, 2, 4)).isEqualTo(2);
+        assertThat(table.size()).isEqualTo(3001);
+        assertThat(table.count("node")).isEqualTo(2);
+        assertThat(table.count("t2999")).isEqualTo(1);
+        assertThat(table.count("absent")).isZero();
+    }
+
+    /**
+     * Puts the lines as one batch (as the utf8-streamer does), then the sentinel.
+     */
+    private static void put(Pipe<Utf8Batch> pipe, String... text) throws InterruptedException {
+        final byte[] bytes = String.join("\n", text).getBytes(StandardCharsets.UTF_8);
+        final Utf8Batch batch = new Utf8Batch(bytes, bytes.length, text.length);
+        int lineStart = 0;
+        for(int i = 0; i <= bytes.length; i++) {
+            if(i == bytes.length || bytes[i] == '\n') {
+                batch.add(lineStart, i - lineStart);
+                lineStart = i + 1;
+            }
+        }
+        pipe.put(batch);
+        pipe.put(Utf8Batch.sentinel());
+    }
+
+    private static List<String> drain(Pipe<Utf8Batch> pipe) throws InterruptedException {
+        final List<String> result = new ArrayList<>();
+        Utf8Batch batch;
+        while(!(batch = pipe.take()).isSentinelValue()) {
+            for(int t = 0; t < batch.size(); t++) {
+                result.add(batch.slice(t));
+            }
+        }
+        return result;
+    }
+}
@@ -6,7 +6,10 @@ import pipefilter.TestUtilities;
 import pipefilter.pipe.Pipe;
 import pipefilter.pipe.PipeFactory;
 
-import java.util.concurrent.CountDownLatch;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static pipefilter.config.Configuration.PIPE_CAPACITY;
@@ -15,7 +18,6 @@ import static pipefilter.config.Configuration.SENTINEL_VALUE;
 public class WordBoundaryTokenizerFilterTest {
     private Pipe<String> input;
     private Pipe<String> output;
-    private CountDownLatch signal;
 
     @BeforeEach
     @SuppressWarnings("unchecked")
@@ -29,7 +31,6 @@ public class WordBoundaryTokenizerFilterTest {
 
         input = (Pipe<String>) PipeFactory.build("java.lang.String", 100);
         output = (Pipe<String>) PipeFactory.build("java.lang.String", 100);
-        signal = new CountDownLatch(1);
     }
 
     @Test
@@ -51,9 +52,64 @@ public class WordBoundaryTokenizerFilterTest {
                 SENTINEL_VALUE
         };
         TestUtilities.loadArrayIntoPipe(input, lines);
-        WordBoundaryTokenizer filter = new WordBoundaryTokenizer(input, output, signal);
+        WordBoundaryTokenizer filter = new WordBoundaryTokenizer(input, output);
         filter.filter();
         final String[] actual = TestUtilities.getPipeContentAsArray(output);
         assertThat(expected).isEqualTo(actual);
     }
+
+    @Test
+    public void filterSplitsEveryLineLikeTheWordBoundaryRegex() {
+        final String[] lines = new String[] {
+                "",
+                "   ",
+                "snake_case and 42nd street!",
+                "a naïve café; déjà vu",
+                "Ünïcode at the start",
+                "tabs\tand\u00a0spaces ",
+                SENTINEL_VALUE
+        };
+        final List<String> expected = new ArrayList<>();
+        for(int i = 0; i < lines.length - 1; i++) {
+            expected.addAll(Arrays.asList(lines[i].split("\\b")));
+        }
+        expected.add(SENTINEL_VALUE);
+        TestUtilities.loadArrayIntoPipe(input, lines);
+        new WordBoundaryTokenizer(input, output).filter();
+        assertThat(TestUtilities.getPipeContentAsArray(output)).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void filterSplitsEveryAsciiLineLikeTheWordBoundaryRegex() throws InterruptedException {
+        input = (Pipe<String>) PipeFactory.build("java.lang.String", 128);
+        output = (Pipe<String>) PipeFactory.build("java.lang.String", 4096);
+        final Random random = new Random(42);
+        final String[] lines = new String[101];
+        for(int i = 0; i < lines.length - 1; i++) {
+            final char[] chars = new char[random.nextInt(40)];
+            for(int j = 0; j < chars.length; j++) {
+                chars[j] = (char) random.nextInt(0x80);
+            }
+            lines[i] = new String(chars);
+        }
+        lines[lines.length - 1] = SENTINEL_VALUE;
+        final List<String> expected = new ArrayList<>();
+        for(int i = 0; i < lines.length - 1; i++) {
+            expected.addAll(Arrays.asList(lines[i].split("\\b")));
+        }
+        expected.add(SENTINEL_VALUE);
+        TestUtilities.loadArrayIntoPipe(input, lines);
+        new WordBoundaryTokenizer(input, output).filter();
+        /*
+         * The words may contain commas: take them one by one.
+         */
+        final List<String> actual = new ArrayList<>();
+        String word;
+        do {
+            word = output.take();
+            actual.add(word);
+        } while(!word.equals(SENTINEL_VALUE));
+        assertThat(actual).containsExactlyElementsOf(expected);
+    }
 }
@@ -0,0 +1,98 @@
+package pipefilter.pipe;
+
+import org.junit.jupiter.api.Test;
+import pipefilter.exception.PipeFilterException;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class AdaptiveCapacityPipeTest {
+
+    @Test
+    public void pipeGrowsWhenProducerIsStalledByAConsumerThatDoesNotDrain() throws InterruptedException {
+        final PipeCapacityBudget budget = new PipeCapacityBudget(1024);
+        final AdaptiveCapacityPipe<Integer> pipe = new AdaptiveCapacityPipe<>(4, budget);
+        /*
+         * No consumer at all: the producer can only proceed if the pipe grows.
+         */
+        for(int i = 0; i < 100; i++) {
+            pipe.put(i);
+        }
+        assertThat(pipe.capacity()).isGreaterThanOrEqualTo(100);
+        assertThat(budget.available()).isEqualTo(1024 - pipe.capacity());
+        for(int i = 0; i < 100; i++) {
+            assertThat(pipe.take()).isEqualTo(i);
+        }
+    }
+
+    @Test
+    public void pipeNeverGrowsBeyondTheBudget() throws InterruptedException {
+        final PipeCapacityBudget budget = new PipeCapacityBudget(16);
+        final AdaptiveCapacityPipe<Integer> pipe = new AdaptiveCapacityPipe<>(4, budget);
+        final Thread producer = new Thread(() -> {
+            try {
+                for(int i = 0; i < 17; i++) {
+                    pipe.put(i);
+                }
+            } catch (InterruptedException ignored) {
+            }
+        });
+        producer.start();
+        producer.join(500L);
+        /*
+         * The 17th item does not fit into a budget of 16 slots.
+         */
+        assertThat(producer.isAlive()).isTrue();
+        assertThat(pipe.capacity()).isEqualTo(16);
+        assertThat(budget.available()).isZero();
+        pipe.take();
+        producer.join(TimeUnit.SECONDS.toMillis(5));
+        assertThat(producer.isAlive()).isFalse();
+    }
+
+    @Test
+    public void pipeShrinksAndReleasesBudgetWhenSlackIsNotUsed() throws InterruptedException {
+        final PipeCapacityBudget budget = new PipeCapacityBudget(1024);
+        final AdaptiveCapacityPipe<Integer> pipe = new AdaptiveCapacityPipe<>(4, budget);
+        for(int i = 0; i < 256; i++) {
+            pipe.put(i);
+        }
+        for(int i = 0; i < 256; i++) {
+            pipe.take();
+        }
+        final int grown = pipe.capacity();
+        /*
+         * Hand items over one at a time for a few observation windows.
+         */
+        for(int i = 0; i < 4 * AdaptiveCapacityPipe.OBSERVATION_WINDOW; i++) {
+            pipe.put(i);
+            pipe.take();
+        }
+        assertThat(pipe.capacity()).isLessThan(grown);
+        assertThat(budget.available()).isEqualTo(1024 - pipe.capacity());
+    }
+
+    @Test
+    public void pipeNeverOverdrawsTheBudgetForItsInitialCapacity() {
+        final PipeCapacityBudget budget = new PipeCapacityBudget(6);
+        new AdaptiveCapacityPipe<Integer>(4, budget);
+        assertThatThrownBy(() -> new AdaptiveCapacityPipe<Integer>(4, budget))
+                .isInstanceOf(PipeFilterException.class)
+                .hasMessageContaining("budget exhausted");
+        assertThat(budget.available()).isEqualTo(2);
+    }
+
+    @Test
+    public void discardedPipeGivesItsWholeCapacityBack() throws InterruptedException {
+        final PipeCapacityBudget budget = new PipeCapacityBudget(1024);
+        final AdaptiveCapacityPipe<Integer> pipe = new AdaptiveCapacityPipe<>(4, budget);
+        for(int i = 0; i < 100; i++) {
+            pipe.put(i);
+        }
+        assertThat(budget.available()).isLessThan(1024 - 100);
+        PipeFactory.discard(pipe);
+        assertThat(budget.available()).isEqualTo(1024);
+    }
+}
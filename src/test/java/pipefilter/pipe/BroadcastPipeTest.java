@@ -0,0 +1,65 @@
+package pipefilter.pipe;
+
+import org.junit.jupiter.api.Test;
+import pipefilter.exception.PipeFilterException;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BroadcastPipeTest {
+
+    @Test
+    public void everyBranchReceivesEveryItemInOrder() throws InterruptedException {
+        final BroadcastPipe<String> pipe = new BroadcastPipe<>(8, 3);
+        final String item = "shared";
+        pipe.put(item);
+        pipe.put("second");
+        for(int b = 0; b < 3; b++) {
+            /*
+             * The branches share the same object (no copies).
+             */
+            assertThat(pipe.branch(b).take()).isSameAs(item);
+            assertThat(pipe.branch(b).take()).isEqualTo("second");
+            assertThat(pipe.branch(b).poll(10L, TimeUnit.MILLISECONDS)).isNull();
+        }
+    }
+
+    @Test
+    public void producerIsBlockedOnlyByTheSlowestBranch() throws InterruptedException {
+        final BroadcastPipe<Integer> pipe = new BroadcastPipe<>(4, 2);
+        final Thread producer = new Thread(() -> {
+            try {
+                for(int i = 0; i < 5; i++) {
+                    pipe.put(i);
+                }
+            } catch (InterruptedException ignored) {
+            }
+        });
+        producer.start();
+        /*
+         * Branch 0 takes everything that is buffered, branch 1 takes nothing:
+         * the 5th item does not fit.
+         */
+        for(int i = 0; i < 4; i++) {
+            assertThat(pipe.branch(0).take()).isEqualTo(i);
+        }
+        producer.join(300L);
+        assertThat(producer.isAlive()).isTrue();
+        assertThat(pipe.branch(1).take()).isZero();
+        producer.join(TimeUnit.SECONDS.toMillis(5));
+        assertThat(producer.isAlive()).isFalse();
+        assertThat(pipe.branch(0).take()).isEqualTo(4);
+        for(int i = 1; i < 5; i++) {
+            assertThat(pipe.branch(1).take()).isEqualTo(i);
+        }
+    }
+
+    @Test
+    public void itemsAreTakenFromTheBranchesAndPutIntoTheBroadcastPipe() {
+        final BroadcastPipe<String> pipe = new BroadcastPipe<>(8, 2);
+        assertThatThrownBy(pipe::take).isInstanceOf(PipeFilterException.class);
+        assertThatThrownBy(() -> pipe.branch(0).put("x")).isInstanceOf(PipeFilterException.class);
+    }
+}
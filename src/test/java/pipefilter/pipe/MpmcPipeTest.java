@@ -0,0 +1,96 @@
+package pipefilter.pipe;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static pipefilter.config.Configuration.SENTINEL_VALUE;
+
+public class MpmcPipeTest {
+
+    @Test
+    public void everyItemIsTakenByExactlyOneConsumerAndEveryConsumerGetsTheEnd() throws InterruptedException {
+        /*
+         * A small pipe keeps the producer waiting on a full ring.
+         */
+        final MpmcPipe<String> pipe = new MpmcPipe<>(8, SENTINEL_VALUE);
+        final int items = 20_000;
+        final ConcurrentHashMap<String, Boolean> taken = new ConcurrentHashMap<>();
+        final AtomicInteger duplicates = new AtomicInteger();
+        final AtomicInteger ends = new AtomicInteger();
+        final List<Thread> consumers = new ArrayList<>();
+        for(int c = 0; c < 4; c++) {
+            final Thread consumer = new Thread(() -> {
+                try {
+                    String item;
+                    while(!(item = pipe.take()).equals(SENTINEL_VALUE)) {
+                        if(taken.put(item, true) != null) {
+                            duplicates.incrementAndGet();
+                        }
+                    }
+                    ends.incrementAndGet();
+                } catch (InterruptedException ignored) {
+                }
+            });
+            consumer.start();
+            consumers.add(consumer);
+        }
+        for(int i = 0; i < items; i++) {
+            pipe.put("item" + i);
+        }
+        pipe.put(SENTINEL_VALUE);
+        for(Thread consumer : consumers) {
+            consumer.join();
+        }
+        assertThat(taken).hasSize(items);
+        assertThat(duplicates.get()).isZero();
+        assertThat(ends.get()).isEqualTo(4);
+        assertThat(pipe.size()).isZero();
+        assertThat(pipe.getTakeCounter()).isEqualTo(items + 1);
+    }
+
+    @Test
+    public void retiredConsumerGetsTheEndAndTheReopenedPipeFlowsAgain() throws InterruptedException {
+        final MpmcPipe<String> pipe = new MpmcPipe<>(16, SENTINEL_VALUE);
+        pipe.put("a");
+        pipe.retireConsumer();
+        assertThat(pipe.take()).isEqualTo(SENTINEL_VALUE);
+        assertThat(pipe.take()).isEqualTo("a");
+        assertThat(pipe.poll(1L, TimeUnit.MILLISECONDS)).isNull();
+        pipe.put(SENTINEL_VALUE);
+        assertThat(pipe.take()).isEqualTo(SENTINEL_VALUE);
+        assertThat(pipe.take()).isEqualTo(SENTINEL_VALUE);
+        pipe.reopen();
+        pipe.put("b");
+        assertThat(pipe.take()).isEqualTo("b");
+        assertThat(pipe.poll(1L, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    public void mergedStreamEndsAfterTheSentinelValueOfTheLastProducer() throws InterruptedException {
+        final MpmcPipe<String> pipe = new MpmcPipe<>(16, SENTINEL_VALUE);
+        pipe.expectProducers(2);
+        pipe.put("a");
+        pipe.put(SENTINEL_VALUE);
+        assertThat(pipe.addProducer()).isTrue();
+        pipe.put(SENTINEL_VALUE);
+        pipe.put("b");
+        assertThat(pipe.take()).isEqualTo("a");
+        assertThat(pipe.take()).isEqualTo("b");
+        assertThat(pipe.poll(1L, TimeUnit.MILLISECONDS)).isNull();
+        pipe.put(SENTINEL_VALUE);
+        assertThat(pipe.take()).isEqualTo(SENTINEL_VALUE);
+        assertThat(pipe.addProducer()).isFalse();
+        /*
+         * A reopened pipe that is not told otherwise has one producer again.
+         */
+        pipe.reopen();
+        pipe.put(SENTINEL_VALUE);
+        assertThat(pipe.take()).isEqualTo(SENTINEL_VALUE);
+    }
+}
@@ -0,0 +1,84 @@
+package pipefilter.pipe;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static pipefilter.config.Configuration.SENTINEL_VALUE;
+
+public class MpscPipeTest {
+
+    @Test
+    public void everyItemOfEveryProducerIsTakenOnceAndInTheOrderOfItsProducer() throws InterruptedException {
+        /*
+         * A small pipe keeps the producers waiting on a full ring.
+         */
+        final MpscPipe<Integer> pipe = new MpscPipe<>(8);
+        final int producers = 4;
+        final int items = 20_000;
+        final List<Thread> threads = new ArrayList<>();
+        for(int p = 0; p < producers; p++) {
+            final int producer = p;
+            final Thread thread = new Thread(() -> {
+                try {
+                    for(int i = 0; i < items; i++) {
+                        pipe.put(producer * items + i);
+                    }
+                } catch (InterruptedException ignored) {
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        final int[] last = { -1, -1, -1, -1 };
+        for(int n = 0; n < producers * items; n++) {
+            final int item = pipe.take();
+            final int producer = item / items;
+            assertThat(item % items).isEqualTo(last[producer] + 1);
+            last[producer] = item % items;
+        }
+        for(Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(pipe.poll(10L, TimeUnit.MILLISECONDS)).isNull();
+        assertThat(pipe.size()).isZero();
+    }
+
+    @Test
+    public void capacityIsRoundedUpAndAFullPipeRefusesOffers() {
+        final MpscPipe<String> pipe = new MpscPipe<>(5);
+        assertThat(pipe.capacity()).isEqualTo(8);
+        for(int i = 0; i < 8; i++) {
+            assertThat(pipe.offer("item" + i)).isTrue();
+        }
+        assertThat(pipe.offer("one too many")).isFalse();
+        assertThat(pipe.size()).isEqualTo(8);
+    }
+
+    @Test
+    public void mergedStreamEndsAfterTheSentinelValueOfTheLastProducer() throws InterruptedException {
+        final MpscPipe<String> pipe = new MpscPipe<>(16, SENTINEL_VALUE::equals);
+        pipe.expectProducers(2);
+        pipe.put("a");
+        pipe.put(SENTINEL_VALUE);
+        pipe.put("b");
+        assertThat(pipe.addProducer()).isTrue();
+        pipe.put(SENTINEL_VALUE);
+        pipe.put("c");
+        pipe.put(SENTINEL_VALUE);
+        assertThat(pipe.take()).isEqualTo("a");
+        assertThat(pipe.take()).isEqualTo("b");
+        assertThat(pipe.take()).isEqualTo("c");
+        assertThat(pipe.take()).isEqualTo(SENTINEL_VALUE);
+        /*
+         * Too late for another producer, until the next run
+         */
+        assertThat(pipe.addProducer()).isFalse();
+        pipe.expectProducers(1);
+        pipe.put(SENTINEL_VALUE);
+        assertThat(pipe.poll(1L, TimeUnit.SECONDS)).isEqualTo(SENTINEL_VALUE);
+    }
+}
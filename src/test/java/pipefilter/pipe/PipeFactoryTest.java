@@ -2,6 +2,9 @@ package pipefilter.pipe;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 public class PipeFactoryTest {
@@ -18,4 +21,47 @@ public class PipeFactoryTest {
         final String pipeType = "java.lang.String";
         PipeFactory.build(pipeType, 1);
     }
+
+    @Test
+    public void integerPipeIsAPrimitiveIntPipe() throws InterruptedException {
+        final Pipe<?> pipe = PipeFactory.build("java.lang.Integer", 3);
+        assertThat(pipe).isInstanceOf(IntPipe.class);
+        final IntPipe ints = (IntPipe) pipe;
+        /*
+         * wrap around the ring a few times
+         */
+        for(int i = 0; i < 10; i++) {
+            ints.putInt(i);
+            ints.putInt(-i);
+            assertThat(ints.takeInt()).isEqualTo(i);
+            assertThat(ints.takeInt()).isEqualTo(-i);
+        }
+    }
+
+    @Test
+    public void numericPipesArePrimitivePipes() throws InterruptedException {
+        assertThat(PipeFactory.build("java.lang.Long", 1)).isInstanceOf(LongPipe.class);
+        assertThat(PipeFactory.build("java.lang.Integer", 1)).isInstanceOf(IntPipe.class);
+        final DoublePipe doubles = (DoublePipe) PipeFactory.build("java.lang.Double", 2);
+        doubles.putDouble(0.5);
+        doubles.putDouble(-2.25);
+        assertThat(doubles.takeDouble()).isEqualTo(0.5);
+        assertThat(doubles.takeDouble()).isEqualTo(-2.25);
+        assertThatThrownBy(() -> PipeFactory.build("int", 1))
+                .hasMessageContaining("Unknown pipe type");
+    }
+
+    @Test
+    public void numericPipesWrapAroundTheirRingAndTimeOutWhenEmpty() throws InterruptedException {
+        final LongPipe longs = (LongPipe) PipeFactory.build("java.lang.Long", 3);
+        for(long i = 0; i < 10; i++) {
+            longs.putLong(i);
+            longs.putLong(-i);
+            assertThat(longs.takeLong()).isEqualTo(i);
+            assertThat(longs.poll(1L, TimeUnit.MILLISECONDS)).isEqualTo(-i);
+        }
+        assertThat(longs.poll(1L, TimeUnit.MILLISECONDS)).isNull();
+        longs.putLong(42L);
+        assertThat(longs.take()).isEqualTo(42L);
+    }
 }
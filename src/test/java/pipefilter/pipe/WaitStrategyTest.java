@@ -0,0 +1,70 @@
+package pipefilter.pipe;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class WaitStrategyTest {
+
+    @Test
+    public void everyStrategyHandsOverEveryItemInOrder() throws InterruptedException {
+        for(WaitStrategy waitStrategy : WaitStrategy.values()) {
+            /*
+             * Small pipes keep both sides waiting.
+             */
+            final Pipe<?>[] pipes = {
+                    PipeFactory.build("java.lang.String", 2, waitStrategy),
+                    PipeFactory.build("java.lang.Integer", 2, waitStrategy),
+                    new MpscPipe<String>(2, null, waitStrategy),
+                    new MpmcPipe<String>(2, "end", waitStrategy)
+            };
+            for(Pipe<?> pipe : pipes) {
+                @SuppressWarnings("unchecked")
+                final Pipe<Object> objects = (Pipe<Object>) pipe;
+                final boolean ints = pipe instanceof IntPipe;
+                final Thread producer = new Thread(() -> {
+                    try {
+                        for(int i = 0; i < 2_000; i++) {
+                            objects.put(ints ? (Object) i : (Object) ("item" + i));
+                        }
+                    } catch (InterruptedException ignored) {
+                    }
+                });
+                producer.start();
+                for(int i = 0; i < 2_000; i++) {
+                    assertThat(objects.take()).isEqualTo(ints ? (Object) i : (Object) ("item" + i));
+                }
+                producer.join();
+                assertThat(objects.poll(1L, TimeUnit.MILLISECONDS)).isNull();
+            }
+        }
+    }
+
+    @Test
+    public void strategiesAreNamedCaseInsensitively() {
+        assertThat(WaitStrategy.of("spin")).isEqualTo(WaitStrategy.SPIN);
+        assertThat(WaitStrategy.of("Park")).isEqualTo(WaitStrategy.PARK);
+        assertThatThrownBy(() -> WaitStrategy.of("sleep"))
+                .hasMessageContaining("Unknown wait strategy");
+    }
+
+    @Test
+    public void waitingThreadCanBeInterrupted() throws InterruptedException {
+        final Pipe<?> pipe = PipeFactory.build("java.lang.String", 1, WaitStrategy.SPIN);
+        final boolean[] interrupted = { false };
+        final Thread consumer = new Thread(() -> {
+            try {
+                pipe.take();
+            } catch (InterruptedException e) {
+                interrupted[0] = true;
+            }
+        });
+        consumer.start();
+        consumer.interrupt();
+        consumer.join();
+        assertThat(interrupted[0]).isTrue();
+    }
+}
@@ -0,0 +1,98 @@
+package pipefilter.pipeline;
+
+import org.junit.jupiter.api.Test;
+import pipefilter.exception.PipeFilterException;
+import pipefilter.filter.Filter;
+import pipefilter.filter.FilterFactory;
+import pipefilter.filter.TermFrequency;
+import pipefilter.pipe.Pipe;
+import pipefilter.pipe.PipeFactory;
+import pipefilter.sink.SinkFactory;
+
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CompletionTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void aFailingFilterEndsEveryOtherComponentOfTheRun() throws InterruptedException {
+        final ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            final Pipe<String> lines = (Pipe<String>) PipeFactory.build("java.lang.String", 1024);
+            final Pipe<String> words = (Pipe<String>) PipeFactory.build("java.lang.String", 1024);
+            final Pipe<String> stems = (Pipe<String>) PipeFactory.build("java.lang.String", 1024);
+            final Pipe<TermFrequency> counts = (Pipe<TermFrequency>) PipeFactory.build("pipefilter.filter.TermFrequency", 1024);
+            final Completion run = new Completion(executor);
+            run.submit(FilterFactory.build("tokenizer", lines, words));
+            run.submit(new BrokenFilter(words, stems));
+            run.submit(FilterFactory.build("term-frequency-counter", stems, counts));
+            run.submit(SinkFactory.build("frequency-term-inverter", counts, new TreeMap<Integer, List<String>>()));
+            /*
+             * The stream never ends: without the cancellation, the
+             * tokenizer, the counter and the sink would wait forever.
+             */
+            for(int i = 0; i < 100; i++) {
+                lines.put("a line of words " + i);
+            }
+            assertThatThrownBy(run::await)
+                    .isInstanceOf(PipeFilterException.class)
+                    .hasMessageContaining("broken filter");
+            executor.shutdown();
+            assertThat(executor.awaitTermination(5L, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void componentsAddedWhileWaitingAreWaitedFor() throws InterruptedException {
+        final ExecutorService executor = Executors.newCachedThreadPool();
+        final CountDownLatch added = new CountDownLatch(1);
+        try {
+            final Completion run = new Completion(executor);
+            run.submit(() -> {
+                run.submit(added::countDown);
+            });
+            run.await();
+            assertThat(added.getCount()).isEqualTo(0L);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Fails on the first word it takes.
+     */
+    private static class BrokenFilter implements Filter<String, String> {
+
+        private final Pipe<String> input;
+
+        private BrokenFilter(Pipe<String> input, Pipe<String> output) {
+            this.input = input;
+        }
+
+        @Override
+        public void filter() {
+            try {
+                input.take();
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            throw new IllegalStateException("broken filter");
+        }
+
+        @Override
+        public void run() {
+            filter();
+        }
+    }
+}
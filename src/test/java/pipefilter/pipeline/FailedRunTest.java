@@ -0,0 +1,102 @@
+package pipefilter.pipeline;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pipefilter.config.Registry;
+import pipefilter.exception.PipeFilterException;
+import pipefilter.filter.FailingFilter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static pipefilter.config.Configuration.PRINT_SUMMARY;
+
+public class FailedRunTest {
+
+    private static final String[] ASSEMBLY = new String[] {
+            "text-streamer",
+            "tokenizer",
+            FailingFilter.NAME,
+            "text-preprocessor",
+            "term-frequency-counter",
+            "frequency-term-inverter"
+    };
+
+    @TempDir
+    Path path;
+
+    private String failing;
+    private String good;
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void init() throws IOException {
+        PRINT_SUMMARY = false;
+        Registry.registerFilter(FailingFilter.NAME, FailingFilter.class, FailingFilter::new);
+        final List<String> lines = new ArrayList<>();
+        for(int i = 0; i < 1000; i++) {
+            lines.add(i == 500 ? FailingFilter.FAILURE : "Filters pass words " + i % 9);
+        }
+        final Path input = path.resolve("failing-input.txt");
+        Files.write(input, lines);
+        failing = input.toString();
+        final Path other = path.resolve("good-input.txt");
+        Files.write(other, List.of("Words pass filters."));
+        good = other.toString();
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        executor.shutdownNow();
+        Registry.registeredFilters.remove(FailingFilter.NAME);
+        PRINT_SUMMARY = true;
+    }
+
+    @Test
+    public void aFailedRunEndsAllItsComponentsAndThePipelineCannotBeReset() throws InterruptedException {
+        for(String type : new String[] { "serial", "parallel" }) {
+            final Map<Integer, List<String>> output = new TreeMap<>(Collections.reverseOrder());
+            final Pipeline pipeline = PipelineFactory.build(failing, output, ASSEMBLY, type, executor);
+            assertThatThrownBy(pipeline::run)
+                    .isInstanceOf(PipeFilterException.class)
+                    .hasMessageContaining("failing filter");
+            assertThat(activeThreads()).as(type).isEqualTo(0);
+            assertThatThrownBy(() -> pipeline.reset(good))
+                    .isInstanceOf(PipeFilterException.class)
+                    .hasMessageContaining("failed");
+            assertThatThrownBy(pipeline::run)
+                    .isInstanceOf(PipeFilterException.class)
+                    .hasMessageContaining("failed");
+            pipeline.shutdown();
+        }
+    }
+
+    /**
+     * @return the threads of the executor that still run a component
+     */
+    private int activeThreads() throws InterruptedException {
+        final ThreadPoolExecutor pool = (ThreadPoolExecutor) executor;
+        /*
+         * A worker thread counts as active a moment after its component has returned.
+         */
+        for(int i = 0; i < 100 && pool.getActiveCount() > 0; i++) {
+            TimeUnit.MILLISECONDS.sleep(10L);
+        }
+        return pool.getActiveCount();
+    }
+}
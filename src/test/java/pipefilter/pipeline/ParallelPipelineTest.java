@@ -0,0 +1,186 @@
+package pipefilter.pipeline;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pipefilter.config.Parallelism;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static pipefilter.config.Configuration.*;
+import static pipefilter.config.Registry.parallelizable;
+
+public class ParallelPipelineTest {
+
+    private static final String[] ASSEMBLY = new String[] {
+            "text-streamer",
+            "tokenizer",
+            "text-preprocessor",
+            "stop-word-remover",
+            "en-porter-stemmer",
+            "term-frequency-counter",
+            "frequency-term-inverter"
+    };
+
+    @TempDir
+    Path path;
+
+    private String file;
+    private String otherFile;
+
+    @BeforeEach
+    public void init() throws IOException {
+        final List<String> lines = new ArrayList<>();
+        for(int i = 0; i < 2000; i++) {
+            lines.add("The quick brown fox " + i % 7 + " jumps over the lazy dogs; running foxes jumped " + (i % 13 == 0 ? "quickly" : "slowly"));
+        }
+        final Path input = path.resolve("parallel-pipeline-input.txt");
+        Files.write(input, lines);
+        file = input.toAbsolutePath().toString();
+
+        final Path other = path.resolve("parallel-pipeline-other-input.txt");
+        Files.write(other, List.of("Lazy dogs sleep; quick foxes run.", "Dogs bark at foxes."));
+        otherFile = other.toAbsolutePath().toString();
+    }
+
+    @AfterEach
+    public void restoreConfiguration() {
+        PIPE_CAPACITY = 1024;
+        NUMBER_OF_PARALLEL_INSTANCES = 2;
+        PARALLEL_INSTANCES.clear();
+        DYNAMIC_PARALLELISM = false;
+        PARALLELISM_SAMPLING_INTERVAL = 100L;
+        FAN_IN = "serializer";
+        FAN_OUT = "parallelizer";
+        WAIT_STRATEGY = "block";
+        WAIT_STRATEGIES.clear();
+        PRESERVE_ORDER = false;
+    }
+
+    @Test
+    public void parallelPipelineWithPerFilterParallelismCountsLikeTheSerialPipeline() throws InterruptedException {
+        PARALLEL_INSTANCES.put("en-porter-stemmer", 3);
+        PARALLEL_INSTANCES.put("stop-word-remover", 1);
+        assertThat(normalize(run("parallel"))).isEqualTo(normalize(run("serial")));
+    }
+
+    @Test
+    public void parallelPipelineWithDynamicParallelismCountsLikeTheSerialPipeline() throws InterruptedException {
+        DYNAMIC_PARALLELISM = true;
+        PARALLELISM_SAMPLING_INTERVAL = 1L;
+        PIPE_CAPACITY = 4;
+        assertThat(normalize(run("parallel"))).isEqualTo(normalize(run("serial")));
+    }
+
+    @Test
+    public void parallelPipelineWithDirectFanInCountsLikeTheSerialPipeline() throws InterruptedException {
+        FAN_IN = "direct";
+        PARALLEL_INSTANCES.put("en-porter-stemmer", 3);
+        assertThat(normalize(run("parallel"))).isEqualTo(normalize(run("serial")));
+        DYNAMIC_PARALLELISM = true;
+        PARALLELISM_SAMPLING_INTERVAL = 1L;
+        PIPE_CAPACITY = 4;
+        assertThat(normalize(run("parallel"))).isEqualTo(normalize(run("serial")));
+    }
+
+    @Test
+    public void parallelPipelineWithDirectFanOutCountsLikeTheSerialPipeline() throws InterruptedException {
+        FAN_OUT = "direct";
+        PARALLEL_INSTANCES.put("en-porter-stemmer", 3);
+        assertThat(normalize(run("parallel"))).isEqualTo(normalize(run("serial")));
+        FAN_IN = "direct";
+        assertThat(normalize(run("parallel"))).isEqualTo(normalize(run("serial")));
+        DYNAMIC_PARALLELISM = true;
+        PARALLELISM_SAMPLING_INTERVAL = 1L;
+        PIPE_CAPACITY = 4;
+        assertThat(normalize(run("parallel"))).isEqualTo(normalize(run("serial")));
+    }
+
+    @Test
+    public void pipelinesWithOtherWaitStrategiesCountLikeTheBlockingSerialPipeline() throws InterruptedException {
+        final Map<Integer, TreeSet<String>> expected = normalize(run("serial"));
+        WAIT_STRATEGY = "park";
+        WAIT_STRATEGIES.put("en-porter-stemmer", "yield");
+        WAIT_STRATEGIES.put("term-frequency-counter", "spin");
+        assertThat(normalize(run("serial"))).isEqualTo(expected);
+        assertThat(normalize(run("parallel"))).isEqualTo(expected);
+        FAN_IN = "direct";
+        FAN_OUT = "direct";
+        assertThat(normalize(run("parallel"))).isEqualTo(expected);
+    }
+
+    @Test
+    public void orderedParallelPipelineCountsLikeTheSerialPipeline() throws InterruptedException {
+        FAN_IN = "direct";
+        FAN_OUT = "direct";
+        PARALLEL_INSTANCES.put("en-porter-stemmer", 3);
+        parallelizable.put("en-porter-stemmer", Parallelism.ORDERED);
+        try {
+            assertThat(normalize(run("parallel"))).isEqualTo(normalize(run("serial")));
+        } finally {
+            parallelizable.put("en-porter-stemmer", Parallelism.UNORDERED);
+        }
+        PRESERVE_ORDER = true;
+        DYNAMIC_PARALLELISM = true;
+        PARALLELISM_SAMPLING_INTERVAL = 1L;
+        PIPE_CAPACITY = 4;
+        assertThat(normalize(run("parallel"))).isEqualTo(normalize(run("serial")));
+    }
+
+    @Test
+    public void resetPipelineProcessesANewInputLikeANewPipeline() throws InterruptedException {
+        DYNAMIC_PARALLELISM = true;
+        PARALLELISM_SAMPLING_INTERVAL = 1L;
+        for(String type : new String[] { "serial", "parallel", "direct" }) {
+            FAN_IN = type.equals("direct") ? "direct" : "serializer";
+            FAN_OUT = type.equals("direct") ? "direct" : "parallelizer";
+            type = type.equals("direct") ? "parallel" : type;
+            final Map<Integer, TreeSet<String>> expected = normalize(run(type, otherFile));
+            final Map<Integer, List<String>> output = new TreeMap<>(Collections.reverseOrder());
+            final Pipeline pipeline = PipelineFactory.build(file, output, ASSEMBLY, type);
+            pipeline.run();
+            pipeline.reset(otherFile);
+            pipeline.run();
+            assertThat(normalize(output)).isEqualTo(expected);
+            pipeline.reset(file);
+            pipeline.run();
+            pipeline.shutdown();
+            assertThat(normalize(output)).isEqualTo(normalize(run(type, file)));
+        }
+    }
+
+    private Map<Integer, List<String>> run(String type) throws InterruptedException {
+        return run(type, file);
+    }
+
+    private Map<Integer, List<String>> run(String type, String input) throws InterruptedException {
+        final Map<Integer, List<String>> output = new TreeMap<>(Collections.reverseOrder());
+        final Pipeline pipeline = PipelineFactory.build(input, output, ASSEMBLY, type);
+        pipeline.run();
+        pipeline.shutdown();
+        return output;
+    }
+
+    /**
+     * The order of terms within a frequency depends on thread scheduling.
+     */
+    private static Map<Integer, TreeSet<String>> normalize(Map<Integer, List<String>> output) {
+        final Map<Integer, TreeSet<String>> normalized = new TreeMap<>();
+        output.forEach((k, v) -> {
+            if(!v.isEmpty()) {
+                normalized.put(k, new TreeSet<>(v));
+            }
+        });
+        return normalized;
+    }
+}
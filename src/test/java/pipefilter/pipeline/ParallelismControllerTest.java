@@ -0,0 +1,157 @@
+package pipefilter.pipeline;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pipefilter.filter.FilterFactory;
+import pipefilter.filter.Parallelizer;
+import pipefilter.filter.Serializer;
+import pipefilter.pipe.Pipe;
+import pipefilter.pipe.PipeFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static pipefilter.config.Configuration.MAX_PARALLEL_INSTANCES;
+import static pipefilter.config.Configuration.SENTINEL_VALUE;
+
+public class ParallelismControllerTest {
+
+    private static final String FILTER = "text-preprocessor";
+
+    private ExecutorService executor;
+    private Completion run;
+    private Pipe<String> input;
+    private Pipe<String> output;
+    private ParallelStage stage;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void startStage() {
+        MAX_PARALLEL_INSTANCES = 8;
+        executor = Executors.newCachedThreadPool();
+        run = new Completion(executor);
+        input = (Pipe<String>) PipeFactory.build("java.lang.String", 100_000);
+        output = (Pipe<String>) PipeFactory.build("java.lang.String", 100_000);
+        final List<Pipe<String>> rotation = new CopyOnWriteArrayList<>();
+        final Parallelizer parallelizer = new Parallelizer(input, rotation);
+        final Serializer serializer = new Serializer(new ArrayList<>(), output);
+        stage = new ParallelStage(FILTER, parallelizer, rotation, serializer, PipeFactory.newCapacityBudget());
+        for(int j = 0; j < 2; j++) {
+            final Pipe<String> in = (Pipe<String>) PipeFactory.build("java.lang.String", 1024);
+            final Pipe<String> out = (Pipe<String>) PipeFactory.build("java.lang.String", 1024);
+            rotation.add(in);
+            stage.addInitialLane(in, out, FilterFactory.build(FILTER, in, serializer.getSignal().signalOnPut(out)));
+        }
+        stage.start(run);
+        run.submit(parallelizer);
+        run.submit(serializer);
+    }
+
+    @AfterEach
+    public void endStage() throws InterruptedException {
+        try {
+            input.put(SENTINEL_VALUE);
+            stage.close();
+            run.await();
+        } finally {
+            executor.shutdownNow();
+            MAX_PARALLEL_INSTANCES = Runtime.getRuntime().availableProcessors();
+        }
+    }
+
+    @Test
+    public void theControllerAddsLanesWhileTheThroughputGrowsAndRetiresTheLaneThatDoesNotPayOff() throws InterruptedException {
+        final ParallelismController controller = new ParallelismController(List.of(stage));
+        controller.adjust();
+        assertThat(stage.getInstances()).isEqualTo(2);
+
+        flow(100);
+        controller.adjust();
+        assertThat(stage.getInstances()).isEqualTo(3);
+        flow(100);
+        controller.adjust();
+        assertThat(stage.getInstances()).isEqualTo(3);
+        /*
+         * The third lane has paid off: the controller tries a fourth one.
+         */
+        flow(1000);
+        controller.adjust();
+        assertThat(stage.getInstances()).isEqualTo(4);
+        flow(1000);
+        controller.adjust();
+        assertThat(stage.getInstances()).isEqualTo(4);
+        /*
+         * The fourth lane has not: it is retired again.
+         */
+        flow(10);
+        controller.adjust();
+        assertThat(stage.getInstances()).isEqualTo(3);
+    }
+
+    @Test
+    public void aStageNeverRetiresItsLastLane() {
+        assertThat(stage.retireLane()).isTrue();
+        assertThat(stage.getInstances()).isEqualTo(1);
+        assertThat(stage.retireLane()).isFalse();
+        assertThat(stage.getInstances()).isEqualTo(1);
+    }
+
+    @Test
+    public void aStageWhoseStreamHasEndedNeitherAddsNorRetiresLanes() throws InterruptedException {
+        input.put(SENTINEL_VALUE);
+        String word;
+        while(!(word = output.take()).equals(SENTINEL_VALUE)) {
+            assertThat(word).isNotNull();
+        }
+        assertThat(stage.addLane()).isFalse();
+        assertThat(stage.retireLane()).isFalse();
+        assertThat(stage.getInstances()).isEqualTo(2);
+    }
+
+    @Test
+    public void theClimbTurnsBackWhenAnInstanceAddsNoThroughput() {
+        final ParallelismController.Climb climb = new ParallelismController.Climb();
+        assertThat(climb.next(1000L, 2, 4)).isEqualTo(1);
+        assertThat(climb.next(1100L, 3, 4)).isEqualTo(0);
+        assertThat(climb.next(1100L, 3, 4)).isEqualTo(-1);
+        assertThat(climb.next(1000L, 2, 4)).isEqualTo(0);
+        for(int i = 0; i < ParallelismController.HOLD_INTERVALS; i++) {
+            assertThat(climb.next(1000L, 2, 4)).isEqualTo(0);
+        }
+        /*
+         * Then it tries the other way: one instance less costs nothing, so it stays retired.
+         */
+        assertThat(climb.next(1000L, 2, 4)).isEqualTo(-1);
+        assertThat(climb.next(1000L, 1, 4)).isEqualTo(0);
+        assertThat(climb.next(990L, 1, 4)).isEqualTo(0);
+    }
+
+    @Test
+    public void theClimbStopsAtTheMaximumNumberOfInstances() {
+        final ParallelismController.Climb climb = new ParallelismController.Climb();
+        assertThat(climb.next(1000L, 3, 4)).isEqualTo(1);
+        assertThat(climb.next(2000L, 4, 4)).isEqualTo(0);
+        assertThat(climb.next(2000L, 4, 4)).isEqualTo(0);
+    }
+
+    /**
+     * Puts items into the stage and waits for them to come out,
+     * so that every interval takes about the same time.
+     */
+    private void flow(int items) throws InterruptedException {
+        final long start = System.nanoTime();
+        for(int i = 0; i < items; i++) {
+            input.put("word");
+        }
+        for(int i = 0; i < items; i++) {
+            output.take();
+        }
+        TimeUnit.NANOSECONDS.sleep(Math.max(0L, TimeUnit.MILLISECONDS.toNanos(100L) - (System.nanoTime() - start)));
+    }
+}
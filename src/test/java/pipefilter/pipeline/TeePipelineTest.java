@@ -0,0 +1,111 @@
+package pipefilter.pipeline;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static pipefilter.config.Configuration.*;
+
+public class TeePipelineTest {
+
+    private static final String[] ASSEMBLY = new String[] {
+            "text-streamer",
+            "tokenizer",
+            "text-preprocessor",
+            "stop-word-remover",
+            "en-porter-stemmer",
+            "term-frequency-counter",
+            "frequency-term-inverter"
+    };
+
+    private static final String[] TRUNK = new String[] {
+            "text-streamer",
+            "tokenizer",
+            "text-preprocessor",
+            "stop-word-remover",
+            "en-porter-stemmer",
+            "term-frequency-counter"
+    };
+
+    @TempDir
+    Path path;
+
+    private String file;
+
+    @BeforeEach
+    public void init() throws IOException {
+
+        /*
+         * mock configuration values
+         */
+        PRINT_SUMMARY = false;
+        TOP_K = 2;
+        PIPE_CAPACITY = 4;
+
+        final List<String> lines = new ArrayList<>();
+        for(int i = 0; i < 300; i++) {
+            lines.add("Connected connections connect " + i % 5 + " nodes; the node " + (i % 3 == 0 ? "disconnects" : "waits"));
+        }
+        final Path input = path.resolve("tee-pipeline-input.txt");
+        Files.write(input, lines);
+        file = input.toAbsolutePath().toString();
+    }
+
+    @AfterEach
+    public void restoreConfiguration() {
+        PRINT_SUMMARY = true;
+        TOP_K = 500;
+        PIPE_CAPACITY = 1024;
+    }
+
+    @Test
+    public void everyBranchCountsTheWholeStream() throws InterruptedException {
+        final Map<Integer, List<String>> expected = new TreeMap<>(Collections.reverseOrder());
+        final Pipeline linear = PipelineFactory.build(file, expected, ASSEMBLY, "serial");
+        linear.run();
+        linear.shutdown();
+
+        final List<Map<Integer, List<String>>> outputs = List.of(new TreeMap<>(Collections.reverseOrder()), new TreeMap<>(Collections.reverseOrder()));
+        final String[][] branches = { { "frequency-term-inverter" }, { "top-k-term-collector" } };
+        final Pipeline tee = PipelineFactory.build(file, outputs, TRUNK, branches, null);
+        tee.run();
+        tee.shutdown();
+
+        assertThat(normalized(outputs.get(0))).isEqualTo(normalized(expected));
+        /*
+         * "connect" (3 times per line) and "node" (2 times per line)
+         */
+        assertThat(normalized(outputs.get(1))).containsOnlyKeys(900, 600);
+        assertThat(outputs.get(1).get(900)).containsExactly("connect");
+    }
+
+    @Test
+    public void teeWithAMismatchedBranchThrowsPipeFilterException() {
+        final String[][] branches = { { "frequency-term-inverter" }, { "term-id-frequency-inverter" } };
+        assertThatThrownBy(() -> PipelineFactory.build(file, List.of(new TreeMap<>(), new TreeMap<>()), TRUNK, branches, null))
+                .hasMessageContaining("Pipe mismatch");
+    }
+
+    private static Map<Integer, TreeSet<String>> normalized(Map<Integer, List<String>> output) {
+        final Map<Integer, TreeSet<String>> normalized = new TreeMap<>();
+        output.forEach((k, v) -> {
+            if(!v.isEmpty()) {
+                normalized.put(k, new TreeSet<>(v));
+            }
+        });
+        return normalized;
+    }
+}
@@ -0,0 +1,126 @@
+package pipefilter.pipeline;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static pipefilter.config.Configuration.PRINT_SUMMARY;
+
+public class TermIdPipelineTest {
+
+    private static final String[] STRINGS = new String[] {
+            "text-streamer",
+            "tokenizer",
+            "text-preprocessor",
+            "stop-word-remover",
+            "en-porter-stemmer",
+            "term-frequency-counter",
+            "frequency-term-inverter"
+    };
+
+    private static final String[] IDS = new String[] {
+            "text-streamer",
+            "tokenizer",
+            "text-preprocessor",
+            "stop-word-remover",
+            "en-porter-stemmer-term-ids",
+            "term-id-frequency-counter",
+            "term-id-frequency-inverter"
+    };
+
+    private static final String[] BYTES = new String[] {
+            "utf8-streamer",
+            "utf8-tokenizer",
+            "utf8-text-preprocessor",
+            "utf8-stop-word-remover",
+            "utf8-porter-stemmer",
+            "utf8-term-frequency-counter",
+            "frequency-term-inverter"
+    };
+
+    @TempDir
+    Path path;
+
+    private String file;
+
+    @BeforeEach
+    public void init() throws IOException {
+        PRINT_SUMMARY = false;
+        final List<String> lines = new ArrayList<>();
+        for(int i = 0; i < 500; i++) {
+            lines.add("Connected connections connect " + i % 5 + " nodes; the node " + (i % 3 == 0 ? "disconnects" : "waits"));
+        }
+        final Path input = path.resolve("term-id-pipeline-input.txt");
+        Files.write(input, lines);
+        file = input.toAbsolutePath().toString();
+    }
+
+    @AfterEach
+    public void restoreConfiguration() {
+        PRINT_SUMMARY = true;
+    }
+
+    @Test
+    public void termIdPipelineCountsLikeTheStringPipeline() throws InterruptedException {
+        final Map<Integer, TreeSet<String>> expected = run(STRINGS, "serial");
+        assertThat(run(IDS, "serial")).isEqualTo(expected);
+        assertThat(run(IDS, "parallel")).isEqualTo(expected);
+    }
+
+    @Test
+    public void resetTermIdPipelineCountsTheNextInputWithAFreshDictionary() throws IOException, InterruptedException {
+        final Path other = path.resolve("term-id-pipeline-other-input.txt");
+        Files.write(other, List.of("Sleeping dogs lie; connected nodes sleep."));
+        final Map<Integer, TreeSet<String>> expected = run(STRINGS, "serial", other.toString());
+        final Map<Integer, List<String>> output = new TreeMap<>(Collections.reverseOrder());
+        final Pipeline pipeline = PipelineFactory.build(file, output, IDS, "serial");
+        pipeline.run();
+        pipeline.reset(other.toString());
+        pipeline.run();
+        pipeline.shutdown();
+        assertThat(normalize(output)).isEqualTo(expected);
+    }
+
+    @Test
+    public void bytePipelineCountsLikeTheStringPipeline() throws InterruptedException {
+        final Map<Integer, TreeSet<String>> expected = run(STRINGS, "serial");
+        assertThat(run(BYTES, "serial")).isEqualTo(expected);
+    }
+
+    private Map<Integer, TreeSet<String>> run(String[] assembly, String type) throws InterruptedException {
+        return run(assembly, type, file);
+    }
+
+    private Map<Integer, TreeSet<String>> run(String[] assembly, String type, String input) throws InterruptedException {
+        final Map<Integer, List<String>> output = new TreeMap<>(Collections.reverseOrder());
+        final Pipeline pipeline = PipelineFactory.build(input, output, assembly, type);
+        pipeline.run();
+        pipeline.shutdown();
+        return normalize(output);
+    }
+
+    private static Map<Integer, TreeSet<String>> normalize(Map<Integer, List<String>> output) {
+        /*
+         * The order of terms within a frequency is not specified.
+         */
+        final Map<Integer, TreeSet<String>> normalized = new TreeMap<>();
+        output.forEach((k, v) -> {
+            if(!v.isEmpty()) {
+                normalized.put(k, new TreeSet<>(v));
+            }
+        });
+        return normalized;
+    }
+}
@@ -0,0 +1,110 @@
+package pipefilter.pump;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pipefilter.exception.PipeFilterException;
+import pipefilter.pipe.Pipe;
+import pipefilter.pipe.PipeFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static pipefilter.config.Configuration.ASYNC_READ_BUFFERS;
+import static pipefilter.config.Configuration.ASYNC_READ_BUFFER_SIZE;
+import static pipefilter.config.Configuration.SENTINEL_VALUE;
+
+public class AsyncFilePumpTest {
+
+    private static final String TEXT = "the first line\r\nthe second line\rthe café line\n\nthe last line ☕";
+
+    private Pipe<String> output;
+
+    @TempDir
+    Path path;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void init() {
+        /*
+         * mock configuration values: buffers much smaller than a line
+         * split lines, \r\n and multi-byte chars across reads
+         */
+        ASYNC_READ_BUFFERS = 2;
+        ASYNC_READ_BUFFER_SIZE = 8;
+
+        output = (Pipe<String>) PipeFactory.build("java.lang.String", 100_000);
+    }
+
+    @Test
+    public void pumpStreamsTheLinesOfTheFile() throws IOException, InterruptedException {
+        final Path input = path.resolve("async.txt");
+        Files.write(input, TEXT.getBytes(StandardCharsets.UTF_8));
+        new AsyncFilePump(input.toString(), output).pump();
+        assertThat(lines()).containsExactly("the first line", "the second line", "the café line", "", "the last line ☕");
+    }
+
+    @Test
+    public void pumpStreamsTheSameLinesAsTheTextFilePump() throws IOException, InterruptedException {
+        final Random random = new Random(46);
+        final String alphabet = "abcdeé☕ \n";
+        final StringBuilder text = new StringBuilder();
+        for(int c = 0; c < 20_000; c++) {
+            text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        final Path input = path.resolve("random.txt");
+        Files.write(input, text.toString().getBytes(StandardCharsets.UTF_8));
+        for(int buffers = 2; buffers <= 4; buffers++) {
+            ASYNC_READ_BUFFERS = buffers;
+            ASYNC_READ_BUFFER_SIZE = 13 * buffers;
+            new AsyncFilePump(input.toString(), output).pump();
+            final List<String> asyncLines = lines();
+            new TextFilePump(input.toString(), output).pump();
+            assertThat(asyncLines).isEqualTo(lines());
+        }
+    }
+
+    @Test
+    public void pumpCanBeResetToAnotherFile() throws IOException, InterruptedException {
+        final Path first = path.resolve("first.txt");
+        final Path second = path.resolve("second.txt");
+        Files.write(first, "one\n".getBytes(StandardCharsets.UTF_8));
+        Files.write(second, "two\r\nthree\r\n".getBytes(StandardCharsets.UTF_8));
+        final AsyncFilePump pump = new AsyncFilePump(first.toString(), output);
+        pump.pump();
+        assertThat(lines()).containsExactly("one");
+        pump.reset(second.toString());
+        pump.pump();
+        assertThat(lines()).containsExactly("two", "three");
+    }
+
+    @Test
+    public void pumpOfAnEmptyFileOnlyPutsTheSentinel() throws IOException, InterruptedException {
+        final Path input = path.resolve("empty.txt");
+        Files.write(input, new byte[0]);
+        new AsyncFilePump(input.toString(), output).pump();
+        assertThat(lines()).isEmpty();
+    }
+
+    @Test
+    public void pumpOfAMissingFileThrowsPipeFilterException() {
+        assertThatThrownBy(() -> new AsyncFilePump(path.resolve("missing.txt").toString(), output))
+                .isInstanceOf(PipeFilterException.class);
+    }
+
+    private List<String> lines() throws InterruptedException {
+        final List<String> lines = new ArrayList<>();
+        String line;
+        while(!(line = output.take()).equals(SENTINEL_VALUE)) {
+            lines.add(line);
+        }
+        return lines;
+    }
+}
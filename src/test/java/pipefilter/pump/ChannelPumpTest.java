@@ -0,0 +1,91 @@
+package pipefilter.pump;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pipefilter.TestUtilities;
+import pipefilter.exception.PipeFilterException;
+import pipefilter.pipe.Pipe;
+import pipefilter.pipe.PipeFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static pipefilter.config.Configuration.*;
+
+public class ChannelPumpTest {
+
+    private static final String TEXT = "the first line\r\nthe second line\rthe café line\n\nthe last line";
+
+    private Pipe<String> output;
+
+    @TempDir
+    Path path;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void init() {
+        /*
+         * mock configuration values: a buffer much smaller than
+         * a line splits lines and multi-byte chars across reads
+         */
+        SENTINEL_VALUE = "$$$";
+        STREAM_BUFFER_SIZE = 5;
+
+        output = (Pipe<String>) PipeFactory.build("java.lang.String", 10);
+    }
+
+    @Test
+    public void pumpStreamsTheLinesOfANamedPipeOrFile() throws IOException {
+        final Path input = path.resolve("stream.txt");
+        Files.write(input, TEXT.getBytes(StandardCharsets.UTF_8));
+        new ChannelPump(input.toString(), output).pump();
+        assertThat(TestUtilities.getPipeContentAsArray(output)).containsExactly(
+                "the first line", "the second line", "the café line", "", "the last line", SENTINEL_VALUE);
+    }
+
+    @Test
+    public void pumpStreamsTheLinesOfTheStandardInput() {
+        final InputStream standardInput = System.in;
+        try {
+            System.setIn(new ByteArrayInputStream(TEXT.getBytes(StandardCharsets.UTF_8)));
+            new ChannelPump(ChannelPump.STANDARD_INPUT, output).pump();
+        } finally {
+            System.setIn(standardInput);
+        }
+        assertThat(TestUtilities.getPipeContentAsArray(output)).containsExactly(
+                "the first line", "the second line", "the café line", "", "the last line", SENTINEL_VALUE);
+    }
+
+    @Test
+    public void aSourceThatCannotBeReadIsRejected() {
+        assertThatThrownBy(() -> new ChannelPump("/nonexistent/fifo", output))
+                .isInstanceOf(PipeFilterException.class);
+        final ChannelPump pump = new ChannelPump(ChannelPump.STANDARD_INPUT, output);
+        assertThatThrownBy(() -> pump.reset(path.resolve("missing").toString()))
+                .isInstanceOf(PipeFilterException.class);
+    }
+
+    @Test
+    public void theStreamEndsAlsoIfReadingFails() {
+        final InputStream standardInput = System.in;
+        try {
+            System.setIn(new InputStream() {
+                @Override
+                public int read() throws IOException {
+                    throw new IOException("broken stream");
+                }
+            });
+            new ChannelPump(ChannelPump.STANDARD_INPUT, output).pump();
+        } finally {
+            System.setIn(standardInput);
+        }
+        assertThat(TestUtilities.getPipeContentAsArray(output)).containsExactly(SENTINEL_VALUE);
+    }
+}
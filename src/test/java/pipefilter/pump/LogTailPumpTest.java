@@ -0,0 +1,114 @@
+package pipefilter.pump;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pipefilter.pipe.Pipe;
+import pipefilter.pipe.PipeFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static pipefilter.config.Configuration.*;
+
+public class LogTailPumpTest {
+
+    private Pipe<String> output;
+
+    @TempDir
+    Path path;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void init() {
+        /*
+         * mock configuration values
+         */
+        SENTINEL_VALUE = "$$$";
+        STREAM_BUFFER_SIZE = 64;
+        TAIL_POLL_INTERVAL = 5L;
+        TAIL_IDLE_TIMEOUT = 0L;
+
+        output = (Pipe<String>) PipeFactory.build("java.lang.String", 100);
+    }
+
+    @Test
+    public void pumpFollowsTheFileAsItGrowsAndIsRotated() throws IOException, InterruptedException {
+        final Path log = path.resolve("app.log");
+        Files.writeString(log, "first line\nsecond ");
+        final LogTailPump pump = new LogTailPump(log.toString(), output);
+        final Thread thread = new Thread(pump);
+        thread.start();
+
+        assertThat(next()).isEqualTo("first line");
+        /*
+         * the rest of a line that was half written
+         */
+        Files.writeString(log, "line\nthird line\n", StandardOpenOption.APPEND);
+        assertThat(next()).isEqualTo("second line");
+        assertThat(next()).isEqualTo("third line");
+        /*
+         * rotation: the file is renamed and a new one takes its place
+         */
+        Files.move(log, path.resolve("app.log.1"));
+        Files.writeString(log, "after rotation\n");
+        assertThat(next()).isEqualTo("after rotation");
+        /*
+         * truncation in place
+         */
+        Files.writeString(log, "truncated\n", StandardOpenOption.TRUNCATE_EXISTING);
+        assertThat(next()).isEqualTo("truncated");
+
+        pump.stop();
+        thread.join(5000L);
+        assertThat(next()).isEqualTo(SENTINEL_VALUE);
+    }
+
+    @Test
+    public void pumpEndsTheStreamWhenTheFileIsIdle() throws IOException, InterruptedException {
+        TAIL_IDLE_TIMEOUT = 50L;
+        final Path log = path.resolve("idle.log");
+        Files.write(log, List.of("only line"), StandardCharsets.UTF_8);
+        new LogTailPump(log.toString(), output).pump();
+        final List<String> lines = new ArrayList<>();
+        String line;
+        while((line = output.poll(0L, TimeUnit.MILLISECONDS)) != null) {
+            lines.add(line);
+        }
+        assertThat(lines).containsExactly("only line", SENTINEL_VALUE);
+    }
+
+    @Test
+    public void theStreamEndsAlsoIfReadingFails() throws IOException, InterruptedException {
+        /*
+         * A directory can be opened, but not read.
+         */
+        final Path directory = Files.createDirectory(path.resolve("not-a-log"));
+        new LogTailPump(directory.toString(), output).pump();
+        assertThat(next()).isEqualTo(SENTINEL_VALUE);
+    }
+
+    @Test
+    public void aCancelledPumpReturnsWithoutEndingTheStream() throws IOException, InterruptedException {
+        final Path log = path.resolve("cancelled.log");
+        Files.write(log, List.of("only line"), StandardCharsets.UTF_8);
+        final Thread thread = new Thread(new LogTailPump(log.toString(), output));
+        thread.start();
+        assertThat(next()).isEqualTo("only line");
+        thread.interrupt();
+        thread.join(5000L);
+        assertThat(thread.isAlive()).isFalse();
+        assertThat(output.poll(0L, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    private String next() throws InterruptedException {
+        return output.poll(5L, TimeUnit.SECONDS);
+    }
+}
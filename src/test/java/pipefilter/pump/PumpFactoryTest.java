@@ -8,7 +8,6 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Arrays;
-import java.util.concurrent.CountDownLatch;
 
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
@@ -26,8 +25,7 @@ public class PumpFactoryTest {
                 () -> PumpFactory.build(
                         "non-registered-pump",
                         file,
-                        PipeFactory.build("java.lang.String", 1),
-                        new CountDownLatch(1)))
+                        PipeFactory.build("java.lang.String", 1)))
                 .hasMessageContaining("while building pump");
     }
 
@@ -37,8 +35,8 @@ public class PumpFactoryTest {
                 () -> PumpFactory.build(
                         "text-streamer",
                         "non-existent-file.txt",
-                        PipeFactory.build("java.lang.String", 1),
-                        new CountDownLatch(1)))
-                .hasMessageContaining("while building pump");
+                        PipeFactory.build("java.lang.String", 1)))
+                .hasMessageContaining("while building pump")
+                .hasMessageContaining("non-existent-file.txt");
     }
 }
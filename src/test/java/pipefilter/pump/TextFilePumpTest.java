@@ -1,5 +1,6 @@
 package pipefilter.pump;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -8,20 +9,22 @@ import pipefilter.pipe.Pipe;
 import pipefilter.pipe.PipeFactory;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.Arrays;
-import java.util.concurrent.CountDownLatch;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static pipefilter.config.Configuration.PIPE_CAPACITY;
 import static pipefilter.config.Configuration.SENTINEL_VALUE;
+import static pipefilter.config.Configuration.UTF8_CHUNK_SIZE;
 
 public class TextFilePumpTest {
 
     private String file;
     private Pipe<String> output;
-    private CountDownLatch signal;
 
     @TempDir
     Path path;
@@ -51,6 +54,11 @@ public class TextFilePumpTest {
         file = input.toAbsolutePath().toString();
     }
 
+    @AfterEach
+    public void restoreConfiguration() {
+        UTF8_CHUNK_SIZE = 64 * 1024;
+    }
+
     @Test
     public void pumpReadsLinesOfTextFromFileAndStreamsToPipeAndAppendsSentinelValue() {
         final String[] expected = new String[] {
@@ -59,9 +67,48 @@ public class TextFilePumpTest {
                 "the last line",
                 SENTINEL_VALUE
         };
-        TextFilePump pump = new TextFilePump(file, output, signal);
+        TextFilePump pump = new TextFilePump(file, output);
         pump.pump();
         final String[] actual = TestUtilities.getPipeContentAsArray(output);
         assertThat(expected).isEqualTo(actual);
     }
+
+    @Test
+    public void pumpSplitsLinesAtEveryTerminatorAlsoAcrossChunks() throws IOException {
+        UTF8_CHUNK_SIZE = 8;
+        final Path input = path.resolve("terminators.txt");
+        Files.write(input, "ä first\r\nsecond\rthe third line is longer than a chunk\n\nlast".getBytes(StandardCharsets.UTF_8));
+        final String[] expected = new String[] {
+                "ä first",
+                "second",
+                "the third line is longer than a chunk",
+                "",
+                "last",
+                SENTINEL_VALUE
+        };
+        TextFilePump pump = new TextFilePump(input.toString(), output);
+        pump.pump();
+        assertThat(TestUtilities.getPipeContentAsArray(output)).isEqualTo(expected);
+    }
+
+    @Test
+    public void theFileIsOpenedOnlyWhenThePumpRuns() throws IOException {
+        final TextFilePump pump = new TextFilePump(file, output);
+        /*
+         * A file that replaces the one the pump was reset to is the one read.
+         */
+        final Path replacement = path.resolve("replacement.txt");
+        Files.write(replacement, Arrays.asList("a new line"));
+        Files.move(replacement, Paths.get(file), StandardCopyOption.REPLACE_EXISTING);
+        pump.pump();
+        assertThat(TestUtilities.getPipeContentAsArray(output)).containsExactly("a new line", SENTINEL_VALUE);
+    }
+
+    @Test
+    public void theStreamEndsAlsoIfTheFileCannotBeOpened() throws IOException {
+        final TextFilePump pump = new TextFilePump(file, output);
+        Files.delete(Paths.get(file));
+        pump.pump();
+        assertThat(TestUtilities.getPipeContentAsArray(output)).containsExactly(SENTINEL_VALUE);
+    }
 }
@@ -0,0 +1,82 @@
+package pipefilter.pump;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pipefilter.exception.PipeFilterException;
+import pipefilter.filter.Utf8Batch;
+import pipefilter.pipe.Pipe;
+import pipefilter.pipe.PipeFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static pipefilter.config.Configuration.UTF8_CHUNK_SIZE;
+
+public class Utf8FilePumpTest {
+
+    private static final String TEXT = "the first line\r\nthe second line\rthe café line\n\nthe last line";
+
+    private Pipe<Utf8Batch> output;
+
+    @TempDir
+    Path path;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void init() {
+        /*
+         * mock configuration values: a chunk much smaller than a line
+         * splits lines, \r\n and multi-byte chars across reads
+         */
+        UTF8_CHUNK_SIZE = 4;
+
+        output = (Pipe<Utf8Batch>) PipeFactory.build("pipefilter.filter.Utf8Batch", 100);
+    }
+
+    @Test
+    public void pumpStreamsTheLinesAsSlicesOfTheBytes() throws IOException, InterruptedException {
+        final Path input = path.resolve("utf8.txt");
+        Files.write(input, TEXT.getBytes(StandardCharsets.UTF_8));
+        new Utf8FilePump(input.toString(), output).pump();
+        assertThat(lines()).containsExactly("the first line", "the second line", "the café line", "", "the last line");
+    }
+
+    @Test
+    public void pumpCanBeResetToAnotherFile() throws IOException, InterruptedException {
+        UTF8_CHUNK_SIZE = 64 * 1024;
+        final Path first = path.resolve("first.txt");
+        final Path second = path.resolve("second.txt");
+        Files.write(first, "one\n".getBytes(StandardCharsets.UTF_8));
+        Files.write(second, "two\r\nthree\r\n".getBytes(StandardCharsets.UTF_8));
+        final Utf8FilePump pump = new Utf8FilePump(first.toString(), output);
+        pump.pump();
+        assertThat(lines()).containsExactly("one");
+        pump.reset(second.toString());
+        pump.pump();
+        assertThat(lines()).containsExactly("two", "three");
+    }
+
+    @Test
+    public void pumpOfAMissingFileThrowsPipeFilterException() {
+        assertThatThrownBy(() -> new Utf8FilePump(path.resolve("missing.txt").toString(), output))
+                .isInstanceOf(PipeFilterException.class);
+    }
+
+    private List<String> lines() throws InterruptedException {
+        final List<String> lines = new ArrayList<>();
+        Utf8Batch batch;
+        while(!(batch = output.take()).isSentinelValue()) {
+            for(int l = 0; l < batch.size(); l++) {
+                lines.add(batch.slice(l));
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,147 @@
+package pipefilter.server;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pipefilter.config.Registry;
+import pipefilter.exception.PipeFilterException;
+import pipefilter.filter.FailingFilter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static pipefilter.config.Configuration.PRINT_SUMMARY;
+
+public class PipelineServerTest {
+
+    private static final String[] ASSEMBLY = new String[] {
+            "text-streamer",
+            "tokenizer",
+            "text-preprocessor",
+            "stop-word-remover",
+            "en-porter-stemmer",
+            "term-frequency-counter",
+            "frequency-term-inverter"
+    };
+
+    @TempDir
+    Path path;
+
+    private PipelineServer server;
+    private Thread serverThread;
+
+    @BeforeEach
+    public void init() {
+        PRINT_SUMMARY = false;
+        server = new PipelineServer(0, ASSEMBLY, "serial");
+        serverThread = new Thread(server::serve);
+        serverThread.start();
+    }
+
+    @AfterEach
+    public void cleanUp() throws InterruptedException {
+        server.close();
+        serverThread.join(5000L);
+        PRINT_SUMMARY = true;
+    }
+
+    @Test
+    public void serverProcessesSeveralJobsOverOneConnection() throws IOException {
+        final Path first = path.resolve("first.txt");
+        Files.write(first, Arrays.asList("Cats chase mice.", "Mice fear cats, cats sleep."));
+        final Path second = path.resolve("second.txt");
+        Files.write(second, Arrays.asList("Dogs bark. Dogs howl."));
+
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            final PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+            final BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+
+            out.println(first.toAbsolutePath());
+            assertThat(response(in)).containsExactly("3 cat", "2 mice", "1 chase fear sleep");
+
+            out.println(second.toAbsolutePath());
+            assertThat(response(in)).containsExactly("2 dog", "1 bark howl");
+
+            out.println(path.resolve("missing.txt").toAbsolutePath());
+            assertThat(in.readLine()).startsWith(PipelineServer.ERROR);
+
+            out.println(PipelineServer.SHUTDOWN);
+            assertThat(in.readLine()).isEqualTo(PipelineServer.END);
+        }
+    }
+
+    @Test
+    public void aFailedJobLeavesNoComponentThreadsBehind() throws IOException, InterruptedException {
+        Registry.registerFilter(FailingFilter.NAME, FailingFilter.class, FailingFilter::new);
+        final String[] assembly = new String[] {
+                "text-streamer",
+                "tokenizer",
+                FailingFilter.NAME,
+                "text-preprocessor",
+                "term-frequency-counter",
+                "frequency-term-inverter"
+        };
+        final PipelineServer failingServer = new PipelineServer(0, assembly, "serial");
+        try {
+            final List<String> lines = new ArrayList<>();
+            for(int i = 0; i < 1000; i++) {
+                lines.add(i == 500 ? FailingFilter.FAILURE : "Cats chase mice " + i);
+            }
+            final Path failing = path.resolve("failing.txt");
+            Files.write(failing, lines);
+            final Path good = path.resolve("good.txt");
+            Files.write(good, Arrays.asList("Dogs bark. Dogs howl."));
+
+            assertThatThrownBy(() -> failingServer.process(failing.toString()))
+                    .isInstanceOf(PipeFilterException.class)
+                    .hasMessageContaining("failing filter");
+            final ThreadPoolExecutor executor = failingServer.getExecutor();
+            assertThat(activeThreads(executor)).isEqualTo(0);
+            final int threads = executor.getPoolSize();
+
+            assertThat(failingServer.process(good.toString()).get(2)).containsExactly("dogs");
+            assertThat(activeThreads(executor)).isEqualTo(0);
+            assertThat(executor.getPoolSize()).isLessThanOrEqualTo(threads);
+        } finally {
+            failingServer.close();
+            Registry.registeredFilters.remove(FailingFilter.NAME);
+        }
+    }
+
+    /**
+     * @return the threads of the executor that still run a component
+     */
+    private static int activeThreads(ThreadPoolExecutor executor) throws InterruptedException {
+        /*
+         * A worker thread counts as active a moment after its component has returned.
+         */
+        for(int i = 0; i < 100 && executor.getActiveCount() > 0; i++) {
+            TimeUnit.MILLISECONDS.sleep(10L);
+        }
+        return executor.getActiveCount();
+    }
+
+    private static List<String> response(BufferedReader in) throws IOException {
+        final List<String> lines = new ArrayList<>();
+        String line;
+        while(!(line = in.readLine()).equals(PipelineServer.END)) {
+            lines.add(line);
+        }
+        return lines;
+    }
+}
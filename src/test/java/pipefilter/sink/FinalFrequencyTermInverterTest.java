@@ -0,0 +1,69 @@
+package pipefilter.sink;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pipefilter.filter.TermFrequency;
+import pipefilter.pipe.Pipe;
+import pipefilter.pipe.PipeFactory;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeout;
+import static pipefilter.config.Configuration.*;
+
+public class FinalFrequencyTermInverterTest {
+
+    private static final int TERMS = 60_000;
+
+    private Pipe<TermFrequency> input;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void init() {
+
+        /*
+         * mock configuration values
+         */
+        SENTINEL_VALUE = "$$$";
+        PRINT_SUMMARY = false;
+
+        input = (Pipe<TermFrequency>) PipeFactory.build("pipefilter.filter.TermFrequency", TERMS + 1);
+    }
+
+    @Test
+    public void sinkPutsEveryTermUnderItsFinalCount() throws InterruptedException {
+        final String[] counts = { "bird:3", "cat:2", "dog:2", "fish:1", SENTINEL_VALUE + ":0" };
+        for(String count : counts) {
+            final String[] pair = count.split(":");
+            input.put(new TermFrequency(pair[0], Integer.parseInt(pair[1])));
+        }
+        final Map<Integer, List<String>> output = new TreeMap<>(Collections.reverseOrder());
+        SinkFactory.build("final-frequency-term-inverter", input, output).drain();
+        assertThat(output).containsOnlyKeys(3, 2, 1);
+        assertThat(output.get(3)).containsExactly("bird");
+        assertThat(output.get(2)).containsExactly("cat", "dog");
+        assertThat(output.get(1)).containsExactly("fish");
+    }
+
+    @Test
+    public void sinkInvertsManyDistinctTermsInLinearTime() throws InterruptedException {
+        /*
+         * Half of the terms have a count of 2: the FrequencyTermInverter
+         * would search the list of count 1 (30000 terms) for each of them.
+         */
+        for(int i = 0; i < TERMS; i++) {
+            input.put(new TermFrequency("term" + i, i % 2 + 1));
+        }
+        input.put(new TermFrequency(SENTINEL_VALUE, 0));
+        final Map<Integer, List<String>> output = new TreeMap<>(Collections.reverseOrder());
+        assertTimeout(Duration.ofSeconds(1), () -> new FinalFrequencyTermInverter(input, output).drain());
+        assertThat(output).containsOnlyKeys(2, 1);
+        assertThat(output.get(2)).hasSize(TERMS / 2).startsWith("term1", "term3");
+        assertThat(output.get(1)).hasSize(TERMS / 2).startsWith("term0", "term2");
+    }
+}
@@ -4,7 +4,6 @@ import org.junit.jupiter.api.Test;
 import pipefilter.pipe.PipeFactory;
 
 import java.util.HashMap;
-import java.util.concurrent.CountDownLatch;
 
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
@@ -16,8 +15,7 @@ public class SinkFactoryTest {
                 () -> SinkFactory.build(
                         "unknown-sink",
                         PipeFactory.build("java.lang.String", 1),
-                        new HashMap<>(),
-                        new CountDownLatch(1)))
+                        new HashMap<>()))
                 .hasMessageContaining("Sink not found in the registry");
     }
 }
@@ -0,0 +1,103 @@
+package pipefilter.sink;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pipefilter.exception.PipeFilterException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TermFrequencyFileTest {
+
+    @Test
+    public void termsWrittenToTheFileAreFoundInTheMappedFile(@TempDir Path directory) {
+        final Map<String, Integer> termFrequencies = new HashMap<>();
+        for(int i = 0; i < 1000; i++) {
+            termFrequencies.put("term" + i, i + 1);
+        }
+        termFrequencies.put("pipe", 7);
+        termFrequencies.put("piper", 3);
+        termFrequencies.put("pipes", 5);
+        termFrequencies.put("café", 2);
+        final Path file = directory.resolve("term-frequencies.bin");
+        TermFrequencyFile.write(file, termFrequencies);
+
+        final TermFrequencyFile mapped = TermFrequencyFile.open(file);
+        assertThat(mapped.size()).isEqualTo(termFrequencies.size());
+        termFrequencies.forEach((term, frequency) -> assertThat(mapped.frequency(term)).as(term).isEqualTo(frequency));
+        assertThat(mapped.frequency("pip")).isEqualTo(0);
+        assertThat(mapped.frequency("a")).isEqualTo(0);
+        assertThat(mapped.frequency("zzz")).isEqualTo(0);
+        assertThat(mapped.frequency("term5000")).isEqualTo(0);
+    }
+
+    @Test
+    public void anEmptyFileHasNoTerms(@TempDir Path directory) {
+        final Path file = directory.resolve("empty.bin");
+        TermFrequencyFile.write(file, new HashMap<>());
+        final TermFrequencyFile mapped = TermFrequencyFile.open(file);
+        assertThat(mapped.size()).isEqualTo(0);
+        assertThat(mapped.frequency("term")).isEqualTo(0);
+    }
+
+    @Test
+    public void openingAnotherKindOfFileThrowsPipeFilterException(@TempDir Path directory) throws IOException {
+        final Path file = directory.resolve("text.txt");
+        Files.writeString(file, "not a term frequency file");
+        assertThatThrownBy(() -> TermFrequencyFile.open(file))
+                .isInstanceOf(PipeFilterException.class)
+                .hasMessageContaining("Not a term frequency file");
+    }
+
+    @Test
+    public void theBlockSizeIsReadFromTheHeader(@TempDir Path directory) {
+        final Map<String, Integer> termFrequencies = new HashMap<>();
+        for(int i = 0; i < 100; i++) {
+            termFrequencies.put("term" + i, i + 1);
+        }
+        for(int blockSize : new int[] { 1, 5, 100, 1000 }) {
+            final Path file = directory.resolve("blocks-of-" + blockSize + ".bin");
+            TermFrequencyFile.write(file, termFrequencies, blockSize);
+            final TermFrequencyFile mapped = TermFrequencyFile.open(file);
+            termFrequencies.forEach((term, frequency) -> assertThat(mapped.frequency(term)).as(term).isEqualTo(frequency));
+            assertThat(mapped.frequency("term100")).isEqualTo(0);
+        }
+    }
+
+    @Test
+    public void aMappedFileIsQueriedByManyThreadsAtOnce(@TempDir Path directory) throws InterruptedException {
+        final Map<String, Integer> termFrequencies = new HashMap<>();
+        for(int i = 0; i < 1000; i++) {
+            termFrequencies.put("term-" + "x".repeat(i % 97) + i, i + 1);
+        }
+        final Path file = directory.resolve("term-frequencies.bin");
+        TermFrequencyFile.write(file, termFrequencies);
+        final TermFrequencyFile mapped = TermFrequencyFile.open(file);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        final AtomicInteger wrong = new AtomicInteger();
+        for(int t = 0; t < 4; t++) {
+            executor.execute(() -> {
+                for(int round = 0; round < 20; round++) {
+                    termFrequencies.forEach((term, frequency) -> {
+                        if(mapped.frequency(term) != frequency) {
+                            wrong.incrementAndGet();
+                        }
+                    });
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(1L, TimeUnit.MINUTES)).isTrue();
+        assertThat(wrong.get()).isEqualTo(0);
+    }
+}
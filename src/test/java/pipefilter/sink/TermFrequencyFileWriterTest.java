@@ -0,0 +1,85 @@
+package pipefilter.sink;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pipefilter.pipeline.Pipeline;
+import pipefilter.pipeline.PipelineFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static pipefilter.config.Configuration.PRINT_SUMMARY;
+import static pipefilter.config.Configuration.TERM_FREQUENCY_FILE;
+
+public class TermFrequencyFileWriterTest {
+
+    private static final String[] ASSEMBLY = new String[] {
+            "text-streamer",
+            "tokenizer",
+            "text-preprocessor",
+            "stop-word-remover",
+            "en-porter-stemmer",
+            "term-frequency-counter",
+            "term-frequency-file-writer"
+    };
+
+    @TempDir
+    Path path;
+
+    private String file;
+
+    @BeforeEach
+    public void init() throws IOException {
+        PRINT_SUMMARY = false;
+        TERM_FREQUENCY_FILE = path.resolve("term-frequencies.bin").toString();
+        final List<String> lines = new ArrayList<>();
+        for(int i = 0; i < 300; i++) {
+            lines.add("Pipes connect filters " + i % 11 + "; the filters " + (i % 4 == 0 ? "stream" : "count") + " terms.");
+        }
+        final Path input = path.resolve("term-frequency-file-writer-input.txt");
+        Files.write(input, lines);
+        file = input.toString();
+    }
+
+    @AfterEach
+    public void restoreConfiguration() {
+        PRINT_SUMMARY = true;
+        TERM_FREQUENCY_FILE = "term-frequencies.bin";
+    }
+
+    @Test
+    public void theSinkOfAPipelineWritesTheCountsOfTheRunToTheFile() throws InterruptedException {
+        final Map<Integer, List<String>> output = new TreeMap<>(Collections.reverseOrder());
+        final Pipeline pipeline = PipelineFactory.build(file, output, ASSEMBLY, "serial");
+        pipeline.run();
+        pipeline.shutdown();
+
+        final String[] inverter = ASSEMBLY.clone();
+        inverter[inverter.length - 1] = "frequency-term-inverter";
+        final Map<Integer, List<String>> expected = new TreeMap<>(Collections.reverseOrder());
+        final Pipeline reference = PipelineFactory.build(file, expected, inverter, "serial");
+        reference.run();
+        reference.shutdown();
+
+        final TermFrequencyFile mapped = TermFrequencyFile.open(Path.of(TERM_FREQUENCY_FILE));
+        int terms = 0;
+        for(Map.Entry<Integer, List<String>> entry : expected.entrySet()) {
+            for(String term : entry.getValue()) {
+                assertThat(mapped.frequency(term)).as(term).isEqualTo(entry.getKey());
+                terms++;
+            }
+        }
+        assertThat(terms).isGreaterThan(0);
+        assertThat(mapped.size()).isEqualTo(terms);
+        assertThat(mapped.frequency("pipes")).isEqualTo(0);
+    }
+}
@@ -0,0 +1,48 @@
+package pipefilter.sink;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pipefilter.filter.TermFrequency;
+import pipefilter.pipe.Pipe;
+import pipefilter.pipe.PipeFactory;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static pipefilter.config.Configuration.*;
+
+public class TopKTermCollectorTest {
+
+    private Pipe<TermFrequency> input;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void init() {
+
+        /*
+         * mock configuration values
+         */
+        SENTINEL_VALUE = "$$$";
+        TOP_K = 2;
+        PRINT_SUMMARY = false;
+
+        input = (Pipe<TermFrequency>) PipeFactory.build("pipefilter.filter.TermFrequency", 100);
+    }
+
+    @Test
+    public void sinkKeepsTheTopKTerms() throws InterruptedException {
+        final String[] counts = { "dog:1", "cat:1", "dog:2", "bird:1", "bird:2", "bird:3", "cat:2", SENTINEL_VALUE + ":0" };
+        for(String count : counts) {
+            final String[] pair = count.split(":");
+            input.put(new TermFrequency(pair[0], Integer.parseInt(pair[1])));
+        }
+        final Map<Integer, List<String>> output = new TreeMap<>(Collections.reverseOrder());
+        new TopKTermCollector(input, output).drain();
+        assertThat(output).containsOnlyKeys(3, 2);
+        assertThat(output.get(3)).containsExactly("bird");
+        assertThat(output.get(2)).containsExactly("dog");
+    }
+}
@@ -0,0 +1,96 @@
+package pipefilter.sink;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pipefilter.exception.PipeFilterException;
+import pipefilter.pipe.Pipe;
+import pipefilter.pipe.PipeFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static pipefilter.config.Configuration.*;
+
+public class WindowedTermCounterTest {
+
+    /**
+     * arrival time (ms) and term
+     */
+    private static final Object[][] STREAM = {
+            { 0L, "a" }, { 1L, "a" }, { 5L, "b" }, { 12L, "b" }, { 15L, "c" }, { 31L, "a" }
+    };
+
+    private Pipe<String> input;
+    private final Map<Integer, List<String>> output = new TreeMap<>(Collections.reverseOrder());
+    private final List<String> windows = new ArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void init() throws InterruptedException {
+
+        /*
+         * mock configuration values
+         */
+        SENTINEL_VALUE = "$$$";
+        WINDOW_TOP_K = 10;
+        WINDOW_PANE_CAPACITY = 100;
+
+        input = (Pipe<String>) PipeFactory.build("java.lang.String", 100);
+        for(Object[] item : STREAM) {
+            input.put((String) item[1]);
+        }
+        input.put(SENTINEL_VALUE);
+    }
+
+    @Test
+    public void tumblingWindowsAreReportedAsTheyClose() {
+        WINDOW_SIZE = 10L;
+        WINDOW_SLIDE = 10L;
+        drain();
+        assertThat(windows).containsExactly("0: {2=[a], 1=[b]}", "10: {1=[b, c]}", "30: {1=[a]}");
+        assertThat(output).containsOnly(Map.entry(1, List.of("a")));
+    }
+
+    @Test
+    public void slidingWindowsOverlap() {
+        WINDOW_SIZE = 20L;
+        WINDOW_SLIDE = 10L;
+        drain();
+        assertThat(windows).containsExactly("-10: {2=[a], 1=[b]}", "0: {2=[a, b], 1=[c]}", "10: {1=[b, c]}", "20: {1=[a]}");
+    }
+
+    @Test
+    public void aWindowThatSlidesByMoreThanItsLengthIsRejected() {
+        WINDOW_SIZE = 10L;
+        WINDOW_SLIDE = 20L;
+        assertThatThrownBy(() -> new WindowedTermCounter(input, output))
+                .isInstanceOf(PipeFilterException.class)
+                .hasMessageContaining("cannot slide");
+    }
+
+    private void drain() {
+        final WindowedTermCounter sink = new WindowedTermCounter(input, output);
+        /*
+         * The clock is read once per item taken from the pipe. The
+         * sentinel arrives 1 ms after the last term.
+         */
+        final Queue<Long> times = new ArrayDeque<>();
+        for(Object[] item : STREAM) {
+            times.add((Long) item[0]);
+        }
+        times.add((Long) STREAM[STREAM.length - 1][0] + 1);
+        sink.clock = times::poll;
+        sink.windowListener = (start, window) -> {
+            window.values().forEach(Collections::sort);
+            windows.add(start + ": " + window);
+        };
+        sink.drain();
+    }
+}